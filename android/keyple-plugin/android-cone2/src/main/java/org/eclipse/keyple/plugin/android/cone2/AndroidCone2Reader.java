@@ -99,6 +99,17 @@ public final class AndroidCone2Reader extends AbstractThreadedLocalReader {
         return instance;
     }
 
+    /**
+     * The card presence is discovered by the blocking waitForCardPresent and waitForCardAbsent
+     * methods
+     *
+     * @return {@link MonitoringMode#DEDICATED_THREAD}
+     */
+    @Override
+    protected MonitoringMode getMonitoringMode() {
+        return MonitoringMode.DEDICATED_THREAD;
+    }
+
     @Override
     protected boolean waitForCardPresent(long timeout) {
         LOG.debug("waitForCardPresent");
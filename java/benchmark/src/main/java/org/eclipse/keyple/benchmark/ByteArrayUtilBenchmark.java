@@ -0,0 +1,55 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Hexadecimal conversions of {@link ByteArrayUtil}, used by the logs, the stub SEs and the remote
+ * SE messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteArrayUtilBenchmark {
+
+    /* a 29 bytes record followed by a status word */
+    private static final String HEX_RESPONSE =
+            "00112233445566778899AABBCCDDEEFF00112233445566778899AABB009000";
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = ByteArrayUtil.fromHex(HEX_RESPONSE);
+    }
+
+    @Benchmark
+    public String toHex() {
+        return ByteArrayUtil.toHex(response);
+    }
+
+    @Benchmark
+    public byte[] fromHex() {
+        return ByteArrayUtil.fromHex(HEX_RESPONSE);
+    }
+
+    @Benchmark
+    public int threeBytesToInt() {
+        return ByteArrayUtil.threeBytesToInt(response, 3);
+    }
+}
@@ -0,0 +1,94 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.calypso.command.sam.builder.security.DigestUpdateCmdBuild;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Building of Calypso commands and parsing of their responses, without any reader.
+ * <p>
+ * Run with the gc profiler to get the allocation per built command and per parsed response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalypsoCommandBenchmark {
+
+    private ApduResponse singleRecordResponse;
+    private ApduResponse multipleRecordsResponse;
+    private ApduResponse countersResponse;
+    private byte[] digestData;
+
+    @Setup
+    public void setUp() {
+        singleRecordResponse = new ApduResponse(ByteArrayUtil
+                .fromHex("00112233445566778899AABBCCDDEEFF00112233445566778899AABB009000"),
+                null);
+        multipleRecordsResponse = new ApduResponse(
+                ByteArrayUtil.fromHex("01080011223344556677 02080011223344556677 "
+                        + "03080011223344556677 9000"),
+                null);
+        countersResponse =
+                new ApduResponse(ByteArrayUtil.fromHex("000001 000002 000003 000004 9000"), null);
+        digestData = ByteArrayUtil
+                .fromHex("00112233445566778899AABBCCDDEEFF00112233445566778899AABB009000");
+    }
+
+    @Benchmark
+    public SortedMap<Integer, byte[]> parseSingleRecord() {
+        return new ReadRecordsRespPars(singleRecordResponse, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 1).getRecords();
+    }
+
+    @Benchmark
+    public SortedMap<Integer, byte[]> parseMultipleRecords() {
+        return new ReadRecordsRespPars(multipleRecordsResponse,
+                ReadDataStructure.MULTIPLE_RECORD_DATA, (byte) 1).getRecords();
+    }
+
+    @Benchmark
+    public SortedMap<Integer, Integer> parseCounters() {
+        return new ReadRecordsRespPars(countersResponse, ReadDataStructure.MULTIPLE_COUNTER,
+                (byte) 1).getCounters();
+    }
+
+    @Benchmark
+    public int statusCode() {
+        return multipleRecordsResponse.getStatusCode();
+    }
+
+    @Benchmark
+    public ApduRequest buildReadRecords() {
+        return new ReadRecordsCmdBuild(PoClass.ISO, (byte) 0x08,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 1, true, (byte) 0x1D, null)
+                        .getApduRequest();
+    }
+
+    @Benchmark
+    public ApduRequest buildDigestUpdate() {
+        return new DigestUpdateCmdBuild(SamRevision.C1, false, digestData).getApduRequest();
+    }
+}
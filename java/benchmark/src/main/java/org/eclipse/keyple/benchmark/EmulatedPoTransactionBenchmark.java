@@ -0,0 +1,139 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.benchmark.stub.BenchmarkReaders;
+import org.eclipse.keyple.benchmark.stub.BenchmarkStubPo;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubCalypsoPo;
+import org.eclipse.keyple.plugin.stub.StubCalypsoSam;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Complete Calypso validation with modifications, operated with the emulated {@link StubCalypsoPo}
+ * and {@link StubCalypsoSam}: PO selection, secure session opening with the reading of the
+ * counters, then a debit, the appending of an event log record and the session closing.
+ * <p>
+ * Unlike {@link PoTransactionBenchmark}, the session signatures are computed from the actual
+ * exchanges, a digest regression makes the benchmark fail.
+ * <p>
+ * Each thread operates its own pair of PO/SAM stub readers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmulatedPoTransactionBenchmark {
+
+    private static final byte KIF_DEBIT = (byte) 0x30;
+    private static final byte KVC = (byte) 0x79;
+    private static final byte[] MASTER_KEY =
+            ByteArrayUtil.fromHex("00112233445566778899AABBCCDDEEFF");
+    private static final byte SFI_COUNTERS = (byte) 0x19;
+    private static final int RECORD_SIZE = 29;
+    private static final int INITIAL_BALANCE = 0xFFFFFF;
+
+    private static final AtomicInteger readerIndex = new AtomicInteger();
+
+    @Param({"false", "true"})
+    public boolean digestUpdateMultiple;
+
+    @Param({"false", "true"})
+    public boolean digestPipelining;
+
+    private String poReaderName;
+    private String samReaderName;
+    private StubCalypsoPo po;
+    private StubReader poReader;
+    private SamResource samResource;
+    private SeSelection seSelection;
+    private SecuritySettings securitySettings;
+    private final byte[] event = new byte[RECORD_SIZE];
+
+    @Setup
+    public void setUp() throws KeypleBaseException {
+        int index = readerIndex.incrementAndGet();
+        poReaderName = "EmulatedPoTransactionBenchmark-PO-" + index;
+        samReaderName = "EmulatedPoTransactionBenchmark-SAM-" + index;
+
+        po = new StubCalypsoPo(ByteArrayUtil.fromHex(BenchmarkStubPo.AID),
+                ByteArrayUtil.fromHex(String.format("00000000%08X", index)));
+        po.setKey(3, KIF_DEBIT, KVC, MASTER_KEY);
+        po.addFile(BenchmarkStubPo.SFI_EVENT_LOG, StubCalypsoPo.FileType.CYCLIC, 3, RECORD_SIZE);
+        po.addFile(SFI_COUNTERS, StubCalypsoPo.FileType.COUNTERS, 1, 3);
+
+        StubCalypsoSam sam = new StubCalypsoSam(ByteArrayUtil.fromHex("12345678"));
+        sam.addKey(KIF_DEBIT, KVC, MASTER_KEY);
+
+        poReader = BenchmarkReaders.plugPoReader(poReaderName, po);
+        samResource = BenchmarkReaders
+                .selectSam(BenchmarkReaders.plugSamReader(samReaderName, sam));
+        seSelection = BenchmarkReaders.poSelection(ChannelState.KEEP_OPEN);
+        securitySettings = new SecuritySettings();
+        securitySettings.setDigestUpdateMultipleAllowed(digestUpdateMultiple);
+        securitySettings.setDigestPipeliningAllowed(digestPipelining);
+    }
+
+    /**
+     * Reloads the balance and the transaction counter, decreased at each validation
+     */
+    @Setup(Level.Iteration)
+    public void reload() {
+        po.setCounterValue(SFI_COUNTERS, 1, INITIAL_BALANCE);
+        po.setTransactionCounter(0xFFFFFF);
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleBaseException {
+        BenchmarkReaders.unplugReader(poReaderName);
+        BenchmarkReaders.unplugReader(samReaderName);
+    }
+
+    @Benchmark
+    public boolean validation() throws KeypleBaseException {
+        CalypsoPo calypsoPo = (CalypsoPo) seSelection.processExplicitSelection(poReader)
+                .getActiveSelection().getMatchingSe();
+
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, securitySettings);
+
+        poTransaction.prepareReadRecordsCmd(SFI_COUNTERS, ReadDataStructure.SINGLE_COUNTER,
+                (byte) 1, "Counters");
+
+        if (!poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0, (byte) 0)) {
+            throw new IllegalStateException("Session opening failed.");
+        }
+
+        event[0]++;
+        poTransaction.prepareDecreaseCmd(SFI_COUNTERS, (byte) 1, 1, "Debit");
+        poTransaction.prepareAppendRecordCmd(BenchmarkStubPo.SFI_EVENT_LOG, event, "EventLog");
+
+        if (!poTransaction.processClosing(ChannelState.KEEP_OPEN)) {
+            throw new IllegalStateException("Session closing failed.");
+        }
+        if (!poTransaction.isSuccessful()) {
+            throw new IllegalStateException("PO authentication failed.");
+        }
+        return true;
+    }
+}
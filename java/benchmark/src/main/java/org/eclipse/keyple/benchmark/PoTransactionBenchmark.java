@@ -0,0 +1,94 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.benchmark.stub.BenchmarkReaders;
+import org.eclipse.keyple.benchmark.stub.BenchmarkStubPo;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Complete Calypso validation: PO selection, secure session opening with the reading of one
+ * record, and session closing with the SAM digest and signature checks.
+ * <p>
+ * Each thread operates its own pair of PO/SAM stub readers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoTransactionBenchmark {
+
+    private static final AtomicInteger readerIndex = new AtomicInteger();
+
+    @Param({"false", "true"})
+    public boolean digestUpdateMultiple;
+
+    @Param({"false", "true"})
+    public boolean digestPipelining;
+
+    private String poReaderName;
+    private String samReaderName;
+    private StubReader poReader;
+    private SamResource samResource;
+    private SeSelection seSelection;
+    private SecuritySettings securitySettings;
+
+    @Setup
+    public void setUp() throws KeypleBaseException {
+        int index = readerIndex.incrementAndGet();
+        poReaderName = "PoTransactionBenchmark-PO-" + index;
+        samReaderName = "PoTransactionBenchmark-SAM-" + index;
+        poReader = BenchmarkReaders.plugPoReader(poReaderName);
+        samResource = BenchmarkReaders.selectSam(BenchmarkReaders.plugSamReader(samReaderName));
+        seSelection = BenchmarkReaders.poSelection(ChannelState.KEEP_OPEN);
+        securitySettings = new SecuritySettings();
+        securitySettings.setDigestUpdateMultipleAllowed(digestUpdateMultiple);
+        securitySettings.setDigestPipeliningAllowed(digestPipelining);
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleBaseException {
+        BenchmarkReaders.unplugReader(poReaderName);
+        BenchmarkReaders.unplugReader(samReaderName);
+    }
+
+    @Benchmark
+    public boolean validation() throws KeypleBaseException {
+        CalypsoPo calypsoPo = (CalypsoPo) seSelection.processExplicitSelection(poReader)
+                .getActiveSelection().getMatchingSe();
+
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, securitySettings);
+
+        poTransaction.prepareReadRecordsCmd(BenchmarkStubPo.SFI_EVENT_LOG,
+                ReadDataStructure.SINGLE_RECORD_DATA, BenchmarkStubPo.RECORD_NUMBER_1, "EventLog");
+
+        if (!poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0, (byte) 0)) {
+            throw new IllegalStateException("Session opening failed.");
+        }
+        if (!poTransaction.processClosing(ChannelState.KEEP_OPEN)) {
+            throw new IllegalStateException("Session closing failed.");
+        }
+        return poTransaction.isSuccessful();
+    }
+}
@@ -0,0 +1,81 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.benchmark.stub.BenchmarkReaders;
+import org.eclipse.keyple.benchmark.stub.BenchmarkStubPo;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Processing of a request set (AID selection and Read Record) by
+ * {@code AbstractLocalReader.processSeRequestSet}, through a {@link StubReader}.
+ * <p>
+ * With KEEP_OPEN the application stays selected between two invocations, with CLOSE_AFTER each
+ * invocation opens the physical channel and selects the application again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+    private static final AtomicInteger readerIndex = new AtomicInteger();
+
+    @Param({"KEEP_OPEN", "CLOSE_AFTER"})
+    public ChannelState channelState;
+
+    private String readerName;
+    private StubReader poReader;
+    private SeRequestSet seRequestSet;
+
+    @Setup
+    public void setUp() throws KeypleBaseException {
+        readerName = "ReaderBenchmark-" + readerIndex.incrementAndGet();
+        poReader = BenchmarkReaders.plugPoReader(readerName);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ReadRecordsCmdBuild(PoClass.ISO, BenchmarkStubPo.SFI_EVENT_LOG,
+                ReadDataStructure.SINGLE_RECORD_DATA, BenchmarkStubPo.RECORD_NUMBER_1, true,
+                (byte) 0x00, null).getApduRequest());
+        seRequestSet = new SeRequestSet(new SeRequest(
+                new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new SeSelector.AidSelector(
+                                new SeSelector.AidSelector.IsoAid(BenchmarkStubPo.AID), null),
+                        "Benchmark PO"),
+                apduRequests, channelState));
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleBaseException {
+        BenchmarkReaders.unplugReader(readerName);
+    }
+
+    @Benchmark
+    public SeResponseSet transmitSet() throws KeypleBaseException {
+        return poReader.transmitSet(seRequestSet);
+    }
+}
@@ -0,0 +1,121 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.benchmark.stub.BenchmarkStubPo;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Encoding and decoding of the remote SE messages of a transmitSet: the SE request set, the SE
+ * response set and the enclosing {@link KeypleDto}, for each registered codec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteSeMessageBenchmark {
+
+    @Param({"json", "binary"})
+    public String codecName;
+
+    private SeMessageCodec codec;
+    private SeRequestSet seRequestSet;
+    private SeResponseSet seResponseSet;
+    private String encodedSeRequestSet;
+    private String encodedSeResponseSet;
+    private String dtoJson;
+
+    @Setup
+    public void setUp() {
+        codec = SeMessageCodecs.get(codecName);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ReadRecordsCmdBuild(PoClass.ISO, BenchmarkStubPo.SFI_EVENT_LOG,
+                ReadDataStructure.SINGLE_RECORD_DATA, BenchmarkStubPo.RECORD_NUMBER_1, true,
+                (byte) 0x00, "EventLog").getApduRequest());
+        seRequestSet = new SeRequestSet(new SeRequest(
+                new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new SeSelector.AidSelector(
+                                new SeSelector.AidSelector.IsoAid(BenchmarkStubPo.AID), null),
+                        "Benchmark PO"),
+                apduRequests, ChannelState.KEEP_OPEN));
+
+        List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
+        apduResponses.add(new ApduResponse(ByteArrayUtil
+                .fromHex("00112233445566778899AABBCCDDEEFF00112233445566778899AABB009000"),
+                null));
+        seResponseSet = new SeResponseSet(new SeResponse(true, false,
+                new SelectionStatus(null,
+                        new ApduResponse(ByteArrayUtil.fromHex("6F238409" + BenchmarkStubPo.AID
+                                + "A516BF0C13C70800000000112233005307" + "0A3C23121410019000"),
+                                null),
+                        true),
+                apduResponses));
+
+        encodedSeRequestSet = codec.encodeSeRequestSet(seRequestSet);
+        encodedSeResponseSet = codec.encodeSeResponseSet(seResponseSet);
+        dtoJson = KeypleDtoHelper.toJson(dto(encodedSeResponseSet));
+    }
+
+    private static KeypleDto dto(String body) {
+        return KeypleDtoHelper.buildResponse(RemoteMethod.READER_TRANSMIT_SET.getName(), body,
+                "session-1", "nativeReader", "virtualReader", "slave", "master", "1");
+    }
+
+    @Benchmark
+    public String encodeSeRequestSet() {
+        return codec.encodeSeRequestSet(seRequestSet);
+    }
+
+    @Benchmark
+    public SeRequestSet decodeSeRequestSet() {
+        return codec.decodeSeRequestSet(encodedSeRequestSet);
+    }
+
+    @Benchmark
+    public String encodeSeResponseSet() {
+        return codec.encodeSeResponseSet(seResponseSet);
+    }
+
+    @Benchmark
+    public SeResponseSet decodeSeResponseSet() {
+        return codec.decodeSeResponseSet(encodedSeResponseSet);
+    }
+
+    @Benchmark
+    public String encodeDto() {
+        return KeypleDtoHelper.toJson(dto(codec.encodeSeResponseSet(seResponseSet)));
+    }
+
+    @Benchmark
+    public SeResponseSet decodeDto() {
+        return codec.decodeSeResponseSet(KeypleDtoHelper.fromJson(dtoJson).getBody());
+    }
+}
@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.AUTO;
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.C1;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.benchmark.stub.BenchmarkReaders;
+import org.eclipse.keyple.calypso.transaction.SamIdentifier;
+import org.eclipse.keyple.calypso.transaction.SamResource;
+import org.eclipse.keyple.calypso.transaction.SamResourceManager;
+import org.eclipse.keyple.core.seproxy.ReaderPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.plugin.stub.StubCalypsoSam;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Allocation latency of {@link SamResourceManager}: allocation and release of a local SAM
+ * resource, by several threads sharing the same manager.
+ * <p>
+ * The SAMs are emulated {@link StubCalypsoSam}s, each in its own stub reader. When there are less
+ * SAMs than threads, the latency includes the waiting for a SAM released by another thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SamResourceManagerBenchmark {
+
+    private static final SamIdentifier ANY_SAM = new SamIdentifier(AUTO, null, null);
+
+    @Param({"1", "16", "256"})
+    public int samCount;
+
+    private final List<String> samReaderNames = new ArrayList<String>();
+    private SamResourceManager samResourceManager;
+
+    /**
+     * Identifier of the SAM targeted by a thread
+     */
+    @State(Scope.Thread)
+    public static class TargetedSam {
+        SamIdentifier samIdentifier;
+
+        @Setup
+        public void setUp(SamResourceManagerBenchmark benchmark, ThreadParams threadParams) {
+            samIdentifier = new SamIdentifier(C1,
+                    String.format("%08X", threadParams.getThreadIndex() % benchmark.samCount),
+                    null);
+        }
+    }
+
+    @Setup
+    public void setUp() throws KeypleBaseException {
+        SortedSet<SeReader> samReaders = new TreeSet<SeReader>(new Comparator<SeReader>() {
+            @Override
+            public int compare(SeReader r1, SeReader r2) {
+                return r1.getName().compareTo(r2.getName());
+            }
+        });
+        for (int i = 0; i < samCount; i++) {
+            String samReaderName = String.format("SamResourceManagerBenchmark-SAM-%03d", i);
+            samReaderNames.add(samReaderName);
+            samReaders.add(BenchmarkReaders.plugSamReader(samReaderName,
+                    new StubCalypsoSam(new byte[] {0, 0, (byte) (i >> 8), (byte) i})));
+        }
+        samResourceManager =
+                new SamResourceManager(new SamReaderPlugin(samReaders), ".*", 10000);
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleBaseException {
+        for (String samReaderName : samReaderNames) {
+            BenchmarkReaders.unplugReader(samReaderName);
+        }
+    }
+
+    @Benchmark
+    public SamResource allocateAny() throws Exception {
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM);
+        samResourceManager.freeSamResource(samResource);
+        return samResource;
+    }
+
+    @Benchmark
+    public SamResource allocateBySerialNumber(TargetedSam targetedSam) throws Exception {
+        SamResource samResource = samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.BLOCKING, targetedSam.samIdentifier);
+        samResourceManager.freeSamResource(samResource);
+        return samResource;
+    }
+
+    /**
+     * Non observable plugin providing the stub SAM readers of the benchmark only
+     */
+    private static final class SamReaderPlugin implements ReaderPlugin {
+        private final SortedSet<SeReader> samReaders;
+
+        SamReaderPlugin(SortedSet<SeReader> samReaders) {
+            this.samReaders = samReaders;
+        }
+
+        @Override
+        public String getName() {
+            return "SamResourceManagerBenchmark";
+        }
+
+        @Override
+        public Map<String, String> getParameters() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void setParameter(String key, String value) {}
+
+        @Override
+        public void setParameters(Map<String, String> parameters) {}
+
+        @Override
+        public SortedSet<String> getReaderNames() {
+            SortedSet<String> readerNames = new TreeSet<String>();
+            for (SeReader samReader : samReaders) {
+                readerNames.add(samReader.getName());
+            }
+            return readerNames;
+        }
+
+        @Override
+        public SortedSet<? extends SeReader> getReaders() {
+            return samReaders;
+        }
+
+        @Override
+        public SeReader getReader(String name) throws KeypleReaderNotFoundException {
+            for (SeReader samReader : samReaders) {
+                if (samReader.getName().equals(name)) {
+                    return samReader;
+                }
+            }
+            throw new KeypleReaderNotFoundException(name);
+        }
+
+        @Override
+        public int compareTo(ReaderPlugin plugin) {
+            return getName().compareTo(plugin.getName());
+        }
+    }
+}
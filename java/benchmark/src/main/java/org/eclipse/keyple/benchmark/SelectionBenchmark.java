@@ -0,0 +1,58 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.benchmark.stub.BenchmarkReaders;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.selection.SelectionsResult;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Explicit selection of a Calypso PO with {@link SeSelection#processExplicitSelection}, including
+ * the creation of the matching CalypsoPo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+
+    private static final AtomicInteger readerIndex = new AtomicInteger();
+
+    private String readerName;
+    private StubReader poReader;
+    private SeSelection seSelection;
+
+    @Setup
+    public void setUp() throws KeypleBaseException {
+        readerName = "SelectionBenchmark-" + readerIndex.incrementAndGet();
+        poReader = BenchmarkReaders.plugPoReader(readerName);
+        seSelection = BenchmarkReaders.poSelection(ChannelState.CLOSE_AFTER);
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleBaseException {
+        BenchmarkReaders.unplugReader(readerName);
+    }
+
+    @Benchmark
+    public SelectionsResult processExplicitSelection() throws KeypleBaseException {
+        return seSelection.processExplicitSelection(poReader);
+    }
+}
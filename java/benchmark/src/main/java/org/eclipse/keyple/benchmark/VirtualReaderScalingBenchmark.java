@@ -0,0 +1,152 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.benchmark.stub.BenchmarkStubPo;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.DtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Transmission through the virtual readers of a {@link MasterAPI} connected to many slave nodes:
+ * the time of a transmitSet must not depend on the number of virtual readers.
+ * <p>
+ * The virtual readers are connected through READER_CONNECT requests, as done by the slaves. The
+ * slaves are emulated by a loopback node answering each transmitSet request with the same
+ * response, dispatched by the {@link MasterAPI} to the virtual reader of its session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VirtualReaderScalingBenchmark {
+
+    private static final String NATIVE_READER_NAME = "nativeReader";
+    private static final String MASTER_NODE_ID = "master";
+
+    @Param({"1", "100", "10000"})
+    public int readerCount;
+
+    private final List<VirtualReader> virtualReaders = new ArrayList<VirtualReader>();
+    private SeRequestSet seRequestSet;
+
+    /**
+     * Rotation of a thread over the virtual readers
+     */
+    @State(Scope.Thread)
+    public static class ReaderIndex {
+        int index;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
+        apduResponses.add(new ApduResponse(ByteArrayUtil
+                .fromHex("00112233445566778899AABBCCDDEEFF00112233445566778899AABB009000"),
+                null));
+        LoopbackNode loopbackNode = new LoopbackNode(SeMessageCodecs.JSON
+                .encodeSeResponseSet(new SeResponseSet(new SeResponse(true, false,
+                        new SelectionStatus(null,
+                                new ApduResponse(ByteArrayUtil.fromHex("9000"), null), true),
+                        apduResponses))));
+        MasterAPI masterAPI = new MasterAPI(SeProxyService.getInstance(), loopbackNode, 10000);
+        loopbackNode.setDtoHandler(masterAPI);
+
+        String connectBody = "{\"transmissionMode\":\"" + TransmissionMode.CONTACTLESS.name()
+                + "\",\"options\":\"{}\"}";
+        RemoteSePlugin plugin = masterAPI.getPlugin();
+        for (int i = 0; i < readerCount; i++) {
+            String slaveNodeId = "slave-" + i;
+            masterAPI.onDTO(new LocalTransportDto(KeypleDtoHelper.buildRequest(
+                    RemoteMethod.READER_CONNECT.getName(), connectBody, null, NATIVE_READER_NAME,
+                    null, slaveNodeId, MASTER_NODE_ID, "connect-" + i), null));
+            virtualReaders.add(plugin.getReaderByRemoteName(NATIVE_READER_NAME, slaveNodeId));
+        }
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ReadRecordsCmdBuild(PoClass.ISO, BenchmarkStubPo.SFI_EVENT_LOG,
+                ReadDataStructure.SINGLE_RECORD_DATA, BenchmarkStubPo.RECORD_NUMBER_1, true,
+                (byte) 0x00, "EventLog").getApduRequest());
+        seRequestSet = new SeRequestSet(new SeRequest(
+                new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new SeSelector.AidSelector(
+                                new SeSelector.AidSelector.IsoAid(BenchmarkStubPo.AID), null),
+                        "Benchmark PO"),
+                apduRequests, ChannelState.KEEP_OPEN));
+    }
+
+    @Benchmark
+    public SeResponseSet transmitSet(ReaderIndex readerIndex) throws Exception {
+        readerIndex.index = (readerIndex.index + 1) % readerCount;
+        return virtualReaders.get(readerIndex.index).transmitSet(seRequestSet);
+    }
+
+    /**
+     * Node of the emulated slaves, answering the transmitSet requests synchronously
+     */
+    private static final class LoopbackNode implements DtoNode {
+        private final String responseBody;
+        private volatile DtoHandler dtoHandler;
+
+        LoopbackNode(String responseBody) {
+            this.responseBody = responseBody;
+        }
+
+        @Override
+        public void setDtoHandler(DtoHandler dtoHandler) {
+            this.dtoHandler = dtoHandler;
+        }
+
+        @Override
+        public void sendDTO(TransportDto message) {
+            sendDTO(message.getKeypleDTO());
+        }
+
+        @Override
+        public void sendDTO(KeypleDto request) {
+            dtoHandler.onDTO(new LocalTransportDto(KeypleDtoHelper.buildResponse(
+                    request.getAction(), responseBody, request.getSessionId(),
+                    request.getNativeReaderName(), request.getVirtualReaderName(),
+                    request.getTargetNodeId(), request.getRequesterNodeId(), request.getId()),
+                    null));
+        }
+
+        @Override
+        public String getNodeId() {
+            return MASTER_NODE_ID;
+        }
+    }
+}
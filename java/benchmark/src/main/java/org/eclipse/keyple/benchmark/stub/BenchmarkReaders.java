@@ -0,0 +1,138 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark.stub;
+
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.C1;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.plugin.stub.*;
+
+/**
+ * Helpers plugging the stub readers of the benchmarks into the {@link StubPlugin} and preparing
+ * the Calypso selections.
+ */
+public final class BenchmarkReaders {
+
+    private BenchmarkReaders() {}
+
+    /**
+     * Plugs a stub reader in which the {@link BenchmarkStubPo} is inserted
+     *
+     * @param name the reader name (must be unique in the JVM)
+     * @return the PO reader
+     * @throws KeypleBaseException if the reader can't be retrieved
+     */
+    public static StubReader plugPoReader(String name) throws KeypleBaseException {
+        return plugPoReader(name, new BenchmarkStubPo());
+    }
+
+    /**
+     * Plugs a stub reader in which the provided PO is inserted
+     *
+     * @param name the reader name (must be unique in the JVM)
+     * @param po the PO (e.g. a {@link StubCalypsoPo})
+     * @return the PO reader
+     * @throws KeypleBaseException if the reader can't be retrieved
+     */
+    public static StubReader plugPoReader(String name, StubSecureElement po)
+            throws KeypleBaseException {
+        StubReader poReader = plugReader(name);
+        poReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        poReader.insertSe(po);
+        return poReader;
+    }
+
+    /**
+     * Plugs a stub reader in which the {@link BenchmarkStubSam} is inserted
+     *
+     * @param name the reader name (must be unique in the JVM)
+     * @return the SAM reader
+     * @throws KeypleBaseException if the reader can't be retrieved
+     */
+    public static StubReader plugSamReader(String name) throws KeypleBaseException {
+        return plugSamReader(name, new BenchmarkStubSam());
+    }
+
+    /**
+     * Plugs a stub reader in which the provided SAM is inserted
+     *
+     * @param name the reader name (must be unique in the JVM)
+     * @param sam the SAM (e.g. a {@link StubCalypsoSam})
+     * @return the SAM reader
+     * @throws KeypleBaseException if the reader can't be retrieved
+     */
+    public static StubReader plugSamReader(String name, StubSecureElement sam)
+            throws KeypleBaseException {
+        StubReader samReader = plugReader(name);
+        samReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO7816_3));
+        samReader.insertSe(sam);
+        return samReader;
+    }
+
+    /**
+     * Unplugs a reader plugged by this class
+     *
+     * @param name the reader name
+     * @throws KeypleBaseException if the reader can't be unplugged
+     */
+    public static void unplugReader(String name) throws KeypleBaseException {
+        StubPlugin.getInstance().unplugStubReader(name, true);
+    }
+
+    /**
+     * Builds a selection of the {@link BenchmarkStubPo} application
+     *
+     * @param channelState the channel state after the selection
+     * @return the prepared selection
+     */
+    public static SeSelection poSelection(ChannelState channelState) {
+        SeSelection seSelection = new SeSelection();
+        seSelection.prepareSelection(new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(
+                                new SeSelector.AidSelector.IsoAid(BenchmarkStubPo.AID),
+                                PoSelector.InvalidatedPo.REJECT),
+                        "Benchmark PO"),
+                channelState));
+        return seSelection;
+    }
+
+    /**
+     * Selects the SAM of a reader and keeps its channel open
+     *
+     * @param samReader the SAM reader
+     * @return the SAM resource
+     * @throws KeypleBaseException if the selection fails
+     */
+    public static SamResource selectSam(StubReader samReader) throws KeypleBaseException {
+        SeSelection samSelection = new SeSelection();
+        samSelection.prepareSelection(new SamSelectionRequest(
+                new SamSelector(C1, null, "Benchmark SAM"), ChannelState.KEEP_OPEN));
+        CalypsoSam calypsoSam = (CalypsoSam) samSelection.processExplicitSelection(samReader)
+                .getActiveSelection().getMatchingSe();
+        return new SamResource(samReader, calypsoSam);
+    }
+
+    private static StubReader plugReader(String name) throws KeypleBaseException {
+        StubPlugin stubPlugin = StubPlugin.getInstance();
+        stubPlugin.plugStubReader(name, true);
+        return (StubReader) stubPlugin.getReader(name);
+    }
+}
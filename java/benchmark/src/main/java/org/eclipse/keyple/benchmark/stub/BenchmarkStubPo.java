@@ -0,0 +1,57 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark.stub;
+
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+
+/**
+ * Scripted Calypso PO (revision 3.1) answering the commands of a secure session reading one
+ * EventLog record.
+ * <p>
+ * The responses match the ones expected by {@link BenchmarkStubSam}.
+ */
+public final class BenchmarkStubPo extends StubSecureElement {
+
+    public static final String AID = "315449432E49434131";
+    public static final byte SFI_EVENT_LOG = (byte) 0x08;
+    public static final byte RECORD_NUMBER_1 = (byte) 0x01;
+
+    static final String SERIAL_NUMBER = "0000000011223300";
+    static final String OPEN_SESSION_DATA =
+            "0308300000307E1D24B928480800000606F000120000000000000000000000000000000000";
+    static final String EVENT_LOG = "00112233445566778899AABBCCDDEEFF00112233445566778899AABB00";
+
+    public BenchmarkStubPo() {
+        /* Select Application */
+        addHexCommand("00A4 0400 09 " + AID + " 00", "6F238409" + AID + "A516BF0C13C708 "
+                + SERIAL_NUMBER + " 53070A3C23121410019000");
+        /* Open Secure Session V3.1 */
+        addHexCommand("008A030104C1C2C30000", OPEN_SESSION_DATA + "9000");
+        /* Read Records - EventLog (SFI=08, recnbr=1)) */
+        addHexCommand("00B2014400", EVENT_LOG + "9000");
+        /* Close Secure Session, no ratification asked */
+        addHexCommand("008E0000040506070000", "010203009000");
+        /* Ratification */
+        addHexCommand("00B2000000", "6B00");
+    }
+
+    @Override
+    public byte[] getATR() {
+        return ByteArrayUtil.fromHex("3B8880010000000000718100F9");
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return "PROTOCOL_ISO14443_4";
+    }
+}
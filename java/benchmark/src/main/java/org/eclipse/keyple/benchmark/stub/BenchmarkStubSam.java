@@ -0,0 +1,52 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark.stub;
+
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+
+/**
+ * Scripted Calypso SAM (C1) computing the digest of the session operated with
+ * {@link BenchmarkStubPo}, with either Digest Update or Digest Update Multiple commands.
+ */
+public final class BenchmarkStubSam extends StubSecureElement {
+
+    public BenchmarkStubSam() {
+        /* Select Diversifier */
+        addHexCommand("8014 0000 08 " + BenchmarkStubPo.SERIAL_NUMBER, "9000");
+        /* Get Challenge */
+        addHexCommand("8084000004", "C1C2C3009000");
+        /* Digest Init */
+        addHexCommand("808A00FF27307E" + BenchmarkStubPo.OPEN_SESSION_DATA, "9000");
+        /* Digest Update (Read Record command) */
+        addHexCommand("808C00000500B2014400", "9000");
+        /* Digest Update (Read Record response) */
+        addHexCommand("808C00001F" + BenchmarkStubPo.EVENT_LOG + "9000", "9000");
+        /* Digest Update Multiple (Read Record command and response) */
+        addHexCommand("808C800026" + "0500B2014400" + "1F" + BenchmarkStubPo.EVENT_LOG + "9000",
+                "9000");
+        /* Digest Close */
+        addHexCommand("808E000004", "050607009000");
+        /* Digest Authenticate */
+        addHexCommand("808200000401020300", "9000");
+    }
+
+    @Override
+    public byte[] getATR() {
+        return ByteArrayUtil.fromHex("3B3F9600805A0080C120000012345600829000");
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return "PROTOCOL_ISO7816_3";
+    }
+}
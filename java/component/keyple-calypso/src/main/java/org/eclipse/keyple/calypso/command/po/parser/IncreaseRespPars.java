@@ -67,8 +67,9 @@ public final class IncreaseRespPars extends AbstractPoResponseParser {
      *         response.
      */
     public int getNewValue() throws IllegalStateException {
-        byte[] newValueBuffer = getApduResponse().getDataOut();
-        if (newValueBuffer.length == 3) {
+        /* the value is read directly from the response buffer */
+        byte[] newValueBuffer = getApduResponse().getBytes();
+        if (getApduResponse().getDataOutLength() == 3) {
             return (newValueBuffer[0] << 16) + (newValueBuffer[1] << 8) + newValueBuffer[2];
         } else {
             throw new IllegalStateException(
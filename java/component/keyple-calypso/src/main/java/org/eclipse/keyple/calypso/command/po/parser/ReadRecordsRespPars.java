@@ -99,8 +99,9 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
         if (readDataStructure == ReadDataStructure.SINGLE_RECORD_DATA) {
             records.put((int) recordNumber, response.getDataOut());
         } else if (readDataStructure == ReadDataStructure.MULTIPLE_RECORD_DATA) {
-            byte[] apdu = response.getDataOut();
-            int apduLen = apdu.length;
+            /* the records are copied directly from the response buffer */
+            byte[] apdu = response.getBytes();
+            int apduLen = response.getDataOutLength();
             int index = 0;
             while (apduLen > 0) {
                 byte recordNb = apdu[index++];
@@ -135,8 +136,8 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
         }
         if (readDataStructure == ReadDataStructure.SINGLE_COUNTER
                 || readDataStructure == ReadDataStructure.MULTIPLE_COUNTER) {
-            byte[] apdu = response.getDataOut();
-            int numberOfCounters = apdu.length / 3;
+            byte[] apdu = response.getBytes();
+            int numberOfCounters = response.getDataOutLength() / 3;
             int index = 0;
             int key = 1; /* the first counter is indexed 1 */
             for (int i = 0; i < numberOfCounters; i++) {
@@ -160,24 +161,27 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
         String string;
         switch (readDataStructure) {
             case SINGLE_RECORD_DATA: {
-                SortedMap<Integer, byte[]> recordMap = getRecords();
                 string = String.format("Single record data: {RECORD = %d, DATA = %s}",
-                        recordMap.firstKey(),
-                        ByteArrayUtil.toHex(recordMap.get(recordMap.firstKey())));
+                        recordNumber, ByteArrayUtil.toHex(response.getBytes(), 0,
+                                response.getDataOutLength()));
             }
                 break;
             case MULTIPLE_RECORD_DATA: {
-                SortedMap<Integer, byte[]> recordMap = getRecords();
+                /* the records are read directly from the response buffer */
+                byte[] apdu = response.getBytes();
+                int apduLen = response.getDataOutLength();
                 StringBuilder sb = new StringBuilder();
                 sb.append("Multiple record data: ");
-                Set records = recordMap.keySet();
-                for (Iterator it = records.iterator(); it.hasNext();) {
-                    Integer record = (Integer) it.next();
-                    sb.append(String.format("{RECORD = %d, DATA = %s}", record,
-                            ByteArrayUtil.toHex(recordMap.get(record))));
-                    if (it.hasNext()) {
+                int index = 0;
+                while (index < apduLen) {
+                    byte recordNb = apdu[index++];
+                    byte len = apdu[index++];
+                    if (index > 2) {
                         sb.append(", ");
                     }
+                    sb.append(String.format("{RECORD = %d, DATA = %s}", recordNb,
+                            ByteArrayUtil.toHex(apdu, index, len)));
+                    index = index + len;
                 }
                 string = sb.toString();
             }
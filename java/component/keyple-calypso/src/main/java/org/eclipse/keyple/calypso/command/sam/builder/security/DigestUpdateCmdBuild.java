@@ -38,6 +38,25 @@ public class DigestUpdateCmdBuild extends AbstractSamCommandBuilder {
      */
     public DigestUpdateCmdBuild(SamRevision revision, boolean encryptedSession, byte[] digestData)
             throws IllegalArgumentException {
+        this(revision, encryptedSession, digestData, 0, digestData != null ? digestData.length : 0);
+    }
+
+    /**
+     * Instantiates a new DigestUpdateCmdBuild from a part of the provided buffer.
+     * <p>
+     * The digest data are copied into the APDU, the buffer can be reused by the caller.
+     *
+     * @param revision of the SAM
+     * @param encryptedSession the encrypted session
+     * @param digestData buffer containing the bytes from the command sent by the PO or the response
+     *        from the command
+     * @param offset offset of the first digest byte in digestData
+     * @param length number of digest bytes
+     * @throws IllegalArgumentException - if the digest data has a length &gt; 255
+     * @throws IllegalArgumentException - if the request is inconsistent
+     */
+    public DigestUpdateCmdBuild(SamRevision revision, boolean encryptedSession, byte[] digestData,
+            int offset, int length) throws IllegalArgumentException {
         super(command, null);
         if (revision != null) {
             this.defaultRevision = revision;
@@ -49,11 +68,11 @@ public class DigestUpdateCmdBuild extends AbstractSamCommandBuilder {
             p2 = (byte) 0x80;
         }
 
-        if (digestData != null && digestData.length > 255) {
+        if (digestData != null && length > 255) {
             throw new IllegalArgumentException("Digest data null or too long!");
         }
 
         // CalypsoRequest calypsoRequest = new CalypsoRequest(cla, command, p1, p2, digestData);
-        request = setApduRequest(cla, command, p1, p2, digestData, null);
+        request = setApduRequest(cla, command, p1, p2, digestData, offset, length, null);
     }
 }
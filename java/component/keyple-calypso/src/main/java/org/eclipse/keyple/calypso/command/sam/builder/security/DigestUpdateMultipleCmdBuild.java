@@ -32,18 +32,37 @@ public class DigestUpdateMultipleCmdBuild extends AbstractSamCommandBuilder {
      *
      * @param revision the revision
      * @param digestData the digest data
-     * @throws IllegalArgumentException - if the request is inconsistent
+     * @throws IllegalArgumentException - if the digest data is null
      */
     public DigestUpdateMultipleCmdBuild(SamRevision revision, byte[] digestData)
             throws IllegalArgumentException {
+        this(revision, digestData, 0, digestData != null ? digestData.length : 0);
+    }
+
+    /**
+     * Instantiates a new DigestUpdateMultipleCmdBuild from a part of the provided buffer.
+     * <p>
+     * The digest data are copied into the APDU, the buffer can be reused by the caller.
+     *
+     * @param revision the revision
+     * @param digestData buffer containing the digest data
+     * @param offset offset of the first digest byte in digestData
+     * @param length number of digest bytes
+     * @throws IllegalArgumentException - if the digest data is null
+     */
+    public DigestUpdateMultipleCmdBuild(SamRevision revision, byte[] digestData, int offset,
+            int length) throws IllegalArgumentException {
         super(command, null);
         if (revision != null) {
             this.defaultRevision = revision;
         }
+        if (digestData == null) {
+            throw new IllegalArgumentException("Digest data is null!");
+        }
         byte cla = this.defaultRevision.getClassByte();
         byte p1 = (byte) 0x80;
         byte p2 = (byte) 0x00;
 
-        request = setApduRequest(cla, command, p1, p2, digestData, null);
+        request = setApduRequest(cla, command, p1, p2, digestData, offset, length, null);
     }
 }
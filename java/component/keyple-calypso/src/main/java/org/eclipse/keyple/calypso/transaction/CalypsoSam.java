@@ -25,6 +25,10 @@ import org.slf4j.LoggerFactory;
 public class CalypsoSam extends AbstractMatchingSe {
     private static final Logger logger = LoggerFactory.getLogger(CalypsoSam.class);
 
+    /* extract the historical bytes from T3 to T12 */
+    private static final Pattern ATR_SUB_ELEMENTS_PATTERN =
+            Pattern.compile("3B(.{6}|.{10})805A(.{20})829000");
+
     private SamRevision samRevision;
     private byte[] serialNumber = new byte[4];
     private byte platform;
@@ -51,9 +55,7 @@ public class CalypsoSam extends AbstractMatchingSe {
             throw new IllegalStateException("ATR should not be empty.");
         }
         /* extract the historical bytes from T3 to T12 */
-        String extractRegex = "3B(.{6}|.{10})805A(.{20})829000";
-        Pattern pattern = Pattern.compile(extractRegex);
-        Matcher matcher = pattern.matcher(atrString);
+        Matcher matcher = ATR_SUB_ELEMENTS_PATTERN.matcher(atrString);
         if (matcher.find(0)) {
             byte[] atrSubElements = ByteArrayUtil.fromHex(matcher.group(2));
             platform = atrSubElements[0];
@@ -11,7 +11,7 @@
  ********************************************************************************/
 package org.eclipse.keyple.calypso.transaction;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
 import org.eclipse.keyple.core.seproxy.SeSelector;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
@@ -49,11 +49,8 @@ public final class PoSelector extends SeSelector {
      */
     public static class PoAidSelector extends AidSelector {
 
-        private final static Set<Integer> successfulSelectionStatusCodes = new HashSet<Integer>() {
-            {
-                add(0x6283);
-            }
-        };;
+        private final static Set<Integer> successfulSelectionStatusCodes =
+                Collections.singleton(0x6283);
 
         /**
          * Create a {@link PoAidSelector} to select a Calypso PO with an AID through a select
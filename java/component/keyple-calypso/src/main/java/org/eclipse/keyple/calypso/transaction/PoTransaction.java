@@ -57,6 +57,8 @@ public final class PoTransaction {
     private final static byte CHALLENGE_LENGTH_REV32 = (byte) 0x08;
     private final static byte SIGNATURE_LENGTH_REV_INF_32 = (byte) 0x04;
     private final static byte SIGNATURE_LENGTH_REV32 = (byte) 0x08;
+    /** The maximum data length of a Digest Update Multiple command */
+    private final static int DIGEST_UPDATE_MULTIPLE_MAX_DATA_LENGTH = 255;
 
     private final static int OFFSET_CLA = 0;
     private final static int OFFSET_INS = 1;
@@ -76,6 +78,8 @@ public final class PoTransaction {
     private final ProxyReader poReader;
     /** The reader for session SAM. */
     private ProxyReader samReader;
+    /** The session SAM resource. */
+    private SamResource samResource;
     /** The SAM default revision. */
     private final SamRevision samRevision = SamRevision.C1;
     /** The security settings. */
@@ -94,6 +98,8 @@ public final class PoTransaction {
     private boolean transactionResult;
     /** The diversification status */
     private boolean isDiversificationDone;
+    /** The Select Diversifier command is postponed to the session closing */
+    private boolean isDiversificationPostponed;
     /** The PO KIF */
     private byte poKif;
     /** The previous PO Secure Session ratification status */
@@ -114,6 +120,16 @@ public final class PoTransaction {
     private boolean preparedCommandsProcessed;
     private int preparedCommandIndex;
 
+    /** The digest processor of the current secure session (one per transaction) */
+    private final DigestProcessor digestProcessor = new DigestProcessor();
+    /** The pipeline streaming the digest commands to the SAM during the session, if allowed */
+    private SamDigestPipeline samDigestPipeline;
+    /** The anticipated response builder of the current transaction */
+    private final AnticipatedResponseBuilder anticipatedResponseBuilder =
+            new AnticipatedResponseBuilder();
+    /** The timeline of the exchanges with the PO and SAM readers */
+    private TransactionTimeline timeline;
+
     /**
      * PoTransaction with PO and SAM readers.
      * <ul>
@@ -133,7 +149,11 @@ public final class PoTransaction {
 
         samReader = (ProxyReader) samResource.getSeReader();
 
+        this.samResource = samResource;
+
         this.securitySettings = securitySettings;
+
+        timeline = newTimeline();
     }
 
     /**
@@ -163,50 +183,49 @@ public final class PoTransaction {
         sessionState = SessionState.SESSION_UNINITIALIZED;
 
         preparedCommandsProcessed = true;
+
+        timeline = newTimeline();
     }
 
     /**
-     * Open a Secure Session.
-     * <ul>
-     * <li>The PO must have been previously selected, so a logical channel with the PO application
-     * must be already active.</li>
-     * <li>The PO serial &amp; revision are identified from FCI data.</li>
-     * <li>A first request is sent to the SAM session reader.
-     * <ul>
-     * <li>In case not logical channel is active with the SAM, a channel is open.</li>
-     * <li>Then a Select Diversifier (with the PO serial) &amp; a Get Challenge are automatically
-     * operated. The SAM challenge is recovered.</li>
-     * </ul>
-     * </li>
-     * <li>The PO Open Session command is built according to the PO revision, the SAM challenge, the
-     * keyIndex, and openingSfiToSelect / openingRecordNumberToRead.</li>
-     * <li>Next the PO reader is requested:
-     * <ul>
-     * <li>for the current selected PO AID, with channelState set to KEEP_OPEN,</li>
-     * <li>and some PO Apdu Requests including at least the Open Session command and optionally some
-     * PO command to operate inside the session.</li>
-     * </ul>
-     * </li>
-     * <li>The session PO keyset reference is identified from the PO Open Session response, the PO
-     * challenge is recovered too.</li>
-     * <li>According to the PO responses of Open Session and the PO commands sent inside the
-     * session, a "cache" of SAM commands is filled with the corresponding Digest Init &amp; Digest
-     * Update commands.</li>
-     * <li>Returns the corresponding PO SeResponse (responses to poBuilderParsers).</li>
-     * </ul>
+     * @return a new timeline of the exchanges with the PO and SAM readers
+     */
+    private TransactionTimeline newTimeline() {
+        return new TransactionTimeline(poReader.getName(),
+                samReader != null ? samReader.getName() : null, poRevision,
+                calypsoPo.getApplicationTypeByte());
+    }
+
+    /**
+     * Transmits a request to the PO or SAM reader and records the exchange in the transaction
+     * timeline
      *
-     * @param accessLevel access level of the session (personalization, load or debit).
-     * @param openingSfiToSelect SFI of the file to select (0 means no file to select)
-     * @param openingRecordNumberToRead number of the record to read
-     * @param poBuilderParsers the po commands inside session
-     * @return SeResponse response to all executed commands including the self generated "Open
-     *         Secure Session" command
-     * @throws KeypleReaderException the IO reader exception
+     * @param reader the PO or SAM reader
+     * @param seRequest the request
+     * @param phase the phase of the transaction
+     * @return the response
+     * @throws KeypleReaderException if a reader error occurs
      */
-    private SeResponse processAtomicOpening(SessionAccessLevel accessLevel, byte openingSfiToSelect,
-            byte openingRecordNumberToRead, List<PoBuilderParser> poBuilderParsers)
+    private SeResponse transmit(ProxyReader reader, SeRequest seRequest, TransactionPhase phase)
             throws KeypleReaderException {
+        long timeStamp = System.nanoTime();
+        try {
+            return reader.transmit(seRequest);
+        } finally {
+            timeline.recordPhase(phase, timeStamp, System.nanoTime() - timeStamp,
+                    seRequest.getApduRequests().size());
+        }
+    }
 
+    /**
+     * Sends the Select Diversifier (if not already done) and Get Challenge commands to the SAM
+     *
+     * @param challengeLength the expected challenge length
+     * @return the terminal challenge
+     * @throws KeypleReaderException the IO reader exception
+     */
+    private byte[] getSessionTerminalChallenge(byte challengeLength)
+            throws KeypleReaderException {
         /*
          * counts 'select diversifier' and 'get challenge' commands. At least get challenge is
          * present
@@ -216,11 +235,6 @@ public final class PoTransaction {
         /* SAM ApduRequest List to hold Select Diversifier and Get Challenge commands */
         List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("processAtomicOpening => Identification: DFNAME = {}, SERIALNUMBER = {}",
-                    ByteArrayUtil.toHex(poCalypsoInstanceAid),
-                    ByteArrayUtil.toHex(poCalypsoInstanceSerial));
-        }
         /* diversify only if this has not already been done. */
         if (!isDiversificationDone) {
             /* Build the SAM Select Diversifier command to provide the SAM with the PO S/N */
@@ -234,11 +248,9 @@ public final class PoTransaction {
 
             /* change the diversification status */
             isDiversificationDone = true;
+            isDiversificationPostponed = false;
         }
         /* Build the SAM Get Challenge command */
-        byte challengeLength = poRevision.equals(PoRevision.REV3_2) ? CHALLENGE_LENGTH_REV32
-                : CHALLENGE_LENGTH_REV_INF_32;
-
         AbstractSamCommandBuilder samGetChallenge =
                 new SamGetChallengeCmdBuild(this.samRevision, challengeLength);
 
@@ -252,7 +264,8 @@ public final class PoTransaction {
         /*
          * Transmit the SeRequest to the SAM and get back the SeResponse (list of ApduResponse)
          */
-        SeResponse samSeResponse = samReader.transmit(samSeRequest);
+        SeResponse samSeResponse =
+                transmit(samReader, samSeRequest, TransactionPhase.SAM_CHALLENGE);
 
         if (samSeResponse == null) {
             throw new KeypleCalypsoSecureSessionException("Null response received",
@@ -267,7 +280,7 @@ public final class PoTransaction {
 
         if (samApduResponseList.size() == numberOfSamCmd
                 && samApduResponseList.get(numberOfSamCmd - 1).isSuccessful() && samApduResponseList
-                        .get(numberOfSamCmd - 1).getDataOut().length == challengeLength) {
+                        .get(numberOfSamCmd - 1).getDataOutLength() == challengeLength) {
             SamGetChallengeRespPars samChallengePars =
                     new SamGetChallengeRespPars(samApduResponseList.get(numberOfSamCmd - 1));
             sessionTerminalChallenge = samChallengePars.getChallenge();
@@ -281,6 +294,89 @@ public final class PoTransaction {
                     samApduResponseList);
         }
 
+        return sessionTerminalChallenge;
+    }
+
+    /**
+     * Open a Secure Session.
+     * <ul>
+     * <li>The PO must have been previously selected, so a logical channel with the PO application
+     * must be already active.</li>
+     * <li>The PO serial &amp; revision are identified from FCI data.</li>
+     * <li>A first request is sent to the SAM session reader.
+     * <ul>
+     * <li>In case not logical channel is active with the SAM, a channel is open.</li>
+     * <li>Then a Select Diversifier (with the PO serial) &amp; a Get Challenge are automatically
+     * operated. The SAM challenge is recovered.</li>
+     * <li>If a challenge has been pre-fetched (see {@link SamResource#prefetchChallenge(byte)}),
+     * no command is sent to the SAM at this step and the Select Diversifier is postponed to the
+     * session closing.</li>
+     * </ul>
+     * </li>
+     * <li>The PO Open Session command is built according to the PO revision, the SAM challenge, the
+     * keyIndex, and openingSfiToSelect / openingRecordNumberToRead.</li>
+     * <li>Next the PO reader is requested:
+     * <ul>
+     * <li>for the current selected PO AID, with channelState set to KEEP_OPEN,</li>
+     * <li>and some PO Apdu Requests including at least the Open Session command and optionally some
+     * PO command to operate inside the session.</li>
+     * </ul>
+     * </li>
+     * <li>The session PO keyset reference is identified from the PO Open Session response, the PO
+     * challenge is recovered too.</li>
+     * <li>According to the PO responses of Open Session and the PO commands sent inside the
+     * session, a "cache" of SAM commands is filled with the corresponding Digest Init &amp; Digest
+     * Update commands. If the digest pipelining is allowed (see
+     * {@link SecuritySettings#setDigestPipeliningAllowed(boolean)}), these commands are sent to the
+     * SAM in background.</li>
+     * <li>Returns the corresponding PO SeResponse (responses to poBuilderParsers).</li>
+     * </ul>
+     *
+     * @param accessLevel access level of the session (personalization, load or debit).
+     * @param openingSfiToSelect SFI of the file to select (0 means no file to select)
+     * @param openingRecordNumberToRead number of the record to read
+     * @param poBuilderParsers the po commands inside session
+     * @return SeResponse response to all executed commands including the self generated "Open
+     *         Secure Session" command
+     * @throws KeypleReaderException the IO reader exception
+     */
+    private SeResponse processAtomicOpening(SessionAccessLevel accessLevel, byte openingSfiToSelect,
+            byte openingRecordNumberToRead, List<PoBuilderParser> poBuilderParsers)
+            throws KeypleReaderException {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("processAtomicOpening => Identification: DFNAME = {}, SERIALNUMBER = {}",
+                    ByteArrayUtil.toHex(poCalypsoInstanceAid),
+                    ByteArrayUtil.toHex(poCalypsoInstanceSerial));
+        }
+
+        /*
+         * a session following a closed or cancelled one has its own timeline, the first one keeps
+         * the phases recorded since the creation of the transaction (e.g. the PO selection)
+         */
+        if (timeline.isCompleted()) {
+            timeline = newTimeline();
+        }
+
+        byte challengeLength = poRevision.equals(PoRevision.REV3_2) ? CHALLENGE_LENGTH_REV32
+                : CHALLENGE_LENGTH_REV_INF_32;
+
+        /* use the challenge pre-fetched by the SAM resource if any */
+        byte[] sessionTerminalChallenge =
+                samResource != null ? samResource.takePrefetchedChallenge(challengeLength) : null;
+
+        if (sessionTerminalChallenge != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                        "processAtomicOpening => identification: PREFETCHED TERMINALCHALLENGE = {}",
+                        ByteArrayUtil.toHex(sessionTerminalChallenge));
+            }
+            /* the diversification will be done at closing, before the Digest Init */
+            isDiversificationPostponed = !isDiversificationDone;
+        } else {
+            sessionTerminalChallenge = getSessionTerminalChallenge(challengeLength);
+        }
+
         /* PO ApduRequest List to hold Open Secure Session and other optional commands */
         List<ApduRequest> poApduRequestList = new ArrayList<ApduRequest>();
 
@@ -304,7 +400,8 @@ public final class PoTransaction {
         logger.debug("processAtomicOpening => opening:  POSEREQUEST = {}", poSeRequest);
 
         /* Transmit the commands to the PO */
-        SeResponse poSeResponse = poReader.transmit(poSeRequest);
+        SeResponse poSeResponse =
+                transmit(poReader, poSeRequest, TransactionPhase.PO_OPEN_SESSION);
 
         logger.debug("processAtomicOpening => opening:  POSERESPONSE = {}", poSeResponse);
 
@@ -339,7 +436,7 @@ public final class PoTransaction {
         }
 
         /* Track Read Records for later use to build anticipated responses. */
-        AnticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
+        anticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
                 poApduResponseList, true);
 
         /* Parse the response to Open Secure Session (the first item of poApduResponseList) */
@@ -395,11 +492,12 @@ public final class PoTransaction {
          * Update) until the session closing. AT this moment, all SAM Apdu will be processed at
          * once.
          */
-        DigestProcessor.initialize(poRevision, samRevision, false, false,
+        digestProcessor.initialize(poRevision, samRevision, false, false,
                 poRevision.equals(PoRevision.REV3_2),
                 securitySettings
                         .getKeyInfo(SecuritySettings.DefaultKeyInfo.SAM_DEFAULT_KEY_RECORD_NUMBER),
-                kif, poKvc, poApduResponseList.get(0).getDataOut());
+                kif, poKvc, poApduResponseList.get(0).getDataOut(),
+                securitySettings.isDigestUpdateMultipleAllowed());
 
         /*
          * Add all commands data to the digest computation. The first command in the list is the
@@ -412,11 +510,19 @@ public final class PoTransaction {
                 /*
                  * Add requests and responses to the DigestProcessor
                  */
-                DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                         poApduResponseList.get(i));
             }
         }
 
+        /* Start streaming the digest commands to the SAM if allowed */
+        if (securitySettings.isDigestPipeliningAllowed()) {
+            samDigestPipeline = new SamDigestPipeline(samReader, timeline);
+            streamSamDigestRequest();
+        } else {
+            samDigestPipeline = null;
+        }
+
         sessionState = SessionState.SESSION_OPEN;
 
         /* Remove Open Secure Session response and create a new SeResponse */
@@ -448,7 +554,7 @@ public final class PoTransaction {
      * <li>On the PO reader, generates a SeRequest with channelState set to KEEP_OPEN, and
      * ApduRequests with the PO commands.</li>
      * <li>In case the secure session is active, the "cache" of SAM commands is completed with the
-     * corresponding Digest Update commands.</li>
+     * corresponding Digest Update commands (sent in background with the digest pipelining).</li>
      * <li>If a session is open and channelState is set to CLOSE_AFTER, the current PO session is
      * aborted</li>
      * <li>Returns the corresponding PO SeResponse.</li>
@@ -475,59 +581,121 @@ public final class PoTransaction {
 
         logger.debug("processAtomicPoCommands => POREQUEST = {}", poSeRequest);
 
-        /* Transmit the commands to the PO */
-        SeResponse poSeResponse = poReader.transmit(poSeRequest);
-
-        logger.debug("processAtomicPoCommands => PORESPONSE = {}", poSeResponse);
+        /*
+         * In case of failure, the SAM digest pipeline is stopped before leaving: the SAM reader may
+         * be used by another transaction as soon as the SAM resource is released
+         */
+        boolean completed = false;
+        try {
+            /* Transmit the commands to the PO */
+            SeResponse poSeResponse =
+                    transmit(poReader, poSeRequest, TransactionPhase.PO_COMMANDS);
 
-        if (poSeResponse == null) {
-            throw new KeypleCalypsoSecureSessionException("Null response received",
-                    KeypleCalypsoSecureSessionException.Type.PO, poSeRequest.getApduRequests(),
-                    null);
-        }
+            logger.debug("processAtomicPoCommands => PORESPONSE = {}", poSeResponse);
 
-        if (!poSeResponse.wasChannelPreviouslyOpen()) {
-            throw new KeypleCalypsoSecureSessionException("The logical channel was not open",
-                    KeypleCalypsoSecureSessionException.Type.PO, poSeRequest.getApduRequests(),
-                    null);
-        }
+            if (poSeResponse == null) {
+                throw new KeypleCalypsoSecureSessionException("Null response received",
+                        KeypleCalypsoSecureSessionException.Type.PO, poSeRequest.getApduRequests(),
+                        null);
+            }
 
-        /* Retrieve and check the ApduResponses */
-        List<ApduResponse> poApduResponseList = poSeResponse.getApduResponses();
+            if (!poSeResponse.wasChannelPreviouslyOpen()) {
+                throw new KeypleCalypsoSecureSessionException("The logical channel was not open",
+                        KeypleCalypsoSecureSessionException.Type.PO, poSeRequest.getApduRequests(),
+                        null);
+            }
 
-        /* Do some basic checks */
-        if (poApduRequestList.size() != poApduResponseList.size()) {
-            throw new KeypleCalypsoSecureSessionException("Inconsistent requests and responses",
-                    KeypleCalypsoSecureSessionException.Type.PO, poApduRequestList,
-                    poApduResponseList);
-        }
+            /* Retrieve and check the ApduResponses */
+            List<ApduResponse> poApduResponseList = poSeResponse.getApduResponses();
 
-        for (ApduResponse apduR : poApduResponseList) {
-            if (!apduR.isSuccessful()) {
-                throw new KeypleCalypsoSecureSessionException("Invalid response",
+            /* Do some basic checks */
+            if (poApduRequestList.size() != poApduResponseList.size()) {
+                throw new KeypleCalypsoSecureSessionException("Inconsistent requests and responses",
                         KeypleCalypsoSecureSessionException.Type.PO, poApduRequestList,
                         poApduResponseList);
             }
+
+            for (ApduResponse apduR : poApduResponseList) {
+                if (!apduR.isSuccessful()) {
+                    throw new KeypleCalypsoSecureSessionException("Invalid response",
+                            KeypleCalypsoSecureSessionException.Type.PO, poApduRequestList,
+                            poApduResponseList);
+                }
+            }
+
+            /* Track Read Records for later use to build anticipated responses. */
+            anticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
+                    poApduResponseList, false);
+
+            /*
+             * Add all commands data to the digest computation if this method is called within a
+             * Secure Session.
+             */
+            if (sessionState == SessionState.SESSION_OPEN) {
+                for (int i = 0; i < poApduRequestList.size(); i++) {
+                    /*
+                     * Add requests and responses to the DigestProcessor
+                     */
+                    digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                            poApduResponseList.get(i));
+                }
+                if (samDigestPipeline != null) {
+                    streamSamDigestRequest();
+                }
+            }
+            completed = true;
+            return poSeResponse;
+        } finally {
+            if (!completed) {
+                cancelSamDigestPipeline();
+            }
         }
+    }
 
-        /* Track Read Records for later use to build anticipated responses. */
-        AnticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
-                poApduResponseList, false);
+    /**
+     * Submits the digest commands related to the PO exchanges not yet digested to the SAM digest
+     * pipeline
+     */
+    private void streamSamDigestRequest() {
+        SeRequest samSeRequest = digestProcessor.getSamDigestRequest(false);
+        if (samSeRequest != null) {
+            samDigestPipeline.submit(addPostponedDiversification(samSeRequest));
+        }
+    }
 
+    /**
+     * Stops the SAM digest pipeline if any: the digest commands not yet sent are discarded and the
+     * one in progress is waited for
+     */
+    private void cancelSamDigestPipeline() {
+        if (samDigestPipeline != null) {
+            samDigestPipeline.cancel();
+            samDigestPipeline = null;
+        }
+    }
+
+    /**
+     * Inserts the Select Diversifier command before the first SAM digest request when it has been
+     * postponed
+     *
+     * @param samSeRequest the SAM digest request
+     * @return the request to send to the SAM
+     */
+    private SeRequest addPostponedDiversification(SeRequest samSeRequest) {
+        if (!isDiversificationPostponed) {
+            return samSeRequest;
+        }
         /*
-         * Add all commands data to the digest computation if this method is called within a Secure
-         * Session.
+         * The session has been opened with a pre-fetched challenge, the SAM has to be diversified
+         * before the Digest Init
          */
-        if (sessionState == SessionState.SESSION_OPEN) {
-            for (int i = 0; i < poApduRequestList.size(); i++) { // The loop starts after the Open
-                /*
-                 * Add requests and responses to the DigestProcessor
-                 */
-                DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
-                        poApduResponseList.get(i));
-            }
-        }
-        return poSeResponse;
+        List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
+        samApduRequestList.add(new SelectDiversifierCmdBuild(this.samRevision,
+                poCalypsoInstanceSerial).getApduRequest());
+        samApduRequestList.addAll(samSeRequest.getApduRequests());
+        isDiversificationDone = true;
+        isDiversificationPostponed = false;
+        return new SeRequest(samApduRequestList, ChannelState.KEEP_OPEN);
     }
 
     /**
@@ -581,7 +749,9 @@ public final class PoTransaction {
      * to be sent and their anticipated responses. A Digest Close command is also added to the SAM
      * command cache.</li>
      * <li>On the SAM session reader side, a SeRequest is transmitted with SAM commands from the
-     * command cache. The SAM command cache is emptied.</li>
+     * command cache. The SAM command cache is emptied. With the digest pipelining, the commands
+     * sent in background during the session are awaited first and only the remaining ones are
+     * transmitted.</li>
      * <li>The SAM certificate is retrieved from the Digest Close response. The terminal signature
      * is identified.</li>
      * <li>Then, on the PO reader, a SeRequest is transmitted with the provided channelState, and
@@ -642,36 +812,62 @@ public final class PoTransaction {
         List<ApduRequest> poApduRequestList =
                 this.getApduRequestsToSendInSession(poModificationCommands);
 
-        /* Compute "anticipated" Digest Update (for optional poModificationCommands) */
-        if ((poModificationCommands != null) && !poApduRequestList.isEmpty()) {
-            if (poApduRequestList.size() == poAnticipatedResponses.size()) {
-                /*
-                 * Add all commands data to the digest computation: commands and anticipated
-                 * responses.
-                 */
-                for (int i = 0; i < poApduRequestList.size(); i++) {
+        List<ApduRequest> samDigestApduRequests = new ArrayList<ApduRequest>();
+        List<ApduResponse> samApduResponseList = new ArrayList<ApduResponse>();
+        boolean samChannelPreviouslyOpen = true;
+        /*
+         * The SAM digest pipeline is stopped before leaving, even in case of failure: the SAM
+         * reader may be used by another transaction as soon as the SAM resource is released
+         */
+        SamDigestPipeline pipeline = samDigestPipeline;
+        samDigestPipeline = null;
+        try {
+            /* Compute "anticipated" Digest Update (for optional poModificationCommands) */
+            if ((poModificationCommands != null) && !poApduRequestList.isEmpty()) {
+                if (poApduRequestList.size() == poAnticipatedResponses.size()) {
                     /*
-                     * Add requests and responses to the DigestProcessor
+                     * Add all commands data to the digest computation: commands and anticipated
+                     * responses.
                      */
-                    DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
-                            poAnticipatedResponses.get(i));
+                    for (int i = 0; i < poApduRequestList.size(); i++) {
+                        /*
+                         * Add requests and responses to the DigestProcessor
+                         */
+                        digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                                poAnticipatedResponses.get(i));
+                    }
+                } else {
+                    throw new KeypleCalypsoSecureSessionException(
+                            "Inconsistent requests and anticipated responses",
+                            KeypleCalypsoSecureSessionException.Type.PO, poApduRequestList,
+                            poAnticipatedResponses);
                 }
-            } else {
-                throw new KeypleCalypsoSecureSessionException(
-                        "Inconsistent requests and anticipated responses",
-                        KeypleCalypsoSecureSessionException.Type.PO, poApduRequestList,
-                        poAnticipatedResponses);
+            }
+
+            /*
+             * SAM digest requests already sent during the session if any, all the remaining SAM
+             * digest operations will now run at once.
+             */
+            if (pipeline != null) {
+                pipeline.await();
+                samDigestApduRequests.addAll(pipeline.getApduRequests());
+                samApduResponseList.addAll(pipeline.getApduResponses());
+                samChannelPreviouslyOpen = pipeline.wasChannelPreviouslyOpen();
+            }
+        } finally {
+            if (pipeline != null) {
+                pipeline.cancel();
             }
         }
 
-        /* All SAM digest operations will now run at once. */
         /* Get the SAM Digest request from the cache manager */
-        SeRequest samSeRequest = DigestProcessor.getSamDigestRequest();
+        SeRequest samSeRequest =
+                addPostponedDiversification(digestProcessor.getSamDigestRequest(true));
 
         logger.debug("processAtomicClosing => SAMREQUEST = {}", samSeRequest);
 
         /* Transmit SeRequest and get SeResponse */
-        SeResponse samSeResponse = samReader.transmit(samSeRequest);
+        SeResponse samSeResponse = transmit(samReader, samSeRequest, TransactionPhase.SAM_DIGEST);
 
         logger.debug("processAtomicClosing => SAMRESPONSE = {}", samSeResponse);
 
@@ -681,19 +877,19 @@ public final class PoTransaction {
                     null);
         }
 
-        if (!samSeResponse.wasChannelPreviouslyOpen()) {
+        samDigestApduRequests.addAll(samSeRequest.getApduRequests());
+        samApduResponseList.addAll(samSeResponse.getApduResponses());
+
+        if (!samChannelPreviouslyOpen || !samSeResponse.wasChannelPreviouslyOpen()) {
             throw new KeypleCalypsoSecureSessionException("The logical channel was not open",
-                    KeypleCalypsoSecureSessionException.Type.PO, samSeRequest.getApduRequests(),
-                    null);
+                    KeypleCalypsoSecureSessionException.Type.PO, samDigestApduRequests, null);
         }
 
-        List<ApduResponse> samApduResponseList = samSeResponse.getApduResponses();
-
         for (int i = 0; i < samApduResponseList.size(); i++) {
             if (!samApduResponseList.get(i).isSuccessful()) {
 
                 logger.debug("processAtomicClosing => command failure REQUEST = {}, RESPONSE = {}",
-                        samSeRequest.getApduRequests().get(i), samApduResponseList.get(i));
+                        samDigestApduRequests.get(i), samApduResponseList.get(i));
                 throw new IllegalStateException(
                         "ProcessClosing command failure during digest computation process.");
             }
@@ -761,7 +957,7 @@ public final class PoTransaction {
 
         SeResponse poSeResponse;
         try {
-            poSeResponse = poReader.transmit(poSeRequest);
+            poSeResponse = transmit(poReader, poSeRequest, TransactionPhase.PO_CLOSE_SESSION);
         } catch (KeypleReaderException ex) {
             poSeResponse = ex.getSeResponse();
             /*
@@ -821,7 +1017,7 @@ public final class PoTransaction {
         logger.debug("PoTransaction.DigestProcessor => checkPoSignature: SAMREQUEST = {}",
                 samSeRequest);
 
-        samSeResponse = samReader.transmit(samSeRequest);
+        samSeResponse = transmit(samReader, samSeRequest, TransactionPhase.SAM_AUTHENTICATE);
 
         logger.debug("PoTransaction.DigestProcessor => checkPoSignature: SAMRESPONSE = {}",
                 samSeResponse);
@@ -894,7 +1090,7 @@ public final class PoTransaction {
             TransmissionMode transmissionMode, ChannelState channelState)
             throws KeypleReaderException {
         List<ApduResponse> poAnticipatedResponses =
-                AnticipatedResponseBuilder.getResponses(poBuilderParsers);
+                anticipatedResponseBuilder.getResponses(poBuilderParsers);
         return processAtomicClosing(poBuilderParsers, poAnticipatedResponses, transmissionMode,
                 channelState);
     }
@@ -1021,15 +1217,22 @@ public final class PoTransaction {
          * 1st buffer is the data buffer to be provided with Digest Init. The following buffers are
          * PO command/response pairs
          */
-        private static final List<byte[]> poDigestDataCache = new ArrayList<byte[]>();
-        private static SamRevision samRevision;
-        private static PoRevision poRevision;
-        private static boolean encryption;
-        private static boolean verification;
-        private static boolean revMode;
-        private static byte keyRecordNumber;
-        private static byte keyKIF;
-        private static byte keyKVC;
+        private final List<byte[]> poDigestDataCache = new ArrayList<byte[]>();
+        private SamRevision samRevision;
+        private PoRevision poRevision;
+        private boolean encryption;
+        private boolean verification;
+        private boolean revMode;
+        private byte keyRecordNumber;
+        private byte keyKIF;
+        private byte keyKVC;
+        private boolean digestUpdateMultiple;
+        /* progress of the SAM digest requests already built */
+        private boolean digestInitBuilt;
+        private int nextDigestDataIndex;
+        /* reusable buffer in which the Digest Update Multiple data are packed */
+        private final byte[] digestUpdateMultipleBuffer =
+                new byte[DIGEST_UPDATE_MULTIPLE_MAX_DATA_LENGTH];
 
         /**
          * Initializes the digest computation process
@@ -1043,10 +1246,12 @@ public final class PoTransaction {
          * @param workKeyKif the PO KIF
          * @param workKeyKVC the PO KVC
          * @param digestData a first bunch of data to digest.
+         * @param digestUpdateMultipleAllowed true if Digest Update Multiple may be used
          */
-        static void initialize(PoRevision poRev, SamRevision samRev, boolean sessionEncryption,
+        void initialize(PoRevision poRev, SamRevision samRev, boolean sessionEncryption,
                 boolean verificationMode, boolean rev3_2Mode, byte workKeyRecordNumber,
-                byte workKeyKif, byte workKeyKVC, byte[] digestData) {
+                byte workKeyKif, byte workKeyKVC, byte[] digestData,
+                boolean digestUpdateMultipleAllowed) {
             /* Store work context */
             poRevision = poRev;
             samRevision = samRev;
@@ -1056,6 +1261,9 @@ public final class PoTransaction {
             keyRecordNumber = workKeyRecordNumber;
             keyKIF = workKeyKif;
             keyKVC = workKeyKVC;
+            /* Digest Update Multiple is only available with C1 SAMs in non encrypted sessions */
+            digestUpdateMultiple = digestUpdateMultipleAllowed && samRev == SamRevision.C1
+                    && !sessionEncryption;
             if (logger.isDebugEnabled()) {
                 logger.debug(
                         "PoTransaction.DigestProcessor => initialize: POREVISION = {}, SAMREVISION = {}, SESSIONENCRYPTION = {}",
@@ -1071,6 +1279,8 @@ public final class PoTransaction {
 
             /* Clear data cache */
             poDigestDataCache.clear();
+            digestInitBuilt = false;
+            nextDigestDataIndex = 1;
 
             /*
              * Build Digest Init command as first ApduRequest of the digest computation process
@@ -1084,7 +1294,7 @@ public final class PoTransaction {
          * @param request PO request
          * @param response PO response
          */
-        static void pushPoExchangeData(ApduRequest request, ApduResponse response) {
+        void pushPoExchangeData(ApduRequest request, ApduResponse response) {
 
             logger.debug("PoTransaction.DigestProcessor => pushPoExchangeData: REQUEST = {}",
                     request);
@@ -1109,13 +1319,16 @@ public final class PoTransaction {
         }
 
         /**
-         * Get a unique SAM request for the whole digest computation process.
-         * 
-         * @return SeRequest all the ApduRequest to send to the SAM in order to get the terminal
-         *         signature
+         * Get a SAM request for the digest data not yet included in a previous request.
+         * <p>
+         * Without previous request, it is a unique SAM request for the whole digest computation
+         * process.
+         *
+         * @param digestClose true to end the request with the Digest Close command
+         * @return SeRequest all the ApduRequest to send to the SAM in order to digest the pending
+         *         data (and get the terminal signature), null if there is nothing to send
          */
-        // TODO optimization with the use of Digest Update Multiple whenever possible.
-        static SeRequest getSamDigestRequest() {
+        SeRequest getSamDigestRequest(boolean digestClose) {
             List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
 
             if (poDigestDataCache.size() == 0) {
@@ -1135,30 +1348,103 @@ public final class PoTransaction {
              * Build and append Digest Init command as first ApduRequest of the digest computation
              * process
              */
-            samApduRequestList.add(new DigestInitCmdBuild(samRevision, verification, revMode,
-                    keyRecordNumber, keyKIF, keyKVC, poDigestDataCache.get(0)).getApduRequest());
+            if (!digestInitBuilt) {
+                samApduRequestList.add(new DigestInitCmdBuild(samRevision, verification, revMode,
+                        keyRecordNumber, keyKIF, keyKVC, poDigestDataCache.get(0))
+                                .getApduRequest());
+                digestInitBuilt = true;
+            }
 
             /*
              * Build and append Digest Update commands
              *
              * The first command is at index 1.
              */
-            for (int i = 1; i < poDigestDataCache.size(); i++) {
-                samApduRequestList.add(
-                        new DigestUpdateCmdBuild(samRevision, encryption, poDigestDataCache.get(i))
-                                .getApduRequest());
+            if (digestUpdateMultiple) {
+                addDigestUpdateMultipleRequests(samApduRequestList, nextDigestDataIndex);
+            } else {
+                for (int i = nextDigestDataIndex; i < poDigestDataCache.size(); i++) {
+                    samApduRequestList.add(new DigestUpdateCmdBuild(samRevision, encryption,
+                            poDigestDataCache.get(i)).getApduRequest());
+                }
             }
+            nextDigestDataIndex = poDigestDataCache.size();
 
             /*
              * Build and append Digest Close command
              */
-            samApduRequestList.add((new DigestCloseCmdBuild(samRevision,
-                    poRevision.equals(PoRevision.REV3_2) ? SIGNATURE_LENGTH_REV32
-                            : SIGNATURE_LENGTH_REV_INF_32).getApduRequest()));
+            if (digestClose) {
+                samApduRequestList.add((new DigestCloseCmdBuild(samRevision,
+                        poRevision.equals(PoRevision.REV3_2) ? SIGNATURE_LENGTH_REV32
+                                : SIGNATURE_LENGTH_REV_INF_32).getApduRequest()));
+            }
 
+            if (samApduRequestList.isEmpty()) {
+                return null;
+            }
 
             return new SeRequest(samApduRequestList, ChannelState.KEEP_OPEN);
         }
+
+        /**
+         * Packs the digest data (from the provided index) into Digest Update Multiple commands,
+         * each data block being preceded by its length.
+         * <p>
+         * A block too long to fit in a Digest Update Multiple command and a block that would be
+         * alone in its command are sent with a Digest Update command.
+         * <p>
+         * The blocks are packed in a buffer reused from one command to the next.
+         *
+         * @param samApduRequestList the list to which the SAM requests are appended
+         * @param fromIndex the index of the first digest data to pack
+         */
+        private void addDigestUpdateMultipleRequests(List<ApduRequest> samApduRequestList,
+                int fromIndex) {
+            int pendingBlocks = 0;
+            int pendingLength = 0;
+            for (int i = fromIndex; i < poDigestDataCache.size(); i++) {
+                byte[] block = poDigestDataCache.get(i);
+                if (block.length + 1 > DIGEST_UPDATE_MULTIPLE_MAX_DATA_LENGTH) {
+                    flushDigestBlocks(samApduRequestList, pendingBlocks, pendingLength);
+                    pendingBlocks = 0;
+                    pendingLength = 0;
+                    samApduRequestList.add(
+                            new DigestUpdateCmdBuild(samRevision, false, block).getApduRequest());
+                    continue;
+                }
+                if (pendingLength + block.length + 1 > DIGEST_UPDATE_MULTIPLE_MAX_DATA_LENGTH) {
+                    flushDigestBlocks(samApduRequestList, pendingBlocks, pendingLength);
+                    pendingBlocks = 0;
+                    pendingLength = 0;
+                }
+                digestUpdateMultipleBuffer[pendingLength++] = (byte) block.length;
+                System.arraycopy(block, 0, digestUpdateMultipleBuffer, pendingLength,
+                        block.length);
+                pendingLength += block.length;
+                pendingBlocks++;
+            }
+            flushDigestBlocks(samApduRequestList, pendingBlocks, pendingLength);
+        }
+
+        /**
+         * Appends the SAM request digesting the blocks pending in the Digest Update Multiple
+         * buffer
+         *
+         * @param samApduRequestList the list to which the SAM request is appended
+         * @param pendingBlocks the number of blocks to digest
+         * @param pendingLength the length of the Digest Update Multiple data
+         */
+        private void flushDigestBlocks(List<ApduRequest> samApduRequestList, int pendingBlocks,
+                int pendingLength) {
+            if (pendingBlocks == 1) {
+                /* skip the length byte of the single block */
+                samApduRequestList.add(new DigestUpdateCmdBuild(samRevision, false,
+                        digestUpdateMultipleBuffer, 1, pendingLength - 1).getApduRequest());
+            } else if (pendingBlocks > 1) {
+                samApduRequestList.add(new DigestUpdateMultipleCmdBuild(samRevision,
+                        digestUpdateMultipleBuffer, 0, pendingLength).getApduRequest());
+            }
+        }
     }
 
     /**
@@ -1189,7 +1475,7 @@ public final class PoTransaction {
         /**
          * A Map of SFI and Commands/Responses
          */
-        private static Map<Byte, CommandResponse> sfiCommandResponseHashMap =
+        private final Map<Byte, CommandResponse> sfiCommandResponseHashMap =
                 new HashMap<Byte, CommandResponse>();
 
         /**
@@ -1201,7 +1487,7 @@ public final class PoTransaction {
          * @param skipFirstItem a flag to indicate if the first apduRequest/apduResponse pair has to
          *        be ignored or not.
          */
-        static void storeCommandResponse(List<PoBuilderParser> poBuilderParsers,
+        void storeCommandResponse(List<PoBuilderParser> poBuilderParsers,
                 List<ApduRequest> apduRequests, List<ApduResponse> apduResponses,
                 Boolean skipFirstItem) {
             if (poBuilderParsers != null) {
@@ -1249,7 +1535,7 @@ public final class PoTransaction {
          * @return the anticipated responses.
          * @throws KeypleCalypsoSecureSessionException if an response can't be determined.
          */
-        private static List<ApduResponse> getResponses(List<PoBuilderParser> poBuilderParsers)
+        List<ApduResponse> getResponses(List<PoBuilderParser> poBuilderParsers)
                 throws KeypleCalypsoSecureSessionException {
             List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
             if (poBuilderParsers != null) {
@@ -1338,6 +1624,9 @@ public final class PoTransaction {
      * <li>In case not logical channel is active with the SAM, a channel is open.</li>
      * <li>Then a Select Diversifier (with the PO serial) &amp; a Get Challenge are automatically
      * operated. The SAM challenge is recovered.</li>
+     * <li>If a challenge has been pre-fetched (see {@link SamResource#prefetchChallenge(byte)}),
+     * no command is sent to the SAM at this step and the Select Diversifier is postponed to the
+     * session closing.</li>
      * </ul>
      * </li>
      * <li>The PO Open Session command is built according to the PO revision, the SAM challenge, the
@@ -1612,6 +1901,24 @@ public final class PoTransaction {
      *         </ul>
      */
     public boolean processClosing(ChannelState channelState) throws KeypleReaderException {
+        try {
+            return processPreparedCommandsAndClosing(channelState);
+        } finally {
+            completeTimeline(sessionState == SessionState.SESSION_CLOSED && transactionResult);
+        }
+    }
+
+    /**
+     * Sends the currently prepared commands list and closes the Secure Session (see
+     * {@link #processClosing(ChannelState)})
+     *
+     * @param channelState indicates if the SE channel of the PO reader must be closed after the
+     *        last command
+     * @return true if all commands are successful
+     * @throws KeypleReaderException the IO reader exception
+     */
+    private boolean processPreparedCommandsAndClosing(ChannelState channelState)
+            throws KeypleReaderException {
         boolean poProcessSuccess = true;
         boolean atLeastOneReadCommand = false;
         boolean sessionPreviouslyClosed = false;
@@ -1727,6 +2034,9 @@ public final class PoTransaction {
      * @return true if the abort command received a successful response from the PO
      */
     public boolean processCancel(ChannelState channelState) {
+        /* The SAM digest commands not yet sent are discarded, their result is ignored */
+        cancelSamDigestPipeline();
+
         /* PO ApduRequest List to hold Close Secure Session command */
         List<ApduRequest> poApduRequestList = new ArrayList<ApduRequest>();
 
@@ -1744,7 +2054,7 @@ public final class PoTransaction {
 
         SeResponse poSeResponse;
         try {
-            poSeResponse = poReader.transmit(poSeRequest);
+            poSeResponse = transmit(poReader, poSeRequest, TransactionPhase.PO_CANCEL_SESSION);
         } catch (KeypleReaderException ex) {
             poSeResponse = ex.getSeResponse();
         }
@@ -1760,10 +2070,37 @@ public final class PoTransaction {
          */
         sessionState = SessionState.SESSION_CLOSED;
 
+        completeTimeline(false);
+
         /* return the successful status of the abort session command */
         return poSeResponse.getApduResponses().get(0).isSuccessful();
     }
 
+    /**
+     * Completes the transaction timeline and notifies the timeline listener if any
+     *
+     * @param successful true if the secure session was successfully closed
+     */
+    private void completeTimeline(boolean successful) {
+        if (timeline.complete(successful) && securitySettings != null
+                && securitySettings.getTimelineListener() != null) {
+            securitySettings.getTimelineListener().onTransactionCompleted(timeline);
+        }
+    }
+
+    /**
+     * Get the timeline of the transaction: the exchanges with the PO and SAM readers, with their
+     * duration and number of APDUs.
+     * <p>
+     * The timeline is completed when the secure session is closed or cancelled, the opening of the
+     * next session starts a new timeline.
+     *
+     * @return the transaction timeline
+     */
+    public TransactionTimeline getTimeline() {
+        return timeline;
+    }
+
     /**
      * Loops on the SeResponse and create the appropriate builders
      * 
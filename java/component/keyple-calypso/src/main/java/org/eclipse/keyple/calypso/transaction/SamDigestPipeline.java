@@ -0,0 +1,185 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import org.eclipse.keyple.calypso.transaction.exception.KeypleCalypsoSecureSessionException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams the digest commands of a secure session to the SAM while the session is in progress.
+ * <p>
+ * The SAM requests are transmitted asynchronously, one after the other in the order of their
+ * submission: a request is sent once the response to the previous one has been received. The
+ * requests and responses are collected to be checked when closing the session.
+ * <p>
+ * When a request fails, the following ones are not sent. The pipeline is cancelled when the
+ * session is interrupted (see {@link #cancel()}).
+ * <p>
+ * Each exchange is recorded as a {@link TransactionPhase#SAM_DIGEST} phase of the transaction
+ * timeline.
+ */
+final class SamDigestPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(SamDigestPipeline.class);
+
+    private final ProxyReader samReader;
+    private final TransactionTimeline timeline;
+
+    /* requests waiting for the completion of the current transmission */
+    private final LinkedList<SeRequest> pendingRequests = new LinkedList<SeRequest>();
+
+    /* requests sent and responses received so far */
+    private final List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+    private final List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
+
+    private boolean channelPreviouslyOpen = true;
+    private KeypleReaderException exception;
+    private boolean stopped;
+    private boolean transmitting;
+    /* beginning of the current transmission */
+    private long transmitTimeStamp;
+
+    SamDigestPipeline(ProxyReader samReader, TransactionTimeline timeline) {
+        this.samReader = samReader;
+        this.timeline = timeline;
+    }
+
+    /**
+     * Adds a request to the pipeline, it is sent as soon as the previous ones are completed
+     *
+     * @param samSeRequest the SAM request
+     */
+    synchronized void submit(SeRequest samSeRequest) {
+        if (stopped) {
+            return;
+        }
+        if (transmitting) {
+            pendingRequests.add(samSeRequest);
+        } else {
+            transmitting = true;
+            transmit(samSeRequest);
+        }
+    }
+
+    private void transmit(final SeRequest samSeRequest) {
+        logger.debug("SamDigestPipeline => SAMREQUEST = {}", samSeRequest);
+        transmitTimeStamp = System.nanoTime();
+        samReader.transmitAsync(samSeRequest, new TransmitCallback<SeResponse>() {
+            @Override
+            public void onTransmitted(SeResponse response, KeypleReaderException e) {
+                onResponse(samSeRequest, response, e);
+            }
+        });
+    }
+
+    private synchronized void onResponse(SeRequest samSeRequest, SeResponse samSeResponse,
+            KeypleReaderException e) {
+        timeline.recordPhase(TransactionPhase.SAM_DIGEST, transmitTimeStamp,
+                System.nanoTime() - transmitTimeStamp, samSeRequest.getApduRequests().size());
+        logger.debug("SamDigestPipeline => SAMRESPONSE = {}", samSeResponse);
+        apduRequests.addAll(samSeRequest.getApduRequests());
+        if (e != null) {
+            exception = e;
+            stopped = true;
+        } else if (samSeResponse == null) {
+            exception = new KeypleCalypsoSecureSessionException("Null response received",
+                    KeypleCalypsoSecureSessionException.Type.SAM, samSeRequest.getApduRequests(),
+                    null);
+            stopped = true;
+        } else {
+            apduResponses.addAll(samSeResponse.getApduResponses());
+            if (!samSeResponse.wasChannelPreviouslyOpen()) {
+                channelPreviouslyOpen = false;
+                stopped = true;
+            }
+            for (ApduResponse apduResponse : samSeResponse.getApduResponses()) {
+                if (!apduResponse.isSuccessful()) {
+                    stopped = true;
+                }
+            }
+        }
+        if (!stopped && !pendingRequests.isEmpty()) {
+            transmit(pendingRequests.removeFirst());
+        } else {
+            pendingRequests.clear();
+            transmitting = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits for the completion of all the submitted requests
+     *
+     * @throws KeypleReaderException if a transmission failed
+     */
+    synchronized void await() throws KeypleReaderException {
+        while (transmitting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(
+                        "Thread locking in SAM digest pipeline has encountered an exception", e);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Stops the pipeline: the requests not yet sent are discarded and the transmission in progress,
+     * if any, is waited for so that the SAM reader is no longer used by the pipeline on return.
+     * The result of the requests is ignored.
+     */
+    synchronized void cancel() {
+        stopped = true;
+        pendingRequests.clear();
+        boolean interrupted = false;
+        while (transmitting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                /* the SAM reader must not be released while in use, keep waiting */
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the SAM requests sent so far
+     */
+    synchronized List<ApduRequest> getApduRequests() {
+        return apduRequests;
+    }
+
+    /**
+     * @return the SAM responses received so far
+     */
+    synchronized List<ApduResponse> getApduResponses() {
+        return apduResponses;
+    }
+
+    /**
+     * @return false if the logical channel was not open for one of the SAM requests
+     */
+    synchronized boolean wasChannelPreviouslyOpen() {
+        return channelPreviouslyOpen;
+    }
+}
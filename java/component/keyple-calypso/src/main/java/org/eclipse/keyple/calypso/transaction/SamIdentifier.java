@@ -14,6 +14,7 @@ package org.eclipse.keyple.calypso.transaction;
 import static org.eclipse.keyple.calypso.command.sam.SamRevision.AUTO;
 import java.util.regex.Pattern;
 import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.core.util.HexPattern;
 
 /**
  * Holds the needed data to proceed a SAM selection.
@@ -25,9 +26,15 @@ import org.eclipse.keyple.calypso.command.sam.SamRevision;
  * Group reference (key group reference)
  */
 public class SamIdentifier {
+    /* a serial number made of hex digits only doesn't need a regular expression evaluation */
+    private static final Pattern HEX_SERIAL_NUMBER_PATTERN = Pattern.compile("[0-9A-Fa-f]+");
+
     SamRevision samRevision;
     String serialNumber;
     String groupReference;
+    /* the compiled serial number (null when any serial number is accepted) */
+    private final HexPattern serialNumberPattern;
+    private final boolean literalSerialNumber;
 
     /**
      * Constructor for a SamIdentifier
@@ -40,6 +47,13 @@ public class SamIdentifier {
         this.samRevision = samRevision;
         this.serialNumber = serialNumber;
         this.groupReference = groupReference;
+        if (serialNumber != null && !serialNumber.isEmpty()) {
+            serialNumberPattern = HexPattern.compile(serialNumber);
+            literalSerialNumber = HEX_SERIAL_NUMBER_PATTERN.matcher(serialNumber).matches();
+        } else {
+            serialNumberPattern = null;
+            literalSerialNumber = false;
+        }
     }
 
     /**
@@ -63,6 +77,14 @@ public class SamIdentifier {
         return groupReference;
     }
 
+    /**
+     * @return true if the serial number is a plain hex string (not a regular expression), it then
+     *         targets a single SAM
+     */
+    boolean hasLiteralSerialNumber() {
+        return literalSerialNumber;
+    }
+
     /**
      * Compare two SamIdentifiers with the following rules:
      * <ul>
@@ -81,6 +103,17 @@ public class SamIdentifier {
      * @return true if the identifier provided matches the current identifier
      */
     public boolean matches(SamIdentifier samIdentifier) {
+        return matches(samIdentifier, true);
+    }
+
+    /**
+     * Same as {@link #matches(SamIdentifier)}, the group reference being optionally ignored.
+     *
+     * @param samIdentifier the {@link SamIdentifier} object to be compared to the current object
+     * @param checkGroupReference false to accept any group reference
+     * @return true if the identifier provided matches the current identifier
+     */
+    boolean matches(SamIdentifier samIdentifier, boolean checkGroupReference) {
         if (samIdentifier == null) {
             return true;
         }
@@ -88,13 +121,13 @@ public class SamIdentifier {
                 && samIdentifier.getSamRevision() != samRevision) {
             return false;
         }
-        if (samIdentifier.getSerialNumber() != null && !samIdentifier.getSerialNumber().isEmpty()) {
-            Pattern p = Pattern.compile(samIdentifier.getSerialNumber());
-            if (!p.matcher(serialNumber).matches()) {
+        if (samIdentifier.serialNumberPattern != null) {
+            if (serialNumber == null
+                    || !samIdentifier.serialNumberPattern.matches(serialNumber)) {
                 return false;
             }
         }
-        if (samIdentifier.getGroupReference() != null
+        if (checkGroupReference && samIdentifier.getGroupReference() != null
                 && !samIdentifier.getGroupReference().equals(groupReference)) {
             return false;
         }
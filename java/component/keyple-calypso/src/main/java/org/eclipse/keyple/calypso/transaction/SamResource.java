@@ -11,10 +11,36 @@
  ********************************************************************************/
 package org.eclipse.keyple.calypso.transaction;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.calypso.command.sam.builder.security.SamGetChallengeCmdBuild;
+import org.eclipse.keyple.calypso.command.sam.parser.security.SamGetChallengeRespPars;
 import org.eclipse.keyple.core.selection.SeResource;
+import org.eclipse.keyple.core.seproxy.ChannelState;
 import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SamResource extends SeResource<CalypsoSam> {
+    private static final Logger logger = LoggerFactory.getLogger(SamResource.class);
+
+    /* executor running the challenge pre-fetching requests, threads are created when needed */
+    private static final ExecutorService challengeExecutor =
+            Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable,
+                            "SamChallengePrefetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
     /** the free/busy enum status */
     public enum SamResourceStatus {
         FREE, BUSY;
@@ -23,8 +49,24 @@ public class SamResource extends SeResource<CalypsoSam> {
     /** the free/busy status of the resource */
     private SamResourceStatus samResourceStatus;
 
-    /** the sam identifier */
-    private SamIdentifier samIdentifier;
+    /** the sam identifier (revision and serial number of the SAM, group reference if any) */
+    private volatile SamIdentifier samIdentifier;
+
+    /* the manager indexing this resource, null if not managed */
+    private volatile SamResourceManager samResourceManager;
+
+    /* usage statistics (nanoseconds) */
+    private final long creationTime;
+    private long allocationCount;
+    private long busyTime;
+    private long busySince;
+
+    /* the pre-fetched challenge if any (pending or available) */
+    private Future<byte[]> prefetchedChallenge;
+    /* incremented at each cancellation, a pending retrieval of an older generation is skipped */
+    private int challengeGeneration;
+    /* held during the retrieval of a challenge */
+    private final Object challengeRetrievalLock = new Object();
 
     /**
      * Constructor
@@ -36,7 +78,13 @@ public class SamResource extends SeResource<CalypsoSam> {
         super(seReader, calypsoSam);
 
         samResourceStatus = SamResourceStatus.FREE;
-        samIdentifier = null;
+        if (calypsoSam != null) {
+            samIdentifier = new SamIdentifier(calypsoSam.getSamRevision(),
+                    ByteArrayUtil.toHex(calypsoSam.getSerialNumber()), null);
+        } else {
+            samIdentifier = null;
+        }
+        creationTime = System.nanoTime();
     }
 
     /**
@@ -44,19 +92,59 @@ public class SamResource extends SeResource<CalypsoSam> {
      *
      * @return the busy status
      */
-    public boolean isSamResourceFree() {
+    public synchronized boolean isSamResourceFree() {
         return samResourceStatus.equals(SamResourceStatus.FREE);
     }
 
     /**
      * Defines the {@link SamIdentifier} of the current {@link SamResource}
+     * <p>
+     * By default, the identifier is made of the revision and the serial number of the SAM.
+     * <p>
+     * When the resource is managed by a {@link SamResourceManager}, the manager updates its index
+     * accordingly.
      * 
      * @param samIdentifier
      */
     public void setSamIdentifier(SamIdentifier samIdentifier) {
+        SamResourceManager manager = samResourceManager;
+        if (manager != null) {
+            manager.updateSamIdentifier(this, samIdentifier);
+        } else {
+            this.samIdentifier = samIdentifier;
+        }
+    }
+
+    /**
+     * Changes the identifier without notifying the manager (called by the manager itself)
+     *
+     * @param samIdentifier the new {@link SamIdentifier}
+     */
+    void updateSamIdentifier(SamIdentifier samIdentifier) {
         this.samIdentifier = samIdentifier;
     }
 
+    /**
+     * @param samResourceManager the manager indexing this resource, null when removed from it
+     */
+    void setSamResourceManager(SamResourceManager samResourceManager) {
+        this.samResourceManager = samResourceManager;
+    }
+
+    /**
+     * @return the manager indexing this resource, null if not managed
+     */
+    SamResourceManager getSamResourceManager() {
+        return samResourceManager;
+    }
+
+    /**
+     * @return the {@link SamIdentifier} of the current {@link SamResource}
+     */
+    public SamIdentifier getSamIdentifier() {
+        return samIdentifier;
+    }
+
     /**
      * Indicates whether the SamResource matches the provided SAM identifier.
      * <p>
@@ -68,12 +156,20 @@ public class SamResource extends SeResource<CalypsoSam> {
      * <p>
      * The groupe reference can be null or empty to let all group references match but not empty the
      * group reference must match the {@link SamIdentifier} to have the method returning true.
+     * <p>
+     * The group of a SAM is unknown until defined with {@link #setSamIdentifier(SamIdentifier)}:
+     * meanwhile any group reference is accepted.
      *
      * @param samIdentifier
      * @return true or false according to the result of the correspondence test
      */
     public boolean isSamMatching(SamIdentifier samIdentifier) {
-        return samIdentifier.matches(this.samIdentifier);
+        SamIdentifier identifier = this.samIdentifier;
+        if (identifier == null) {
+            /* unidentified SAM, accepted by default */
+            return true;
+        }
+        return identifier.matches(samIdentifier, identifier.getGroupReference() != null);
     }
 
     /**
@@ -81,7 +177,180 @@ public class SamResource extends SeResource<CalypsoSam> {
      *
      * @param samResourceStatus FREE/BUSY enum value
      */
-    public void setSamResourceStatus(SamResourceStatus samResourceStatus) {
+    public synchronized void setSamResourceStatus(SamResourceStatus samResourceStatus) {
+        if (samResourceStatus == SamResourceStatus.BUSY
+                && this.samResourceStatus == SamResourceStatus.FREE) {
+            allocationCount++;
+            busySince = System.nanoTime();
+        } else if (samResourceStatus == SamResourceStatus.FREE
+                && this.samResourceStatus == SamResourceStatus.BUSY) {
+            busyTime += System.nanoTime() - busySince;
+        }
         this.samResourceStatus = samResourceStatus;
     }
+
+    /**
+     * @return the number of times this SamResource has been allocated
+     */
+    public synchronized long getAllocationCount() {
+        return allocationCount;
+    }
+
+    /**
+     * @return the cumulated time (in milliseconds) during which this SamResource has been BUSY,
+     *         including the current allocation if any
+     */
+    public synchronized long getBusyTime() {
+        long time = busyTime;
+        if (samResourceStatus == SamResourceStatus.BUSY) {
+            time += System.nanoTime() - busySince;
+        }
+        return time / 1000000;
+    }
+
+    /**
+     * Gives the utilization rate of the SamResource since its creation
+     *
+     * @return a value between 0 (never allocated) and 1 (always BUSY)
+     */
+    public synchronized double getUtilization() {
+        long elapsed = System.nanoTime() - creationTime;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        long time = busyTime;
+        if (samResourceStatus == SamResourceStatus.BUSY) {
+            time += System.nanoTime() - busySince;
+        }
+        return (double) time / elapsed;
+    }
+
+    /**
+     * Starts, in background, the retrieval of a terminal challenge from the SAM (Get Challenge
+     * command) so that the next secure session opening doesn't have to wait for it.
+     * <p>
+     * The challenge is used by the next {@link PoTransaction} opening a session with this
+     * SamResource if its length matches the one expected by the PO (4 bytes, 8 bytes for Calypso
+     * REV3.2 PO), the Select Diversifier command is then sent to the SAM at the session closing,
+     * before the Digest Init command. Otherwise the challenge is ignored and a new one is requested
+     * as usual.
+     * <p>
+     * This reordering requires a SAM keeping its challenge until the Digest Init command, whatever
+     * the Select Diversifier command sent meanwhile. Without pre-fetched challenge, the Select
+     * Diversifier command is sent before the Get Challenge command at the session opening.
+     * <p>
+     * The SAM keeps only its last challenge: no other command must be sent to the SAM outside the
+     * {@link PoTransaction} until the challenge is used. Nothing is done if a challenge has already
+     * been pre-fetched.
+     * <p>
+     * The pre-fetched challenge is discarded when the resource is freed (see
+     * {@link SamResourceManager#freeSamResource(SamResource)}).
+     *
+     * @param challengeLength the expected challenge length
+     */
+    public void prefetchChallenge(final byte challengeLength) {
+        synchronized (this) {
+            if (prefetchedChallenge != null) {
+                return;
+            }
+            final int generation = challengeGeneration;
+            prefetchedChallenge = challengeExecutor.submit(new Callable<byte[]>() {
+                public byte[] call() throws Exception {
+                    synchronized (challengeRetrievalLock) {
+                        synchronized (SamResource.this) {
+                            if (generation != challengeGeneration) {
+                                /* cancelled before its start */
+                                return null;
+                            }
+                        }
+                        return getChallenge(challengeLength);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Discards the pre-fetched challenge if any.
+     * <p>
+     * A retrieval in progress is waited for, so that no command is sent to the SAM afterwards.
+     */
+    void cancelPrefetchedChallenge() {
+        Future<byte[]> challenge;
+        synchronized (this) {
+            challenge = prefetchedChallenge;
+            prefetchedChallenge = null;
+            challengeGeneration++;
+        }
+        if (challenge == null) {
+            return;
+        }
+        challenge.cancel(false);
+        synchronized (challengeRetrievalLock) {
+            logger.debug("Pre-fetched challenge discarded");
+        }
+    }
+
+    /**
+     * Gets the pre-fetched challenge, waiting for its retrieval if still in progress.
+     * <p>
+     * The challenge is consumed by this call.
+     *
+     * @param challengeLength the expected challenge length
+     * @return the challenge or null if no challenge of the expected length is available
+     */
+    byte[] takePrefetchedChallenge(byte challengeLength) {
+        Future<byte[]> challenge;
+        synchronized (this) {
+            challenge = prefetchedChallenge;
+            prefetchedChallenge = null;
+        }
+        if (challenge == null) {
+            return null;
+        }
+        try {
+            byte[] value = challenge.get();
+            if (value == null) {
+                return null;
+            }
+            if (value.length != challengeLength) {
+                logger.debug("Pre-fetched challenge ignored: LENGTH = {}, EXPECTED = {}",
+                        value.length, challengeLength);
+                return null;
+            }
+            return value;
+        } catch (ExecutionException e) {
+            logger.error("Challenge pre-fetching failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Sends a Get Challenge command to the SAM
+     *
+     * @param challengeLength the expected challenge length
+     * @return the challenge
+     * @throws Exception if the challenge can't be obtained
+     */
+    private byte[] getChallenge(byte challengeLength) throws Exception {
+        List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
+        samApduRequestList.add(
+                new SamGetChallengeCmdBuild(getMatchingSe().getSamRevision(), challengeLength)
+                        .getApduRequest());
+        SeResponse samSeResponse = ((ProxyReader) getSeReader())
+                .transmit(new SeRequest(samApduRequestList, ChannelState.KEEP_OPEN));
+        if (samSeResponse == null || samSeResponse.getApduResponses().size() != 1
+                || !samSeResponse.getApduResponses().get(0).isSuccessful()) {
+            throw new IllegalStateException("Get Challenge failed: " + samSeResponse);
+        }
+        byte[] challenge =
+                new SamGetChallengeRespPars(samSeResponse.getApduResponses().get(0))
+                        .getChallenge();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Pre-fetched challenge: CHALLENGE = {}", ByteArrayUtil.toHex(challenge));
+        }
+        return challenge;
+    }
 }
@@ -13,7 +13,11 @@ package org.eclipse.keyple.calypso.transaction;
 
 import static org.eclipse.keyple.calypso.command.sam.SamRevision.AUTO;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
 import org.eclipse.keyple.core.selection.SeSelection;
 import org.eclipse.keyple.core.selection.SelectionsResult;
 import org.eclipse.keyple.core.seproxy.*;
@@ -40,11 +44,38 @@ public class SamResourceManager {
         BLOCKING, NON_BLOCKING
     }
 
-    /* the maximum time (in tenths of a second) during which the BLOCKING mode will wait */
-    private final static int MAX_BLOCKING_TIME = 1000; // 10 sec
+    /* the default maximum time (in milliseconds) during which the BLOCKING mode will wait */
+    public final static long DEFAULT_MAX_BLOCKING_TIME = 1000; // 1 sec
+    /*
+     * the delay (in milliseconds) after which a pool allocation is retried when no release has been
+     * notified (the pool may also be freed by other clients)
+     */
+    private final static long POOL_RETRY_DELAY = 100;
     private final ReaderPlugin samReaderPlugin;
     private final List<SamResource> localSamResources = new ArrayList<SamResource>();
     private final boolean dynamicAllocationPlugin;
+    private final long maxBlockingTime;
+
+    /* lock protecting the SAM resources list, the free SAM resources index and the waiting queue */
+    private final ReentrantLock lock = new ReentrantLock();
+    /* free SAM resources indexed by SAM revision and group reference */
+    private final Map<FreeListKey, Set<SamResource>> freeSamResources =
+            new HashMap<FreeListKey, Set<SamResource>>();
+    /* SAM resources indexed by serial number */
+    private final Map<String, SamResource> samResourcesBySerialNumber =
+            new HashMap<String, SamResource>();
+    /* pending BLOCKING allocations, served in FIFO order */
+    private final LinkedList<AllocationRequest> allocationQueue =
+            new LinkedList<AllocationRequest>();
+    /* signaled when a pool reader is released */
+    private final Condition poolReaderReleased = lock.newCondition();
+
+    /* allocation statistics (guarded by lock) */
+    private long allocationCount;
+    private long allocationTimeoutCount;
+    private long totalWaitTime;
+    private long maxWaitTime;
+    private int maxQueueDepth;
 
     /**
      * Instantiate a new SamResourceManager.
@@ -60,6 +91,25 @@ public class SamResourceManager {
      */
     public SamResourceManager(ReaderPlugin samReaderPlugin, String samReaderFilter)
             throws KeypleReaderException {
+        this(samReaderPlugin, samReaderFilter, DEFAULT_MAX_BLOCKING_TIME);
+    }
+
+    /**
+     * Instantiate a new SamResourceManager with a specific maximum blocking time.
+     *
+     * @param samReaderPlugin the plugin through which SAM readers are accessible
+     * @param samReaderFilter the regular expression defining how to identify SAM readers among
+     *        others.
+     * @param maxBlockingTime the maximum time (in milliseconds) during which a BLOCKING allocation
+     *        will wait for a SAM resource
+     * @throws KeypleReaderException throw if an error occurs while getting the readers list.
+     */
+    public SamResourceManager(ReaderPlugin samReaderPlugin, String samReaderFilter,
+            long maxBlockingTime) throws KeypleReaderException {
+        if (maxBlockingTime < 0) {
+            throw new IllegalArgumentException("The maximum blocking time must be positive.");
+        }
+        this.maxBlockingTime = maxBlockingTime;
         this.samReaderPlugin = samReaderPlugin;
         if (samReaderPlugin instanceof ReaderPoolPlugin) {
             logger.info("Create SAM resource manager from reader pool plugin: {}",
@@ -83,12 +133,12 @@ public class SamResourceManager {
                 logger.info("PLUGINNAME = {} isn't observable. Add available readers.",
                         samReaderPlugin.getName());
                 SortedSet<? extends SeReader> samReaders = samReaderPlugin.getReaders();
+                Pattern p = Pattern.compile(samReaderFilter);
                 for (SeReader samReader : samReaders) {
                     String readerName = samReader.getName();
-                    Pattern p = Pattern.compile(samReaderFilter);
                     if (p.matcher(readerName).matches()) {
                         logger.debug("Add reader: {}", readerName);
-                        localSamResources.add(createSamResource(samReader));
+                        addResource(createSamResource(samReader));
                     } else {
                         logger.debug("Reader not matching: {}", readerName);
                     }
@@ -132,7 +182,11 @@ public class SamResourceManager {
      * <p>
      * In the case where the allocation mode is BLOCKING, this method will wait until a SAM resource
      * becomes free and then return the reference to the allocated resource. However, the BLOCKING
-     * mode will wait a maximum time defined in tenths of a second by MAX_BLOCKING_TIME.
+     * mode will wait a maximum time defined in milliseconds by maxBlockingTime (see constructor).
+     * <p>
+     * Waiting threads are woken up as soon as a matching SAM resource is freed or added. They are
+     * served in the order of their requests (a SAM resource released while other requests are
+     * waiting for it is handed over to the oldest matching request).
      * <p>
      * In the case where the allocation mode is NON_BLOCKING and no SAM resource is available, this
      * method will return null.
@@ -142,59 +196,124 @@ public class SamResourceManager {
      *
      * @param allocationMode the blocking/non-blocking mode
      * @param samIdentifier the targeted SAM identifier
+     * @return the allocated {@link SamResource} or null if none is available
+     * @throws InterruptedException if the waiting thread has been interrupted
+     * @throws KeypleReaderException if a reader error occurs while doing the SAM selection
      */
     public SamResource allocateSamResource(AllocationMode allocationMode,
             SamIdentifier samIdentifier) throws InterruptedException, KeypleReaderException {
-        long maxBlockingDate = System.currentTimeMillis() + MAX_BLOCKING_TIME;
-        boolean noSamResourceLogged = false;
         logger.debug("Allocating SAM reader channel...");
-        while (true) {
-            if (dynamicAllocationPlugin) {
-                // virtually infinite number of readers
-                SeReader samReader = ((ReaderPoolPlugin) samReaderPlugin)
-                        .allocateReader(samIdentifier.getGroupReference());
-                if (samReader != null) {
-                    SamResource samResource = createSamResource(samReader);
-                    logger.debug("Allocation succeeded. SAM resource created.");
-                    return samResource;
-                }
-            } else {
-                synchronized (localSamResources) {
-                    for (SamResource samResource : localSamResources) {
-                        if (samResource.isSamResourceFree()) {
-                            if (samResource.isSamMatching(samIdentifier)) {
-                                samResource
-                                        .setSamResourceStatus(SamResource.SamResourceStatus.BUSY);
-                                logger.debug("Allocation succeeded. SAM resource created.");
-                                return samResource;
-                            }
-                        }
+        if (dynamicAllocationPlugin) {
+            return allocatePoolSamResource(allocationMode, samIdentifier);
+        }
+        long startTime = System.nanoTime();
+        lock.lock();
+        try {
+            /* freed resources are handed over to waiting requests first, so no barging here */
+            SamResource samResource = takeFreeSamResource(samIdentifier);
+            if (samResource != null) {
+                samResource.setSamResourceStatus(SamResource.SamResourceStatus.BUSY);
+                recordAllocation(startTime);
+                logger.debug("Allocation succeeded. SAM resource created.");
+                return samResource;
+            }
+            logger.trace("No SAM resources available at the moment.");
+            if (allocationMode == AllocationMode.NON_BLOCKING) {
+                return null;
+            }
+            AllocationRequest allocationRequest = new AllocationRequest(samIdentifier);
+            allocationQueue.addLast(allocationRequest);
+            if (allocationQueue.size() > maxQueueDepth) {
+                maxQueueDepth = allocationQueue.size();
+            }
+            long remainingTime = TimeUnit.MILLISECONDS.toNanos(maxBlockingTime);
+            try {
+                while (allocationRequest.samResource == null) {
+                    if (remainingTime <= 0) {
+                        allocationQueue.remove(allocationRequest);
+                        allocationTimeoutCount++;
+                        logger.error("The allocation process failed. Timeout {} sec exceeded .",
+                                (maxBlockingTime / 1000.0));
+                        return null;
                     }
+                    remainingTime = allocationRequest.condition.awaitNanos(remainingTime);
                 }
+            } catch (InterruptedException e) {
+                allocationQueue.remove(allocationRequest);
+                if (allocationRequest.samResource != null) {
+                    /* the resource has been handed over in the meantime, give it to the next one */
+                    releaseResource(allocationRequest.samResource);
+                }
+                throw e;
+            }
+            recordAllocation(startTime);
+            logger.debug("Allocation succeeded. SAM resource created.");
+            return allocationRequest.samResource;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Allocate a SAM resource from a {@link ReaderPoolPlugin}.
+     * <p>
+     * In BLOCKING mode, the allocation is retried when a reader is released through this manager
+     * or at least every POOL_RETRY_DELAY milliseconds.
+     *
+     * @param allocationMode the blocking/non-blocking mode
+     * @param samIdentifier the targeted SAM identifier
+     * @return the allocated {@link SamResource} or null if none is available
+     * @throws InterruptedException if the waiting thread has been interrupted
+     * @throws KeypleReaderException if a reader error occurs while doing the SAM selection
+     */
+    private SamResource allocatePoolSamResource(AllocationMode allocationMode,
+            SamIdentifier samIdentifier) throws InterruptedException, KeypleReaderException {
+        long startTime = System.nanoTime();
+        long maxBlockingDate = startTime + TimeUnit.MILLISECONDS.toNanos(maxBlockingTime);
+        while (true) {
+            // virtually infinite number of readers
+            SeReader samReader = ((ReaderPoolPlugin) samReaderPlugin)
+                    .allocateReader(samIdentifier.getGroupReference());
+            if (samReader != null) {
+                SamResource samResource = createSamResource(samReader);
+                lock.lock();
+                try {
+                    recordAllocation(startTime);
+                } finally {
+                    lock.unlock();
+                }
+                logger.debug("Allocation succeeded. SAM resource created.");
+                return samResource;
             }
-            // loop until MAX_BLOCKING_TIME in blocking mode, only once in non-blocking mode
             if (allocationMode == AllocationMode.NON_BLOCKING) {
                 logger.trace("No SAM resources available at the moment.");
-                break;
-            } else {
-                if (!noSamResourceLogged) {
-                    /* log once the first time */
-                    logger.trace("No SAM resources available at the moment.");
-                    noSamResourceLogged = true;
-                }
-                Thread.sleep(10);
-                if (System.currentTimeMillis() >= maxBlockingDate) {
+                return null;
+            }
+            long remainingTime = maxBlockingDate - System.nanoTime();
+            lock.lock();
+            try {
+                if (remainingTime <= 0) {
+                    allocationTimeoutCount++;
                     logger.error("The allocation process failed. Timeout {} sec exceeded .",
-                            (MAX_BLOCKING_TIME / 100.0));
+                            (maxBlockingTime / 1000.0));
                     return null;
                 }
+                poolReaderReleased.awaitNanos(Math.min(remainingTime,
+                        TimeUnit.MILLISECONDS.toNanos(POOL_RETRY_DELAY)));
+            } finally {
+                lock.unlock();
             }
         }
-        return null;
     }
 
     /**
      * Free a previously allocated SAM resource.
+     * <p>
+     * The resource is directly handed over to the oldest waiting request it matches, if any.
+     * <p>
+     * Nothing is done if the resource is not managed by this manager or is already free.
+     * <p>
+     * The challenge pre-fetched with the resource, if any, is discarded.
      *
      * @param samResource the SAM resource reference to free
      */
@@ -202,12 +321,386 @@ public class SamResourceManager {
         if (dynamicAllocationPlugin) {
             // virtually infinite number of readers
             logger.debug("Freeing HSM SAM resource.");
+            samResource.cancelPrefetchedChallenge();
             ((ReaderPoolPlugin) samReaderPlugin).releaseReader(samResource.getSeReader());
+            lock.lock();
+            try {
+                poolReaderReleased.signalAll();
+            } finally {
+                lock.unlock();
+            }
         } else {
-            synchronized (localSamResources) {
+            if (samResource.getSamResourceManager() == this) {
+                /* done before locking, a retrieval in progress may have to be waited for */
+                samResource.cancelPrefetchedChallenge();
+            }
+            lock.lock();
+            try {
+                if (samResource.getSamResourceManager() != this) {
+                    logger.warn("Unknown SAM resource, not freed.");
+                    return;
+                }
+                if (samResource.isSamResourceFree()) {
+                    logger.warn("SAM resource already free.");
+                    return;
+                }
                 logger.debug("Freeing local SAM resource.");
+                releaseResource(samResource);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gives the current allocation statistics of this manager.
+     *
+     * @return a snapshot of the {@link AllocationStatistics}
+     */
+    public AllocationStatistics getAllocationStatistics() {
+        lock.lock();
+        try {
+            Map<String, Double> samUtilizations = new LinkedHashMap<String, Double>();
+            for (SamResource samResource : localSamResources) {
+                samUtilizations.put(samResource.getSeReader().getName(),
+                        samResource.getUtilization());
+            }
+            return new AllocationStatistics(allocationQueue.size(), maxQueueDepth,
+                    allocationCount, allocationTimeoutCount,
+                    allocationCount == 0 ? 0 : (totalWaitTime / allocationCount) / 1000000,
+                    maxWaitTime / 1000000, samUtilizations);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark the resource as free or hand it over to the oldest waiting request it matches.
+     * <p>
+     * Must be called with the lock held.
+     *
+     * @param samResource the freed or new SAM resource
+     */
+    private void releaseResource(SamResource samResource) {
+        Iterator<AllocationRequest> iterator = allocationQueue.iterator();
+        while (iterator.hasNext()) {
+            AllocationRequest allocationRequest = iterator.next();
+            if (samResource.isSamMatching(allocationRequest.samIdentifier)) {
+                iterator.remove();
+                /* the resource stays BUSY, just record the new allocation */
                 samResource.setSamResourceStatus(SamResource.SamResourceStatus.FREE);
+                samResource.setSamResourceStatus(SamResource.SamResourceStatus.BUSY);
+                allocationRequest.samResource = samResource;
+                allocationRequest.condition.signal();
+                return;
+            }
+        }
+        samResource.setSamResourceStatus(SamResource.SamResourceStatus.FREE);
+        FreeListKey key = new FreeListKey(samResource.getSamIdentifier());
+        Set<SamResource> freeList = freeSamResources.get(key);
+        if (freeList == null) {
+            freeList = new LinkedHashSet<SamResource>();
+            freeSamResources.put(key, freeList);
+        }
+        freeList.add(samResource);
+    }
+
+    /**
+     * Remove from the index and return a free SAM resource matching the provided identifier.
+     * <p>
+     * Only the free lists whose revision and group reference are compatible with the identifier are
+     * considered. A plain serial number is looked up directly, only the unidentified resources are
+     * scanned for it. Must be called with the lock held.
+     *
+     * @param samIdentifier the targeted SAM identifier
+     * @return a free {@link SamResource} or null if none is available
+     */
+    private SamResource takeFreeSamResource(SamIdentifier samIdentifier) {
+        if (samIdentifier != null && samIdentifier.hasLiteralSerialNumber()) {
+            SamResource samResource =
+                    samResourcesBySerialNumber.get(samIdentifier.getSerialNumber());
+            if (samResource != null && samResource.isSamResourceFree()
+                    && samResource.isSamMatching(samIdentifier)) {
+                removeFromFreeLists(samResource);
+                return samResource;
+            }
+        }
+        for (Map.Entry<FreeListKey, Set<SamResource>> entry : freeSamResources.entrySet()) {
+            if (!entry.getKey().isCompatible(samIdentifier)) {
+                continue;
+            }
+            if (samIdentifier != null && samIdentifier.hasLiteralSerialNumber()
+                    && entry.getKey().samRevision != null) {
+                /* the identified resources are all in the serial number index */
+                continue;
+            }
+            Iterator<SamResource> iterator = entry.getValue().iterator();
+            while (iterator.hasNext()) {
+                SamResource samResource = iterator.next();
+                /* without serial number the first resource of a compatible list is matching */
+                if (samResource.isSamMatching(samIdentifier)) {
+                    iterator.remove();
+                    return samResource;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove a SAM resource from the free lists. Must be called with the lock held.
+     *
+     * @param samResource the SAM resource to remove
+     */
+    private void removeFromFreeLists(SamResource samResource) {
+        for (Set<SamResource> freeList : freeSamResources.values()) {
+            if (freeList.remove(samResource)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Add a new SAM resource to the list and serve the waiting requests
+     *
+     * @param samResource the SAM resource to add
+     */
+    private void addResource(SamResource samResource) {
+        lock.lock();
+        try {
+            localSamResources.add(samResource);
+            samResource.setSamResourceManager(this);
+            indexSerialNumber(samResource);
+            releaseResource(samResource);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Change the identifier of a SAM resource and update the indexes accordingly.
+     * <p>
+     * A free resource is moved to the free list of its new identifier, or handed over to the
+     * oldest waiting request it now matches.
+     *
+     * @param samResource the SAM resource
+     * @param samIdentifier the new {@link SamIdentifier}
+     */
+    void updateSamIdentifier(SamResource samResource, SamIdentifier samIdentifier) {
+        lock.lock();
+        try {
+            if (samResource.getSamResourceManager() != this) {
+                /* removed in the meantime */
+                samResource.updateSamIdentifier(samIdentifier);
+                return;
             }
+            boolean free = samResource.isSamResourceFree();
+            if (free) {
+                removeFromFreeLists(samResource);
+            }
+            unindexSerialNumber(samResource);
+            samResource.updateSamIdentifier(samIdentifier);
+            indexSerialNumber(samResource);
+            if (free) {
+                releaseResource(samResource);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a SAM resource to the serial number index if its identifier provides a plain serial
+     * number. Must be called with the lock held.
+     *
+     * @param samResource the SAM resource
+     */
+    private void indexSerialNumber(SamResource samResource) {
+        SamIdentifier samIdentifier = samResource.getSamIdentifier();
+        if (samIdentifier != null && samIdentifier.hasLiteralSerialNumber()) {
+            samResourcesBySerialNumber.put(samIdentifier.getSerialNumber(), samResource);
+        }
+    }
+
+    /**
+     * Remove a SAM resource from the serial number index. Must be called with the lock held.
+     *
+     * @param samResource the SAM resource
+     */
+    private void unindexSerialNumber(SamResource samResource) {
+        SamIdentifier samIdentifier = samResource.getSamIdentifier();
+        if (samIdentifier != null && samIdentifier.hasLiteralSerialNumber()
+                && samResourcesBySerialNumber.get(samIdentifier.getSerialNumber()) == samResource) {
+            samResourcesBySerialNumber.remove(samIdentifier.getSerialNumber());
+        }
+    }
+
+    /**
+     * Update the allocation statistics. Must be called with the lock held.
+     *
+     * @param startTime the date (nanoseconds) of the allocation request
+     */
+    private void recordAllocation(long startTime) {
+        long waitTime = System.nanoTime() - startTime;
+        allocationCount++;
+        totalWaitTime += waitTime;
+        if (waitTime > maxWaitTime) {
+            maxWaitTime = waitTime;
+        }
+    }
+
+    /**
+     * Key of a free SAM resources list: SAM revision and group reference
+     */
+    private static final class FreeListKey {
+        private final SamRevision samRevision;
+        private final String groupReference;
+
+        FreeListKey(SamIdentifier samIdentifier) {
+            if (samIdentifier != null) {
+                samRevision = samIdentifier.getSamRevision();
+                groupReference = samIdentifier.getGroupReference();
+            } else {
+                samRevision = null;
+                groupReference = null;
+            }
+        }
+
+        /**
+         * Indicates whether the resources of this list may match the provided identifier
+         *
+         * @param samIdentifier the targeted SAM identifier
+         * @return false if none of the resources of this list can match
+         */
+        boolean isCompatible(SamIdentifier samIdentifier) {
+            if (samIdentifier == null || samRevision == null) {
+                /* unidentified SAM resources match any identifier */
+                return true;
+            }
+            if (samIdentifier.getSamRevision() != AUTO
+                    && samIdentifier.getSamRevision() != samRevision) {
+                return false;
+            }
+            /* the group of a SAM is unknown until defined, any group is then accepted */
+            return groupReference == null || samIdentifier.getGroupReference() == null
+                    || samIdentifier.getGroupReference().equals(groupReference);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FreeListKey)) {
+                return false;
+            }
+            FreeListKey that = (FreeListKey) o;
+            return samRevision == that.samRevision && (groupReference == null
+                    ? that.groupReference == null
+                    : groupReference.equals(that.groupReference));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = samRevision != null ? samRevision.hashCode() : 0;
+            return 31 * result + (groupReference != null ? groupReference.hashCode() : 0);
+        }
+    }
+
+    /**
+     * A pending BLOCKING allocation
+     */
+    private final class AllocationRequest {
+        private final SamIdentifier samIdentifier;
+        private final Condition condition = lock.newCondition();
+        /* the handed over resource, set by releaseResource */
+        private SamResource samResource;
+
+        AllocationRequest(SamIdentifier samIdentifier) {
+            this.samIdentifier = samIdentifier;
+        }
+    }
+
+    /**
+     * Snapshot of the allocation statistics of a {@link SamResourceManager}
+     */
+    public static final class AllocationStatistics {
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long allocationCount;
+        private final long allocationTimeoutCount;
+        private final long averageWaitTime;
+        private final long maxWaitTime;
+        private final Map<String, Double> samUtilizations;
+
+        AllocationStatistics(int queueDepth, int maxQueueDepth, long allocationCount,
+                long allocationTimeoutCount, long averageWaitTime, long maxWaitTime,
+                Map<String, Double> samUtilizations) {
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.allocationCount = allocationCount;
+            this.allocationTimeoutCount = allocationTimeoutCount;
+            this.averageWaitTime = averageWaitTime;
+            this.maxWaitTime = maxWaitTime;
+            this.samUtilizations = Collections.unmodifiableMap(samUtilizations);
+        }
+
+        /**
+         * @return the number of BLOCKING allocations currently waiting for a SAM resource
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return the highest number of BLOCKING allocations that waited at the same time
+         */
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /**
+         * @return the number of successful allocations
+         */
+        public long getAllocationCount() {
+            return allocationCount;
+        }
+
+        /**
+         * @return the number of BLOCKING allocations that ended with a timeout
+         */
+        public long getAllocationTimeoutCount() {
+            return allocationTimeoutCount;
+        }
+
+        /**
+         * @return the average time (in milliseconds) spent to obtain a SAM resource
+         */
+        public long getAverageWaitTime() {
+            return averageWaitTime;
+        }
+
+        /**
+         * @return the longest time (in milliseconds) spent to obtain a SAM resource
+         */
+        public long getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        /**
+         * @return the utilization rate (0 to 1) of each local SAM resource, by reader name
+         */
+        public Map<String, Double> getSamUtilizations() {
+            return samUtilizations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "AllocationStatistics: QUEUEDEPTH = %d, MAXQUEUEDEPTH = %d, ALLOCATIONS = %d, "
+                            + "TIMEOUTS = %d, AVGWAIT = %d ms, MAXWAIT = %d ms, UTILIZATIONS = %s",
+                    queueDepth, maxQueueDepth, allocationCount, allocationTimeoutCount,
+                    averageWaitTime, maxWaitTime, samUtilizations);
         }
     }
 
@@ -217,6 +710,15 @@ public class SamResourceManager {
      * @param samReader the SAM reader of the resource to remove from the list.
      */
     private void removeResource(SeReader samReader) {
+        lock.lock();
+        try {
+            removeResourceLocked(samReader);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeResourceLocked(SeReader samReader) {
         ListIterator<SamResource> iterator = localSamResources.listIterator();
         while (iterator.hasNext()) {
             SamResource currentSamResource = iterator.next();
@@ -229,6 +731,9 @@ public class SamResourceManager {
                                     .toHex(currentSamResource.getMatchingSe().getSerialNumber()));
                 }
                 iterator.remove();
+                removeFromFreeLists(currentSamResource);
+                unindexSerialNumber(currentSamResource);
+                currentSamResource.setSamResourceManager(null);
             }
         }
     }
@@ -244,11 +749,12 @@ public class SamResourceManager {
 
         final ReaderObserver readerObserver;
         final String samReaderFilter;
-        Pattern p;
+        final Pattern p;
 
         PluginObserver(ReaderObserver readerObserver, String samReaderFilter) {
             this.readerObserver = readerObserver;
             this.samReaderFilter = samReaderFilter;
+            this.p = Pattern.compile(samReaderFilter);
         }
 
         /**
@@ -280,7 +786,6 @@ public class SamResourceManager {
                          *
                          * We add an observer to this reader if possible.
                          */
-                        p = Pattern.compile(samReaderFilter);
                         if (p.matcher(readerName).matches()) {
                             /* Enable logging */
                             try {
@@ -305,9 +810,7 @@ public class SamResourceManager {
                                 try {
                                     if (samReader.isSePresent()) {
                                         logger.debug("Create SAM resource: {}", readerName);
-                                        synchronized (localSamResources) {
-                                            localSamResources.add(createSamResource(samReader));
-                                        }
+                                        addResource(createSamResource(samReader));
                                     }
                                 } catch (NoStackTraceThrowable noStackTraceThrowable) {
                                     noStackTraceThrowable.printStackTrace();
@@ -327,7 +830,6 @@ public class SamResourceManager {
                          * right after. Thus, we can properly remove the observer attached to this
                          * reader before the list update.
                          */
-                        p = Pattern.compile(samReaderFilter);
                         if (p.matcher(readerName).matches()) {
 
                             logger.info("Reader removed. READERNAME = {}", readerName);
@@ -379,40 +881,38 @@ public class SamResourceManager {
             } catch (KeypleReaderNotFoundException e) {
                 e.printStackTrace();
             }
-            synchronized (localSamResources) {
-                switch (event.getEventType()) {
-                    case SE_MATCHED:
-                    case SE_INSERTED:
-                        SamResource newSamResource = null;
-                        try {
-                            /*
-                             * although the reader allocation is dynamic, the SAM resource type is
-                             * STATIC
-                             */
-                            newSamResource = createSamResource(samReader);
-                        } catch (KeypleReaderException e) {
-                            logger.error("Reader failure while creating a SamResource from {}",
-                                    samReader.getName());
-                            e.printStackTrace();
-                        }
-                        /* failures are ignored */
-                        if (newSamResource != null) {
-                            if (logger.isInfoEnabled()) {
-                                logger.info(
-                                        "Created SAM resource: READER = {}, SAM_REVISION = {}, SAM_SERIAL_NUMBER = {}",
-                                        event.getReaderName(),
-                                        newSamResource.getMatchingSe().getSamRevision(),
-                                        ByteArrayUtil.toHex(
-                                                newSamResource.getMatchingSe().getSerialNumber()));
-                            }
-                            localSamResources.add(newSamResource);
+            switch (event.getEventType()) {
+                case SE_MATCHED:
+                case SE_INSERTED:
+                    SamResource newSamResource = null;
+                    try {
+                        /*
+                         * although the reader allocation is dynamic, the SAM resource type is
+                         * STATIC
+                         */
+                        newSamResource = createSamResource(samReader);
+                    } catch (KeypleReaderException e) {
+                        logger.error("Reader failure while creating a SamResource from {}",
+                                samReader.getName());
+                        e.printStackTrace();
+                    }
+                    /* failures are ignored */
+                    if (newSamResource != null) {
+                        if (logger.isInfoEnabled()) {
+                            logger.info(
+                                    "Created SAM resource: READER = {}, SAM_REVISION = {}, SAM_SERIAL_NUMBER = {}",
+                                    event.getReaderName(),
+                                    newSamResource.getMatchingSe().getSamRevision(),
+                                    ByteArrayUtil.toHex(
+                                            newSamResource.getMatchingSe().getSerialNumber()));
                         }
-                        break;
-                    case SE_REMOVAL:
-                    case IO_ERROR:
-                        removeResource(samReader);
-                        break;
-                }
+                        addResource(newSamResource);
+                    }
+                    break;
+                case SE_REMOVAL:
+                case IO_ERROR:
+                    removeResource(samReader);
+                    break;
             }
         }
     }
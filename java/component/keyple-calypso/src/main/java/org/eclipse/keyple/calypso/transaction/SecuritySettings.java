@@ -48,6 +48,12 @@ public class SecuritySettings {
     private final static byte DEFAULT_KEY_RECORD_NUMER = (byte) 0x00;
     /** List of authorized KVCs */
     private List<Byte> authorizedKvcList;
+    /** Digest Update Multiple usage flag */
+    private boolean digestUpdateMultipleAllowed = false;
+    /** Digest pipelining usage flag */
+    private boolean digestPipeliningAllowed = false;
+    /** Listener of the transaction timelines */
+    private TransactionTimelineListener timelineListener;
 
     /** Enummap containing the key information */
     private final EnumMap<DefaultKeyInfo, Byte> keySettings =
@@ -115,4 +121,70 @@ public class SecuritySettings {
     public boolean isAuthorizedKvc(byte kvc) {
         return authorizedKvcList == null || authorizedKvcList.contains(kvc);
     }
+
+    /**
+     * Allows the use of the Digest Update Multiple command when closing a secure session.
+     * <p>
+     * When allowed, and if the SAM supports it (C1 revision) and the session is not encrypted, the
+     * PO commands and responses are sent to the SAM packed in as few Digest Update Multiple
+     * commands as possible instead of one Digest Update command per command and per response.
+     * <p>
+     * Not allowed by default.
+     *
+     * @param digestUpdateMultipleAllowed true to allow the use of Digest Update Multiple
+     */
+    public void setDigestUpdateMultipleAllowed(boolean digestUpdateMultipleAllowed) {
+        this.digestUpdateMultipleAllowed = digestUpdateMultipleAllowed;
+    }
+
+    /**
+     * @return true if the use of the Digest Update Multiple command is allowed
+     */
+    public boolean isDigestUpdateMultipleAllowed() {
+        return digestUpdateMultipleAllowed;
+    }
+
+    /**
+     * Allows the digest commands to be sent to the SAM while the secure session is in progress.
+     * <p>
+     * When allowed, the Digest Init and Digest Update commands related to the PO exchanges are
+     * transmitted asynchronously to the SAM as soon as the PO responses are received (see
+     * {@link org.eclipse.keyple.core.seproxy.message.ProxyReader#transmitAsync}), so that only the
+     * digest of the closing commands and the Digest Close command remain to be sent to the SAM
+     * when closing the session. The SAM responses are checked when closing the session.
+     * <p>
+     * Not allowed by default.
+     *
+     * @param digestPipeliningAllowed true to allow the digest commands to be sent during the session
+     */
+    public void setDigestPipeliningAllowed(boolean digestPipeliningAllowed) {
+        this.digestPipeliningAllowed = digestPipeliningAllowed;
+    }
+
+    /**
+     * @return true if the digest commands may be sent to the SAM during the session
+     */
+    public boolean isDigestPipeliningAllowed() {
+        return digestPipeliningAllowed;
+    }
+
+    /**
+     * Sets the listener notified with the {@link TransactionTimeline} of each transaction when its
+     * secure session is closed or cancelled (e.g. a {@link TransactionMetrics} shared by all the
+     * transactions).
+     * <p>
+     * No listener by default.
+     *
+     * @param timelineListener the listener, null to remove it
+     */
+    public void setTimelineListener(TransactionTimelineListener timelineListener) {
+        this.timelineListener = timelineListener;
+    }
+
+    /**
+     * @return the listener of the transaction timelines, null if none
+     */
+    public TransactionTimelineListener getTimelineListener() {
+        return timelineListener;
+    }
 }
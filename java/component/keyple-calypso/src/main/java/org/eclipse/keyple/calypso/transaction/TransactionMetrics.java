@@ -0,0 +1,170 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.core.seproxy.metrics.HistogramSnapshot;
+import org.eclipse.keyple.core.seproxy.metrics.LatencyHistogram;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * {@link TransactionTimelineListener} aggregating the timelines of the completed transactions in
+ * latency histograms.
+ * <p>
+ * The durations of the transactions and of their phases are counted globally, by reader (the PO
+ * reader for the PO phases, the SAM reader for the SAM phases) and by PO type (revision and
+ * application type byte, e.g. "REV3_1/20"), to find the slow SAMs or PO types under load. The
+ * duration of a phase is the cumulated duration of its exchanges in the transaction.
+ * <p>
+ * A single instance is meant to be shared by all the transactions (see
+ * {@link SecuritySettings#setTimelineListener(TransactionTimelineListener)}), the recording is
+ * thread-safe and lock-free.
+ */
+public final class TransactionMetrics implements TransactionTimelineListener {
+
+    /**
+     * The histograms of a phase
+     */
+    private static final class PhaseHistograms {
+        final LatencyHistogram duration = new LatencyHistogram();
+        final AtomicLong apduCount = new AtomicLong();
+        final ConcurrentMap<String, LatencyHistogram> durationByReader =
+                new ConcurrentHashMap<String, LatencyHistogram>();
+        final ConcurrentMap<String, LatencyHistogram> durationByPoType =
+                new ConcurrentHashMap<String, LatencyHistogram>();
+    }
+
+    private final LatencyHistogram transactionDuration = new LatencyHistogram();
+    private final AtomicLong failedTransactionCount = new AtomicLong();
+    private final Map<TransactionPhase, PhaseHistograms> phasesHistograms =
+            new EnumMap<TransactionPhase, PhaseHistograms>(TransactionPhase.class);
+
+    public TransactionMetrics() {
+        for (TransactionPhase phase : TransactionPhase.values()) {
+            phasesHistograms.put(phase, new PhaseHistograms());
+        }
+    }
+
+    public void onTransactionCompleted(TransactionTimeline timeline) {
+        transactionDuration.record(timeline.getTotalNanos());
+        if (!timeline.isSuccessful()) {
+            failedTransactionCount.incrementAndGet();
+        }
+        String poType = timeline.getPoRevision() + "/"
+                + ByteArrayUtil.toHex(new byte[] {timeline.getPoApplicationType()});
+        for (TransactionPhase phase : TransactionPhase.values()) {
+            int apduCount = timeline.getApduCount(phase);
+            long durationNanos = timeline.getDurationNanos(phase);
+            if (apduCount == 0 && durationNanos == 0) {
+                /* the phase didn't occur in this transaction */
+                continue;
+            }
+            String readerName = phase.isSamPhase() ? timeline.getSamReaderName()
+                    : timeline.getPoReaderName();
+            PhaseHistograms phaseHistograms = phasesHistograms.get(phase);
+            phaseHistograms.duration.record(durationNanos);
+            phaseHistograms.apduCount.addAndGet(apduCount);
+            getHistogram(phaseHistograms.durationByReader, readerName).record(durationNanos);
+            getHistogram(phaseHistograms.durationByPoType, poType).record(durationNanos);
+        }
+    }
+
+    /**
+     * @return the durations of the transactions
+     */
+    public HistogramSnapshot getTransactionSnapshot() {
+        return transactionDuration.snapshot();
+    }
+
+    /**
+     * @return the number of transactions whose secure session was not successfully closed
+     */
+    public long getFailedTransactionCount() {
+        return failedTransactionCount.get();
+    }
+
+    /**
+     * @param phase the phase
+     * @return the durations of the phase
+     */
+    public HistogramSnapshot getPhaseSnapshot(TransactionPhase phase) {
+        return phasesHistograms.get(phase).duration.snapshot();
+    }
+
+    /**
+     * @param phase the phase
+     * @return the total number of APDUs sent during the phase
+     */
+    public long getPhaseApduCount(TransactionPhase phase) {
+        return phasesHistograms.get(phase).apduCount.get();
+    }
+
+    /**
+     * @param phase the phase
+     * @return the durations of the phase by reader name
+     */
+    public Map<String, HistogramSnapshot> getPhaseSnapshotsByReader(TransactionPhase phase) {
+        return snapshot(phasesHistograms.get(phase).durationByReader);
+    }
+
+    /**
+     * @param phase the phase
+     * @return the durations of the phase by PO type
+     */
+    public Map<String, HistogramSnapshot> getPhaseSnapshotsByPoType(TransactionPhase phase) {
+        return snapshot(phasesHistograms.get(phase).durationByPoType);
+    }
+
+    /**
+     * Resets all the histograms
+     */
+    public void reset() {
+        transactionDuration.reset();
+        failedTransactionCount.set(0);
+        for (PhaseHistograms phaseHistograms : phasesHistograms.values()) {
+            phaseHistograms.duration.reset();
+            phaseHistograms.apduCount.set(0);
+            phaseHistograms.durationByReader.clear();
+            phaseHistograms.durationByPoType.clear();
+        }
+    }
+
+    private static LatencyHistogram getHistogram(ConcurrentMap<String, LatencyHistogram> histograms,
+            String key) {
+        if (key == null) {
+            key = "";
+        }
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existingHistogram = histograms.putIfAbsent(key, histogram);
+            if (existingHistogram != null) {
+                histogram = existingHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    private static Map<String, HistogramSnapshot> snapshot(
+            Map<String, LatencyHistogram> histograms) {
+        Map<String, HistogramSnapshot> snapshots = new HashMap<String, HistogramSnapshot>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,55 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+/**
+ * The phases of a Calypso transaction recorded in a {@link TransactionTimeline}.
+ * <p>
+ * Each phase is an exchange with either the PO reader or the SAM reader.
+ */
+public enum TransactionPhase {
+    /** PO selection (recorded by the application, the selection precedes the transaction) */
+    PO_SELECTION("PO selection", false),
+    /** Select Diversifier and Get Challenge */
+    SAM_CHALLENGE("SAM challenge", true),
+    /** Open Secure Session and the commands sent with it */
+    PO_OPEN_SESSION("PO open session", false),
+    /** PO commands sent inside or outside a secure session */
+    PO_COMMANDS("PO commands", false),
+    /** Digest Init, Digest Update and Digest Close (during the session or when closing it) */
+    SAM_DIGEST("SAM digest", true),
+    /** Close Secure Session and the ratification command */
+    PO_CLOSE_SESSION("PO close session", false),
+    /** Digest Authenticate */
+    SAM_AUTHENTICATE("SAM authenticate", true),
+    /** Close Secure Session in abort mode */
+    PO_CANCEL_SESSION("PO cancel session", false);
+
+    private final String name;
+    private final boolean samPhase;
+
+    TransactionPhase(String name, boolean samPhase) {
+        this.name = name;
+        this.samPhase = samPhase;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if the phase is an exchange with the SAM, false if it is an exchange with the PO
+     */
+    public boolean isSamPhase() {
+        return samPhase;
+    }
+}
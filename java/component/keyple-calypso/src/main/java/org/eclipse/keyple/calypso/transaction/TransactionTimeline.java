@@ -0,0 +1,244 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.calypso.command.po.PoRevision;
+
+/**
+ * The timeline of a {@link PoTransaction}: the list of the exchanges with the PO and SAM readers,
+ * with their duration and number of APDUs.
+ * <p>
+ * The phases are recorded in the order of their completion. With the digest pipelining, the SAM
+ * digest phases run in background and overlap the PO phases.
+ * <p>
+ * The PO selection precedes the creation of the transaction, it can be added by the application
+ * with {@link #recordPhase(TransactionPhase, long, long, int)}.
+ */
+public final class TransactionTimeline {
+
+    /**
+     * An exchange with a reader
+     */
+    public static final class PhaseRecord {
+        private final TransactionPhase phase;
+        private final long startNanos;
+        private final long durationNanos;
+        private final int apduCount;
+
+        PhaseRecord(TransactionPhase phase, long startNanos, long durationNanos, int apduCount) {
+            this.phase = phase;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.apduCount = apduCount;
+        }
+
+        public TransactionPhase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return the beginning of the exchange ({@link System#nanoTime()} time base)
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return the number of APDUs sent to the reader
+         */
+        public int getApduCount() {
+            return apduCount;
+        }
+
+        @Override
+        public String toString() {
+            return phase.getName() + ": " + durationNanos / 1000 + " us, " + apduCount + " APDU(s)";
+        }
+    }
+
+    private final String poReaderName;
+    private final String samReaderName;
+    private final PoRevision poRevision;
+    private final byte poApplicationType;
+    private final List<PhaseRecord> phases = new ArrayList<PhaseRecord>();
+    private long startNanos;
+    private long endNanos;
+    private boolean completed;
+    private boolean successful;
+
+    /**
+     * Creates a timeline starting now
+     *
+     * @param poReaderName the name of the PO reader
+     * @param samReaderName the name of the SAM reader, null if the transaction has no SAM
+     * @param poRevision the PO revision
+     * @param poApplicationType the PO application type byte
+     */
+    TransactionTimeline(String poReaderName, String samReaderName, PoRevision poRevision,
+            byte poApplicationType) {
+        this.poReaderName = poReaderName;
+        this.samReaderName = samReaderName;
+        this.poRevision = poRevision;
+        this.poApplicationType = poApplicationType;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records an exchange. The timeline start is moved back if the exchange started before it.
+     *
+     * @param phase the phase
+     * @param startNanos the beginning of the exchange ({@link System#nanoTime()} time base)
+     * @param durationNanos the duration of the exchange in nanoseconds
+     * @param apduCount the number of APDUs sent to the reader
+     */
+    public synchronized void recordPhase(TransactionPhase phase, long startNanos,
+            long durationNanos, int apduCount) {
+        if (phase == null) {
+            throw new IllegalArgumentException("The phase must not be null");
+        }
+        if (completed) {
+            return;
+        }
+        phases.add(new PhaseRecord(phase, startNanos, durationNanos, apduCount));
+        if (startNanos - this.startNanos < 0) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * Marks the end of the transaction, the phases recorded afterwards are ignored
+     *
+     * @param successful true if the transaction was successful
+     * @return false if the timeline was already completed
+     */
+    synchronized boolean complete(boolean successful) {
+        if (completed) {
+            return false;
+        }
+        this.completed = true;
+        this.successful = successful;
+        this.endNanos = System.nanoTime();
+        return true;
+    }
+
+    public String getPoReaderName() {
+        return poReaderName;
+    }
+
+    /**
+     * @return the name of the SAM reader, null if the transaction has no SAM
+     */
+    public String getSamReaderName() {
+        return samReaderName;
+    }
+
+    public PoRevision getPoRevision() {
+        return poRevision;
+    }
+
+    public byte getPoApplicationType() {
+        return poApplicationType;
+    }
+
+    /**
+     * @return a copy of the recorded phases
+     */
+    public synchronized List<PhaseRecord> getPhases() {
+        return new ArrayList<PhaseRecord>(phases);
+    }
+
+    /**
+     * @param phase the phase
+     * @return the cumulated duration of the exchanges of the phase in nanoseconds
+     */
+    public synchronized long getDurationNanos(TransactionPhase phase) {
+        long durationNanos = 0;
+        for (PhaseRecord phaseRecord : phases) {
+            if (phaseRecord.phase == phase) {
+                durationNanos += phaseRecord.durationNanos;
+            }
+        }
+        return durationNanos;
+    }
+
+    /**
+     * @param phase the phase
+     * @return the number of APDUs sent during the phase
+     */
+    public synchronized int getApduCount(TransactionPhase phase) {
+        int apduCount = 0;
+        for (PhaseRecord phaseRecord : phases) {
+            if (phaseRecord.phase == phase) {
+                apduCount += phaseRecord.apduCount;
+            }
+        }
+        return apduCount;
+    }
+
+    /**
+     * @return the number of APDUs sent to the PO
+     */
+    public synchronized int getPoApduCount() {
+        int apduCount = 0;
+        for (PhaseRecord phaseRecord : phases) {
+            if (!phaseRecord.phase.isSamPhase()) {
+                apduCount += phaseRecord.apduCount;
+            }
+        }
+        return apduCount;
+    }
+
+    /**
+     * @return the number of APDUs sent to the SAM
+     */
+    public synchronized int getSamApduCount() {
+        int apduCount = 0;
+        for (PhaseRecord phaseRecord : phases) {
+            if (phaseRecord.phase.isSamPhase()) {
+                apduCount += phaseRecord.apduCount;
+            }
+        }
+        return apduCount;
+    }
+
+    /**
+     * @return the duration of the transaction in nanoseconds, from its start (or the start of the
+     *         PO selection if recorded) to its completion or to now if not completed
+     */
+    public synchronized long getTotalNanos() {
+        return (completed ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    public synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return true if the transaction is completed and the secure session was successfully closed
+     */
+    public synchronized boolean isSuccessful() {
+        return successful;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TransactionTimeline: PO = " + poReaderName + ", SAM = " + samReaderName
+                + ", TOTAL = " + getTotalNanos() / 1000 + " us, SUCCESSFUL = " + successful
+                + ", PHASES = " + phases;
+    }
+}
@@ -0,0 +1,27 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+/**
+ * Listener notified when a {@link PoTransaction} is completed (see
+ * {@link SecuritySettings#setTimelineListener(TransactionTimelineListener)}).
+ */
+public interface TransactionTimelineListener {
+    /**
+     * Called when the secure session has been closed or cancelled, on the thread which closed it.
+     * <p>
+     * The implementation must be fast, it delays the end of the transaction.
+     *
+     * @param timeline the timeline of the transaction
+     */
+    void onTransactionCompleted(TransactionTimeline timeline);
+}
@@ -12,6 +12,10 @@
 package org.eclipse.keyple.calypso.command.po.parser;
 
 
+import java.util.SortedMap;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -26,7 +30,31 @@ public class ReadRecordsRespParsTest {
     public void readRecordRespPars_records() {}
 
     @Test
-    public void sampleMultipleRecordsParsing() {}
+    public void sampleMultipleRecordsParsing() {
+        ApduResponse apduResponse =
+                new ApduResponse(ByteArrayUtil.fromHex("0103112233 02021122 9000"), null);
+        ReadRecordsRespPars readRecordsRespPars = new ReadRecordsRespPars(apduResponse,
+                ReadDataStructure.MULTIPLE_RECORD_DATA, (byte) 1);
+        SortedMap<Integer, byte[]> records = readRecordsRespPars.getRecords();
+        Assert.assertEquals(2, records.size());
+        Assert.assertArrayEquals(ByteArrayUtil.fromHex("112233"), records.get(1));
+        Assert.assertArrayEquals(ByteArrayUtil.fromHex("1122"), records.get(2));
+        Assert.assertEquals(
+                "Multiple record data: {RECORD = 1, DATA = 112233}, {RECORD = 2, DATA = 1122}",
+                readRecordsRespPars.toString());
+    }
+
+    @Test
+    public void sampleCountersParsing() {
+        ApduResponse apduResponse =
+                new ApduResponse(ByteArrayUtil.fromHex("000001 FFFFFF 9000"), null);
+        ReadRecordsRespPars readRecordsRespPars = new ReadRecordsRespPars(apduResponse,
+                ReadDataStructure.MULTIPLE_COUNTER, (byte) 1);
+        SortedMap<Integer, Integer> counters = readRecordsRespPars.getCounters();
+        Assert.assertEquals(2, counters.size());
+        Assert.assertEquals(Integer.valueOf(1), counters.get(1));
+        Assert.assertEquals(Integer.valueOf(0xFFFFFF), counters.get(2));
+    }
 
     @Test
     public void readRecordRespPars_one_record_sfi() {}
@@ -44,4 +44,15 @@ public class DigestUpdateCmdBuildTest {
         ApduRequest apduReq = apduCommandBuilder2.getApduRequest();
         Assert.assertArrayEquals(request2, apduReq.getBytes());
     }
+
+    @Test
+    public void digestUpdateCmdBuild_fromBufferPart() throws IllegalArgumentException {
+        byte[] buffer = new byte[] {0x00, 0x00, (byte) 0x94, (byte) 0xAE, 0x01, 0x02, 0x00};
+        byte[] request = new byte[] {(byte) 0x80, (byte) 0x8C, 0x00, 0x00, 0x04, (byte) 0x94,
+                (byte) 0xAE, 0x01, 0x02};
+
+        AbstractApduCommandBuilder apduCommandBuilder =
+                new DigestUpdateCmdBuild(SamRevision.C1, false, buffer, 2, 4);
+        Assert.assertArrayEquals(request, apduCommandBuilder.getApduRequest().getBytes());
+    }
 }
@@ -0,0 +1,38 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.command.sam.builder;
+
+
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.calypso.command.sam.builder.security.DigestUpdateMultipleCmdBuild;
+import org.eclipse.keyple.core.command.AbstractApduCommandBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DigestUpdateMultipleCmdBuildTest {
+
+    @Test
+    public void digestUpdateMultipleCmdBuild_fromBufferPart() throws IllegalArgumentException {
+        byte[] buffer = new byte[] {0x00, 0x02, 0x01, 0x02, 0x01, 0x03, 0x00};
+        byte[] request = new byte[] {(byte) 0x80, (byte) 0x8C, (byte) 0x80, 0x00, 0x05, 0x02,
+                0x01, 0x02, 0x01, 0x03};
+
+        AbstractApduCommandBuilder apduCommandBuilder =
+                new DigestUpdateMultipleCmdBuild(SamRevision.C1, buffer, 1, 5);
+        Assert.assertArrayEquals(request, apduCommandBuilder.getApduRequest().getBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digestUpdateMultipleCmdBuild_digestNull() throws IllegalArgumentException {
+        new DigestUpdateMultipleCmdBuild(SamRevision.C1, null);
+    }
+}
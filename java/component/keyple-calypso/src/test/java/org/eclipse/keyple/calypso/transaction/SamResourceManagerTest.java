@@ -0,0 +1,253 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.AUTO;
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.C1;
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.S1D;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.keyple.core.seproxy.ReaderPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class SamResourceManagerTest {
+
+    private static final SamIdentifier ANY_SAM = new SamIdentifier(AUTO, null, null);
+
+    @Test
+    public void allocate_nonBlocking_noResourceAvailable() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(1), ".*", 100);
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+        assertNotNull(samResource);
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        samResourceManager.freeSamResource(samResource);
+        assertSame(samResource, samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+    }
+
+    @Test
+    public void free_unknownResource_ignored() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(1), ".*", 100);
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+        /* resource of another manager, allocated */
+        SamResource otherSamResource = new SamResourceManager(samPlugin(1), ".*", 100)
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+        samResourceManager.freeSamResource(otherSamResource);
+        assertFalse(otherSamResource.isSamResourceFree());
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        samResourceManager.freeSamResource(samResource);
+        assertSame(samResource, samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+    }
+
+    @Test
+    public void free_alreadyFreeResource_ignored() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(1), ".*", 100);
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+        samResourceManager.freeSamResource(samResource);
+        samResourceManager.freeSamResource(samResource);
+        /* the resource is allocated once only */
+        assertSame(samResource, samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        assertEquals(2, samResource.getAllocationCount());
+    }
+
+    @Test
+    public void free_prefetchedChallengeDiscarded() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(1), ".*", 100);
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+        /* Get Challenge response */
+        SeResponse challengeResponse = new SeResponse(true, true, null, Collections
+                .singletonList(new ApduResponse(ByteArrayUtil.fromHex("C1C2C3C49000"), null)));
+        ProxyReader samReader = (ProxyReader) samResource.getSeReader();
+        doReturn(challengeResponse).when(samReader).transmit(any(SeRequest.class));
+        samResource.prefetchChallenge((byte) 4);
+        assertArrayEquals(ByteArrayUtil.fromHex("C1C2C3C4"),
+                samResource.takePrefetchedChallenge((byte) 4));
+        /* the challenge of the previous owner is not handed to the next one */
+        samResource.prefetchChallenge((byte) 4);
+        samResourceManager.freeSamResource(samResource);
+        assertSame(samResource, samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        assertNull(samResource.takePrefetchedChallenge((byte) 4));
+    }
+
+    @Test
+    public void allocate_blocking_timeout() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(1), ".*", 100);
+        samResourceManager.allocateSamResource(SamResourceManager.AllocationMode.BLOCKING,
+                ANY_SAM);
+        long start = System.currentTimeMillis();
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM));
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        SamResourceManager.AllocationStatistics statistics =
+                samResourceManager.getAllocationStatistics();
+        assertEquals(1, statistics.getAllocationCount());
+        assertEquals(1, statistics.getAllocationTimeoutCount());
+        assertEquals(0, statistics.getQueueDepth());
+        assertEquals(1, statistics.getMaxQueueDepth());
+    }
+
+    @Test
+    public void allocate_blocking_wokenUpInRequestOrder() throws Exception {
+        final SamResourceManager samResourceManager =
+                new SamResourceManager(samPlugin(1), ".*", 5000);
+        final SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM);
+
+        final int nWaiters = 4;
+        final List<Integer> servedOrder = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch doneSignal = new CountDownLatch(nWaiters);
+        final AtomicReference<Exception> waiterException = new AtomicReference<Exception>();
+        for (int i = 0; i < nWaiters; i++) {
+            final int index = i;
+            new Thread() {
+                public void run() {
+                    try {
+                        SamResource allocated = samResourceManager.allocateSamResource(
+                                SamResourceManager.AllocationMode.BLOCKING, ANY_SAM);
+                        servedOrder.add(index);
+                        samResourceManager.freeSamResource(allocated);
+                    } catch (Exception e) {
+                        waiterException.compareAndSet(null, e);
+                    } finally {
+                        doneSignal.countDown();
+                    }
+                }
+            }.start();
+            /* let the thread enter the waiting queue */
+            while (samResourceManager.getAllocationStatistics().getQueueDepth() != index + 1
+                    && waiterException.get() == null) {
+                Thread.sleep(1);
+            }
+        }
+
+        samResourceManager.freeSamResource(samResource);
+
+        assertTrue(doneSignal.await(5, TimeUnit.SECONDS));
+        assertNull(waiterException.get());
+        assertEquals(Arrays.asList(0, 1, 2, 3), servedOrder);
+        SamResourceManager.AllocationStatistics statistics =
+                samResourceManager.getAllocationStatistics();
+        assertEquals(nWaiters + 1, statistics.getAllocationCount());
+        assertEquals(0, statistics.getAllocationTimeoutCount());
+        assertEquals(nWaiters, statistics.getMaxQueueDepth());
+        assertEquals(1, statistics.getSamUtilizations().size());
+        assertEquals(nWaiters + 1, samResource.getAllocationCount());
+    }
+
+    @Test
+    public void allocate_bySerialNumber() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(200), ".*", 100);
+        SamResource samResource =
+                samResourceManager.allocateSamResource(SamResourceManager.AllocationMode.BLOCKING,
+                        new SamIdentifier(C1, "00000096", null));
+        assertEquals("SAM_READER_150", samResource.getSeReader().getName());
+        /* already allocated */
+        assertNull(samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(C1, "00000096", null)));
+        /* regular expression */
+        samResource = samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(AUTO, "000000C.", null));
+        assertEquals("000000C0",
+                ByteArrayUtil.toHex(samResource.getMatchingSe().getSerialNumber()));
+        /* no SAM with this revision */
+        assertNull(samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(S1D, null, null)));
+        /* all remaining SAMs can be allocated */
+        for (int i = 0; i < 198; i++) {
+            assertNotNull(samResourceManager.allocateSamResource(
+                    SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        }
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+    }
+
+    @Test
+    public void allocate_byGroupReference() throws Exception {
+        SamResourceManager samResourceManager = new SamResourceManager(samPlugin(1), ".*", 100);
+        /* the group of the SAM is unknown, any group is accepted */
+        SamResource samResource = samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(AUTO, null, "GROUP"));
+        assertNotNull(samResource);
+        samResourceManager.freeSamResource(samResource);
+        /* the SAM is assigned to a group, the index follows */
+        samResource.setSamIdentifier(new SamIdentifier(C1, "000000AA", "GROUP"));
+        assertNull(samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(C1, null, "OTHER_GROUP")));
+        assertNull(samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(C1, "00000000", null)));
+        assertSame(samResource, samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(C1, null, "GROUP")));
+        samResourceManager.freeSamResource(samResource);
+        assertSame(samResource, samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.NON_BLOCKING,
+                new SamIdentifier(C1, "000000AA", null)));
+    }
+
+    /**
+     * Builds a non observable plugin providing nbReaders SAM readers
+     */
+    private static ReaderPlugin samPlugin(int nbReaders) throws Exception {
+        SortedSet<SeReader> samReaders = new TreeSet<SeReader>(new Comparator<SeReader>() {
+            @Override
+            public int compare(SeReader r1, SeReader r2) {
+                return r1.getName().compareTo(r2.getName());
+            }
+        });
+        for (int i = 0; i < nbReaders; i++) {
+            samReaders.add(samReader("SAM_READER_" + i, String.format("%08X", i)));
+        }
+        ReaderPlugin samPlugin = mock(ReaderPlugin.class);
+        doReturn("SAM_PLUGIN").when(samPlugin).getName();
+        doReturn(samReaders).when(samPlugin).getReaders();
+        return samPlugin;
+    }
+
+    private static SeReader samReader(String name, String serialNumber) throws Exception {
+        ProxyReader samReader = mock(ProxyReader.class);
+        doReturn(name).when(samReader).getName();
+        SelectionStatus selectionStatus = new SelectionStatus(
+                new AnswerToReset(ByteArrayUtil
+                        .fromHex("3B3F9600805A0080C1200000" + serialNumber + "829000")),
+                null, true);
+        doReturn(new SeResponseSet(
+                new SeResponse(true, false, selectionStatus, new ArrayList<ApduResponse>())))
+                        .when(samReader).transmitSet(any(SeRequestSet.class));
+        return samReader;
+    }
+}
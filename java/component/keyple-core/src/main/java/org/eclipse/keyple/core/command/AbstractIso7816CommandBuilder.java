@@ -80,6 +80,33 @@ public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandB
      */
     protected ApduRequest setApduRequest(byte cla, CommandsTable command, byte p1, byte p2,
             byte[] dataIn, Byte le) {
+        return setApduRequest(cla, command, p1, p2, dataIn, 0,
+                dataIn != null ? dataIn.length : 0, le);
+    }
+
+    /**
+     * Helper method to create an ApduRequest from separated elements, the ingoing data being a
+     * part of the provided buffer.
+     * <p>
+     * The data are copied directly from the caller's buffer into the APDU buffer, allowing the
+     * caller to reuse its buffer to build the next commands.
+     * <p>
+     * The ISO7816-4 case is determined as in
+     * {@link #setApduRequest(byte, CommandsTable, byte, byte, byte[], Byte)}.
+     *
+     * @param cla class of instruction
+     * @param command instruction code
+     * @param p1 instruction parameter 1
+     * @param p2 instruction parameter 2
+     * @param dataIn buffer containing the bytes sent in the data field of the command (can be
+     *        null)
+     * @param dataInOffset offset of the first byte of the data field in dataIn
+     * @param dataInLength number of bytes of the data field (Lc)
+     * @param le maximum number of bytes expected in the data field of the response to the command
+     * @return an ApduRequest
+     */
+    protected ApduRequest setApduRequest(byte cla, CommandsTable command, byte p1, byte p2,
+            byte[] dataIn, int dataInOffset, int dataInLength, Byte le) {
         boolean case4;
         /* sanity check */
         if (dataIn != null && le != null && le != 0) {
@@ -90,7 +117,7 @@ public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandB
         /* Buffer allocation */
         int length = 4; // header
         if (dataIn != null) {
-            length += dataIn.length + 1; // Lc + data
+            length += dataInLength + 1; // Lc + data
         }
         if (le != null) {
             length += 1; // Le
@@ -106,8 +133,8 @@ public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandB
         /* ISO7618 case determination and Le management */
         if (dataIn != null) {
             /* append Lc and ingoing data */
-            apdu[4] = (byte) dataIn.length;
-            System.arraycopy(dataIn, 0, apdu, 5, dataIn.length);
+            apdu[4] = (byte) dataInLength;
+            System.arraycopy(dataIn, dataInOffset, apdu, 5, dataInLength);
             if (le != null) {
                 /*
                  * case4: ingoing and outgoing data, Le is always set to 0 (see Calypso Reader
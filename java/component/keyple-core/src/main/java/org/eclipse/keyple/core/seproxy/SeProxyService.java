@@ -17,6 +17,8 @@ import java.util.Properties;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentSkipListSet;
 import org.eclipse.keyple.core.seproxy.exception.KeyplePluginNotFoundException;
+import org.eclipse.keyple.core.seproxy.metrics.MetricsRecorder;
+import org.eclipse.keyple.core.seproxy.metrics.MetricsRegistry;
 
 /**
  * The Class SeProxyService. This singleton is the entry point of the SE Proxy Service, its instance
@@ -31,6 +33,9 @@ public final class SeProxyService {
     /** the list of readers’ plugins interfaced with the SE Proxy Service */
     private SortedSet<ReaderPlugin> plugins = new ConcurrentSkipListSet<ReaderPlugin>();
 
+    /** the recorder of the readers' measurements */
+    private volatile MetricsRecorder metricsRecorder = new MetricsRegistry();
+
     /**
      * Instantiates a new SeProxyService.
      */
@@ -88,6 +93,28 @@ public final class SeProxyService {
         throw new KeyplePluginNotFoundException(name);
     }
 
+    /**
+     * Sets the recorder of the readers' measurements (APDU round-trip times, selection times, I/O
+     * errors...).
+     *
+     * @param metricsRecorder the recorder, null or {@link MetricsRecorder#NONE} to disable the
+     *        measurements
+     */
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NONE;
+    }
+
+    /**
+     * Gets the recorder of the readers' measurements.
+     * <p>
+     * By default, it is a {@link MetricsRegistry} whose snapshots can be read by an exporter.
+     *
+     * @return the recorder (never null)
+     */
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
     /**
      * Gets the version API, (the version of the sdk).
      *
@@ -12,9 +12,9 @@
 package org.eclipse.keyple.core.seproxy;
 
 import java.util.*;
-import java.util.regex.Pattern;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.HexPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -253,13 +253,19 @@ public class SeSelector {
          */
         private String atrRegex;
 
+        /**
+         * Compiled form of the regular expression (null when the regular expression is empty or
+         * when the filter has been deserialized, it is then compiled at the first use)
+         */
+        private transient HexPattern atrPattern;
+
         /**
          * Regular expression based filter
          *
          * @param atrRegex String hex regular expression
          */
         public AtrFilter(String atrRegex) {
-            this.atrRegex = atrRegex;
+            setAtrRegex(atrRegex);
         }
 
         /**
@@ -269,6 +275,8 @@ public class SeSelector {
          */
         public void setAtrRegex(String atrRegex) {
             this.atrRegex = atrRegex;
+            this.atrPattern =
+                    atrRegex != null && atrRegex.length() != 0 ? HexPattern.compile(atrRegex) : null;
         }
 
         /**
@@ -289,15 +297,15 @@ public class SeSelector {
          * @return a boolean true the ATR matches the current regex
          */
         public boolean atrMatches(byte[] atr) {
-            boolean m;
-            if (atrRegex.length() != 0) {
-                Pattern p = Pattern.compile(atrRegex);
-                String atrString = ByteArrayUtil.toHex(atr);
-                m = p.matcher(atrString).matches();
-            } else {
-                m = true;
+            if (atrRegex == null || atrRegex.length() == 0) {
+                return true;
+            }
+            HexPattern pattern = atrPattern;
+            if (pattern == null) {
+                pattern = HexPattern.compile(atrRegex);
+                atrPattern = pattern;
             }
-            return m;
+            return pattern.matches(atr);
         }
 
         /**
@@ -0,0 +1,422 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.event;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.core.util.Observable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous delivery of the events of observable readers and plugins.
+ * <p>
+ * Once an observable is registered, its events are queued and delivered to its observers by the
+ * threads of a shared executor instead of the thread raising them (e.g. the monitoring thread of a
+ * reader). The events of a given observable are delivered in order, one at a time; the events of
+ * different observables are delivered concurrently.
+ * <p>
+ * The queue of each observable is bounded. When it is full, the {@link OverflowPolicy} of the
+ * dispatcher applies.
+ * <p>
+ * The dispatcher counts the delivered, dropped and coalesced events and measures the queue depth
+ * and the dispatch latency (from the event raising to the return of the last observer).
+ */
+public final class EventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventDispatcher.class);
+
+    /** Default maximum number of pending events per observable */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    /* events delivered to an observable before letting the thread serve another one */
+    private static final int MAX_BATCH_SIZE = 16;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    /**
+     * Behaviour when an event is raised while the queue of the observable is full
+     */
+    public enum OverflowPolicy {
+        /** the oldest pending event is discarded */
+        DROP_OLDEST,
+        /**
+         * a pending insertion (SE_INSERTED or SE_MATCHED) immediately followed by the matching
+         * SE_REMOVAL, or a READER_CONNECTED immediately followed by the READER_DISCONNECTED of the
+         * same readers, are both discarded; the oldest pending event is discarded if there is no
+         * such pair
+         */
+        COALESCE,
+        /**
+         * the thread raising the event waits for a free slot (an observer must not raise events on
+         * the observable it is notified by)
+         */
+        BLOCK
+    }
+
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong dispatchedEventCount = new AtomicLong();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong coalescedEventCount = new AtomicLong();
+    private final AtomicLong totalDispatchLatency = new AtomicLong();
+    private final AtomicLong maxDispatchLatency = new AtomicLong();
+
+    /**
+     * Creates a dispatcher using its own pool of daemon threads
+     *
+     * @param threadCount the number of threads delivering the events
+     * @param queueCapacity the maximum number of pending events per observable
+     * @param overflowPolicy the behaviour when the queue of an observable is full
+     */
+    public EventDispatcher(int threadCount, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(createExecutor(threadCount), true, queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Creates a dispatcher delivering the events with the provided executor
+     *
+     * @param executor the executor, not shut down by {@link #shutdown()}
+     * @param queueCapacity the maximum number of pending events per observable
+     * @param overflowPolicy the behaviour when the queue of an observable is full
+     */
+    public EventDispatcher(Executor executor, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(executor, false, queueCapacity, overflowPolicy);
+    }
+
+    private EventDispatcher(Executor executor, boolean ownExecutor, int queueCapacity,
+            OverflowPolicy overflowPolicy) {
+        if (executor == null || overflowPolicy == null) {
+            throw new IllegalArgumentException(
+                    "The executor and the overflow policy can't be null.");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be positive.");
+        }
+        this.executor = executor;
+        this.ownExecutor = ownExecutor ? (ExecutorService) executor : null;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    private static ExecutorService createExecutor(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The thread count must be positive.");
+        }
+        return Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread =
+                        new Thread(r, "EventDispatcher-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Delivers the events of the provided observable (reader or plugin) through this dispatcher
+     * from now on
+     *
+     * @param observable the observable
+     */
+    public void register(Observable<?> observable) {
+        observable.setNotificationExecutor(new EventQueue());
+    }
+
+    /**
+     * Makes the provided observable notify its observers synchronously again. The events already
+     * queued are still delivered.
+     *
+     * @param observable the observable
+     */
+    public void unregister(Observable<?> observable) {
+        Executor notificationExecutor = observable.getNotificationExecutor();
+        if (notificationExecutor instanceof EventQueue
+                && ((EventQueue) notificationExecutor).getDispatcher() == this) {
+            observable.setNotificationExecutor(null);
+        }
+    }
+
+    /**
+     * Stops the threads created by the dispatcher, the pending events are not delivered
+     */
+    public void shutdown() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the maximum number of pending events per observable
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the behaviour when the queue of an observable is full
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return the current number of pending events, all observables included
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return the highest number of pending events observed, all observables included
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * @return the number of events delivered to the observers
+     */
+    public long getDispatchedEventCount() {
+        return dispatchedEventCount.get();
+    }
+
+    /**
+     * @return the number of events discarded because of an overflow
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * @return the number of events discarded because they cancelled each other
+     */
+    public long getCoalescedEventCount() {
+        return coalescedEventCount.get();
+    }
+
+    /**
+     * @return the average time between the raising of an event and the end of its delivery, in
+     *         nanoseconds
+     */
+    public long getAverageDispatchLatency() {
+        long count = dispatchedEventCount.get();
+        return count == 0 ? 0 : totalDispatchLatency.get() / count;
+    }
+
+    /**
+     * @return the longest time between the raising of an event and the end of its delivery, in
+     *         nanoseconds
+     */
+    public long getMaxDispatchLatency() {
+        return maxDispatchLatency.get();
+    }
+
+    private void queueDepthIncreased() {
+        int depth = queueDepth.incrementAndGet();
+        int max;
+        while (depth > (max = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(max, depth)) {
+                break;
+            }
+        }
+    }
+
+    private void eventDispatched(long latency) {
+        dispatchedEventCount.incrementAndGet();
+        totalDispatchLatency.addAndGet(latency);
+        long max;
+        while (latency > (max = maxDispatchLatency.get())) {
+            if (maxDispatchLatency.compareAndSet(max, latency)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Tells if the second event cancels the first one
+     */
+    private static boolean isCancellingPair(Object first, Object second) {
+        if (first instanceof ReaderEvent && second instanceof ReaderEvent) {
+            ReaderEvent.EventType firstType = ((ReaderEvent) first).getEventType();
+            return (firstType == ReaderEvent.EventType.SE_INSERTED
+                    || firstType == ReaderEvent.EventType.SE_MATCHED)
+                    && ((ReaderEvent) second)
+                            .getEventType() == ReaderEvent.EventType.SE_REMOVAL;
+        }
+        if (first instanceof PluginEvent && second instanceof PluginEvent) {
+            return ((PluginEvent) first)
+                    .getEventType() == PluginEvent.EventType.READER_CONNECTED
+                    && ((PluginEvent) second)
+                            .getEventType() == PluginEvent.EventType.READER_DISCONNECTED
+                    && ((PluginEvent) first).getReaderNames()
+                            .equals(((PluginEvent) second).getReaderNames());
+        }
+        return false;
+    }
+
+    /**
+     * A pending notification
+     */
+    private static final class PendingEvent {
+        private final Runnable notification;
+        private final long raisingTime;
+
+        PendingEvent(Runnable notification) {
+            this.notification = notification;
+            this.raisingTime = System.nanoTime();
+        }
+
+        Object getEvent() {
+            return notification instanceof Observable.Notification
+                    ? ((Observable.Notification) notification).getEvent()
+                    : null;
+        }
+    }
+
+    /**
+     * Queue of the events of an observable, delivered in order by the shared executor
+     */
+    private final class EventQueue implements Executor, Runnable {
+        private final ArrayDeque<PendingEvent> pendingEvents = new ArrayDeque<PendingEvent>();
+        /* true while a delivery task is submitted or running */
+        private boolean scheduled;
+
+        EventDispatcher getDispatcher() {
+            return EventDispatcher.this;
+        }
+
+        @Override
+        public void execute(Runnable notification) {
+            PendingEvent pendingEvent = new PendingEvent(notification);
+            synchronized (this) {
+                if (pendingEvents.size() >= queueCapacity) {
+                    switch (overflowPolicy) {
+                        case BLOCK:
+                            if (!waitForRoom()) {
+                                droppedEventCount.incrementAndGet();
+                                return;
+                            }
+                            break;
+                        case COALESCE:
+                            /* the incoming event may cancel the last pending one */
+                            add(pendingEvent);
+                            pendingEvent = null;
+                            if (!removeCancellingPair()) {
+                                removeOldest();
+                            }
+                            break;
+                        default:
+                            removeOldest();
+                            break;
+                    }
+                }
+                if (pendingEvent != null) {
+                    add(pendingEvent);
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        private void add(PendingEvent pendingEvent) {
+            pendingEvents.addLast(pendingEvent);
+            queueDepthIncreased();
+        }
+
+        private boolean waitForRoom() {
+            while (pendingEvents.size() >= queueCapacity) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void removeOldest() {
+            pendingEvents.removeFirst();
+            queueDepth.decrementAndGet();
+            droppedEventCount.incrementAndGet();
+        }
+
+        private boolean removeCancellingPair() {
+            PendingEvent previous = null;
+            Iterator<PendingEvent> iterator = pendingEvents.iterator();
+            while (iterator.hasNext()) {
+                PendingEvent current = iterator.next();
+                if (previous != null && isCancellingPair(previous.getEvent(), current.getEvent())) {
+                    iterator.remove();
+                    pendingEvents.removeFirstOccurrence(previous);
+                    queueDepth.addAndGet(-2);
+                    coalescedEventCount.addAndGet(2);
+                    return true;
+                }
+                previous = current;
+            }
+            return false;
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                logger.error("The events can't be delivered, the executor rejected them.", e);
+                synchronized (this) {
+                    scheduled = false;
+                }
+            }
+        }
+
+        /**
+         * Delivers the pending events, a new task being submitted after a batch so that the other
+         * observables are served
+         */
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+                PendingEvent pendingEvent;
+                synchronized (this) {
+                    pendingEvent = pendingEvents.pollFirst();
+                    if (pendingEvent == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    queueDepth.decrementAndGet();
+                    /* wakes up the threads blocked by a full queue */
+                    notifyAll();
+                }
+                try {
+                    pendingEvent.notification.run();
+                } catch (RuntimeException e) {
+                    logger.error("An exception occurred while delivering an event.", e);
+                }
+                eventDispatched(System.nanoTime() - pendingEvent.raisingTime);
+            }
+            schedule();
+        }
+    }
+}
@@ -161,7 +161,9 @@ public final class ApduRequest implements Serializable {
             string.append(", additional successful status codes = ");
             Iterator<Integer> iterator = successfulStatusCodes.iterator();
             while (iterator.hasNext()) {
-                string.append(String.format("%04X", iterator.next()));
+                int statusCode = iterator.next();
+                string.append(ByteArrayUtil.toHex(
+                        new byte[] {(byte) (statusCode >> 8), (byte) statusCode}));
                 if (iterator.hasNext()) {
                     string.append(", ");
                 }
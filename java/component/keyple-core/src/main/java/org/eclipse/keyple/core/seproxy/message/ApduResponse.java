@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.seproxy.message;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Set;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -36,6 +37,12 @@ public final class ApduResponse implements Serializable {
      */
     private final byte[] bytes;
 
+    /**
+     * status word, computed at the first use when not set by the constructor (0 meaning not
+     * computed yet)
+     */
+    private transient int statusCode;
+
 
     /**
      * Create a new ApduResponse from the provided byte array
@@ -61,12 +68,7 @@ public final class ApduResponse implements Serializable {
                         "Building an ApduResponse with a illegal buffer (length must be > 2): "
                                 + buffer.length);
             }
-            int statusCode = ((buffer[buffer.length - 2] & 0x000000FF) << 8)
-                    + (buffer[buffer.length - 1] & 0x000000FF);
-            // java is signed only
-            if (statusCode < 0) {
-                statusCode += -2 * Short.MIN_VALUE;
-            }
+            statusCode = computeStatusCode(buffer);
             if (successfulStatusCodes != null) {
                 this.successful =
                         statusCode == 0x9000 || successfulStatusCodes.contains(statusCode);
@@ -85,23 +87,35 @@ public final class ApduResponse implements Serializable {
         return successful;
     }
 
+    /**
+     * Gets the status word (sw1sw2), computed only once
+     *
+     * @return the status code
+     */
     public int getStatusCode() {
-        int s = ((bytes[bytes.length - 2] & 0x000000FF) << 8)
-                + (bytes[bytes.length - 1] & 0x000000FF);
-
-        // java is signed only
-        if (s < 0) {
-            s += -2 * Short.MIN_VALUE;
+        int s = statusCode;
+        if (s == 0) {
+            /* not computed yet (e.g. deserialized instance) */
+            s = computeStatusCode(bytes);
+            statusCode = s;
         }
         return s;
     }
 
+    private static int computeStatusCode(byte[] buffer) {
+        return ((buffer[buffer.length - 2] & 0x000000FF) << 8)
+                + (buffer[buffer.length - 1] & 0x000000FF);
+    }
+
     public byte[] getBytes() {
         return this.bytes;
     }
 
     /**
      * Get the data before the statusCode
+     * <p>
+     * A new array is returned at each call, see {@link #getDataOutLength()} and
+     * {@link #getDataOutBuffer()} to access the data without copying it.
      * 
      * @return slice of the buffer before the status code
      */
@@ -109,6 +123,24 @@ public final class ApduResponse implements Serializable {
         return Arrays.copyOfRange(this.bytes, 0, this.bytes.length - 2);
     }
 
+    /**
+     * Get the length of the data before the statusCode
+     *
+     * @return the length of the data out
+     */
+    public int getDataOutLength() {
+        return this.bytes.length - 2;
+    }
+
+    /**
+     * Get a read-only view of the data before the statusCode, the buffer is not copied
+     *
+     * @return a read-only buffer positioned on the first byte of data out
+     */
+    public ByteBuffer getDataOutBuffer() {
+        return ByteBuffer.wrap(this.bytes, 0, this.bytes.length - 2).slice().asReadOnlyBuffer();
+    }
+
     @Override
     public String toString() {
         String prefix;
@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.seproxy.message;
 
 
+import java.util.concurrent.Future;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 
@@ -82,4 +83,64 @@ public interface ProxyReader extends SeReader {
      */
     SeResponse transmit(SeRequest seApplicationRequest)
             throws KeypleReaderException, IllegalArgumentException;
+
+    /**
+     * Non blocking version of {@link #transmitSet(SeRequestSet)}.
+     * <p>
+     * The returned {@link Future} provides the {@link SeResponseSet}, or throws an
+     * {@link java.util.concurrent.ExecutionException} whose cause is the
+     * {@link KeypleReaderException} raised during the transmission.
+     * <p>
+     * As with the blocking method, a new transmission should only be requested on a reader once
+     * the previous one is completed (e.g. from the callback). Many readers can thus be operated
+     * concurrently from a small number of threads.
+     *
+     * @param seApplicationRequest the application request
+     * @param callback the callback notified when the transmission is completed (optional)
+     * @return the future SE response
+     * @throws IllegalArgumentException if a bad argument is provided
+     */
+    Future<SeResponseSet> transmitSetAsync(SeRequestSet seApplicationRequest,
+            TransmitCallback<SeResponseSet> callback) throws IllegalArgumentException;
+
+    /**
+     * Non blocking version of {@link #transmitSet(SeRequestSet)}, without callback
+     *
+     * @param seApplicationRequest the application request
+     * @return the future SE response
+     * @throws IllegalArgumentException if a bad argument is provided
+     * @see #transmitSetAsync(SeRequestSet, TransmitCallback)
+     */
+    Future<SeResponseSet> transmitSetAsync(SeRequestSet seApplicationRequest)
+            throws IllegalArgumentException;
+
+    /**
+     * Non blocking version of {@link #transmit(SeRequest)}.
+     * <p>
+     * The returned {@link Future} provides the {@link SeResponse}, or throws an
+     * {@link java.util.concurrent.ExecutionException} whose cause is the
+     * {@link KeypleReaderException} raised during the transmission.
+     * <p>
+     * As with the blocking method, a new transmission should only be requested on a reader once
+     * the previous one is completed (e.g. from the callback). Many readers can thus be operated
+     * concurrently from a small number of threads.
+     *
+     * @param seApplicationRequest the SeRequest to transmit
+     * @param callback the callback notified when the transmission is completed (optional)
+     * @return the future response to the SeRequest
+     * @throws IllegalArgumentException if a bad argument is provided
+     */
+    Future<SeResponse> transmitAsync(SeRequest seApplicationRequest,
+            TransmitCallback<SeResponse> callback) throws IllegalArgumentException;
+
+    /**
+     * Non blocking version of {@link #transmit(SeRequest)}, without callback
+     *
+     * @param seApplicationRequest the SeRequest to transmit
+     * @return the future response to the SeRequest
+     * @throws IllegalArgumentException if a bad argument is provided
+     * @see #transmitAsync(SeRequest, TransmitCallback)
+     */
+    Future<SeResponse> transmitAsync(SeRequest seApplicationRequest)
+            throws IllegalArgumentException;
 }
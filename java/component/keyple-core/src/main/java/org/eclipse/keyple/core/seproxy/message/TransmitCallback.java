@@ -0,0 +1,33 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.message;
+
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+
+/**
+ * Callback notified of the completion of an asynchronous transmission started with
+ * {@link ProxyReader#transmitAsync(SeRequest, TransmitCallback)} or
+ * {@link ProxyReader#transmitSetAsync(SeRequestSet, TransmitCallback)}.
+ * <p>
+ * The callback is invoked by the thread completing the transmission, it should not block.
+ *
+ * @param <T> type of the response ({@link SeResponse} or {@link SeResponseSet})
+ */
+public interface TransmitCallback<T> {
+    /**
+     * Called once when the transmission is completed
+     *
+     * @param response the response, null if the transmission failed
+     * @param exception the reader exception that made the transmission fail, null if it succeeded
+     */
+    void onTransmitted(T response, KeypleReaderException exception);
+}
@@ -0,0 +1,118 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+/**
+ * Immutable snapshot of a {@link LatencyHistogram}, all durations are in nanoseconds.
+ */
+public final class HistogramSnapshot {
+
+    /**
+     * Snapshot of an histogram without any value
+     */
+    public static final HistogramSnapshot EMPTY =
+            new HistogramSnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0, 0, 0);
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+        this.counts = counts;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the recorded values
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the greatest recorded value, 0 if no value has been recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return the mean of the recorded values, 0 if no value has been recorded
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Gets a percentile of the recorded values.
+     * <p>
+     * The returned value is the upper bound of the bucket containing the percentile (limited to
+     * the greatest recorded value), it is at most 25% greater than the exact percentile.
+     *
+     * @param percentile the percentile (e.g. 99.9)
+     * @return the value below which the provided percentage of values fall, 0 if no value has been
+     *         recorded
+     * @throws IllegalArgumentException if the percentile isn't in [0, 100]
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Bad percentile: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long cumulatedCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulatedCount += counts[i];
+            if (cumulatedCount >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Merges this snapshot with another one (e.g. to aggregate the histograms of several readers)
+     *
+     * @param other the other snapshot
+     * @return a new snapshot counting the values of both snapshots
+     */
+    public HistogramSnapshot merge(HistogramSnapshot other) {
+        long[] mergedCounts = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            mergedCounts[i] = counts[i] + other.counts[i];
+        }
+        return new HistogramSnapshot(mergedCounts, count + other.count,
+                totalNanos + other.totalNanos, Math.max(maxNanos, other.maxNanos));
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot: COUNT = " + count + ", MEAN = " + getMeanNanos() + " ns, P50 = "
+                + getPercentileNanos(50) + " ns, P99 = " + getPercentileNanos(99) + " ns, MAX = "
+                + maxNanos + " ns";
+    }
+}
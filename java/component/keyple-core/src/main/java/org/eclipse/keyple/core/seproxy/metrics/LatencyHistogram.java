@@ -0,0 +1,105 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of durations, in nanoseconds.
+ * <p>
+ * The values are counted in logarithmic buckets: each power of two is split in 4 buckets, the
+ * percentiles are then known with a relative error lower than 25%. Recording a value costs a few
+ * atomic increments, without allocation nor lock.
+ */
+public final class LatencyHistogram {
+
+    /* 4 buckets per power of two */
+    static final int SUB_BUCKET_BITS = 2;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /* buckets of the values lower than 4, then 4 buckets for each exponent from 2 to 62 */
+    static final int BUCKET_COUNT = (62 - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a duration
+     *
+     * @param durationNanos the duration in nanoseconds (a negative duration is counted as 0)
+     */
+    public void record(long durationNanos) {
+        long value = durationNanos < 0 ? 0 : durationNanos;
+        counts.incrementAndGet(bucketIndex(value));
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Resets all the counts
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * Takes a snapshot of the histogram.
+     * <p>
+     * The snapshot is consistent when no value is recorded concurrently, otherwise the values
+     * recorded during the snapshot may be partially taken into account.
+     *
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+            count += snapshotCounts[i];
+        }
+        return new HistogramSnapshot(snapshotCounts, count, totalNanos.get(), maxNanos.get());
+    }
+
+    /**
+     * @param value a positive value
+     * @return the index of the bucket counting the value
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @param index a bucket index
+     * @return the greatest value counted in the bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,107 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+
+/**
+ * Instrumentation SPI of the readers.
+ * <p>
+ * The readers report each exchange with the SE to the recorder set in the {@link SeProxyService}
+ * (a {@link MetricsRegistry} by default). The methods are called on the thread operating the
+ * reader, in the middle of the SE exchanges: an implementation must be thread-safe, must not block
+ * and must not throw.
+ * <p>
+ * The command name is the name of the APDU request (e.g. "Read Records - EventLog"), null if the
+ * request is not named.
+ */
+public interface MetricsRecorder {
+
+    /**
+     * A recorder ignoring all the measurements
+     */
+    MetricsRecorder NONE = new MetricsRecorder() {
+        public void apduExchanged(String pluginName, String readerName, String commandName,
+                long durationNanos) {}
+
+        public void seRequestSetProcessed(String pluginName, String readerName,
+                long durationNanos) {}
+
+        public void applicationSelected(String pluginName, String readerName,
+                long durationNanos) {}
+
+        public void physicalChannelOpened(String pluginName, String readerName,
+                long durationNanos) {}
+
+        public void physicalChannelClosed(String pluginName, String readerName,
+                long durationNanos) {}
+
+        public void ioErrorRaised(String pluginName, String readerName, String commandName) {}
+    };
+
+    /**
+     * An APDU has been exchanged with the SE (including the possible internal Get Response)
+     *
+     * @param pluginName the name of the reader's plugin
+     * @param readerName the name of the reader
+     * @param commandName the command name
+     * @param durationNanos the round-trip time in nanoseconds
+     */
+    void apduExchanged(String pluginName, String readerName, String commandName,
+            long durationNanos);
+
+    /**
+     * A SeRequest or a SeRequestSet has been processed (successfully or not)
+     *
+     * @param pluginName the name of the reader's plugin
+     * @param readerName the name of the reader
+     * @param durationNanos the processing time in nanoseconds
+     */
+    void seRequestSetProcessed(String pluginName, String readerName, long durationNanos);
+
+    /**
+     * A logical channel opening (ATR filtering and/or application selection) has been done
+     *
+     * @param pluginName the name of the reader's plugin
+     * @param readerName the name of the reader
+     * @param durationNanos the selection time in nanoseconds
+     */
+    void applicationSelected(String pluginName, String readerName, long durationNanos);
+
+    /**
+     * The physical channel has been opened
+     *
+     * @param pluginName the name of the reader's plugin
+     * @param readerName the name of the reader
+     * @param durationNanos the opening time in nanoseconds
+     */
+    void physicalChannelOpened(String pluginName, String readerName, long durationNanos);
+
+    /**
+     * The physical channel has been closed
+     *
+     * @param pluginName the name of the reader's plugin
+     * @param readerName the name of the reader
+     * @param durationNanos the closing time in nanoseconds
+     */
+    void physicalChannelClosed(String pluginName, String readerName, long durationNanos);
+
+    /**
+     * An I/O error interrupted an exchange with the SE
+     *
+     * @param pluginName the name of the reader's plugin
+     * @param readerName the name of the reader
+     * @param commandName the name of the command being exchanged, null if the error didn't occur
+     *        during an APDU exchange
+     */
+    void ioErrorRaised(String pluginName, String readerName, String commandName);
+}
@@ -0,0 +1,150 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default {@link MetricsRecorder}, keeping counters and latency histograms by plugin, reader and
+ * command type in memory.
+ * <p>
+ * The recording is lock-free and doesn't allocate once the reader and its command names are known
+ * (the first {@value #MAX_CACHED_COMMAND_NAMES} command names are cached). The measurements are
+ * read with {@link #snapshot()}, typically by a periodic exporter.
+ * <p>
+ * The command type is the command name without the extra information following " - " (e.g. "Read
+ * Records" for "Read Records - EventLog"), "Unnamed" for the requests without name.
+ */
+public final class MetricsRegistry implements MetricsRecorder {
+
+    static final String UNNAMED_COMMAND_TYPE = "Unnamed";
+    private static final String COMMAND_INFO_SEPARATOR = " - ";
+    /* bound of the command types cache, the extra information may vary from a command to another */
+    static final int MAX_CACHED_COMMAND_NAMES = 1024;
+
+    /* plugin name -> reader name -> measurements */
+    private final ConcurrentMap<String, ConcurrentMap<String, ReaderMetrics>> pluginsMetrics =
+            new ConcurrentHashMap<String, ConcurrentMap<String, ReaderMetrics>>();
+
+    /* command name -> command type, the command type is computed when the cache is full */
+    private final ConcurrentMap<String, String> commandTypes =
+            new ConcurrentHashMap<String, String>();
+
+    public void apduExchanged(String pluginName, String readerName, String commandName,
+            long durationNanos) {
+        ReaderMetrics readerMetrics = getReaderMetrics(pluginName, readerName);
+        readerMetrics.apduRoundTrip.record(durationNanos);
+        readerMetrics.getCommandRoundTrip(getCommandType(commandName)).record(durationNanos);
+    }
+
+    public void seRequestSetProcessed(String pluginName, String readerName, long durationNanos) {
+        getReaderMetrics(pluginName, readerName).seRequestSetProcessing.record(durationNanos);
+    }
+
+    public void applicationSelected(String pluginName, String readerName, long durationNanos) {
+        getReaderMetrics(pluginName, readerName).selection.record(durationNanos);
+    }
+
+    public void physicalChannelOpened(String pluginName, String readerName, long durationNanos) {
+        getReaderMetrics(pluginName, readerName).channelOpening.record(durationNanos);
+    }
+
+    public void physicalChannelClosed(String pluginName, String readerName, long durationNanos) {
+        getReaderMetrics(pluginName, readerName).channelClosing.record(durationNanos);
+    }
+
+    public void ioErrorRaised(String pluginName, String readerName, String commandName) {
+        ReaderMetrics readerMetrics = getReaderMetrics(pluginName, readerName);
+        readerMetrics.ioErrorCount.incrementAndGet();
+        if (commandName != null) {
+            readerMetrics.getCommandIoErrorCount(getCommandType(commandName)).incrementAndGet();
+        }
+    }
+
+    /**
+     * @return a snapshot of the measurements of all the readers
+     */
+    public MetricsSnapshot snapshot() {
+        List<ReaderMetricsSnapshot> readerSnapshots = new ArrayList<ReaderMetricsSnapshot>();
+        for (ConcurrentMap<String, ReaderMetrics> readersMetrics : pluginsMetrics.values()) {
+            for (ReaderMetrics readerMetrics : readersMetrics.values()) {
+                readerSnapshots.add(readerMetrics.snapshot());
+            }
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), readerSnapshots);
+    }
+
+    /**
+     * Resets the measurements of all the readers
+     */
+    public void reset() {
+        for (ConcurrentMap<String, ReaderMetrics> readersMetrics : pluginsMetrics.values()) {
+            for (ReaderMetrics readerMetrics : readersMetrics.values()) {
+                readerMetrics.reset();
+            }
+        }
+    }
+
+    private ReaderMetrics getReaderMetrics(String pluginName, String readerName) {
+        if (pluginName == null) {
+            pluginName = "";
+        }
+        if (readerName == null) {
+            readerName = "";
+        }
+        ConcurrentMap<String, ReaderMetrics> readersMetrics = pluginsMetrics.get(pluginName);
+        if (readersMetrics == null) {
+            readersMetrics = new ConcurrentHashMap<String, ReaderMetrics>();
+            ConcurrentMap<String, ReaderMetrics> existingReadersMetrics =
+                    pluginsMetrics.putIfAbsent(pluginName, readersMetrics);
+            if (existingReadersMetrics != null) {
+                readersMetrics = existingReadersMetrics;
+            }
+        }
+        ReaderMetrics readerMetrics = readersMetrics.get(readerName);
+        if (readerMetrics == null) {
+            readerMetrics = new ReaderMetrics(pluginName, readerName);
+            ReaderMetrics existingReaderMetrics =
+                    readersMetrics.putIfAbsent(readerName, readerMetrics);
+            if (existingReaderMetrics != null) {
+                readerMetrics = existingReaderMetrics;
+            }
+        }
+        return readerMetrics;
+    }
+
+    private String getCommandType(String commandName) {
+        if (commandName == null) {
+            return UNNAMED_COMMAND_TYPE;
+        }
+        String commandType = commandTypes.get(commandName);
+        if (commandType == null) {
+            int separatorIndex = commandName.indexOf(COMMAND_INFO_SEPARATOR);
+            commandType = separatorIndex < 0 ? commandName
+                    : commandName.substring(0, separatorIndex);
+            if (commandTypes.size() < MAX_CACHED_COMMAND_NAMES) {
+                commandTypes.putIfAbsent(commandName, commandType);
+            }
+        }
+        return commandType;
+    }
+
+    /**
+     * @return the number of command names of the command types cache
+     */
+    int getCachedCommandNameCount() {
+        return commandTypes.size();
+    }
+}
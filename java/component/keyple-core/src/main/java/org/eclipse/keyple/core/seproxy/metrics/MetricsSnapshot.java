@@ -0,0 +1,99 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the measurements of all the readers known by a {@link MetricsRegistry}.
+ * <p>
+ * It doesn't depend on any monitoring system: an exporter reads the reader snapshots (or their
+ * aggregation by plugin or for all readers) and publishes them in its own format.
+ */
+public final class MetricsSnapshot {
+
+    private final long timestamp;
+    private final List<ReaderMetricsSnapshot> readerSnapshots;
+
+    MetricsSnapshot(long timestamp, List<ReaderMetricsSnapshot> readerSnapshots) {
+        this.timestamp = timestamp;
+        this.readerSnapshots = Collections.unmodifiableList(readerSnapshots);
+    }
+
+    /**
+     * @return the time of the snapshot (milliseconds since the epoch)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the snapshots of all the readers
+     */
+    public List<ReaderMetricsSnapshot> getReaderSnapshots() {
+        return readerSnapshots;
+    }
+
+    /**
+     * @param pluginName the plugin name
+     * @param readerName the reader name
+     * @return the snapshot of the reader, null if the reader has no measurement
+     */
+    public ReaderMetricsSnapshot getReaderSnapshot(String pluginName, String readerName) {
+        for (ReaderMetricsSnapshot readerSnapshot : readerSnapshots) {
+            if (pluginName.equals(readerSnapshot.getPluginName())
+                    && readerName.equals(readerSnapshot.getReaderName())) {
+                return readerSnapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the names of the plugins having readers with measurements
+     */
+    public SortedSet<String> getPluginNames() {
+        SortedSet<String> pluginNames = new TreeSet<String>();
+        for (ReaderMetricsSnapshot readerSnapshot : readerSnapshots) {
+            pluginNames.add(readerSnapshot.getPluginName());
+        }
+        return pluginNames;
+    }
+
+    /**
+     * @param pluginName the plugin name
+     * @return the aggregated measurements of all the readers of the plugin, null if the plugin has
+     *         no reader with measurements
+     */
+    public ReaderMetricsSnapshot getPluginSnapshot(String pluginName) {
+        ReaderMetricsSnapshot pluginSnapshot = null;
+        for (ReaderMetricsSnapshot readerSnapshot : readerSnapshots) {
+            if (pluginName.equals(readerSnapshot.getPluginName())) {
+                pluginSnapshot = pluginSnapshot == null ? readerSnapshot
+                        : pluginSnapshot.merge(readerSnapshot);
+            }
+        }
+        return pluginSnapshot;
+    }
+
+    /**
+     * @return the aggregated measurements of all the readers, null if no reader has measurements
+     */
+    public ReaderMetricsSnapshot getGlobalSnapshot() {
+        ReaderMetricsSnapshot globalSnapshot = null;
+        for (ReaderMetricsSnapshot readerSnapshot : readerSnapshots) {
+            globalSnapshot =
+                    globalSnapshot == null ? readerSnapshot : globalSnapshot.merge(readerSnapshot);
+        }
+        return globalSnapshot;
+    }
+}
@@ -0,0 +1,108 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements of a reader, recorded by the {@link MetricsRegistry}
+ */
+final class ReaderMetrics {
+
+    private final String pluginName;
+    private final String readerName;
+
+    final LatencyHistogram apduRoundTrip = new LatencyHistogram();
+    final LatencyHistogram seRequestSetProcessing = new LatencyHistogram();
+    final LatencyHistogram selection = new LatencyHistogram();
+    final LatencyHistogram channelOpening = new LatencyHistogram();
+    final LatencyHistogram channelClosing = new LatencyHistogram();
+    final AtomicLong ioErrorCount = new AtomicLong();
+
+    private final ConcurrentMap<String, LatencyHistogram> commandRoundTrips =
+            new ConcurrentHashMap<String, LatencyHistogram>();
+    private final ConcurrentMap<String, AtomicLong> commandIoErrorCounts =
+            new ConcurrentHashMap<String, AtomicLong>();
+
+    ReaderMetrics(String pluginName, String readerName) {
+        this.pluginName = pluginName;
+        this.readerName = readerName;
+    }
+
+    /**
+     * @param commandType the command type
+     * @return the round-trip histogram of the command type
+     */
+    LatencyHistogram getCommandRoundTrip(String commandType) {
+        LatencyHistogram histogram = commandRoundTrips.get(commandType);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existingHistogram =
+                    commandRoundTrips.putIfAbsent(commandType, histogram);
+            if (existingHistogram != null) {
+                histogram = existingHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * @param commandType the command type
+     * @return the I/O error counter of the command type
+     */
+    AtomicLong getCommandIoErrorCount(String commandType) {
+        AtomicLong counter = commandIoErrorCounts.get(commandType);
+        if (counter == null) {
+            counter = new AtomicLong();
+            AtomicLong existingCounter = commandIoErrorCounts.putIfAbsent(commandType, counter);
+            if (existingCounter != null) {
+                counter = existingCounter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Resets all the measurements
+     */
+    void reset() {
+        apduRoundTrip.reset();
+        seRequestSetProcessing.reset();
+        selection.reset();
+        channelOpening.reset();
+        channelClosing.reset();
+        ioErrorCount.set(0);
+        commandRoundTrips.clear();
+        commandIoErrorCounts.clear();
+    }
+
+    /**
+     * @return a snapshot of the measurements
+     */
+    ReaderMetricsSnapshot snapshot() {
+        Map<String, HistogramSnapshot> commandSnapshots = new HashMap<String, HistogramSnapshot>();
+        for (Map.Entry<String, LatencyHistogram> entry : commandRoundTrips.entrySet()) {
+            commandSnapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        Map<String, Long> commandErrors = new HashMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : commandIoErrorCounts.entrySet()) {
+            commandErrors.put(entry.getKey(), entry.getValue().get());
+        }
+        return new ReaderMetricsSnapshot(pluginName, readerName, apduRoundTrip.snapshot(),
+                seRequestSetProcessing.snapshot(), selection.snapshot(), channelOpening.snapshot(),
+                channelClosing.snapshot(), ioErrorCount.get(), commandSnapshots, commandErrors);
+    }
+}
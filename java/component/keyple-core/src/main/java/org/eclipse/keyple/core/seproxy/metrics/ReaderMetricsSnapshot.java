@@ -0,0 +1,173 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the measurements of a reader, or of several readers when merged (e.g. all
+ * the readers of a plugin).
+ * <p>
+ * The command types are the names of the APDU requests without their extra information (e.g.
+ * "Read Records" for "Read Records - EventLog"), "Unnamed" for the requests without name.
+ */
+public final class ReaderMetricsSnapshot {
+
+    private final String pluginName;
+    private final String readerName;
+    private final HistogramSnapshot apduRoundTrip;
+    private final HistogramSnapshot seRequestSetProcessing;
+    private final HistogramSnapshot selection;
+    private final HistogramSnapshot channelOpening;
+    private final HistogramSnapshot channelClosing;
+    private final long ioErrorCount;
+    private final Map<String, HistogramSnapshot> commandRoundTrips;
+    private final Map<String, Long> commandIoErrorCounts;
+
+    ReaderMetricsSnapshot(String pluginName, String readerName, HistogramSnapshot apduRoundTrip,
+            HistogramSnapshot seRequestSetProcessing, HistogramSnapshot selection,
+            HistogramSnapshot channelOpening, HistogramSnapshot channelClosing,
+            long ioErrorCount, Map<String, HistogramSnapshot> commandRoundTrips,
+            Map<String, Long> commandIoErrorCounts) {
+        this.pluginName = pluginName;
+        this.readerName = readerName;
+        this.apduRoundTrip = apduRoundTrip;
+        this.seRequestSetProcessing = seRequestSetProcessing;
+        this.selection = selection;
+        this.channelOpening = channelOpening;
+        this.channelClosing = channelClosing;
+        this.ioErrorCount = ioErrorCount;
+        this.commandRoundTrips = Collections.unmodifiableMap(commandRoundTrips);
+        this.commandIoErrorCounts = Collections.unmodifiableMap(commandIoErrorCounts);
+    }
+
+    /**
+     * @return the plugin name, null if the snapshot merges readers of several plugins
+     */
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    /**
+     * @return the reader name, null if the snapshot merges several readers
+     */
+    public String getReaderName() {
+        return readerName;
+    }
+
+    /**
+     * @return the number of APDUs exchanged
+     */
+    public long getApduCount() {
+        return apduRoundTrip.getCount();
+    }
+
+    /**
+     * @return the round-trip times of all the APDUs
+     */
+    public HistogramSnapshot getApduRoundTrip() {
+        return apduRoundTrip;
+    }
+
+    /**
+     * @return the processing times of the SeRequests and SeRequestSets
+     */
+    public HistogramSnapshot getSeRequestSetProcessing() {
+        return seRequestSetProcessing;
+    }
+
+    /**
+     * @return the logical channel opening (selection) times
+     */
+    public HistogramSnapshot getSelection() {
+        return selection;
+    }
+
+    /**
+     * @return the physical channel opening times
+     */
+    public HistogramSnapshot getChannelOpening() {
+        return channelOpening;
+    }
+
+    /**
+     * @return the physical channel closing times
+     */
+    public HistogramSnapshot getChannelClosing() {
+        return channelClosing;
+    }
+
+    /**
+     * @return the number of I/O errors
+     */
+    public long getIoErrorCount() {
+        return ioErrorCount;
+    }
+
+    /**
+     * @return the round-trip times of the APDUs by command type
+     */
+    public Map<String, HistogramSnapshot> getCommandRoundTrips() {
+        return commandRoundTrips;
+    }
+
+    /**
+     * @return the number of I/O errors by command type (the errors raised out of an APDU exchange
+     *         are not counted here)
+     */
+    public Map<String, Long> getCommandIoErrorCounts() {
+        return commandIoErrorCounts;
+    }
+
+    /**
+     * Merges this snapshot with another one
+     *
+     * @param other the other snapshot
+     * @return a new snapshot counting the measurements of both snapshots, the plugin and reader
+     *         names are kept only when identical
+     */
+    public ReaderMetricsSnapshot merge(ReaderMetricsSnapshot other) {
+        Map<String, HistogramSnapshot> mergedCommandRoundTrips =
+                new HashMap<String, HistogramSnapshot>(commandRoundTrips);
+        for (Map.Entry<String, HistogramSnapshot> entry : other.commandRoundTrips.entrySet()) {
+            HistogramSnapshot histogram = mergedCommandRoundTrips.get(entry.getKey());
+            mergedCommandRoundTrips.put(entry.getKey(),
+                    histogram == null ? entry.getValue() : histogram.merge(entry.getValue()));
+        }
+        Map<String, Long> mergedCommandIoErrorCounts =
+                new HashMap<String, Long>(commandIoErrorCounts);
+        for (Map.Entry<String, Long> entry : other.commandIoErrorCounts.entrySet()) {
+            Long errorCount = mergedCommandIoErrorCounts.get(entry.getKey());
+            mergedCommandIoErrorCounts.put(entry.getKey(),
+                    errorCount == null ? entry.getValue() : errorCount + entry.getValue());
+        }
+        return new ReaderMetricsSnapshot(sameOrNull(pluginName, other.pluginName),
+                sameOrNull(readerName, other.readerName), apduRoundTrip.merge(other.apduRoundTrip),
+                seRequestSetProcessing.merge(other.seRequestSetProcessing),
+                selection.merge(other.selection), channelOpening.merge(other.channelOpening),
+                channelClosing.merge(other.channelClosing), ioErrorCount + other.ioErrorCount,
+                mergedCommandRoundTrips, mergedCommandIoErrorCounts);
+    }
+
+    private static String sameOrNull(String name, String otherName) {
+        return name != null && name.equals(otherName) ? name : null;
+    }
+
+    @Override
+    public String toString() {
+        return "ReaderMetricsSnapshot: PLUGIN = " + pluginName + ", READER = " + readerName
+                + ", APDU = {" + apduRoundTrip + "}, SELECTION = {" + selection
+                + "}, IOERRORS = " + ioErrorCount;
+    }
+}
@@ -20,6 +20,7 @@ import org.eclipse.keyple.core.seproxy.exception.*;
 import org.eclipse.keyple.core.seproxy.message.*;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.HexPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,8 +52,8 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
     /** notification status flag used to avoid redundant notifications */
     private boolean presenceNotified = false;
 
-    /** Timestamp recorder */
-    private long before;
+    /** selection plan of the SeRequestSet being processed if any */
+    private SelectionPlan selectionPlan;
 
     /** ==== Constructor =================================================== */
 
@@ -60,19 +61,12 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      * Reader constructor
      * <p>
      * Force the definition of a name through the use of super method.
-     * <p>
-     * Initialize the time measurement
      *
      * @param pluginName the name of the plugin that instantiated the reader
      * @param readerName the name of the reader
      */
     public AbstractLocalReader(String pluginName, String readerName) {
         super(pluginName, readerName);
-        this.before = System.nanoTime(); /*
-                                          * provides an initial value for measuring the
-                                          * inter-exchange time. The first measurement gives the
-                                          * time elapsed since the plugin was loaded.
-                                          */
     }
 
     /** ==== Card presence management ====================================== */
@@ -207,7 +201,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
         }
         closeLogicalChannel();
         try {
-            closePhysicalChannel();
+            closeAndMeasurePhysicalChannel();
         } catch (KeypleChannelStateException e) {
             logger.trace("[{}] Exception occured in waitForCardAbsent. Message: {}", this.getName(),
                     e.getMessage());
@@ -322,7 +316,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
     protected SelectionStatus openLogicalChannel(SeSelector seSelector)
             throws KeypleIOReaderException, KeypleChannelStateException,
             KeypleApplicationSelectionException {
-        byte[] atr = getATR();
+        byte[] atr = selectionPlan != null ? selectionPlan.getAtr() : getATR();
         boolean selectionHasMatched = true;
         SelectionStatus selectionStatus;
 
@@ -336,7 +330,8 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
                 logger.trace("[{}] openLogicalChannel => ATR = {}", this.getName(),
                         ByteArrayUtil.toHex(atr));
             }
-            if (!seSelector.getAtrFilter().atrMatches(atr)) {
+            if (selectionPlan != null ? !selectionPlan.atrMatches(seSelector.getAtrFilter())
+                    : !seSelector.getAtrFilter().atrMatches(atr)) {
                 logger.info("[{}] openLogicalChannel => ATR didn't match. SELECTOR = {}, ATR = {}",
                         this.getName(), seSelector, ByteArrayUtil.toHex(atr));
                 selectionHasMatched = false;
@@ -348,6 +343,21 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
          * requested
          */
         if (selectionHasMatched && seSelector.getAidSelector() != null) {
+            /*
+             * The same application has just been selected in the current SeRequestSet and no other
+             * APDU has been exchanged since: the previous selection status is still valid.
+             */
+            if (selectionPlan != null) {
+                selectionStatus = selectionPlan.getReusableSelection(seSelector.getAidSelector());
+                if (selectionStatus != null) {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace(
+                                "[{}] openLogicalChannel => Application already selected. SELECTOR = {}",
+                                this.getName(), seSelector);
+                    }
+                    return selectionStatus;
+                }
+            }
             ApduResponse fciResponse;
             if (!forceGetDataFlag) {
                 fciResponse = openChannelForAid(seSelector.getAidSelector());
@@ -361,6 +371,9 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
              */
             selectionStatus = new SelectionStatus(new AnswerToReset(atr), fciResponse,
                     fciResponse.isSuccessful());
+            if (selectionPlan != null) {
+                selectionPlan.selectionDone(seSelector.getAidSelector(), selectionStatus);
+            }
         } else {
             /*
              * The ATR filtering didn't match or no AidSelector was provided. The selection status
@@ -410,14 +423,25 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
              * channel
              */
             if (!isPhysicalChannelOpen()) {
+                long timeStamp = System.nanoTime();
                 openPhysicalChannel();
+                getMetricsRecorder().physicalChannelOpened(pluginName, this.getName(),
+                        System.nanoTime() - timeStamp);
             }
             if (!isPhysicalChannelOpen()) {
                 throw new KeypleChannelStateException("Fail to open physical channel.");
             }
         }
 
-        selectionStatus = openLogicalChannel(seSelector);
+        long timeStamp = System.nanoTime();
+        try {
+            selectionStatus = openLogicalChannel(seSelector);
+        } catch (KeypleIOReaderException ex) {
+            getMetricsRecorder().ioErrorRaised(pluginName, this.getName(), null);
+            throw ex;
+        }
+        getMetricsRecorder().applicationSelected(pluginName, this.getName(),
+                System.nanoTime() - timeStamp);
 
         return selectionStatus;
     }
@@ -438,6 +462,18 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      */
     protected abstract void closePhysicalChannel() throws KeypleChannelStateException;
 
+    /**
+     * Closes the physical channel and reports the closing time to the metrics recorder
+     *
+     * @throws KeypleChannelStateException if a reader error occurs
+     */
+    private void closeAndMeasurePhysicalChannel() throws KeypleChannelStateException {
+        long timeStamp = System.nanoTime();
+        closePhysicalChannel();
+        getMetricsRecorder().physicalChannelClosed(pluginName, this.getName(),
+                System.nanoTime() - timeStamp);
+    }
+
     /**
      * Tells if the physical channel is open or not
      * <p>
@@ -477,6 +513,12 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      */
     protected Map<SeProtocol, String> protocolsMap = new HashMap<SeProtocol, String>();
 
+    /**
+     * Compiled forms of the protocolsMap strings
+     */
+    private final Map<SeProtocol, HexPattern> protocolPatterns =
+            new HashMap<SeProtocol, HexPattern>();
+
     /**
      * Defines the protocol setting Map to allow SE to be differentiated according to their
      * communication protocol.
@@ -487,6 +529,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
     @Override
     public void addSeProtocolSetting(SeProtocol seProtocol, String protocolRule) {
         this.protocolsMap.put(seProtocol, protocolRule);
+        compileProtocolRule(seProtocol, protocolRule);
     }
 
     /**
@@ -496,6 +539,38 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      */
     public void setSeProtocolSetting(Map<SeProtocol, String> protocolSetting) {
         this.protocolsMap.putAll(protocolSetting);
+        for (Map.Entry<SeProtocol, String> entry : protocolSetting.entrySet()) {
+            compileProtocolRule(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void compileProtocolRule(SeProtocol seProtocol, String protocolRule) {
+        if (protocolRule != null) {
+            this.protocolPatterns.put(seProtocol, HexPattern.compile(protocolRule));
+        } else {
+            this.protocolPatterns.remove(seProtocol);
+        }
+    }
+
+    /**
+     * Gives the compiled form of the string associated with the provided protocol in the
+     * protocolsMap, to be used by the reader plugins that interpret it as a regular expression.
+     *
+     * @param seProtocol the protocol flag
+     * @return the compiled {@link HexPattern} or null if the protocol is not defined
+     */
+    protected final HexPattern getProtocolPattern(SeProtocol seProtocol) {
+        String protocolRule = protocolsMap.get(seProtocol);
+        if (protocolRule == null) {
+            return null;
+        }
+        HexPattern protocolPattern = protocolPatterns.get(seProtocol);
+        if (protocolPattern == null || !protocolPattern.getRegex().equals(protocolRule)) {
+            /* the protocolsMap has been modified directly */
+            protocolPattern = HexPattern.compile(protocolRule);
+            protocolPatterns.put(seProtocol, protocolPattern);
+        }
+        return protocolPattern;
     }
 
     /**
@@ -530,6 +605,26 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      */
     protected final SeResponseSet processSeRequestSet(SeRequestSet requestSet)
             throws KeypleReaderException {
+        selectionPlan = new SelectionPlan(this);
+        try {
+            return processSeRequestSet(requestSet, selectionPlan);
+        } finally {
+            selectionPlan = null;
+        }
+    }
+
+    /**
+     * Process the provided requestSet using the provided selection plan (ATR, protocol flags and
+     * ATR filters are evaluated only once, an application selected by a request is not selected
+     * again by the following request if it targets the same application).
+     *
+     * @param requestSet the request set
+     * @param plan the selection plan of the request set
+     * @return SeResponseSet the response set
+     * @throws KeypleReaderException if a reader error occurs
+     */
+    private SeResponseSet processSeRequestSet(SeRequestSet requestSet, SelectionPlan plan)
+            throws KeypleReaderException {
 
         boolean requestMatchesProtocol[] = new boolean[requestSet.getRequests().size()];
         int requestIndex = 0, lastRequestIndex;
@@ -540,7 +635,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
             SeSelector seSelector = request.getSeSelector();
             if (seSelector != null) {
                 requestMatchesProtocol[requestIndex] =
-                        protocolFlagMatches(request.getSeSelector().getSeProtocol());
+                        plan.protocolFlagMatches(request.getSeSelector().getSeProtocol());
             } else {
                 requestMatchesProtocol[requestIndex] = true;
             }
@@ -607,7 +702,8 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
                          * SE reader status, if the logical channel doesn't require to be kept open,
                          * then the physical channel is closed.
                          */
-                        closePhysicalChannel();
+                        closeAndMeasurePhysicalChannel();
+                        plan.invalidateSelection();
 
                         logger.debug("[{}] processSeRequestSet => Closing of the physical channel.",
                                 this.getName());
@@ -648,7 +744,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
 
         /* close the physical channel if CLOSE_AFTER is requested */
         if (!seRequest.isKeepChannelOpen()) {
-            closePhysicalChannel();
+            closeAndMeasurePhysicalChannel();
         }
 
         return seResponse;
@@ -800,8 +896,8 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
     /**
      * Transmits an ApduRequest and receives the ApduResponse
      * <p>
-     * The time measurement is carried out and logged with the detailed information of the exchanges
-     * (TRACE level).
+     * The round-trip time (including the possible internal Get Response) is reported to the metrics
+     * recorder and logged with the detailed information of the exchanges (TRACE level).
      *
      * @param apduRequest APDU request
      * @return APDU response
@@ -812,29 +908,36 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
         logger.debug("processApduRequest");
         ApduResponse apduResponse;
         if (logger.isTraceEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - before) / 100000) / 10;
-            this.before = timeStamp;
-            logger.trace("[{}] processApduRequest => {}, elapsed {} ms.", this.getName(),
-                    apduRequest, elapsedMs);
+            logger.trace("[{}] processApduRequest => {}", this.getName(), apduRequest);
+        }
+
+        if (selectionPlan != null) {
+            /* the SE state may change, an application selection can no longer be reused */
+            selectionPlan.invalidateSelection();
         }
 
         byte[] buffer = apduRequest.getBytes();
-        apduResponse =
-                new ApduResponse(transmitApdu(buffer), apduRequest.getSuccessfulStatusCodes());
+        long timeStamp = System.nanoTime();
+        try {
+            apduResponse =
+                    new ApduResponse(transmitApdu(buffer), apduRequest.getSuccessfulStatusCodes());
 
-        if (apduRequest.isCase4() && apduResponse.getDataOut().length == 0
-                && apduResponse.isSuccessful()) {
-            // do the get response command but keep the original status code
-            apduResponse = case4HackGetResponse(apduResponse.getStatusCode());
+            if (apduRequest.isCase4() && apduResponse.getDataOutLength() == 0
+                    && apduResponse.isSuccessful()) {
+                // do the get response command but keep the original status code
+                apduResponse = case4HackGetResponse(apduResponse.getStatusCode());
+            }
+        } catch (KeypleIOReaderException ex) {
+            getMetricsRecorder().ioErrorRaised(pluginName, this.getName(), apduRequest.getName());
+            throw ex;
         }
+        long durationNanos = System.nanoTime() - timeStamp;
+        getMetricsRecorder().apduExchanged(pluginName, this.getName(), apduRequest.getName(),
+                durationNanos);
 
         if (logger.isTraceEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - before) / 100000) / 10;
-            this.before = timeStamp;
             logger.trace("[{}] processApduRequest => {}, elapsed {} ms.", this.getName(),
-                    apduResponse, elapsedMs);
+                    apduResponse, toMs(durationNanos));
         }
         return apduResponse;
     }
@@ -855,13 +958,11 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
          * build a get response command the actual length expected by the SE in the get response
          * command is handled in transmitApdu
          */
+        long timeStamp = System.nanoTime();
         if (logger.isTraceEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
             logger.trace(
-                    "[{}] case4HackGetResponse => ApduRequest: NAME = \"Internal Get Response\", RAWDATA = {}, elapsed = {}",
-                    this.getName(), ByteArrayUtil.toHex(getResponseHackRequestBytes), elapsedMs);
+                    "[{}] case4HackGetResponse => ApduRequest: NAME = \"Internal Get Response\", RAWDATA = {}",
+                    this.getName(), ByteArrayUtil.toHex(getResponseHackRequestBytes));
         }
 
         byte[] getResponseHackResponseBytes = transmitApdu(getResponseHackRequestBytes);
@@ -870,11 +971,8 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
         ApduResponse getResponseHackResponse = new ApduResponse(getResponseHackResponseBytes, null);
 
         if (logger.isTraceEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
             logger.trace("[{}] case4HackGetResponse => Internal {}, elapsed {} ms.", this.getName(),
-                    getResponseHackResponseBytes, elapsedMs);
+                    getResponseHackResponseBytes, toMs(System.nanoTime() - timeStamp));
         }
 
         if (getResponseHackResponse.isSuccessful()) {
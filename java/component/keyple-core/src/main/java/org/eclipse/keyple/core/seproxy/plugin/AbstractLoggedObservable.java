@@ -97,16 +97,18 @@ abstract class AbstractLoggedObservable<T> extends Observable<T> implements Name
 
     public final void notifyObservers(final T event) {
 
-        if (this instanceof AbstractObservableReader) {
-            logger.trace(
-                    "[{}] AbstractObservableReader => Notifying a reader event to {} observers. EVENTNAME = {}",
-                    this.getName(), this.countObservers(),
-                    ((ReaderEvent) event).getEventType().getName());
-        } else if (this instanceof AbstractObservablePlugin) {
-            logger.trace(
-                    "[{}] AbstractObservableReader => Notifying a plugin event to {} observers. EVENTNAME = {} ",
-                    this.getName(), this.countObservers(),
-                    ((PluginEvent) event).getEventType().getName());
+        if (logger.isTraceEnabled()) {
+            if (this instanceof AbstractObservableReader) {
+                logger.trace(
+                        "[{}] AbstractObservableReader => Notifying a reader event to {} observers. EVENTNAME = {}",
+                        this.getName(), this.countObservers(),
+                        ((ReaderEvent) event).getEventType().getName());
+            } else if (this instanceof AbstractObservablePlugin) {
+                logger.trace(
+                        "[{}] AbstractObservableReader => Notifying a plugin event to {} observers. EVENTNAME = {} ",
+                        this.getName(), this.countObservers(),
+                        ((PluginEvent) event).getEventType().getName());
+            }
         }
 
         setChanged();
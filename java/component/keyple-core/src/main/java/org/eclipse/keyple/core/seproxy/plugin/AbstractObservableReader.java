@@ -12,6 +12,8 @@
 package org.eclipse.keyple.core.seproxy.plugin;
 
 
+import java.util.concurrent.*;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.event.ObservableReader;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
@@ -19,6 +21,7 @@ import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.metrics.MetricsRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,8 +42,8 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
     /** logger */
     private static final Logger logger = LoggerFactory.getLogger(AbstractObservableReader.class);
 
-    /** Timestamp recorder */
-    private long before;
+    /** Executor of the asynchronous transmissions, created on first use */
+    private ThreadPoolExecutor transmitExecutor;
 
     /** Contains the name of the plugin */
     protected final String pluginName;
@@ -57,8 +60,6 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
      * Reader constructor
      * <p>
      * Force the definition of a name through the use of super method.
-     * <p>
-     * Initialize the time measurement
      *
      * @param pluginName the name of the plugin that instantiated the reader
      * @param readerName the name of the reader
@@ -66,11 +67,6 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
     protected AbstractObservableReader(String pluginName, String readerName) {
         super(readerName);
         this.pluginName = pluginName;
-        this.before = System.nanoTime(); /*
-                                          * provides an initial value for measuring the
-                                          * inter-exchange time. The first measurement gives the
-                                          * time elapsed since the plugin was loaded.
-                                          */
     }
 
     /** ==== Utility methods =============================================== */
@@ -97,14 +93,45 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
         return this.getName().compareTo(seReader.getName());
     }
 
+    /**
+     * Gets the recorder of the reader's measurements (set in the {@link SeProxyService})
+     *
+     * @return the metrics recorder
+     */
+    protected final MetricsRecorder getMetricsRecorder() {
+        return SeProxyService.getInstance().getMetricsRecorder();
+    }
+
+    /**
+     * Records the processing time of a SeRequest or SeRequestSet
+     *
+     * @param timeStamp the nanoTime at the beginning of the processing
+     * @return the processing time in nanoseconds
+     */
+    private long recordSeRequestSetProcessing(long timeStamp) {
+        long durationNanos = System.nanoTime() - timeStamp;
+        getMetricsRecorder().seRequestSetProcessed(pluginName, this.getName(), durationNanos);
+        return durationNanos;
+    }
+
+    /**
+     * Converts a duration to milliseconds with one decimal for logging purposes
+     *
+     * @param durationNanos the duration in nanoseconds
+     * @return the duration in milliseconds
+     */
+    static double toMs(long durationNanos) {
+        return (double) (durationNanos / 100000) / 10;
+    }
+
     /** ==== High level communication API ================================== */
 
     /**
      * Execute the transmission of a list of {@link SeRequest} and returns a list of
      * {@link SeResponse}
      * <p>
-     * The global execution time (inter-exchange and communication) and the SeRequestSet content is
-     * logged (DEBUG level).
+     * The processing time and the SeRequestSet content are logged (DEBUG level), the processing
+     * time is also reported to the {@link MetricsRecorder}.
      * <p>
      * As the method is final, it cannot be extended.
      *
@@ -120,39 +147,31 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
         SeResponseSet responseSet;
 
         if (logger.isDebugEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
-            logger.debug("[{}] transmit => SEREQUESTSET = {}, elapsed {} ms.", this.getName(),
-                    requestSet.toString(), elapsedMs);
+            logger.debug("[{}] transmit => SEREQUESTSET = {}", this.getName(),
+                    requestSet.toString());
         }
 
+        long timeStamp = System.nanoTime();
         try {
             responseSet = processSeRequestSet(requestSet);
         } catch (KeypleChannelStateException ex) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
+            long durationNanos = recordSeRequestSetProcessing(timeStamp);
             logger.debug("[{}] transmit => SEREQUESTSET channel failure. elapsed {}",
-                    this.getName(), elapsedMs);
+                    this.getName(), toMs(durationNanos));
             /* Throw an exception with the responses collected so far. */
             throw ex;
         } catch (KeypleIOReaderException ex) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
+            long durationNanos = recordSeRequestSetProcessing(timeStamp);
             logger.debug("[{}] transmit => SEREQUESTSET IO failure. elapsed {}", this.getName(),
-                    elapsedMs);
+                    toMs(durationNanos));
             /* Throw an exception with the responses collected so far. */
             throw ex;
         }
+        long durationNanos = recordSeRequestSetProcessing(timeStamp);
 
         if (logger.isDebugEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - before) / 100000) / 10;
-            this.before = timeStamp;
             logger.debug("[{}] transmit => SERESPONSESET = {}, elapsed {} ms.", this.getName(),
-                    responseSet.toString(), elapsedMs);
+                    responseSet.toString(), toMs(durationNanos));
         }
 
         return responseSet;
@@ -173,8 +192,8 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
     /**
      * Execute the transmission of a {@link SeRequest} and returns a {@link SeResponse}
      * <p>
-     * The individual execution time (inter-exchange and communication) and the SeRequestSet content
-     * is logged (DEBUG level).
+     * The processing time and the SeRequest content are logged (DEBUG level), the processing time
+     * is also reported to the {@link MetricsRecorder}.
      * <p>
      * As the method is final, it cannot be extended.
      *
@@ -190,39 +209,30 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
         SeResponse seResponse = null;
 
         if (logger.isDebugEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
-            logger.debug("[{}] transmit => SEREQUEST = {}, elapsed {} ms.", this.getName(),
-                    seRequest.toString(), elapsedMs);
+            logger.debug("[{}] transmit => SEREQUEST = {}", this.getName(), seRequest.toString());
         }
 
+        long timeStamp = System.nanoTime();
         try {
             seResponse = processSeRequest(seRequest);
         } catch (KeypleChannelStateException ex) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
+            long durationNanos = recordSeRequestSetProcessing(timeStamp);
             logger.debug("[{}] transmit => SEREQUEST channel failure. elapsed {}", this.getName(),
-                    elapsedMs);
+                    toMs(durationNanos));
             /* Throw an exception with the responses collected so far (ex.getSeResponse()). */
             throw ex;
         } catch (KeypleIOReaderException ex) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
-            this.before = timeStamp;
+            long durationNanos = recordSeRequestSetProcessing(timeStamp);
             logger.debug("[{}] transmit => SEREQUEST IO failure. elapsed {}", this.getName(),
-                    elapsedMs);
+                    toMs(durationNanos));
             /* Throw an exception with the responses collected so far (ex.getSeResponse()). */
             throw ex;
         }
+        long durationNanos = recordSeRequestSetProcessing(timeStamp);
 
         if (logger.isDebugEnabled()) {
-            long timeStamp = System.nanoTime();
-            double elapsedMs = (double) ((timeStamp - before) / 100000) / 10;
-            this.before = timeStamp;
             logger.debug("[{}] transmit => SERESPONSE = {}, elapsed {} ms.", this.getName(),
-                    seResponse.toString(), elapsedMs);
+                    seResponse.toString(), toMs(durationNanos));
         }
 
         return seResponse;
@@ -240,6 +250,192 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
     protected abstract SeResponse processSeRequest(SeRequest seRequest)
             throws KeypleReaderException;
 
+    /** ==== Asynchronous communication API ================================ */
+
+    /**
+     * Starts the transmission of a list of {@link SeRequest} and returns immediately.
+     * <p>
+     * As the method is final, it cannot be extended. The processing itself is delegated to
+     * {@link #processSeRequestSetAsync(SeRequestSet, TransmitFuture)}.
+     *
+     * @param requestSet the request set
+     * @param callback the callback notified when the transmission is completed (optional)
+     * @return the future response set
+     */
+    public final Future<SeResponseSet> transmitSetAsync(final SeRequestSet requestSet,
+            TransmitCallback<SeResponseSet> callback) {
+        if (requestSet == null) {
+            throw new IllegalArgumentException("seRequestSet must not be null");
+        }
+        TransmitFuture<SeResponseSet> future =
+                new TransmitFuture<SeResponseSet>(new Callable<SeResponseSet>() {
+                    @Override
+                    public SeResponseSet call() throws KeypleReaderException {
+                        return transmitSet(requestSet);
+                    }
+                }, callback);
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] transmitAsync => SEREQUESTSET submitted", this.getName());
+        }
+        processSeRequestSetAsync(requestSet, future);
+        return future;
+    }
+
+    public final Future<SeResponseSet> transmitSetAsync(SeRequestSet requestSet) {
+        return transmitSetAsync(requestSet, null);
+    }
+
+    /**
+     * Starts the transmission of a {@link SeRequest} and returns immediately.
+     * <p>
+     * As the method is final, it cannot be extended. The processing itself is delegated to
+     * {@link #processSeRequestAsync(SeRequest, TransmitFuture)}.
+     *
+     * @param seRequest the request to be transmitted
+     * @param callback the callback notified when the transmission is completed (optional)
+     * @return the future response
+     */
+    public final Future<SeResponse> transmitAsync(final SeRequest seRequest,
+            TransmitCallback<SeResponse> callback) {
+        if (seRequest == null) {
+            throw new IllegalArgumentException("seRequest must not be null");
+        }
+        TransmitFuture<SeResponse> future =
+                new TransmitFuture<SeResponse>(new Callable<SeResponse>() {
+                    @Override
+                    public SeResponse call() throws KeypleReaderException {
+                        return transmit(seRequest);
+                    }
+                }, callback);
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] transmitAsync => SEREQUEST submitted", this.getName());
+        }
+        processSeRequestAsync(seRequest, future);
+        return future;
+    }
+
+    public final Future<SeResponse> transmitAsync(SeRequest seRequest) {
+        return transmitAsync(seRequest, null);
+    }
+
+    /**
+     * Processes asynchronously a SeRequestSet.
+     * <p>
+     * By default, the future is run by the executor of the reader, which calls
+     * {@link #transmitSet(SeRequestSet)}. Readers able to process the request without blocking a
+     * thread (e.g. the remote readers) override this method and complete the future themselves.
+     *
+     * @param requestSet the SeRequestSet to be processed
+     * @param future the future to be completed with the SeResponseSet
+     */
+    protected void processSeRequestSetAsync(SeRequestSet requestSet,
+            TransmitFuture<SeResponseSet> future) {
+        getTransmitExecutor().execute(future);
+    }
+
+    /**
+     * Processes asynchronously a SeRequest.
+     * <p>
+     * By default, the future is run by the executor of the reader, which calls
+     * {@link #transmit(SeRequest)}. Readers able to process the request without blocking a thread
+     * (e.g. the remote readers) override this method and complete the future themselves.
+     *
+     * @param seRequest the SeRequest to be processed
+     * @param future the future to be completed with the SeResponse
+     */
+    protected void processSeRequestAsync(SeRequest seRequest, TransmitFuture<SeResponse> future) {
+        getTransmitExecutor().execute(future);
+    }
+
+    /**
+     * Gets the executor of the asynchronous transmissions of this reader.
+     * <p>
+     * It has a single thread, so that the requests are processed in order, and this thread is
+     * released when the reader is idle.
+     *
+     * @return the executor
+     */
+    private synchronized Executor getTransmitExecutor() {
+        if (transmitExecutor == null) {
+            final String threadName = "TransmitAsync-" + this.getName();
+            transmitExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, threadName);
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            transmitExecutor.allowCoreThreadTimeOut(true);
+        }
+        return transmitExecutor;
+    }
+
+    /**
+     * Future of an asynchronous transmission, notifying its optional callback when it is done.
+     * <p>
+     * It is either run by the executor of the reader or completed by the reader itself with
+     * {@link #complete(Object)} or {@link #fail(KeypleReaderException)}.
+     *
+     * @param <T> type of the response
+     */
+    protected static final class TransmitFuture<T> extends FutureTask<T> {
+        private final TransmitCallback<T> callback;
+
+        private TransmitFuture(Callable<T> callable, TransmitCallback<T> callback) {
+            super(callable);
+            this.callback = callback;
+        }
+
+        /**
+         * Completes the transmission with its response
+         *
+         * @param response the response
+         */
+        public void complete(T response) {
+            set(response);
+        }
+
+        /**
+         * Completes the transmission with an exception
+         *
+         * @param exception the reader exception
+         */
+        public void fail(KeypleReaderException exception) {
+            setException(exception);
+        }
+
+        @Override
+        protected void done() {
+            if (callback == null) {
+                return;
+            }
+            T response = null;
+            KeypleReaderException exception = null;
+            try {
+                response = get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof KeypleReaderException) {
+                    exception = (KeypleReaderException) e.getCause();
+                } else {
+                    exception = new KeypleReaderException("Transmission failed", e.getCause());
+                }
+            } catch (CancellationException e) {
+                exception = new KeypleReaderException("Transmission cancelled");
+            } catch (InterruptedException e) {
+                /* should not happen, the future is done */
+                Thread.currentThread().interrupt();
+                exception = new KeypleReaderException("Transmission interrupted", e);
+            }
+            try {
+                callback.onTransmitted(response, exception);
+            } catch (RuntimeException e) {
+                logger.error("Exception thrown by the transmit callback", e);
+            }
+        }
+    }
+
     /** ==== Methods specific to observability ============================= */
 
     /**
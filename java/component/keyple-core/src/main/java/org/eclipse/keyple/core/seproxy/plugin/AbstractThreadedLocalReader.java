@@ -19,8 +19,10 @@ import org.slf4j.LoggerFactory;
 import sun.rmi.runtime.Log;
 
 /**
- * Abstract definition of an threader local reader. Factorizes the observation mechanism through the
- * implementation of a monitoring thread.
+ * Abstract definition of an threader local reader. Factorizes the observation mechanism.
+ * <p>
+ * According to its {@link MonitoringMode}, the SE presence of the reader is monitored either by a
+ * {@link SePresenceMonitor} shared with other readers or by a dedicated monitoring thread.
  */
 public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocalReader {
 
@@ -32,29 +34,112 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
      */
     protected long threadWaitTimeout;
 
+    /** The monitor of the SE presence, when not monitored by a dedicated thread */
+    private volatile SePresenceMonitor sePresenceMonitor = SePresenceMonitor.getDefault();
+    /** The monitor currently observing the reader, null if not observed */
+    private volatile SePresenceMonitor activeSePresenceMonitor;
+
+    /**
+     * The ways the SE presence of a reader can be monitored
+     */
+    public enum MonitoringMode {
+        /** The presence is periodically checked by the {@link SePresenceMonitor} */
+        POLLING,
+        /**
+         * The presence is checked by the {@link SePresenceMonitor} when the reader signals a change
+         * with {@link #notifySePresenceChange()}
+         */
+        EVENT_DRIVEN,
+        /**
+         * The presence is monitored by a dedicated thread with the blocking methods
+         * {@link #waitForCardPresent(long)} and {@link #waitForCardAbsent(long)}
+         */
+        DEDICATED_THREAD
+    }
+
     protected AbstractThreadedLocalReader(String pluginName, String readerName) {
         super(pluginName, readerName);
     }
 
     /**
-     * Start the monitoring thread.
+     * Gives the way the SE presence of this reader has to be monitored.
+     * <p>
+     * The default mode is {@link MonitoringMode#DEDICATED_THREAD} (blocking waits in a thread per
+     * reader), readers whose non blocking {@link #checkSePresence()} is suited to the
+     * {@link SePresenceMonitor} override this method.
+     *
+     * @return the monitoring mode
+     */
+    protected MonitoringMode getMonitoringMode() {
+        return MonitoringMode.DEDICATED_THREAD;
+    }
+
+    /**
+     * Sets the monitor in charge of the SE presence of this reader (in
+     * {@link MonitoringMode#POLLING} and {@link MonitoringMode#EVENT_DRIVEN} modes). Takes effect
+     * at the next start of the observation.
+     *
+     * @param sePresenceMonitor the monitor to use instead of the default one
+     */
+    public final void setSePresenceMonitor(SePresenceMonitor sePresenceMonitor) {
+        if (sePresenceMonitor == null) {
+            throw new IllegalArgumentException("The SE presence monitor must not be null.");
+        }
+        this.sePresenceMonitor = sePresenceMonitor;
+    }
+
+    /**
+     * Start the monitoring of the SE presence.
      * <p>
-     * The thread is created if it does not already exist
+     * The reader is registered to its {@link SePresenceMonitor} or a monitoring thread is created
+     * according to its monitoring mode.
      */
     @Override
     protected void startObservation() {
         logger.debug("startObservation");
-        thread = new EventThread(this.getPluginName(), this.getName());
-        thread.start();
+        MonitoringMode monitoringMode = getMonitoringMode();
+        if (monitoringMode == MonitoringMode.DEDICATED_THREAD) {
+            thread = new EventThread(this.getPluginName(), this.getName());
+            thread.start();
+        } else {
+            activeSePresenceMonitor = sePresenceMonitor;
+            activeSePresenceMonitor.register(this, monitoringMode == MonitoringMode.POLLING);
+        }
     }
 
     /**
-     * Terminate the monitoring thread
+     * Terminate the monitoring of the SE presence
      */
     @Override
     protected void stopObservation() {
         logger.debug("stopObservation");
-        thread.end();
+        endMonitoring();
+    }
+
+    private void endMonitoring() {
+        if (thread != null) {
+            thread.end();
+            thread = null;
+        }
+        SePresenceMonitor monitor = activeSePresenceMonitor;
+        if (monitor != null) {
+            monitor.unregister(this);
+            activeSePresenceMonitor = null;
+        }
+    }
+
+    /**
+     * Signals a possible change of the SE presence. To be called by the readers in
+     * {@link MonitoringMode#EVENT_DRIVEN} mode when a SE is inserted or removed, the presence is
+     * then checked by a thread of the {@link SePresenceMonitor}.
+     * <p>
+     * Does nothing if the reader is not observed.
+     */
+    protected final void notifySePresenceChange() {
+        SePresenceMonitor monitor = activeSePresenceMonitor;
+        if (monitor != null) {
+            monitor.signal(this);
+        }
     }
 
     /**
@@ -69,6 +154,8 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
     /**
      * Waits for a card. Returns true if a card is detected before the end of the provided timeout.
      * Returns false if no card detected within the delay.
+     * <p>
+     * Only used in {@link MonitoringMode#DEDICATED_THREAD} mode.
      *
      * @param timeout the delay in millisecond we wait for a card insertion
      * @return presence status
@@ -81,6 +168,8 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
      * Wait until the card disappears. Returns true if a card has disappeared before the end of the
      * provided timeout. Returns false if the is still present within the delay. Closes the physical
      * channel when the card has disappeared.
+     * <p>
+     * Only used in {@link MonitoringMode#DEDICATED_THREAD} mode.
      *
      * @param timeout the delay in millisecond we wait for a card to be withdrawn
      * @return presence status
@@ -90,7 +179,7 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
     protected abstract boolean waitForCardAbsent(long timeout) throws NoStackTraceThrowable;
 
     /**
-     * Thread in charge of reporting live events
+     * Thread in charge of reporting live events (DEDICATED_THREAD mode)
      */
     private class EventThread extends Thread {
         /**
@@ -170,9 +259,8 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
      */
     @Override
     protected void finalize() throws Throwable {
-        thread.end();
-        thread = null;
-        logger.trace("[{}] Observable Reader thread ended.", this.getName());
+        endMonitoring();
+        logger.trace("[{}] Observable Reader monitoring ended.", this.getName());
         super.finalize();
     }
 }
@@ -11,7 +11,7 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.seproxy.plugin;
 
-import java.util.SortedSet;
+import java.util.*;
 import java.util.concurrent.ConcurrentSkipListSet;
 import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
@@ -27,6 +27,9 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
 
     private static final long SETTING_THREAD_TIMEOUT_DEFAULT = 1000;
 
+    /* maximum factor applied to threadWaitTimeout when the readers can't be listed */
+    private static final int MAX_BACK_OFF_FACTOR = 16;
+
     /**
      * Local thread to monitoring readers presence
      */
@@ -35,7 +38,8 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
     /**
      * Thread wait timeout in ms
      *
-     * This timeout value will determined the latency to detect changes
+     * This timeout value will determined the latency to detect changes when the plugin does not
+     * call {@link #notifyNativeReadersChange()}
      */
     protected long threadWaitTimeout = SETTING_THREAD_TIMEOUT_DEFAULT;
 
@@ -47,6 +51,10 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     private SortedSet<String> nativeReadersNames = new ConcurrentSkipListSet<String>();
 
+    /* change notifications, see notifyNativeReadersChange */
+    private final Object nativeReadersChangeLock = new Object();
+    private boolean nativeReadersChanged;
+
     /**
      * Fetch the list of connected native reader (usually from third party library) and returns
      * their names (or id)
@@ -86,12 +94,108 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
         }
     }
 
+    /**
+     * Signals that the list of native readers may have changed.
+     * <p>
+     * Plugins able to be notified of the connection or disconnection of readers (by the platform
+     * or because they manage the readers themselves) call this method so that the change is
+     * processed immediately. Without notification, the list is fetched again every
+     * threadWaitTimeout milliseconds.
+     */
+    protected final void notifyNativeReadersChange() {
+        synchronized (nativeReadersChangeLock) {
+            nativeReadersChanged = true;
+            nativeReadersChangeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for a notification of change or for the timeout to elapse
+     *
+     * @param timeout the maximum time to wait in milliseconds
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void waitForNativeReadersChange(long timeout) throws InterruptedException {
+        synchronized (nativeReadersChangeLock) {
+            if (!nativeReadersChanged) {
+                nativeReadersChangeLock.wait(timeout);
+            }
+            nativeReadersChanged = false;
+        }
+    }
+
+    /**
+     * Compares the current list of native readers with the known one and notifies the
+     * disconnections and connections
+     *
+     * @throws KeypleReaderException if the list of readers can't be fetched
+     */
+    private void updateReaders() throws KeypleReaderException {
+        /* retrieves the current readers names list */
+        SortedSet<String> actualNativeReadersNames = fetchNativeReadersNames();
+        /* checks if it has changed, this algorithm favors cases where nothing change */
+        if (nativeReadersNames.equals(actualNativeReadersNames)) {
+            return;
+        }
+        /* take a snapshot, the fetched set may be a live one */
+        Set<String> actualNames = new HashSet<String>(actualNativeReadersNames);
+
+        /* readers that disappeared */
+        SortedSet<String> changedReaderNames = new TreeSet<String>();
+        List<AbstractObservableReader> removedReaders = new ArrayList<AbstractObservableReader>();
+        for (AbstractObservableReader reader : readers) {
+            if (!actualNames.contains(reader.getName())) {
+                changedReaderNames.add(reader.getName());
+                removedReaders.add(reader);
+            }
+        }
+        /* notify disconnections if any and update the reader list */
+        if (!removedReaders.isEmpty()) {
+            /* grouped notification */
+            logger.trace("Notifying disconnection(s): {}", changedReaderNames);
+            notifyObservers(new PluginEvent(getName(), changedReaderNames,
+                    PluginEvent.EventType.READER_DISCONNECTED));
+            readers.removeAll(removedReaders);
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] Plugin thread => Remove unplugged reader(s) {} from readers list.",
+                        getName(), changedReaderNames);
+            }
+        }
+        /* forget the names of the readers that disappeared */
+        nativeReadersNames.retainAll(actualNames);
+
+        /* readers that appeared */
+        changedReaderNames = new TreeSet<String>();
+        for (String readerName : actualNames) {
+            if (!nativeReadersNames.contains(readerName)) {
+                AbstractObservableReader reader = fetchNativeReader(readerName);
+                if (reader == null) {
+                    /* removed in the meantime */
+                    continue;
+                }
+                readers.add(reader);
+                /* add to the notification list */
+                changedReaderNames.add(readerName);
+                logger.trace("[{}][{}] Plugin thread => Add plugged reader to readers list.",
+                        getName(), readerName);
+                /* add reader name to the current list */
+                nativeReadersNames.add(readerName);
+            }
+        }
+        /* notify connections if any */
+        if (!changedReaderNames.isEmpty()) {
+            logger.trace("Notifying connection(s): {}", changedReaderNames);
+            notifyObservers(new PluginEvent(getName(), changedReaderNames,
+                    PluginEvent.EventType.READER_CONNECTED));
+        }
+    }
+
     /**
      * Thread in charge of reporting live events
      */
     private class EventThread extends Thread {
         private final String pluginName;
-        private boolean running = true;
+        private volatile boolean running = true;
 
         private EventThread(String pluginName) {
             this.pluginName = pluginName;
@@ -106,82 +210,29 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
         }
 
         public void run() {
-            SortedSet<String> changedReaderNames = new ConcurrentSkipListSet<String>();
+            long waitTimeout = threadWaitTimeout;
             try {
                 while (running) {
-                    /* retrieves the current readers names list */
-                    SortedSet<String> actualNativeReadersNames = fetchNativeReadersNames();
-                    /*
-                     * checks if it has changed this algorithm favors cases where nothing change
-                     */
-                    if (!nativeReadersNames.equals(actualNativeReadersNames)) {
-                        /*
-                         * parse the current readers list, notify for disappeared readers, update
-                         * readers list
-                         */
-                        /* build changed reader names list */
-                        changedReaderNames.clear();
-                        for (AbstractObservableReader reader : readers) {
-                            if (!actualNativeReadersNames.contains(reader.getName())) {
-                                changedReaderNames.add(reader.getName());
-                            }
-                        }
-                        /* notify disconnections if any and update the reader list */
-                        if (changedReaderNames.size() > 0) {
-                            /* grouped notification */
-                            logger.trace("Notifying disconnection(s): {}", changedReaderNames);
-                            notifyObservers(new PluginEvent(this.pluginName, changedReaderNames,
-                                    PluginEvent.EventType.READER_DISCONNECTED));
-                            /* list update */
-                            for (AbstractObservableReader reader : readers) {
-                                if (!actualNativeReadersNames.contains(reader.getName())) {
-                                    readers.remove(reader);
-                                    logger.trace(
-                                            "[{}][{}] Plugin thread => Remove unplugged reader from readers list.",
-                                            this.pluginName, reader.getName());
-                                    /* remove reader name from the current list */
-                                    nativeReadersNames.remove(reader.getName());
-                                }
-                            }
-                            /* clean the list for a possible connection notification */
-                            changedReaderNames.clear();
-                        }
-                        /*
-                         * parse the new readers list, notify for readers appearance, update readers
-                         * list
-                         */
-                        for (String readerName : actualNativeReadersNames) {
-                            if (!nativeReadersNames.contains(readerName)) {
-                                AbstractObservableReader reader = fetchNativeReader(readerName);
-                                readers.add(reader);
-                                /* add to the notification list */
-                                changedReaderNames.add(readerName);
-                                logger.trace(
-                                        "[{}][{}] Plugin thread => Add plugged reader to readers list.",
-                                        this.pluginName, reader.getName());
-                                /* add reader name to the current list */
-                                nativeReadersNames.add(readerName);
-                            }
-                        }
-                        /* notify connections if any */
-                        if (changedReaderNames.size() > 0) {
-                            logger.trace("Notifying connection(s): {}", changedReaderNames);
-                            notifyObservers(new PluginEvent(this.pluginName, changedReaderNames,
-                                    PluginEvent.EventType.READER_CONNECTED));
-                        }
+                    try {
+                        updateReaders();
+                        waitTimeout = threadWaitTimeout;
+                    } catch (KeypleReaderException e) {
+                        /* the readers can't be listed for the moment, back off before retrying */
+                        waitTimeout = Math.min(waitTimeout * 2,
+                                threadWaitTimeout * MAX_BACK_OFF_FACTOR);
+                        logger.warn(
+                                "[{}] An exception occurred while monitoring plugin: {}, cause {}, retrying in {} ms",
+                                this.pluginName, e.getMessage(), e.getCause(), waitTimeout);
                     }
-                    /* sleep for a while. */
-                    Thread.sleep(threadWaitTimeout);
+                    /* wait for a change notification or for the timeout */
+                    waitForNativeReadersChange(waitTimeout);
                 }
             } catch (InterruptedException e) {
-                e.printStackTrace();
-                logger.warn("[{}] An exception occurred while monitoring plugin: {}, cause {}",
-                        this.pluginName, e.getMessage(), e.getCause());
-            } catch (KeypleReaderException e) {
-                e.printStackTrace();
-                logger.warn("[{}] An exception occurred while monitoring plugin: {}, cause {}",
-                        this.pluginName, e.getMessage(), e.getCause());
+                if (running) {
+                    logger.warn("[{}] Plugin monitoring thread interrupted", this.pluginName);
+                }
             }
+            logger.trace("[{}] Plugin monitoring thread ended", this.pluginName);
         }
     }
 
@@ -192,8 +243,10 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     @Override
     protected void finalize() throws Throwable {
-        thread.end();
-        thread = null;
+        if (thread != null) {
+            thread.end();
+            thread = null;
+        }
         logger.trace("[{}] Observable Plugin thread ended.", this.getName());
         super.finalize();
     }
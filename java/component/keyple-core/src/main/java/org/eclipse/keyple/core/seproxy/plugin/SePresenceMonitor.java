@@ -0,0 +1,297 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.seproxy.exception.NoStackTraceThrowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Monitors the SE presence of many {@link AbstractThreadedLocalReader} with a fixed number of
+ * threads.
+ * <p>
+ * The presence of each observed reader is checked with its non blocking
+ * {@link AbstractLocalReader#checkSePresence()} method by the threads of the monitor:
+ * <ul>
+ * <li>periodically for the readers in
+ * {@link AbstractThreadedLocalReader.MonitoringMode#POLLING} mode,</li>
+ * <li>each time the reader signals a change for the readers in
+ * {@link AbstractThreadedLocalReader.MonitoringMode#EVENT_DRIVEN} mode (e.g. from a plugin level
+ * event source).</li>
+ * </ul>
+ * The insertions and removals are reported through cardInserted and cardRemoved (default selection
+ * and notification of the observers) from a separate notification thread, so that a slow observer
+ * doesn't delay the checks of the other readers. The checks and the notifications of a given reader
+ * are never run concurrently. The number of checking threads doesn't depend on the number of
+ * readers.
+ * <p>
+ * A default monitor is shared by all the readers (see {@link #getDefault()}), a dedicated one can
+ * be set on a reader with
+ * {@link AbstractThreadedLocalReader#setSePresenceMonitor(SePresenceMonitor)}.
+ */
+public final class SePresenceMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SePresenceMonitor.class);
+
+    /** Default period of the presence checks of the readers in polling mode, in milliseconds */
+    public static final long DEFAULT_POLLING_PERIOD = 20;
+
+    private static final int DEFAULT_THREAD_COUNT =
+            Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final AtomicInteger notificationThreadCount = new AtomicInteger();
+
+    /* monitor shared by default, created on first use */
+    private static final class DefaultMonitorHolder {
+        static final SePresenceMonitor INSTANCE =
+                new SePresenceMonitor(DEFAULT_THREAD_COUNT, DEFAULT_POLLING_PERIOD);
+    }
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    /* runs the insertion and removal notifications */
+    private final ThreadPoolExecutor notificationExecutor;
+    private final long pollingPeriod;
+    private final ConcurrentMap<AbstractThreadedLocalReader, MonitoredReader> monitoredReaders =
+            new ConcurrentHashMap<AbstractThreadedLocalReader, MonitoredReader>();
+
+    /**
+     * Creates a monitor notifying the insertions and removals with as many threads as it has
+     * checking threads
+     *
+     * @param threadCount the number of threads checking the readers
+     * @param pollingPeriod the period of the presence checks of the readers in polling mode, in
+     *        milliseconds
+     */
+    public SePresenceMonitor(int threadCount, long pollingPeriod) {
+        this(threadCount, threadCount, pollingPeriod);
+    }
+
+    /**
+     * Creates a monitor
+     *
+     * @param threadCount the number of threads checking the readers
+     * @param notificationThreadCount the maximum number of threads notifying the insertions and
+     *        removals (created on demand)
+     * @param pollingPeriod the period of the presence checks of the readers in polling mode, in
+     *        milliseconds
+     */
+    public SePresenceMonitor(int threadCount, int notificationThreadCount, long pollingPeriod) {
+        if (threadCount < 1 || notificationThreadCount < 1 || pollingPeriod < 1) {
+            throw new IllegalArgumentException(
+                    "The thread counts and the polling period must be positive.");
+        }
+        this.pollingPeriod = pollingPeriod;
+        this.scheduler = new ScheduledThreadPoolExecutor(threadCount, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread =
+                        new Thread(r, "SePresenceMonitor-" + SePresenceMonitor.threadCount
+                                .incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.notificationExecutor = new ThreadPoolExecutor(notificationThreadCount,
+                notificationThreadCount, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "SePresenceMonitor-notification-"
+                                + SePresenceMonitor.notificationThreadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.notificationExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return the monitor used by default by the readers
+     */
+    public static SePresenceMonitor getDefault() {
+        return DefaultMonitorHolder.INSTANCE;
+    }
+
+    /**
+     * @return the number of threads checking the readers
+     */
+    public int getThreadCount() {
+        return scheduler.getCorePoolSize();
+    }
+
+    /**
+     * @return the maximum number of threads notifying the insertions and removals
+     */
+    public int getNotificationThreadCount() {
+        return notificationExecutor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return the period of the presence checks of the readers in polling mode, in milliseconds
+     */
+    public long getPollingPeriod() {
+        return pollingPeriod;
+    }
+
+    /**
+     * @return the number of readers currently monitored
+     */
+    public int getMonitoredReaderCount() {
+        return monitoredReaders.size();
+    }
+
+    /**
+     * Starts the monitoring of a reader, an SE already present is notified as inserted
+     *
+     * @param reader the reader
+     * @param polling true if the reader presence has to be checked periodically
+     */
+    void register(AbstractThreadedLocalReader reader, boolean polling) {
+        MonitoredReader monitoredReader = new MonitoredReader(reader);
+        MonitoredReader previous = monitoredReaders.put(reader, monitoredReader);
+        if (previous != null) {
+            previous.stop();
+        }
+        if (polling) {
+            monitoredReader.pollingTask = scheduler.scheduleWithFixedDelay(monitoredReader, 0,
+                    pollingPeriod, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler.execute(monitoredReader);
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] SE presence monitoring started, {} monitored readers",
+                    reader.getName(), monitoredReaders.size());
+        }
+    }
+
+    /**
+     * Ends the monitoring of a reader
+     *
+     * @param reader the reader
+     */
+    void unregister(AbstractThreadedLocalReader reader) {
+        MonitoredReader monitoredReader = monitoredReaders.remove(reader);
+        if (monitoredReader != null) {
+            monitoredReader.stop();
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] SE presence monitoring stopped", reader.getName());
+            }
+        }
+    }
+
+    /**
+     * Requests a check of the presence of a monitored reader, does nothing if the reader is not
+     * monitored
+     *
+     * @param reader the reader whose SE presence may have changed
+     */
+    void signal(AbstractThreadedLocalReader reader) {
+        MonitoredReader monitoredReader = monitoredReaders.get(reader);
+        if (monitoredReader != null) {
+            scheduler.execute(monitoredReader);
+        }
+    }
+
+    /**
+     * Presence check of a monitored reader
+     */
+    private final class MonitoredReader implements Runnable {
+        private final AbstractThreadedLocalReader reader;
+        private volatile boolean active = true;
+        private volatile ScheduledFuture<?> pollingTask;
+        /* last notified presence, guarded by this */
+        private boolean sePresent;
+        /* true while a notification is in progress, guarded by this */
+        private boolean notifying;
+        /* true if a check was requested during the notification, guarded by this */
+        private boolean checkRequested;
+
+        MonitoredReader(AbstractThreadedLocalReader reader) {
+            this.reader = reader;
+        }
+
+        void stop() {
+            active = false;
+            ScheduledFuture<?> task = pollingTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!active) {
+                return;
+            }
+            if (notifying) {
+                /* checked again once the notification is done */
+                checkRequested = true;
+                return;
+            }
+            try {
+                final boolean present = reader.checkSePresence();
+                if (present != sePresent) {
+                    sePresent = present;
+                    notifying = true;
+                    notificationExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            notifyPresence(present);
+                        }
+                    });
+                }
+            } catch (NoStackTraceThrowable e) {
+                onMonitoringFailure(e);
+            } catch (RuntimeException e) {
+                logger.error("[{}] Exception occurred in SE presence monitoring",
+                        reader.getName(), e);
+            }
+        }
+
+        /**
+         * Reports an insertion or a removal, run by the notification executor
+         */
+        private void notifyPresence(boolean present) {
+            try {
+                if (present) {
+                    reader.cardInserted();
+                } else {
+                    reader.cardRemoved();
+                }
+            } catch (NoStackTraceThrowable e) {
+                onMonitoringFailure(e);
+            } catch (RuntimeException e) {
+                logger.error("[{}] Exception occurred in SE presence notification",
+                        reader.getName(), e);
+            }
+            boolean check;
+            synchronized (this) {
+                notifying = false;
+                check = checkRequested && active;
+                checkRequested = false;
+            }
+            if (check) {
+                scheduler.execute(this);
+            }
+        }
+
+        private void onMonitoringFailure(NoStackTraceThrowable e) {
+            logger.trace("[{}] Exception occurred in SE presence monitoring: {}",
+                    reader.getName(), e.getMessage());
+            monitoredReaders.remove(reader, this);
+            stop();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.SelectionStatus;
+import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
+
+/**
+ * Selection plan built by {@link AbstractLocalReader} for the processing of a SeRequestSet.
+ * <p>
+ * The plan evaluates the protocol flags and the ATR filters once for the whole set of requests,
+ * whatever the number of requests sharing them, and remembers the last application selection so
+ * that a consecutive request targeting the same application does not resend the Select
+ * Application command as long as no other APDU has been exchanged with the SE in the meantime.
+ * <p>
+ * A plan is only valid during the processing of a single SeRequestSet (i.e. for the current SE).
+ */
+final class SelectionPlan {
+    private final AbstractLocalReader reader;
+
+    /* protocol flag evaluations, by protocol (null protocol included) */
+    private final Map<SeProtocol, Boolean> protocolMatches = new HashMap<SeProtocol, Boolean>();
+
+    /* ATR filter evaluations, by regular expression */
+    private final Map<String, Boolean> atrFilterMatches = new HashMap<String, Boolean>();
+
+    private byte[] atr;
+    private boolean atrRetrieved;
+
+    /* last application selection, still valid as long as no other APDU has been exchanged */
+    private SeSelector.AidSelector lastAidSelector;
+    private SelectionStatus lastSelectionStatus;
+
+    SelectionPlan(AbstractLocalReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Tells if the current SE matches the provided protocol flag. The reader is queried only once
+     * per protocol.
+     *
+     * @param seProtocol the protocol flag
+     * @return true if the protocol matches
+     * @throws KeypleReaderException in case of a reader exception
+     */
+    boolean protocolFlagMatches(SeProtocol seProtocol) throws KeypleReaderException {
+        Boolean matches = protocolMatches.get(seProtocol);
+        if (matches == null) {
+            matches = reader.protocolFlagMatches(seProtocol);
+            protocolMatches.put(seProtocol, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * @return the ATR of the current SE, retrieved once from the reader
+     */
+    byte[] getAtr() {
+        if (!atrRetrieved) {
+            atr = reader.getATR();
+            atrRetrieved = true;
+        }
+        return atr;
+    }
+
+    /**
+     * Tells if the ATR of the current SE matches the provided filter. Each regular expression is
+     * evaluated only once.
+     *
+     * @param atrFilter the ATR filter
+     * @return true if the ATR matches
+     */
+    boolean atrMatches(SeSelector.AtrFilter atrFilter) {
+        String atrRegex = atrFilter.getAtrRegex();
+        Boolean matches = atrFilterMatches.get(atrRegex);
+        if (matches == null) {
+            matches = atrFilter.atrMatches(getAtr());
+            atrFilterMatches.put(atrRegex, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Records the result of an application selection
+     *
+     * @param aidSelector the AID selector used
+     * @param selectionStatus the resulting selection status
+     */
+    void selectionDone(SeSelector.AidSelector aidSelector, SelectionStatus selectionStatus) {
+        lastAidSelector = aidSelector;
+        lastSelectionStatus = selectionStatus;
+    }
+
+    /**
+     * Invalidates the last application selection (an APDU has been exchanged or the channel has
+     * been closed)
+     */
+    void invalidateSelection() {
+        lastAidSelector = null;
+        lastSelectionStatus = null;
+    }
+
+    /**
+     * Gets the selection status obtained with an equivalent AID selector if it can be reused.
+     * <p>
+     * Only selections of the first occurrence are reused, a NEXT selection always leads to a new
+     * Select Application command.
+     *
+     * @param aidSelector the AID selector of the request to process
+     * @return the previous selection status or null if a selection has to be done
+     */
+    SelectionStatus getReusableSelection(SeSelector.AidSelector aidSelector) {
+        if (lastAidSelector == null || !isEquivalent(lastAidSelector, aidSelector)) {
+            return null;
+        }
+        return lastSelectionStatus;
+    }
+
+    private static boolean isEquivalent(SeSelector.AidSelector s1, SeSelector.AidSelector s2) {
+        if (s1.getFileOccurrence() != SeSelector.AidSelector.FileOccurrence.FIRST
+                || s2.getFileOccurrence() != SeSelector.AidSelector.FileOccurrence.FIRST
+                || s1.getFileControlInformation() != s2.getFileControlInformation()) {
+            return false;
+        }
+        if (s1.getAidToSelect() == null || s2.getAidToSelect() == null || !Arrays
+                .equals(s1.getAidToSelect().getValue(), s2.getAidToSelect().getValue())) {
+            return false;
+        }
+        if (s1.getSuccessfulSelectionStatusCodes() == null) {
+            return s2.getSuccessfulSelectionStatusCodes() == null;
+        }
+        return s1.getSuccessfulSelectionStatusCodes()
+                .equals(s2.getSuccessfulSelectionStatusCodes());
+    }
+}
@@ -83,6 +83,25 @@ public class ByteArrayUtil {
         return hexStringBuilder.toString();
     }
 
+    /**
+     * Represents a part of the byte array in a hexadecimal string.
+     *
+     * @param byteArray byte array to represent to hex
+     * @param offset the offset of the first byte to represent
+     * @param length the number of bytes to represent
+     * @return Hex representation of the bytes
+     */
+    public static String toHex(byte[] byteArray, int offset, int length) {
+        if (byteArray == null) {
+            return "";
+        }
+        StringBuilder hexStringBuilder = new StringBuilder(length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            hexStringBuilder.append(byteToHex[byteArray[i] & 0xFF]);
+        }
+        return hexStringBuilder.toString();
+    }
+
     /**
      * Convert three bytes from a byte array into an integer.
      * <p>
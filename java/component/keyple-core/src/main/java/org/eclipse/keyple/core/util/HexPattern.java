@@ -0,0 +1,206 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable compiled form of a regular expression intended to be applied to the hexadecimal
+ * representation of a byte array (e.g. an ATR).
+ * <p>
+ * The regular expression is compiled once. When it is only made of alternatives of uppercase hex
+ * digits and '.' wildcards, optionally starting and/or ending with ".*" (e.g. "3B8880.....",
+ * "3B8C800150.*", ".*4F4D4141544C4153.*"), the byte arrays are matched nibble by nibble against
+ * precomputed values without building their hex string. Any other expression is evaluated with the
+ * compiled {@link Pattern}.
+ * <p>
+ * Instances are obtained with {@link #compile(String)} and shared.
+ */
+public final class HexPattern {
+    /* the maximum number of patterns kept in the shared cache */
+    private static final int MAX_CACHED_PATTERNS = 256;
+    /* compiled patterns shared by all users */
+    private static final ConcurrentMap<String, HexPattern> hexPatterns =
+            new ConcurrentHashMap<String, HexPattern>();
+
+    private final String regex;
+    private final Pattern pattern;
+    /* nibble alternatives, null when the regular expression can't be handled without Pattern */
+    private final Alternative[] alternatives;
+
+    private HexPattern(String regex) {
+        this.regex = regex;
+        this.pattern = Pattern.compile(regex);
+        this.alternatives = parseAlternatives(regex);
+    }
+
+    /**
+     * Gives the compiled form of the provided regular expression, from the cache when possible
+     *
+     * @param regex the regular expression
+     * @return the {@link HexPattern}
+     * @throws java.util.regex.PatternSyntaxException if the regular expression is invalid
+     */
+    public static HexPattern compile(String regex) {
+        if (regex == null) {
+            throw new IllegalArgumentException("The regular expression can't be null.");
+        }
+        HexPattern hexPattern = hexPatterns.get(regex);
+        if (hexPattern == null) {
+            hexPattern = new HexPattern(regex);
+            if (hexPatterns.size() < MAX_CACHED_PATTERNS) {
+                hexPatterns.putIfAbsent(regex, hexPattern);
+            }
+        }
+        return hexPattern;
+    }
+
+    /**
+     * @return the regular expression provided at compilation time
+     */
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * Tells if the hexadecimal representation of the provided byte array (as given by
+     * {@link ByteArrayUtil#toHex(byte[])}) entirely matches the regular expression
+     *
+     * @param bytes the byte array
+     * @return true if it matches
+     */
+    public boolean matches(byte[] bytes) {
+        if (alternatives == null) {
+            return pattern.matcher(ByteArrayUtil.toHex(bytes)).matches();
+        }
+        int length = bytes != null ? bytes.length * 2 : 0;
+        for (Alternative alternative : alternatives) {
+            if (alternative.matches(bytes, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells if the provided string entirely matches the regular expression
+     *
+     * @param input the string to check
+     * @return true if it matches
+     */
+    public boolean matches(CharSequence input) {
+        return pattern.matcher(input).matches();
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    /**
+     * Splits the regular expression into nibble alternatives
+     *
+     * @param regex the regular expression
+     * @return the alternatives or null if the expression is not made only of simple alternatives
+     */
+    private static Alternative[] parseAlternatives(String regex) {
+        String[] parts = regex.split("\\|", -1);
+        Alternative[] alternatives = new Alternative[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            alternatives[i] = Alternative.parse(parts[i]);
+            if (alternatives[i] == null) {
+                return null;
+            }
+        }
+        return alternatives;
+    }
+
+    /**
+     * A sequence of nibbles (-1 being any nibble), possibly preceded and/or followed by any number
+     * of nibbles
+     */
+    private static final class Alternative {
+        private static final String ANY = ".*";
+        private final byte[] nibbles;
+        private final boolean anyBefore;
+        private final boolean anyAfter;
+
+        private Alternative(byte[] nibbles, boolean anyBefore, boolean anyAfter) {
+            this.nibbles = nibbles;
+            this.anyBefore = anyBefore;
+            this.anyAfter = anyAfter;
+        }
+
+        static Alternative parse(String regex) {
+            boolean anyBefore = false;
+            boolean anyAfter = false;
+            if (regex.startsWith(ANY)) {
+                anyBefore = true;
+                regex = regex.substring(ANY.length());
+            }
+            if (regex.endsWith(ANY)) {
+                anyAfter = true;
+                regex = regex.substring(0, regex.length() - ANY.length());
+            }
+            byte[] nibbles = new byte[regex.length()];
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (c == '.') {
+                    nibbles[i] = -1;
+                } else if (c >= '0' && c <= '9') {
+                    nibbles[i] = (byte) (c - '0');
+                } else if (c >= 'A' && c <= 'F') {
+                    nibbles[i] = (byte) (c - 'A' + 10);
+                } else {
+                    /* not a simple expression */
+                    return null;
+                }
+            }
+            return new Alternative(nibbles, anyBefore, anyAfter);
+        }
+
+        boolean matches(byte[] bytes, int length) {
+            int lastOffset = length - nibbles.length;
+            if (lastOffset < 0) {
+                return false;
+            }
+            if (!anyBefore) {
+                return (anyAfter || lastOffset == 0) && matchesAt(bytes, 0);
+            }
+            if (!anyAfter) {
+                return matchesAt(bytes, lastOffset);
+            }
+            for (int offset = 0; offset <= lastOffset; offset++) {
+                if (matchesAt(bytes, offset)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesAt(byte[] bytes, int offset) {
+            for (int i = 0; i < nibbles.length; i++) {
+                if (nibbles[i] >= 0 && nibbles[i] != nibble(bytes, offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int nibble(byte[] bytes, int index) {
+            int b = bytes[index >> 1];
+            return (index & 1) == 0 ? (b >> 4) & 0x0F : b & 0x0F;
+        }
+    }
+}
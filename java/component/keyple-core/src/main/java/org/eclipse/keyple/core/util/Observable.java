@@ -12,60 +12,91 @@
 package org.eclipse.keyple.core.util;
 
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * Generic Observable class
+ * <p>
+ * The observers are kept in an array replaced at each addition or removal (copy-on-write): the
+ * notification of an event takes no lock and allocates nothing, the observers registered when the
+ * notification starts are notified, even if they are removed in the meantime.
+ * <p>
+ * The observers are notified by the thread raising the event unless an executor is provided with
+ * {@link #setNotificationExecutor(Executor)}.
  *
  * @param <T> Generic event
  *
  */
 
 public class Observable<T> {
+    private static final Logger logger = LoggerFactory.getLogger(Observable.class);
+
     public interface Observer<T> {
         void update(T event);
     }
 
+    private static final Observer[] NO_OBSERVERS = new Observer[0];
+
     private boolean changed = false;
 
     /*
-     * this object will be used to synchronize the access to the observers list in order to be
-     * thread safe
+     * this object will be used to synchronize the modifications of the observers list in order to
+     * be thread safe
      */
     private final Object SYNC = new Object();
 
-    private Set<Observer<T>> observers;
+    @SuppressWarnings("unchecked")
+    private volatile Observer<T>[] observers = NO_OBSERVERS;
+
+    private volatile Executor notificationExecutor;
 
+    @SuppressWarnings("unchecked")
     public void addObserver(final Observer<T> observer) {
         if (observer == null) {
             return;
         }
 
         synchronized (SYNC) {
-            if (observers == null) {
-                observers = new HashSet<Observer<T>>(1);
+            Observer<T>[] current = observers;
+            for (Observer<T> o : current) {
+                if (o.equals(observer)) {
+                    return;
+                }
             }
-            observers.add(observer);
+            Observer<T>[] updated = new Observer[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = observer;
+            observers = updated;
         }
     }
 
+    @SuppressWarnings("unchecked")
     public void removeObserver(final Observer<T> observer) {
         if (observer == null) {
             return;
         }
 
         synchronized (SYNC) {
-            if (observers != null) {
-                observers.remove(observer);
+            Observer<T>[] current = observers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].equals(observer)) {
+                    Observer<T>[] updated = new Observer[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    observers = updated;
+                    return;
+                }
             }
         }
     }
 
+    @SuppressWarnings("unchecked")
     public void clearObservers() {
-        if (observers != null) {
-            this.observers.clear();
+        synchronized (SYNC) {
+            observers = NO_OBSERVERS;
         }
     }
 
@@ -82,7 +113,29 @@ public class Observable<T> {
     }
 
     public int countObservers() {
-        return observers == null ? 0 : observers.size();
+        return observers.length;
+    }
+
+    /**
+     * Sets the executor in charge of notifying the observers.
+     * <p>
+     * When set, the thread raising an event is not blocked by the observers: each event is
+     * submitted to the executor which notifies all the observers. A single threaded executor keeps
+     * the order of the events.
+     *
+     * @param notificationExecutor the executor or null to notify the observers synchronously (by
+     *        default)
+     */
+    public void setNotificationExecutor(Executor notificationExecutor) {
+        this.notificationExecutor = notificationExecutor;
+    }
+
+    /**
+     * @return the executor in charge of notifying the observers, null if they are notified
+     *         synchronously
+     */
+    public Executor getNotificationExecutor() {
+        return notificationExecutor;
     }
 
     public void notifyObservers() {
@@ -90,17 +143,54 @@ public class Observable<T> {
     }
 
     public void notifyObservers(final T event) {
-        Set<Observer> observersCopy;
+        Observer<T>[] currentObservers = observers;
 
-        synchronized (SYNC) {
-            if (observers == null) {
-                return;
+        if (currentObservers.length == 0) {
+            return;
+        }
+
+        Executor executor = notificationExecutor;
+        if (executor == null) {
+            for (Observer<T> observer : currentObservers) {
+                observer.update(event);
             }
-            observersCopy = new HashSet<Observer>(observers);
+        } else {
+            executor.execute(new Notification<T>(currentObservers, event));
         }
+    }
+
+    /**
+     * Notification of an event to the observers registered when it was raised, as submitted to the
+     * notification executor
+     *
+     * @param <T> Generic event
+     */
+    public static final class Notification<T> implements Runnable {
+        private final Observer<T>[] observers;
+        private final T event;
 
-        for (Observer observer : observersCopy) {
-            observer.update(event);
+        private Notification(Observer<T>[] observers, T event) {
+            this.observers = observers;
+            this.event = event;
+        }
+
+        /**
+         * @return the notified event
+         */
+        public T getEvent() {
+            return event;
+        }
+
+        @Override
+        public void run() {
+            for (Observer<T> observer : observers) {
+                try {
+                    observer.update(event);
+                } catch (RuntimeException e) {
+                    logger.error("Observer {} failed to process the event {}", observer, event,
+                            e);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,196 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.util.Observable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventDispatcherTest {
+
+    private EventDispatcher dispatcher;
+
+    /**
+     * Observer recording the received events, the first one being held until released
+     */
+    static class RecordingObserver implements Observable.Observer<ReaderEvent> {
+        final List<ReaderEvent.EventType> received =
+                Collections.synchronizedList(new ArrayList<ReaderEvent.EventType>());
+        final CountDownLatch firstEventReceived = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void update(ReaderEvent event) {
+            received.add(event.getEventType());
+            firstEventReceived.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ReaderEvent event(ReaderEvent.EventType eventType) {
+        return new ReaderEvent("plugin", "reader", eventType, null);
+    }
+
+    private static void awaitDelivery(EventDispatcher dispatcher, long count)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getDispatchedEventCount() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void orderedDeliveryPerObservable() throws InterruptedException {
+        dispatcher = new EventDispatcher(2, 1000, EventDispatcher.OverflowPolicy.BLOCK);
+        final int observableCount = 8;
+        final int eventCount = 200;
+        List<Observable<Integer>> observables = new ArrayList<Observable<Integer>>();
+        final List<List<Integer>> received = new ArrayList<List<Integer>>();
+        for (int i = 0; i < observableCount; i++) {
+            Observable<Integer> observable = new Observable<Integer>();
+            final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+            observable.addObserver(new Observable.Observer<Integer>() {
+                @Override
+                public void update(Integer event) {
+                    events.add(event);
+                }
+            });
+            dispatcher.register(observable);
+            observables.add(observable);
+            received.add(events);
+        }
+        for (int e = 0; e < eventCount; e++) {
+            for (Observable<Integer> observable : observables) {
+                observable.notifyObservers(e);
+            }
+        }
+        awaitDelivery(dispatcher, observableCount * eventCount);
+        for (List<Integer> events : received) {
+            Assert.assertEquals(eventCount, events.size());
+            for (int e = 0; e < eventCount; e++) {
+                Assert.assertEquals(Integer.valueOf(e), events.get(e));
+            }
+        }
+        Assert.assertEquals(0, dispatcher.getQueueDepth());
+        Assert.assertEquals(0, dispatcher.getDroppedEventCount());
+        Assert.assertTrue(dispatcher.getMaxDispatchLatency() >= dispatcher
+                .getAverageDispatchLatency());
+    }
+
+    @Test
+    public void dropOldest() throws InterruptedException {
+        dispatcher = new EventDispatcher(1, 2, EventDispatcher.OverflowPolicy.DROP_OLDEST);
+        Observable<ReaderEvent> reader = new Observable<ReaderEvent>();
+        RecordingObserver observer = new RecordingObserver();
+        reader.addObserver(observer);
+        dispatcher.register(reader);
+
+        reader.notifyObservers(event(ReaderEvent.EventType.IO_ERROR));
+        Assert.assertTrue(observer.firstEventReceived.await(5, TimeUnit.SECONDS));
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_INSERTED));
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_REMOVAL));
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_MATCHED));
+        /* the notifying thread is never blocked */
+        Assert.assertEquals(2, dispatcher.getQueueDepth());
+        observer.released.countDown();
+
+        awaitDelivery(dispatcher, 3);
+        Assert.assertEquals(
+                Arrays.asList(ReaderEvent.EventType.IO_ERROR,
+                        ReaderEvent.EventType.SE_REMOVAL, ReaderEvent.EventType.SE_MATCHED),
+                observer.received);
+        Assert.assertEquals(1, dispatcher.getDroppedEventCount());
+        Assert.assertEquals(2, dispatcher.getMaxQueueDepth());
+    }
+
+    @Test
+    public void coalesce() throws InterruptedException {
+        dispatcher = new EventDispatcher(1, 2, EventDispatcher.OverflowPolicy.COALESCE);
+        Observable<ReaderEvent> reader = new Observable<ReaderEvent>();
+        RecordingObserver observer = new RecordingObserver();
+        reader.addObserver(observer);
+        dispatcher.register(reader);
+
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_REMOVAL));
+        Assert.assertTrue(observer.firstEventReceived.await(5, TimeUnit.SECONDS));
+        /* an insertion and its removal cancel each other */
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_INSERTED));
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_REMOVAL));
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_MATCHED));
+        Assert.assertEquals(1, dispatcher.getQueueDepth());
+        observer.released.countDown();
+
+        awaitDelivery(dispatcher, 2);
+        Assert.assertEquals(Arrays.asList(ReaderEvent.EventType.SE_REMOVAL,
+                ReaderEvent.EventType.SE_MATCHED), observer.received);
+        Assert.assertEquals(2, dispatcher.getCoalescedEventCount());
+        Assert.assertEquals(0, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void block() throws InterruptedException {
+        dispatcher = new EventDispatcher(1, 1, EventDispatcher.OverflowPolicy.BLOCK);
+        final Observable<ReaderEvent> reader = new Observable<ReaderEvent>();
+        RecordingObserver observer = new RecordingObserver();
+        reader.addObserver(observer);
+        dispatcher.register(reader);
+
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_INSERTED));
+        Assert.assertTrue(observer.firstEventReceived.await(5, TimeUnit.SECONDS));
+        reader.notifyObservers(event(ReaderEvent.EventType.SE_REMOVAL));
+        final CountDownLatch notified = new CountDownLatch(1);
+        new Thread() {
+            @Override
+            public void run() {
+                reader.notifyObservers(event(ReaderEvent.EventType.SE_MATCHED));
+                notified.countDown();
+            }
+        }.start();
+        /* the queue is full, the notifying thread waits */
+        Assert.assertFalse(notified.await(100, TimeUnit.MILLISECONDS));
+        observer.released.countDown();
+        Assert.assertTrue(notified.await(5, TimeUnit.SECONDS));
+
+        awaitDelivery(dispatcher, 3);
+        Assert.assertEquals(3, observer.received.size());
+        Assert.assertEquals(0, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void unregister() {
+        dispatcher = new EventDispatcher(1, 2, EventDispatcher.OverflowPolicy.DROP_OLDEST);
+        Observable<ReaderEvent> reader = new Observable<ReaderEvent>();
+        dispatcher.register(reader);
+        Assert.assertNotNull(reader.getNotificationExecutor());
+        dispatcher.unregister(reader);
+        Assert.assertNull(reader.getNotificationExecutor());
+    }
+}
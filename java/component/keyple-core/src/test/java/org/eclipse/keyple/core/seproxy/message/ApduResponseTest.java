@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.seproxy.message;
 
 import static org.junit.Assert.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -113,6 +114,19 @@ public class ApduResponseTest {
         assertNotNull(resp.hashCode());
     }
 
+    @Test
+    public void dataOutViews() {
+        ApduResponse response = new ApduResponse(ByteArrayUtil.fromHex("FEDCBA98 6283h"), null);
+        assertEquals(0x6283, response.getStatusCode());
+        assertEquals(4, response.getDataOutLength());
+        ByteBuffer dataOut = response.getDataOutBuffer();
+        assertTrue(dataOut.isReadOnly());
+        assertEquals(4, dataOut.remaining());
+        assertEquals((byte) 0xFE, dataOut.get(0));
+        assertEquals((byte) 0x98, dataOut.get(3));
+        assertArrayEquals(ByteArrayUtil.fromHex("FEDCBA98"), response.getDataOut());
+    }
+
     @Test
     public void testToStringNull() {
         ApduResponse resp = new ApduResponse(null, null);
@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import org.eclipse.keyple.core.CoreBaseTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRegistryTest extends CoreBaseTest {
+
+    @Test
+    public void histogramBuckets() {
+        for (long value = 0; value < 100000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            if (index > 0) {
+                Assert.assertTrue(value > LatencyHistogram.bucketUpperBound(index - 1));
+            }
+        }
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1,
+                LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000, snapshot.getCount());
+        Assert.assertEquals(1000000, snapshot.getMaxNanos());
+        Assert.assertEquals(500500, snapshot.getMeanNanos());
+        long p50 = snapshot.getPercentileNanos(50);
+        Assert.assertTrue(p50 >= 500000 && p50 <= 625000);
+        long p99 = snapshot.getPercentileNanos(99);
+        Assert.assertTrue(p99 >= 990000 && p99 <= 1000000);
+        Assert.assertEquals(1000000, snapshot.getPercentileNanos(100));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.snapshot().getCount());
+        Assert.assertEquals(0, histogram.snapshot().getPercentileNanos(99));
+    }
+
+    @Test
+    public void recordByReaderAndCommandType() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.apduExchanged("plugin1", "reader1", "Read Records - EventLog", 2000);
+        registry.apduExchanged("plugin1", "reader1", "Read Records - Contracts", 4000);
+        registry.apduExchanged("plugin1", "reader2", "Open Secure Session V3.1", 8000);
+        registry.apduExchanged("plugin2", "reader3", null, 1000);
+        registry.applicationSelected("plugin1", "reader1", 3000);
+        registry.ioErrorRaised("plugin1", "reader2", "Open Secure Session V3.1");
+        registry.ioErrorRaised("plugin1", "reader2", null);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        Assert.assertEquals(3, snapshot.getReaderSnapshots().size());
+
+        ReaderMetricsSnapshot reader1 = snapshot.getReaderSnapshot("plugin1", "reader1");
+        Assert.assertEquals(2, reader1.getApduCount());
+        Assert.assertEquals(6000, reader1.getApduRoundTrip().getTotalNanos());
+        Assert.assertEquals(2, reader1.getCommandRoundTrips().get("Read Records").getCount());
+        Assert.assertEquals(1, reader1.getSelection().getCount());
+
+        ReaderMetricsSnapshot reader2 = snapshot.getReaderSnapshot("plugin1", "reader2");
+        Assert.assertEquals(2, reader2.getIoErrorCount());
+        Assert.assertEquals(Long.valueOf(1),
+                reader2.getCommandIoErrorCounts().get("Open Secure Session V3.1"));
+
+        ReaderMetricsSnapshot plugin1 = snapshot.getPluginSnapshot("plugin1");
+        Assert.assertEquals("plugin1", plugin1.getPluginName());
+        Assert.assertNull(plugin1.getReaderName());
+        Assert.assertEquals(3, plugin1.getApduCount());
+        Assert.assertEquals(8000, plugin1.getApduRoundTrip().getMaxNanos());
+
+        ReaderMetricsSnapshot global = snapshot.getGlobalSnapshot();
+        Assert.assertNull(global.getPluginName());
+        Assert.assertEquals(4, global.getApduCount());
+        Assert.assertEquals(1,
+                global.getCommandRoundTrips().get(MetricsRegistry.UNNAMED_COMMAND_TYPE).getCount());
+
+        registry.reset();
+        Assert.assertEquals(0,
+                registry.snapshot().getReaderSnapshot("plugin1", "reader1").getApduCount());
+    }
+
+    @Test
+    public void commandTypesCacheBounded() {
+        MetricsRegistry registry = new MetricsRegistry();
+        int commandCount = 2 * MetricsRegistry.MAX_CACHED_COMMAND_NAMES;
+        for (int i = 0; i < commandCount; i++) {
+            registry.apduExchanged("plugin1", "reader1", "Read Records - " + i, 1000);
+        }
+        Assert.assertEquals(MetricsRegistry.MAX_CACHED_COMMAND_NAMES,
+                registry.getCachedCommandNameCount());
+        Assert.assertEquals(commandCount, registry.snapshot()
+                .getReaderSnapshot("plugin1", "reader1").getCommandRoundTrips()
+                .get("Read Records").getCount());
+    }
+}
@@ -0,0 +1,54 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import static org.junit.Assert.*;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class HexPatternTest {
+    private final static String[] REGEXES = new String[] {"", ".*", "3B.*", "3B", "3.*", "..*",
+            "3B8880....................|3B8C800150.*|.*4F4D4141544C4153.*",
+            "3B8F8001805A0A0103200311........829000..", "3B8180018080", ".*9000", ".*B.*",
+            "3b.*", "3B(.{6}|.{10})805A(.{20})829000", "3B[0-9A-F]{4}.*", "A.B"};
+
+    private final static String[] ATRS = new String[] {"", "3B", "3B8180018080",
+            "3B8880010000000000718100F9", "3B8C800150112233445566778899AABB",
+            "3B8F8001805A0A010320031112345678829000F1", "11224F4D4141544C41533344",
+            "3B3F9600805A0080C120000012345678829000", "A0B0", "AFB0", "3B8880"};
+
+    @Test
+    public void matches_sameResultAsRegex() {
+        for (String regex : REGEXES) {
+            HexPattern hexPattern = HexPattern.compile(regex);
+            Pattern pattern = Pattern.compile(regex);
+            for (String atr : ATRS) {
+                assertEquals("regex = " + regex + ", atr = " + atr,
+                        pattern.matcher(atr).matches(),
+                        hexPattern.matches(ByteArrayUtil.fromHex(atr)));
+                assertEquals("regex = " + regex + ", atr = " + atr,
+                        pattern.matcher(atr).matches(), hexPattern.matches(atr));
+            }
+        }
+    }
+
+    @Test
+    public void compile_isCached() {
+        assertSame(HexPattern.compile("3B8880.*"), HexPattern.compile("3B8880.*"));
+        assertEquals("3B8880.*", HexPattern.compile("3B8880.*").getRegex());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_null() {
+        HexPattern.compile(null);
+    }
+}
@@ -11,6 +11,10 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.util;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -70,4 +74,74 @@ public class ObservableTest {
         Assert.assertEquals(2, sub1.getNbCalls());
         Assert.assertEquals(1, sub2.getNbCalls());
     }
+
+    @Test
+    public void addRemove() {
+        Observable<Event> pub = new Observable<Event>();
+        Observer sub1 = new Observer();
+        Observer sub2 = new Observer();
+        pub.addObserver(sub1);
+        pub.addObserver(sub1);
+        pub.addObserver(sub2);
+        Assert.assertEquals(2, pub.countObservers());
+        pub.notifyObservers(new Event("ev1"));
+        pub.removeObserver(sub1);
+        Assert.assertEquals(1, pub.countObservers());
+        pub.notifyObservers(new Event("ev2"));
+        pub.clearObservers();
+        Assert.assertEquals(0, pub.countObservers());
+        pub.notifyObservers(new Event("ev3"));
+        Assert.assertEquals(1, sub1.getNbCalls());
+        Assert.assertEquals(2, sub2.getNbCalls());
+    }
+
+    @Test
+    public void removeDuringNotification() {
+        final Observable<Event> pub = new Observable<Event>();
+        final Observer sub2 = new Observer();
+        Observer sub1 = new Observer() {
+            @Override
+            public void update(Event arg) {
+                super.update(arg);
+                pub.removeObserver(sub2);
+            }
+        };
+        pub.addObserver(sub1);
+        pub.addObserver(sub2);
+        /* the observers registered when the notification starts are notified */
+        pub.notifyObservers(new Event("ev1"));
+        pub.notifyObservers(new Event("ev2"));
+        Assert.assertEquals(2, sub1.getNbCalls());
+        Assert.assertEquals(1, sub2.getNbCalls());
+    }
+
+    @Test
+    public void asynchronousNotification() throws InterruptedException {
+        final Observable<Event> pub = new Observable<Event>();
+        final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch notified = new CountDownLatch(2);
+        pub.addObserver(new Observable.Observer<Event>() {
+            @Override
+            public void update(Event event) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                notified.countDown();
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            pub.setNotificationExecutor(executor);
+            /* the slow observer does not block the notifying thread */
+            pub.notifyObservers(new Event("ev1"));
+            pub.notifyObservers(new Event("ev2"));
+            Assert.assertEquals(2, notified.getCount());
+            released.countDown();
+            Assert.assertTrue(notified.await(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -40,11 +40,15 @@ public final class PcscPlugin extends AbstractThreadedObservablePlugin {
      */
     private static final PcscPlugin uniqueInstance = new PcscPlugin();
 
-    private static TerminalFactory factory;
+    private static volatile TerminalFactory factory;
 
 
     private boolean logging = false;
 
+    /* number of observed readers, the card event watcher runs while it is not zero */
+    private int observedReaderCount;
+    private CardEventWatcher cardEventWatcher;
+
     private PcscPlugin() {
         super("PcscPlugin");
     }
@@ -180,30 +184,130 @@ public final class PcscPlugin extends AbstractThreadedObservablePlugin {
         return reader;
     }
 
-    private CardTerminals getCardTerminals() {
-        try {
-            Class pcscterminal = null;
-            pcscterminal = Class.forName("sun.security.smartcardio.PCSCTerminals");
-            Field contextId = pcscterminal.getDeclaredField("contextId");
-            contextId.setAccessible(true);
-
-            if (contextId.getLong(pcscterminal) != 0L) {
-                Class pcsc = Class.forName("sun.security.smartcardio.PCSC");
-                Method SCardEstablishContext =
-                        pcsc.getDeclaredMethod("SCardEstablishContext", new Class[] {Integer.TYPE});
-                SCardEstablishContext.setAccessible(true);
-
-                Field SCARD_SCOPE_USER = pcsc.getDeclaredField("SCARD_SCOPE_USER");
-                SCARD_SCOPE_USER.setAccessible(true);
-
-                long newId = ((Long) SCardEstablishContext.invoke(pcsc,
-                        new Object[] {Integer.valueOf(SCARD_SCOPE_USER.getInt(pcsc))})).longValue();
-                contextId.setLong(pcscterminal, newId);
+    /**
+     * Starts the monitoring thread, the card event watcher also signals it the reader changes.
+     * <p>
+     * Disconnections are detected as soon as the PC/SC layer reports them. The connections of new
+     * readers, that javax.smartcardio can't wait for, are detected within threadWaitTimeout.
+     */
+    @Override
+    protected void startObservation() {
+        super.startObservation();
+        startCardEventWatching();
+    }
+
+    /**
+     * Stops the monitoring thread and the card event watcher if no reader is observed
+     */
+    @Override
+    protected void stopObservation() {
+        stopCardEventWatching();
+        super.stopObservation();
+    }
+
+    /**
+     * Called when the observation of the plugin or of a reader starts. The card events of all the
+     * terminals are waited for by a single thread which signals them to the readers.
+     */
+    synchronized void startCardEventWatching() {
+        if (observedReaderCount++ == 0) {
+            cardEventWatcher = new CardEventWatcher();
+            cardEventWatcher.start();
+        }
+    }
+
+    /**
+     * Called when the observation of the plugin or of a reader ends. The watching thread is stopped
+     * with the last observation.
+     */
+    synchronized void stopCardEventWatching() {
+        if (observedReaderCount > 0 && --observedReaderCount == 0) {
+            cardEventWatcher.end();
+            cardEventWatcher = null;
+        }
+    }
+
+    /**
+     * Thread waiting for the insertion or removal of a card in any of the PC/SC terminals
+     * (SCardGetStatusChange on all the readers at once).
+     * <p>
+     * The readers are signaled at each change and at least once per timeout, their SE presence is
+     * then checked by the SE presence monitor. The plugin monitoring thread is signaled as well.
+     */
+    private class CardEventWatcher extends Thread {
+        private volatile boolean running = true;
+
+        CardEventWatcher() {
+            super("PcscCardEventWatcher");
+            setDaemon(true);
+        }
+
+        void end() {
+            running = false;
+            this.interrupt();
+        }
+
+        @Override
+        public void run() {
+            CardTerminals terminals = getCardTerminals();
+            while (running) {
+                try {
+                    terminals.waitForChange(SETTING_THREAD_TIMEOUT_DEFAULT);
+                } catch (CardException e) {
+                    terminals = retryLater(e);
+                } catch (IllegalStateException e) {
+                    /* no terminals available, thrown instead of a CardException */
+                    terminals = retryLater(e);
+                }
+                if (running) {
+                    /* a reader may have been disconnected */
+                    notifyNativeReadersChange();
+                    for (AbstractObservableReader reader : readers) {
+                        if (reader instanceof PcscReader) {
+                            ((PcscReader) reader).onCardEvent();
+                        }
+                    }
+                }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
 
+        /**
+         * Waits before retrying to wait for card events
+         *
+         * @param e the exception thrown while waiting for card events
+         * @return the card terminals to retry with
+         */
+        private CardTerminals retryLater(Exception e) {
+            logger.trace("[{}] Exception occurred while waiting for card events: {}", getName(),
+                    e.getMessage());
+            /* e.g. no reader available */
+            try {
+                Thread.sleep(SETTING_THREAD_TIMEOUT_DEFAULT);
+            } catch (InterruptedException ie) {
+                logger.trace("Card event watcher interrupted");
+            }
+            return getCardTerminals();
+        }
+    }
+
+    /**
+     * Sets the terminal factory providing the PC/SC terminals, the default one if null
+     *
+     * @param terminalFactory the terminal factory
+     */
+    static void setTerminalFactory(TerminalFactory terminalFactory) {
+        factory = terminalFactory;
+    }
+
+    /**
+     * Gets the card terminals, a new PC/SC context being established if the previous one has been
+     * released (e.g. after a restart of the PC/SC service)
+     *
+     * @return the card terminals
+     */
+    private CardTerminals getCardTerminals() {
+        PcscContext.reestablishIfReleased();
+
         if (factory == null) {
             factory = TerminalFactory.getDefault();
         }
@@ -212,4 +316,65 @@ public final class PcscPlugin extends AbstractThreadedObservablePlugin {
 
         return terminals;
     }
+
+    /**
+     * Access to the PC/SC context of the smartcardio provider.
+     * <p>
+     * The reflection handles are resolved once, at the first use.
+     */
+    private static final class PcscContext {
+        private static final Class<?> pcscTerminals;
+        private static final Class<?> pcsc;
+        private static final Field contextId;
+        private static final Method scardEstablishContext;
+        private static final Integer scardScopeUser;
+
+        static {
+            Class<?> pcscTerminalsClass = null;
+            Class<?> pcscClass = null;
+            Field contextIdField = null;
+            Method scardEstablishContextMethod = null;
+            Integer scope = null;
+            try {
+                pcscTerminalsClass = Class.forName("sun.security.smartcardio.PCSCTerminals");
+                contextIdField = pcscTerminalsClass.getDeclaredField("contextId");
+                contextIdField.setAccessible(true);
+
+                pcscClass = Class.forName("sun.security.smartcardio.PCSC");
+                scardEstablishContextMethod = pcscClass.getDeclaredMethod("SCardEstablishContext",
+                        new Class<?>[] {Integer.TYPE});
+                scardEstablishContextMethod.setAccessible(true);
+
+                Field scardScopeUserField = pcscClass.getDeclaredField("SCARD_SCOPE_USER");
+                scardScopeUserField.setAccessible(true);
+                scope = Integer.valueOf(scardScopeUserField.getInt(pcscClass));
+            } catch (Exception e) {
+                logger.warn("The PC/SC context can't be accessed, it won't be reestablished: {}",
+                        e.getMessage());
+                contextIdField = null;
+            }
+            pcscTerminals = pcscTerminalsClass;
+            pcsc = pcscClass;
+            contextId = contextIdField;
+            scardEstablishContext = scardEstablishContextMethod;
+            scardScopeUser = scope;
+        }
+
+        private PcscContext() {}
+
+        static synchronized void reestablishIfReleased() {
+            if (contextId == null) {
+                return;
+            }
+            try {
+                if (contextId.getLong(pcscTerminals) != 0L) {
+                    long newId = ((Long) scardEstablishContext.invoke(pcsc,
+                            new Object[] {scardScopeUser})).longValue();
+                    contextId.setLong(pcscTerminals, newId);
+                }
+            } catch (Exception e) {
+                logger.trace("The PC/SC context could not be reestablished: {}", e.getMessage());
+            }
+        }
+    }
 }
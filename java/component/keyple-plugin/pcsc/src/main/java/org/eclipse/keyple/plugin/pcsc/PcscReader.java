@@ -13,13 +13,13 @@ package org.eclipse.keyple.plugin.pcsc;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 import javax.smartcardio.*;
 import org.eclipse.keyple.core.seproxy.exception.*;
 import org.eclipse.keyple.core.seproxy.plugin.AbstractThreadedLocalReader;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.HexPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -125,6 +125,38 @@ public final class PcscReader extends AbstractThreadedLocalReader {
         }
     }
 
+    /**
+     * The card events are signaled by the plugin (see {@link #onCardEvent()})
+     *
+     * @return {@link MonitoringMode#EVENT_DRIVEN}
+     */
+    @Override
+    protected MonitoringMode getMonitoringMode() {
+        return MonitoringMode.EVENT_DRIVEN;
+    }
+
+    @Override
+    protected void startObservation() {
+        super.startObservation();
+        PcscPlugin.getInstance().startCardEventWatching();
+    }
+
+    @Override
+    protected void stopObservation() {
+        PcscPlugin.getInstance().stopCardEventWatching();
+        super.stopObservation();
+    }
+
+    /**
+     * Called by the plugin when a card may have been inserted or removed
+     */
+    void onCardEvent() {
+        notifySePresenceChange();
+    }
+
+    /**
+     * Blocking wait of the terminal, only used in {@link MonitoringMode#DEDICATED_THREAD} mode
+     */
     @Override
     protected boolean waitForCardPresent(long timeout) throws NoStackTraceThrowable {
         try {
@@ -136,14 +168,13 @@ public final class PcscReader extends AbstractThreadedLocalReader {
         }
     }
 
+    /**
+     * Blocking wait of the terminal, only used in {@link MonitoringMode#DEDICATED_THREAD} mode
+     */
     @Override
     protected boolean waitForCardAbsent(long timeout) throws NoStackTraceThrowable {
         try {
-            if (terminal.waitForCardAbsent(timeout)) {
-                return true;
-            } else {
-                return false;
-            }
+            return terminal.waitForCardAbsent(timeout);
         } catch (CardException e) {
             logger.trace("[{}] Exception occured in waitForCardAbsent. Message: {}", this.getName(),
                     e.getMessage());
@@ -190,17 +221,17 @@ public final class PcscReader extends AbstractThreadedLocalReader {
                 openPhysicalChannel();
             }
             // the requestSet will be executed only if the protocol match the requestElement
-            String selectionMask = protocolsMap.get(protocolFlag);
+            HexPattern selectionMask = getProtocolPattern(protocolFlag);
             if (selectionMask == null) {
                 throw new KeypleReaderException("Target selector mask not found!", null);
             }
-            Pattern p = Pattern.compile(selectionMask);
-            String atr = ByteArrayUtil.toHex(card.getATR().getBytes());
-            if (!p.matcher(atr).matches()) {
+            byte[] atr = card.getATR().getBytes();
+            if (!selectionMask.matches(atr)) {
                 if (logging) {
                     logger.trace(
                             "[{}] protocolFlagMatches => unmatching SE. PROTOCOLFLAG = {}, ATR = {}, MASK = {}",
-                            this.getName(), protocolFlag, atr, selectionMask);
+                            this.getName(), protocolFlag, ByteArrayUtil.toHex(atr),
+                            selectionMask);
                 }
                 result = false;
             } else {
@@ -0,0 +1,106 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.pcsc;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.security.Provider;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.smartcardio.*;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Card event watching of the {@link PcscPlugin} with emulated PC/SC terminals
+ */
+public class PcscCardEventWatcherTest {
+
+    /* terminals provided by the emulated terminal factory */
+    private static final FakeCardTerminals fakeCardTerminals = new FakeCardTerminals();
+
+    @After
+    public void tearDown() {
+        PcscPlugin.setTerminalFactory(null);
+    }
+
+    @Test
+    public void noTerminal_thenTerminalConnected_changesWaited() throws Exception {
+        PcscPlugin.setTerminalFactory(TerminalFactory.getInstance("Fake", null,
+                new FakeTerminalFactoryProvider()));
+        PcscPlugin plugin = PcscPlugin.getInstance();
+
+        plugin.startCardEventWatching();
+        try {
+            /* waitForChange fails while no terminal is available */
+            assertTrue(fakeCardTerminals.noTerminalSignal.await(5, TimeUnit.SECONDS));
+
+            CardTerminal terminal = mock(CardTerminal.class);
+            when(terminal.getName()).thenReturn("fakeTerminal");
+            fakeCardTerminals.terminals.add(terminal);
+
+            /* the watcher is still running and waits for the changes of the new terminal */
+            assertTrue(fakeCardTerminals.changeWaitedSignal.await(5, TimeUnit.SECONDS));
+        } finally {
+            plugin.stopCardEventWatching();
+        }
+    }
+
+    /**
+     * Behaves as the smartcardio terminals: waitForChange fails with an IllegalStateException when
+     * there is no terminal
+     */
+    private static final class FakeCardTerminals extends CardTerminals {
+        final List<CardTerminal> terminals = new CopyOnWriteArrayList<CardTerminal>();
+        final CountDownLatch noTerminalSignal = new CountDownLatch(1);
+        final CountDownLatch changeWaitedSignal = new CountDownLatch(1);
+
+        @Override
+        public List<CardTerminal> list(State state) {
+            return terminals;
+        }
+
+        @Override
+        public boolean waitForChange(long timeout) throws CardException {
+            if (terminals.isEmpty()) {
+                noTerminalSignal.countDown();
+                throw new IllegalStateException("No terminals available");
+            }
+            changeWaitedSignal.countDown();
+            try {
+                Thread.sleep(timeout);
+            } catch (InterruptedException e) {
+                /* watching stopped */
+            }
+            return false;
+        }
+    }
+
+    public static final class FakeTerminalFactorySpi extends TerminalFactorySpi {
+        public FakeTerminalFactorySpi(Object parameter) {}
+
+        @Override
+        protected CardTerminals engineTerminals() {
+            return fakeCardTerminals;
+        }
+    }
+
+    private static final class FakeTerminalFactoryProvider extends Provider {
+        FakeTerminalFactoryProvider() {
+            super("FakeTerminalFactoryProvider", 1.0, "Emulated PC/SC terminals");
+            put("TerminalFactory.Fake", FakeTerminalFactorySpi.class.getName());
+        }
+    }
+}
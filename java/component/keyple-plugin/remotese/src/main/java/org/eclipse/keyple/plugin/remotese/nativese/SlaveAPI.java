@@ -107,7 +107,9 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
         KeypleDto keypleDTO = transportDto.getKeypleDTO();
         TransportDto out;
 
-        logger.trace("{} onDto {}", dtoNode.getNodeId(), KeypleDtoHelper.toJson(keypleDTO));
+        if (logger.isTraceEnabled()) {
+            logger.trace("{} onDto {}", dtoNode.getNodeId(), KeypleDtoHelper.toJson(keypleDTO));
+        }
 
         RemoteMethod method = RemoteMethod.get(keypleDTO.getAction());
         logger.debug("{} Remote Method called : {} - isRequest : {}", dtoNode.getNodeId(), method,
@@ -201,8 +203,10 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
                         "a  ERROR - UNRECOGNIZED request has been received by SlaveAPI");
         }
 
-        logger.trace("{} onDto response to be sent {}", dtoNode.getNodeId(),
-                KeypleDtoHelper.toJson(out.getKeypleDTO()));
+        if (logger.isTraceEnabled()) {
+            logger.trace("{} onDto response to be sent {}", dtoNode.getNodeId(),
+                    KeypleDtoHelper.toJson(out.getKeypleDTO()));
+        }
         return out;
 
 
@@ -25,6 +25,7 @@ import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTx;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.gson.JsonObject;
@@ -88,6 +89,11 @@ public class RmConnectReaderTx extends RemoteMethodTx<String> {
                 JsonObject body =
                         JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
 
+                if (body.has("codec")) {
+                    logger.debug("SE messages codec chosen by the master: {}",
+                            body.get("codec").getAsString());
+                }
+
                 // sessionId is returned here
                 return body.get("sessionId").getAsString();
 
@@ -107,6 +113,8 @@ public class RmConnectReaderTx extends RemoteMethodTx<String> {
         JsonObject body = new JsonObject();
         body.addProperty("transmissionMode", localReader.getTransmissionMode().name());
         body.addProperty("options", JsonParser.getGson().toJson(options));
+        // codecs of the SE messages supported by this node, the master chooses one of them
+        body.addProperty("codecs", SeMessageCodecs.getNames());
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), null,
                 localReader.getName(), null, requesterNodeId, targetNodeId, id);
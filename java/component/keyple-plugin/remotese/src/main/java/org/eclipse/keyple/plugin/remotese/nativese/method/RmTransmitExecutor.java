@@ -16,9 +16,10 @@ import org.eclipse.keyple.core.seproxy.message.*;
 import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodExecutor;
-import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,7 +50,9 @@ public class RmTransmitExecutor implements RemoteMethodExecutor {
         SeResponse seResponse = null;
 
         // Extract info from keypleDto
-        SeRequest seRequest = JsonParser.getGson().fromJson(keypleDto.getBody(), SeRequest.class);
+        // the response is encoded with the codec of the request
+        SeMessageCodec seMessageCodec = SeMessageCodecs.forBody(keypleDto.getBody());
+        SeRequest seRequest = seMessageCodec.decodeSeRequest(keypleDto.getBody());
         String nativeReaderName = keypleDto.getNativeReaderName();
         logger.trace("Execute locally seRequest : {}", seRequest);
 
@@ -61,7 +64,7 @@ public class RmTransmitExecutor implements RemoteMethodExecutor {
             seResponse = reader.transmit(seRequest);
 
             // prepare response
-            String parseBody = JsonParser.getGson().toJson(seResponse, SeResponse.class);
+            String parseBody = seMessageCodec.encodeSeResponse(seResponse);
             out = transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
                     getMethodName().getName(), parseBody, keypleDto.getSessionId(),
                     nativeReaderName, keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
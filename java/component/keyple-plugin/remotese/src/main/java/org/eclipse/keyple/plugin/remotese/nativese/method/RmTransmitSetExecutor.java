@@ -18,9 +18,10 @@ import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
 import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodExecutor;
-import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,8 +50,9 @@ public class RmTransmitSetExecutor implements RemoteMethodExecutor {
         SeResponseSet seResponseSet = null;
 
         // Extract info from keypleDto
-        SeRequestSet seRequestSet =
-                JsonParser.getGson().fromJson(keypleDto.getBody(), SeRequestSet.class);
+        // the response is encoded with the codec of the request
+        SeMessageCodec seMessageCodec = SeMessageCodecs.forBody(keypleDto.getBody());
+        SeRequestSet seRequestSet = seMessageCodec.decodeSeRequestSet(keypleDto.getBody());
         String nativeReaderName = keypleDto.getNativeReaderName();
         logger.trace("Execute locally seRequestSet : {}", seRequestSet);
 
@@ -62,7 +64,7 @@ public class RmTransmitSetExecutor implements RemoteMethodExecutor {
             seResponseSet = reader.transmitSet(seRequestSet);
 
             // prepare response
-            String parseBody = JsonParser.getGson().toJson(seResponseSet, SeResponseSet.class);
+            String parseBody = seMessageCodec.encodeSeResponseSet(seResponseSet);
             out = transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
                     getMethodName().getName(), parseBody, keypleDto.getSessionId(),
                     nativeReaderName, keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
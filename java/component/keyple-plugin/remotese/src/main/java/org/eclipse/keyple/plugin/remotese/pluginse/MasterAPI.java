@@ -13,7 +13,6 @@ package org.eclipse.keyple.plugin.remotese.pluginse;
 
 
 import org.eclipse.keyple.core.seproxy.SeProxyService;
-import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
@@ -139,8 +138,10 @@ public class MasterAPI implements DtoHandler {
 
         KeypleDto keypleDTO = transportDto.getKeypleDTO();
         RemoteMethod method = RemoteMethod.get(keypleDTO.getAction());
-        logger.trace("onDTO, Remote Method called : {} - isRequest : {} - keypleDto : {}", method,
-                keypleDTO.isRequest(), KeypleDtoHelper.toJson(keypleDTO));
+        if (logger.isTraceEnabled()) {
+            logger.trace("onDTO, Remote Method called : {} - isRequest : {} - keypleDto : {}",
+                    method, keypleDTO.isRequest(), KeypleDtoHelper.toJson(keypleDTO));
+        }
 
 
         switch (method) {
@@ -235,14 +236,7 @@ public class MasterAPI implements DtoHandler {
      * @throws KeypleReaderNotFoundException : if none reader was found
      */
     private VirtualReader getReaderBySessionId(String sessionId) throws KeypleReaderException {
-        for (SeReader reader : plugin.getReaders()) {
-
-            if (((VirtualReader) reader).getSession().getSessionId().equals(sessionId)) {
-                return (VirtualReader) reader;
-            }
-        }
-        throw new KeypleReaderNotFoundException(
-                "Reader session was not found for session : " + sessionId);
+        return plugin.getReaderBySessionId(sessionId);
     }
 
 }
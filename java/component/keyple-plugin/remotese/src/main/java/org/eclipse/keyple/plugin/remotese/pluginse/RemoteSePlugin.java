@@ -15,6 +15,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
@@ -24,6 +26,8 @@ import org.eclipse.keyple.core.seproxy.plugin.AbstractObservablePlugin;
 import org.eclipse.keyple.core.seproxy.plugin.AbstractObservableReader;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxEngine;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +51,15 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
     protected final DtoSender dtoSender;
     private final Map<String, String> parameters;
 
+    /*
+     * Indexes of the virtual readers, by remote name (see generateReaderName) and by session id,
+     * maintained along with the readers list
+     */
+    private final ConcurrentMap<String, VirtualReader> virtualReadersByRemoteName =
+            new ConcurrentHashMap<String, VirtualReader>();
+    private final ConcurrentMap<String, VirtualReader> virtualReadersBySessionId =
+            new ConcurrentHashMap<String, VirtualReader>();
+
     /**
      * Only {@link MasterAPI} can instanciate a RemoteSePlugin
      */
@@ -70,13 +83,29 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
      */
     public VirtualReader getReaderByRemoteName(String remoteName, String slaveNodeId)
             throws KeypleReaderNotFoundException {
-        for (AbstractObservableReader virtualReader : readers) {
-            if (((VirtualReader) virtualReader).getName()
-                    .equals(RemoteSePlugin.generateReaderName(remoteName, slaveNodeId))) {
-                return (VirtualReader) virtualReader;
-            }
+        VirtualReader virtualReader = virtualReadersByRemoteName
+                .get(RemoteSePlugin.generateReaderName(remoteName, slaveNodeId));
+        if (virtualReader == null) {
+            throw new KeypleReaderNotFoundException(remoteName);
         }
-        throw new KeypleReaderNotFoundException(remoteName);
+        return virtualReader;
+    }
+
+    /**
+     * Retrieve a reader by its session Id (internal method)
+     *
+     * @param sessionId : sessionId which virtual reader is tight to
+     * @return VirtualReader matching the sessionId
+     * @throws KeypleReaderNotFoundException if no virtual reader match the session id
+     */
+    VirtualReader getReaderBySessionId(String sessionId) throws KeypleReaderNotFoundException {
+        VirtualReader virtualReader =
+                sessionId != null ? virtualReadersBySessionId.get(sessionId) : null;
+        if (virtualReader == null) {
+            throw new KeypleReaderNotFoundException(
+                    "Reader session was not found for session : " + sessionId);
+        }
+        return virtualReader;
     }
 
     /**
@@ -85,6 +114,18 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
     ProxyReader createVirtualReader(String slaveNodeId, String nativeReaderName,
             DtoSender dtoSender, TransmissionMode transmissionMode, Map<String, String> options)
             throws KeypleReaderException {
+        return createVirtualReader(slaveNodeId, nativeReaderName, dtoSender, transmissionMode,
+                options, SeMessageCodecs.JSON);
+    }
+
+    /**
+     * Create a virtual reader exchanging the SE messages with the provided codec
+     *
+     * @see #createVirtualReader(String, String, DtoSender, TransmissionMode, Map)
+     */
+    ProxyReader createVirtualReader(String slaveNodeId, String nativeReaderName,
+            DtoSender dtoSender, TransmissionMode transmissionMode, Map<String, String> options,
+            SeMessageCodec seMessageCodec) throws KeypleReaderException {
         logger.debug("createVirtualReader for slaveNodeId {} and reader {}", slaveNodeId,
                 nativeReaderName);
 
@@ -111,8 +152,10 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
         // and the provided name
         final VirtualReader virtualReader = new VirtualReader(session, nativeReaderName,
                 new RemoteMethodTxEngine(dtoSender, rpc_timeout), slaveNodeId, transmissionMode,
-                options);
+                options, seMessageCodec);
         readers.add(virtualReader);
+        virtualReadersByRemoteName.put(virtualReader.getName(), virtualReader);
+        virtualReadersBySessionId.put(session.getSessionId(), virtualReader);
 
         // notify that a new reader is connected in a separated thread
         /*
@@ -145,6 +188,9 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
 
         // remove reader
         readers.remove(virtualReader);
+        virtualReadersByRemoteName.remove(virtualReader.getName(), virtualReader);
+        virtualReadersBySessionId.remove(virtualReader.getSession().getSessionId(),
+                virtualReader);
 
         // send event READER_DISCONNECTED in a separate thread
         // new Thread() {public void run() { }}.start();
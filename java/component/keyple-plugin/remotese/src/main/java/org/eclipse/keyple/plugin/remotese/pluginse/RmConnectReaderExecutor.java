@@ -20,6 +20,8 @@ import org.eclipse.keyple.plugin.remotese.transport.*;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +60,9 @@ class RmConnectReaderExecutor implements RemoteMethodExecutor {
         String tranmissionMode = body.get("transmissionMode").getAsString();
         Map<String, String> options =
                 JsonParser.getGson().fromJson(body.get("options").getAsString(), Map.class);
+        // choose the codec of the SE messages among the ones of the slave (json if none)
+        SeMessageCodec seMessageCodec = SeMessageCodecs
+                .negotiate(body.has("codecs") ? body.get("codecs").getAsString() : null);
 
 
         VirtualReader virtualReader = null;
@@ -65,12 +70,14 @@ class RmConnectReaderExecutor implements RemoteMethodExecutor {
             // create a virtual Reader
             virtualReader =
                     (VirtualReader) this.plugin.createVirtualReader(slaveNodeId, nativeReaderName,
-                            this.dtoSender, TransmissionMode.valueOf(tranmissionMode), options);
+                            this.dtoSender, TransmissionMode.valueOf(tranmissionMode), options,
+                            seMessageCodec);
 
 
             // create response
             JsonObject respBody = new JsonObject();
             respBody.add("sessionId", new JsonPrimitive(virtualReader.getSession().getSessionId()));
+            respBody.add("codec", new JsonPrimitive(seMessageCodec.getName()));
 
             // build transport DTO with body
             return transportDto.nextTransportDTO(
@@ -27,7 +27,10 @@ import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmSetDefaultSelectionRequestTx;
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitSetTx;
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitTx;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxCallback;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxEngine;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +45,8 @@ public final class VirtualReader extends AbstractObservableReader {
     private final RemoteMethodTxEngine rmTxEngine;
     private final String slaveNodeId;
     private final TransmissionMode transmissionMode;
+    // codec of the SE messages, negotiated with the slave
+    private final SeMessageCodec seMessageCodec;
 
     private static final Logger logger = LoggerFactory.getLogger(VirtualReader.class);
 
@@ -58,6 +63,22 @@ public final class VirtualReader extends AbstractObservableReader {
     VirtualReader(VirtualReaderSession session, String nativeReaderName,
             RemoteMethodTxEngine rmTxEngine, String slaveNodeId, TransmissionMode transmissionMode,
             Map<String, String> options) {
+        this(session, nativeReaderName, rmTxEngine, slaveNodeId, transmissionMode, options,
+                SeMessageCodecs.JSON);
+    }
+
+    /**
+     * Create a new Virtual Reader (only called by @{@link RemoteSePlugin})
+     *
+     * @param session : session associated to the reader
+     * @param nativeReaderName : native reader name on slave terminal
+     * @param rmTxEngine : processor for remote method
+     * @param transmissionMode : transmission mode of the native reader on slave terminal
+     * @param seMessageCodec : codec of the SE messages sent to the slave
+     */
+    VirtualReader(VirtualReaderSession session, String nativeReaderName,
+            RemoteMethodTxEngine rmTxEngine, String slaveNodeId, TransmissionMode transmissionMode,
+            Map<String, String> options, SeMessageCodec seMessageCodec) {
         super(RemoteSePlugin.DEFAULT_PLUGIN_NAME,
                 RemoteSePlugin.generateReaderName(nativeReaderName, slaveNodeId));
         this.session = session;
@@ -66,9 +87,10 @@ public final class VirtualReader extends AbstractObservableReader {
         this.slaveNodeId = slaveNodeId;
         this.transmissionMode = transmissionMode;
         this.parameters = options;
+        this.seMessageCodec = seMessageCodec;
         logger.info(
-                "A new virtual reader was created with name:{}, sessionId:{}, transmissionMode:{}, options:{}",
-                name, session, transmissionMode, options);
+                "A new virtual reader was created with name:{}, sessionId:{}, transmissionMode:{}, options:{}, codec:{}",
+                name, session, transmissionMode, options, seMessageCodec.getName());
     }
 
     /**
@@ -87,6 +109,13 @@ public final class VirtualReader extends AbstractObservableReader {
         return nativeReaderName;
     }
 
+    /**
+     * @return the codec of the SE messages exchanged with the slave
+     */
+    public SeMessageCodec getSeMessageCodec() {
+        return seMessageCodec;
+    }
+
     VirtualReaderSession getSession() {
         return session;
     }
@@ -116,7 +145,7 @@ public final class VirtualReader extends AbstractObservableReader {
 
         RmTransmitSetTx transmit = new RmTransmitSetTx(seRequestSet, session.getSessionId(),
                 this.getNativeReaderName(), this.getName(), session.getMasterNodeId(),
-                session.getSlaveNodeId());
+                session.getSlaveNodeId(), seMessageCodec);
         try {
             rmTxEngine.add(transmit);
             return transmit.getResponse();
@@ -146,7 +175,8 @@ public final class VirtualReader extends AbstractObservableReader {
 
         RmTransmitTx transmit =
                 new RmTransmitTx(seRequest, session.getSessionId(), this.getNativeReaderName(),
-                        this.getName(), session.getMasterNodeId(), session.getSlaveNodeId());
+                        this.getName(), session.getMasterNodeId(), session.getSlaveNodeId(),
+                        seMessageCodec);
         try {
             rmTxEngine.add(transmit);
             return transmit.getResponse();
@@ -157,6 +187,69 @@ public final class VirtualReader extends AbstractObservableReader {
 
     }
 
+    /**
+     * Non blocking TransmitSet, the future is completed by the thread receiving the response
+     *
+     * @param seRequestSet : SeRequestSet to be transmitted to SE
+     * @param future : future to be completed with the SeResponseSet from SE
+     */
+    @Override
+    protected void processSeRequestSetAsync(SeRequestSet seRequestSet,
+            final TransmitFuture<SeResponseSet> future) {
+
+        RmTransmitSetTx transmit = new RmTransmitSetTx(seRequestSet, session.getSessionId(),
+                this.getNativeReaderName(), this.getName(), session.getMasterNodeId(),
+                session.getSlaveNodeId(), seMessageCodec);
+        rmTxEngine.add(transmit);
+        transmit.getResponseAsync(new RemoteMethodTxCallback<SeResponseSet>() {
+            @Override
+            public void get(SeResponseSet response, KeypleRemoteException exception) {
+                if (exception == null) {
+                    future.complete(response);
+                } else {
+                    future.fail(toReaderException(exception));
+                }
+            }
+        });
+    }
+
+    /**
+     * Non blocking Transmit, the future is completed by the thread receiving the response
+     *
+     * @param seRequest : SeRequest to be transmitted to SE
+     * @param future : future to be completed with the SeResponse from SE
+     */
+    @Override
+    protected void processSeRequestAsync(SeRequest seRequest,
+            final TransmitFuture<SeResponse> future) {
+
+        RmTransmitTx transmit =
+                new RmTransmitTx(seRequest, session.getSessionId(), this.getNativeReaderName(),
+                        this.getName(), session.getMasterNodeId(), session.getSlaveNodeId(),
+                        seMessageCodec);
+        rmTxEngine.add(transmit);
+        transmit.getResponseAsync(new RemoteMethodTxCallback<SeResponse>() {
+            @Override
+            public void get(SeResponse response, KeypleRemoteException exception) {
+                if (exception == null) {
+                    future.complete(response);
+                } else {
+                    future.fail(toReaderException(exception));
+                }
+            }
+        });
+    }
+
+    /**
+     * Extracts the KeypleReaderException carried by a KeypleRemoteException, or creates a new one
+     */
+    private static KeypleReaderException toReaderException(KeypleRemoteException e) {
+        if (e.getCause() instanceof KeypleReaderException) {
+            return (KeypleReaderException) e.getCause();
+        }
+        return new KeypleReaderException(e.getMessage(), e);
+    }
+
     @Override
     protected void startObservation() {
         logger.trace("startObservation is not used in this plugin");
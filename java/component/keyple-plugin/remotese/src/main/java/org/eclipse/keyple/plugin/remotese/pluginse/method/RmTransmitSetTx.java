@@ -20,6 +20,8 @@ import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTx;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +34,9 @@ public class RmTransmitSetTx extends RemoteMethodTx<SeResponseSet> {
 
     private final SeRequestSet seRequestSet;
 
+    // codec of the request body
+    private final SeMessageCodec seMessageCodec;
+
     @Override
     public RemoteMethod getMethodName() {
         return RemoteMethod.READER_TRANSMIT_SET;
@@ -39,14 +44,22 @@ public class RmTransmitSetTx extends RemoteMethodTx<SeResponseSet> {
 
     public RmTransmitSetTx(SeRequestSet seRequestSet, String sessionId, String nativeReaderName,
             String virtualReaderName, String requesterNodeId, String slaveNodeId) {
+        this(seRequestSet, sessionId, nativeReaderName, virtualReaderName, requesterNodeId,
+                slaveNodeId, SeMessageCodecs.JSON);
+    }
+
+    public RmTransmitSetTx(SeRequestSet seRequestSet, String sessionId, String nativeReaderName,
+            String virtualReaderName, String requesterNodeId, String slaveNodeId,
+            SeMessageCodec seMessageCodec) {
         super(sessionId, nativeReaderName, virtualReaderName, slaveNodeId, requesterNodeId);
         this.seRequestSet = seRequestSet;
+        this.seMessageCodec = seMessageCodec;
     }
 
     @Override
     public KeypleDto dto() {
         return KeypleDtoHelper.buildRequest(getMethodName().getName(),
-                JsonParser.getGson().toJson(seRequestSet, SeRequestSet.class), this.sessionId,
+                seMessageCodec.encodeSeRequestSet(seRequestSet), this.sessionId,
                 this.nativeReaderName, this.virtualReaderName, requesterNodeId, targetNodeId, id);
     }
 
@@ -63,7 +76,13 @@ public class RmTransmitSetTx extends RemoteMethodTx<SeResponseSet> {
                     "An exception occurs while calling the remote method transmitSet", ex);
         } else {
             logger.trace("KeypleDto contains a response: {}", keypleDto);
-            return JsonParser.getGson().fromJson(keypleDto.getBody(), SeResponseSet.class);
+            // the response is encoded with the codec of the request
+            String body = keypleDto.getBody();
+            try {
+                return SeMessageCodecs.forBody(body).decodeSeResponseSet(body);
+            } catch (IllegalArgumentException e) {
+                throw new KeypleRemoteException("Malformed SeResponseSet received", e);
+            }
         }
     }
 
@@ -20,6 +20,8 @@ import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTx;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +34,9 @@ public class RmTransmitTx extends RemoteMethodTx<SeResponse> {
 
     private final SeRequest seRequest;
 
+    // codec of the request body
+    private final SeMessageCodec seMessageCodec;
+
     @Override
     public RemoteMethod getMethodName() {
         return RemoteMethod.READER_TRANSMIT;
@@ -39,14 +44,22 @@ public class RmTransmitTx extends RemoteMethodTx<SeResponse> {
 
     public RmTransmitTx(SeRequest seRequest, String sessionId, String nativeReaderName,
             String virtualReaderName, String requesterNodeId, String slaveNodeId) {
+        this(seRequest, sessionId, nativeReaderName, virtualReaderName, requesterNodeId,
+                slaveNodeId, SeMessageCodecs.JSON);
+    }
+
+    public RmTransmitTx(SeRequest seRequest, String sessionId, String nativeReaderName,
+            String virtualReaderName, String requesterNodeId, String slaveNodeId,
+            SeMessageCodec seMessageCodec) {
         super(sessionId, nativeReaderName, virtualReaderName, slaveNodeId, requesterNodeId);
         this.seRequest = seRequest;
+        this.seMessageCodec = seMessageCodec;
     }
 
     @Override
     public KeypleDto dto() {
         return KeypleDtoHelper.buildRequest(getMethodName().getName(),
-                JsonParser.getGson().toJson(seRequest, SeRequest.class), this.sessionId,
+                seMessageCodec.encodeSeRequest(seRequest), this.sessionId,
                 this.nativeReaderName, this.virtualReaderName, requesterNodeId, targetNodeId, id);
     }
 
@@ -63,7 +76,13 @@ public class RmTransmitTx extends RemoteMethodTx<SeResponse> {
                     "An exception occurs while calling the remote method transmitSet", ex);
         } else {
             logger.trace("KeypleDto contains a response: {}", keypleDto);
-            return JsonParser.getGson().fromJson(keypleDto.getBody(), SeResponse.class);
+            // the response is encoded with the codec of the request
+            String body = keypleDto.getBody();
+            try {
+                return SeMessageCodecs.forBody(body).decodeSeResponse(body);
+            } catch (IllegalArgumentException e) {
+                throw new KeypleRemoteException("Malformed SeResponse received", e);
+            }
         }
     }
 
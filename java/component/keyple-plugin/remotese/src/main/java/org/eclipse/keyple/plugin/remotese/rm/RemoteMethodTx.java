@@ -12,8 +12,9 @@
 package org.eclipse.keyple.plugin.remotese.rm;
 
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
@@ -29,6 +30,35 @@ import org.slf4j.LoggerFactory;
 public abstract class RemoteMethodTx<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(RemoteMethodTx.class);
+
+    /* maximum number of threads sending the requests of the blocking calls */
+    private static final int DISPATCH_POOL_SIZE =
+            Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+    /* maximum number of requests waiting for a dispatch thread */
+    private static final int DISPATCH_QUEUE_SIZE = 1024;
+
+    /*
+     * executor shared by all blocking calls to send their request, when it is saturated the request
+     * is sent by the calling thread
+     */
+    private static final ThreadPoolExecutor dispatchExecutor;
+
+    static {
+        dispatchExecutor = new ThreadPoolExecutor(DISPATCH_POOL_SIZE, DISPATCH_POOL_SIZE, 60,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(DISPATCH_QUEUE_SIZE),
+                new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r,
+                                "RemoteMethodTxDispatch-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        dispatchExecutor.allowCoreThreadTimeOut(true);
+    }
     protected final String sessionId;
     protected final String nativeReaderName;
     protected final String virtualReaderName;
@@ -38,18 +68,26 @@ public abstract class RemoteMethodTx<T> {
     protected Boolean isRegistered;
 
     // response
-    private T response;
+    private volatile T response;
 
     // exception thrown if any
-    private KeypleRemoteException remoteException;
+    private volatile KeypleRemoteException remoteException;
 
     // blocking mechanism
     private CountDownLatch lock;
-    private RemoteMethodTxCallback<T> callback;
+    private volatile RemoteMethodTxCallback<T> callback;
     private long timeout;
+    // timeout of the transaction waiting for its response, cancelled when removed from the engine
+    private volatile ScheduledFuture<?> timeoutFuture;
+
+    // set once the response, an exception or the timeout has been processed
+    private final AtomicBoolean completed = new AtomicBoolean(false);
 
     private DtoSender sender;
 
+    // engine holding this transaction until its response is received
+    private RemoteMethodTxEngine engine;
+
     protected RemoteMethodTx(String sessionId, String nativeReaderName, String virtualReaderName,
             String targetNodeId, String requesterNodeId) {
         this.sessionId = sessionId;
@@ -71,6 +109,22 @@ public abstract class RemoteMethodTx<T> {
         this.timeout = timeout;
     }
 
+    long getTimeout() {
+        return timeout;
+    }
+
+    void setTimeoutFuture(ScheduledFuture<?> timeoutFuture) {
+        this.timeoutFuture = timeoutFuture;
+    }
+
+    ScheduledFuture<?> getTimeoutFuture() {
+        return timeoutFuture;
+    }
+
+    void setEngine(RemoteMethodTxEngine engine) {
+        this.engine = engine;
+    }
+
     /**
      * Internal method to set manually the keypleDto response To be called by the tx manager
      */
@@ -85,6 +139,9 @@ public abstract class RemoteMethodTx<T> {
 
     /**
      * Non blocking method to getResponse results from the remote method call
+     * <p>
+     * The callback is invoked by the thread receiving the response (or by the timeout timer), it
+     * can send the next remote method call to compose several calls without blocking any thread.
      *
      * @param callback
      */
@@ -97,6 +154,8 @@ public abstract class RemoteMethodTx<T> {
     /**
      * Blocking method to getResponse results from the remote method call. To be called by the
      * client (used internally by rmCommands, do not use)
+     * <p>
+     * The request is sent by a thread of an executor shared by all the calls.
      *
      * @return T : result of the command
      * @throws KeypleRemoteException : if an
@@ -109,7 +168,7 @@ public abstract class RemoteMethodTx<T> {
         logger.debug("Blocking Get {}", this.getClass().getCanonicalName());
         final RemoteMethodTx thisInstance = this;
 
-        Thread asyncSend = new Thread() {
+        Runnable asyncSend = new Runnable() {
             public void run() {
                 try {
                     send(new RemoteMethodTxCallback<T>() {
@@ -121,6 +180,9 @@ public abstract class RemoteMethodTx<T> {
                     });
                 } catch (KeypleRemoteException e) {
                     logger.error("Exception while sending Dto", e);
+                    if (engine != null) {
+                        engine.remove(thisInstance);
+                    }
                     thisInstance.remoteException = e;
                     lock.countDown();
                 }
@@ -131,7 +193,7 @@ public abstract class RemoteMethodTx<T> {
             lock = new CountDownLatch(1);
             logger.trace("" + "" + "Set callback on RemoteMethodTx {} {}",
                     this.getClass().getCanonicalName(), this.hashCode());
-            asyncSend.start();
+            dispatchExecutor.execute(asyncSend);
             logger.trace("Lock {}, {}", this.getClass().getCanonicalName(), this.hashCode());
             boolean responseReceived = lock.await(timeout, TimeUnit.MILLISECONDS);
 
@@ -144,8 +206,11 @@ public abstract class RemoteMethodTx<T> {
                 }
             } else {
                 /*
-                 * timeout, no answer has been received
+                 * timeout, no answer has been received, forget the transaction
                  */
+                if (engine != null) {
+                    engine.remove(this);
+                }
                 throw new KeypleRemoteException(
                         "Waiting time elapsed, no answer received from the other node for method "
                                 + this.getClass().getCanonicalName());
@@ -158,18 +223,76 @@ public abstract class RemoteMethodTx<T> {
         }
     }
 
+    /**
+     * Non blocking method to get the response of the remote method call, to be used instead of
+     * {@link #getResponse()} once the RemoteMethodTx is registered in a RemoteMethodEngine.
+     * <p>
+     * The request is sent by a thread of the executor shared by all the calls. The callback is
+     * invoked once, with the response or with the exception (sending failure, timeout, error
+     * returned by the other node).
+     *
+     * @param callback : callback notified of the result of the command
+     */
+    final public void getResponseAsync(final RemoteMethodTxCallback<T> callback) {
+        if (!isRegistered) {
+            throw new IllegalStateException(
+                    "RemoteMethodTx#getResponseAsync() can not be used until RemoteMethod is isRegistered in a RemoteMethodEngine, please call RemoteMethodEngine#register");
+        }
+        final RemoteMethodTx<T> thisInstance = this;
+        dispatchExecutor.execute(new Runnable() {
+            public void run() {
+                try {
+                    send(callback);
+                } catch (KeypleRemoteException e) {
+                    logger.error("Exception while sending Dto", e);
+                    if (engine == null || engine.remove(thisInstance)) {
+                        thisInstance.setException(e);
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Set the response contained in the keypleDto Response Call the callback of the RmMethod
      *
      * @param keypleDto
      */
     void setResponse(KeypleDto keypleDto) {
+        if (!completed.compareAndSet(false, true)) {
+            logger.warn("Response ignored, RemoteMethodTx {} is already completed", id);
+            return;
+        }
+        T parsedResponse = null;
+        KeypleRemoteException exception = null;
         try {
-            this.response = parseResponse(keypleDto);
-            this.callback.get(response, null);
+            parsedResponse = parseResponse(keypleDto);
         } catch (KeypleRemoteException e) {
-            this.remoteException = e;
-            this.callback.get(null, e);
+            exception = e;
+        }
+        this.response = parsedResponse;
+        this.remoteException = exception;
+        notifyCallback(parsedResponse, exception);
+    }
+
+    /**
+     * Complete the RmMethod with an exception (e.g. when no response has been received in time)
+     * Call the callback of the RmMethod
+     *
+     * @param exception
+     */
+    void setException(KeypleRemoteException exception) {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        this.remoteException = exception;
+        notifyCallback(null, exception);
+    }
+
+    private void notifyCallback(T response, KeypleRemoteException exception) {
+        RemoteMethodTxCallback<T> currentCallback = this.callback;
+        if (currentCallback != null) {
+            currentCallback.get(response, exception);
         }
     }
 
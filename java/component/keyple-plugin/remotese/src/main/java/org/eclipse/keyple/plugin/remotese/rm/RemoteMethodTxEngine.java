@@ -11,6 +11,14 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.rm;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.transport.*;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -22,14 +30,39 @@ import org.slf4j.LoggerFactory;
 /**
  * Manages the transaction (request/response) for remote method invocation It holds
  * the @{@link RemoteMethodTx} untils the answer is received
+ * <p>
+ * Several transactions can be in progress at the same time: they are identified by their id, which
+ * is sent in the request and sent back in the response (correlation id). A transaction whose
+ * response is not received within its timeout is removed and completed with a
+ * {@link KeypleRemoteException}.
  */
 public class RemoteMethodTxEngine implements DtoHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(RemoteMethodTxEngine.class);
 
+    /* number of cancelled timeouts after which they are removed from the timer queue */
+    private static final int CANCELLED_TIMEOUTS_PURGE_THRESHOLD = 256;
 
-    // waiting transaction, supports only one at the time
-    private RemoteMethodTx remoteMethodTx;
+    /*
+     * timer shared by all engines to expire the transactions whose response is not received, the
+     * timeouts of the answered transactions are cancelled then purged from its queue
+     */
+    private static final ScheduledThreadPoolExecutor timeoutScheduler =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "RemoteMethodTxTimeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    /* timeouts cancelled since the last purge of the timer queue */
+    private static final AtomicInteger cancelledTimeoutCount = new AtomicInteger();
+
+    // waiting transactions, by id
+    private final ConcurrentMap<String, RemoteMethodTx<?>> remoteMethodTxs =
+            new ConcurrentHashMap<String, RemoteMethodTx<?>>();
 
     // Dto Sender
     private final DtoSender sender;
@@ -43,7 +76,6 @@ public class RemoteMethodTxEngine implements DtoHandler {
      * @param timeout : timeout to wait for the answer, in milliseconds
      */
     public RemoteMethodTxEngine(DtoSender sender, long timeout) {
-        // this.queue = new LinkedList<RemoteMethodTx>();
         this.sender = sender;
         this.timeout = timeout;
     }
@@ -67,41 +99,129 @@ public class RemoteMethodTxEngine implements DtoHandler {
         /*
          * Check that KeypleDto is a Response
          */
-        if (message.getKeypleDTO().isRequest()) {
+        if (keypleDto.isRequest()) {
             throw new IllegalArgumentException(
                     "RemoteMethodTxEngine expects a KeypleDto response. " + keypleDto);
         }
+
         /*
-         * Check that a request has been made previously
+         * Retrieve the request matching the response
          */
+        RemoteMethodTx<?> remoteMethodTx = remoteMethodTxs.remove(keypleDto.getId());
         if (remoteMethodTx == null) {
-            /*
-             * Should not happen, response received does not match a request. Ignore it
-             */
-            logger.error(
-                    "RemoteMethodTxEngine receives a KeypleDto response but no remoteMethodTx are defined : "
-                            + keypleDto);
+            onUnknownResponse(keypleDto);
+        } else {
+            cancelTimeout(remoteMethodTx);
+            remoteMethodTx.setResponse(keypleDto);
         }
 
-        // only one operation is allowed at the time
-        remoteMethodTx.setResponse(keypleDto);
+        return message.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+    }
 
-        // re init remoteMethod
-        remoteMethodTx = null;
+    /**
+     * Called when a response doesn't match any waiting transaction (unknown or expired)
+     *
+     * @param keypleDto : the response received
+     */
+    protected void onUnknownResponse(KeypleDto keypleDto) {
+        /*
+         * Should not happen, response received does not match a request (or too late). Ignore it
+         */
+        logger.error(
+                "RemoteMethodTxEngine receives a KeypleDto response but no remoteMethodTx are defined : "
+                        + keypleDto);
+    }
 
-        return message.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+    /**
+     * Add RemoteMethod to executing stack, with the default timeout of the engine
+     * 
+     * @param rm : RemoteMethodTx to be executed
+     */
+    public void add(final RemoteMethodTx<?> rm) {
+        add(rm, timeout);
     }
 
     /**
      * Add RemoteMethod to executing stack
-     * 
+     *
      * @param rm : RemoteMethodTx to be executed
+     * @param timeout : timeout to wait for the answer of this call, in milliseconds
      */
-    public void add(final RemoteMethodTx rm) {
+    public void add(final RemoteMethodTx<?> rm, long timeout) {
         logger.debug("Register rm to engine : {}", rm);
         rm.setRegistered(true);
-        remoteMethodTx = rm;
         rm.setDtoSender(sender);
         rm.setTimeout(timeout);
+        rm.setEngine(this);
+        remoteMethodTxs.put(rm.id, rm);
+        rm.setTimeoutFuture(timeoutScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                expire(rm);
+            }
+        }, timeout, TimeUnit.MILLISECONDS));
+        if (!remoteMethodTxs.containsKey(rm.id)) {
+            /* removed before its timeout was recorded */
+            cancelTimeout(rm);
+        }
+    }
+
+    /**
+     * Remove a transaction from the waiting transactions
+     *
+     * @param rm : RemoteMethodTx to be removed
+     * @return true if the transaction was still waiting for its response
+     */
+    boolean remove(RemoteMethodTx<?> rm) {
+        if (remoteMethodTxs.remove(rm.id, rm)) {
+            cancelTimeout(rm);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancel the timeout of a transaction removed from the waiting transactions
+     * <p>
+     * The cancelled timeouts are purged from the timer queue by batches.
+     *
+     * @param rm : the removed RemoteMethodTx
+     */
+    private static void cancelTimeout(RemoteMethodTx<?> rm) {
+        ScheduledFuture<?> timeoutFuture = rm.getTimeoutFuture();
+        if (timeoutFuture != null && timeoutFuture.cancel(false) && cancelledTimeoutCount
+                .incrementAndGet() % CANCELLED_TIMEOUTS_PURGE_THRESHOLD == 0) {
+            timeoutScheduler.purge();
+        }
+    }
+
+    /**
+     * Complete with an exception a transaction whose response has not been received in time
+     *
+     * @param rm : the expired RemoteMethodTx
+     */
+    private void expire(RemoteMethodTx<?> rm) {
+        if (remove(rm)) {
+            logger.warn("No response received for the remote method {} (id {}) after {} ms",
+                    rm.getMethodName(), rm.id, rm.getTimeout());
+            rm.setException(new KeypleRemoteException(
+                    "Waiting time elapsed, no answer received from the other node for method "
+                            + rm.getClass().getCanonicalName()));
+        }
+    }
+
+    /**
+     * @return the number of transactions waiting for their response
+     */
+    public int getPendingCount() {
+        return remoteMethodTxs.size();
+    }
+
+    /**
+     * @return the number of timeouts scheduled by all the engines, the cancelled ones being purged
+     */
+    static int getScheduledTimeoutCount() {
+        timeoutScheduler.purge();
+        return timeoutScheduler.getQueue().size();
     }
 }
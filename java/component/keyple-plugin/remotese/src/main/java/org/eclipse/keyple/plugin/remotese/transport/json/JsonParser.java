@@ -13,20 +13,66 @@ package org.eclipse.keyple.plugin.remotese.transport.json;
 
 
 
+import java.io.Reader;
+import java.lang.reflect.Type;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 /**
  * Json Parser for Keyple DTO and Keyple DTO fields
+ * <p>
+ * The {@link Gson} instances are thread-safe, they are built once and shared.
  */
 public class JsonParser {
 
-    static public Gson getGson() {
+    /* compact Gson, used for the messages exchanged between nodes */
+    private static final Gson gson = newGsonBuilder().create();
+
+    /* pretty printing Gson, for logs and debug purposes */
+    private static final Gson prettyGson = newGsonBuilder().setPrettyPrinting().create();
+
+    private static GsonBuilder newGsonBuilder() {
         final GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.registerTypeAdapter(SeProtocol.class, new GsonSeProtocolTypeAdapter());
-        gsonBuilder.setPrettyPrinting();
-        return gsonBuilder.create();
+        return gsonBuilder;
+    }
+
+    /**
+     * @return the shared compact {@link Gson}
+     */
+    static public Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * @return the shared pretty printing {@link Gson}
+     */
+    static public Gson getPrettyGson() {
+        return prettyGson;
+    }
+
+    /**
+     * Serialize an object directly into a writer (e.g. the output stream of the transport) without
+     * building an intermediate String
+     *
+     * @param src : object to serialize
+     * @param typeOfSrc : type of the object
+     * @param writer : destination of the json
+     */
+    static public void toJson(Object src, Type typeOfSrc, Appendable writer) {
+        gson.toJson(src, typeOfSrc, writer);
+    }
+
+    /**
+     * Deserialize an object directly from a reader (e.g. the input stream of the transport)
+     *
+     * @param reader : source of the json
+     * @param typeOfT : type of the object
+     * @return deserialized object
+     */
+    static public <T> T fromJson(Reader reader, Type typeOfT) {
+        return gson.fromJson(reader, typeOfT);
     }
 
 }
@@ -0,0 +1,71 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.json;
+
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+
+/**
+ * Json codec of the SE messages (default codec, understood by all nodes)
+ */
+public class JsonSeMessageCodec implements SeMessageCodec {
+
+    public static final String NAME = "json";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encodeSeRequestSet(SeRequestSet seRequestSet) {
+        return JsonParser.getGson().toJson(seRequestSet, SeRequestSet.class);
+    }
+
+    @Override
+    public SeRequestSet decodeSeRequestSet(String body) {
+        return JsonParser.getGson().fromJson(body, SeRequestSet.class);
+    }
+
+    @Override
+    public String encodeSeResponseSet(SeResponseSet seResponseSet) {
+        return JsonParser.getGson().toJson(seResponseSet, SeResponseSet.class);
+    }
+
+    @Override
+    public SeResponseSet decodeSeResponseSet(String body) {
+        return JsonParser.getGson().fromJson(body, SeResponseSet.class);
+    }
+
+    @Override
+    public String encodeSeRequest(SeRequest seRequest) {
+        return JsonParser.getGson().toJson(seRequest, SeRequest.class);
+    }
+
+    @Override
+    public SeRequest decodeSeRequest(String body) {
+        return JsonParser.getGson().fromJson(body, SeRequest.class);
+    }
+
+    @Override
+    public String encodeSeResponse(SeResponse seResponse) {
+        return JsonParser.getGson().toJson(seResponse, SeResponse.class);
+    }
+
+    @Override
+    public SeResponse decodeSeResponse(String body) {
+        return JsonParser.getGson().fromJson(body, SeResponse.class);
+    }
+}
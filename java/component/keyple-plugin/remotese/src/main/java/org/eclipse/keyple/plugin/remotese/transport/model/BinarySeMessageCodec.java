@@ -0,0 +1,516 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.model;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
+
+/**
+ * Compact binary codec of the SE messages
+ * <p>
+ * The messages are written with a {@link DataOutputStream} (byte arrays and lists are length
+ * prefixed, a length of -1 stands for null) and carried as a Base64 string after the "#binary:"
+ * prefix. An APDU byte is thus encoded in 1.33 characters instead of about 4 in json.
+ * <p>
+ * The decoded lengths are checked against the remaining input, a malformed body is rejected with
+ * an {@link IllegalArgumentException} before any allocation of the announced size.
+ */
+public class BinarySeMessageCodec implements SeMessageCodec {
+
+    public static final String NAME = "binary";
+
+    private static final String PREFIX = SeMessageCodecs.prefix(NAME);
+
+    /* version of the format, written first */
+    private static final byte VERSION = 1;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encodeSeRequestSet(SeRequestSet seRequestSet) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = newOutput(buffer);
+            Set<SeRequest> seRequests = seRequestSet.getRequests();
+            out.writeInt(seRequests.size());
+            for (SeRequest seRequest : seRequests) {
+                writeSeRequest(out, seRequest);
+            }
+            return toBody(buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException("SeRequestSet encoding failed", e);
+        }
+    }
+
+    @Override
+    public SeRequestSet decodeSeRequestSet(String body) {
+        try {
+            DataInputStream in = newInput(body);
+            int size = readSize(in, false);
+            Set<SeRequest> seRequests = new LinkedHashSet<SeRequest>();
+            for (int i = 0; i < size; i++) {
+                seRequests.add(readSeRequest(in));
+            }
+            return new SeRequestSet(seRequests);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("SeRequestSet decoding failed", e);
+        }
+    }
+
+    @Override
+    public String encodeSeResponseSet(SeResponseSet seResponseSet) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = newOutput(buffer);
+            List<SeResponse> seResponses = seResponseSet.getResponses();
+            out.writeInt(seResponses == null ? -1 : seResponses.size());
+            if (seResponses != null) {
+                for (SeResponse seResponse : seResponses) {
+                    writeSeResponse(out, seResponse);
+                }
+            }
+            return toBody(buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException("SeResponseSet encoding failed", e);
+        }
+    }
+
+    @Override
+    public SeResponseSet decodeSeResponseSet(String body) {
+        try {
+            DataInputStream in = newInput(body);
+            int size = readSize(in, true);
+            List<SeResponse> seResponses = null;
+            if (size >= 0) {
+                seResponses = new ArrayList<SeResponse>(size);
+                for (int i = 0; i < size; i++) {
+                    seResponses.add(readSeResponse(in));
+                }
+            }
+            return new SeResponseSet(seResponses);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("SeResponseSet decoding failed", e);
+        }
+    }
+
+    @Override
+    public String encodeSeRequest(SeRequest seRequest) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeSeRequest(newOutput(buffer), seRequest);
+            return toBody(buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException("SeRequest encoding failed", e);
+        }
+    }
+
+    @Override
+    public SeRequest decodeSeRequest(String body) {
+        try {
+            return readSeRequest(newInput(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("SeRequest decoding failed", e);
+        }
+    }
+
+    @Override
+    public String encodeSeResponse(SeResponse seResponse) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeSeResponse(newOutput(buffer), seResponse);
+            return toBody(buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException("SeResponse encoding failed", e);
+        }
+    }
+
+    @Override
+    public SeResponse decodeSeResponse(String body) {
+        try {
+            return readSeResponse(newInput(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("SeResponse decoding failed", e);
+        }
+    }
+
+    /*
+     * Body framing
+     */
+
+    private static DataOutputStream newOutput(ByteArrayOutputStream buffer) throws IOException {
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(VERSION);
+        return out;
+    }
+
+    private static String toBody(ByteArrayOutputStream buffer) {
+        return PREFIX + Base64.encode(buffer.toByteArray());
+    }
+
+    private static DataInputStream newInput(String body) throws IOException {
+        if (body == null || !body.startsWith(PREFIX)) {
+            throw new IOException("Not a binary body");
+        }
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.decode(body.substring(PREFIX.length()))));
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary format version " + version);
+        }
+        return in;
+    }
+
+    /*
+     * Requests
+     */
+
+    private static void writeSeRequest(DataOutputStream out, SeRequest seRequest)
+            throws IOException {
+        writeSeSelector(out, seRequest.getSeSelector());
+        List<ApduRequest> apduRequests = seRequest.getApduRequests();
+        out.writeInt(apduRequests == null ? -1 : apduRequests.size());
+        if (apduRequests != null) {
+            for (ApduRequest apduRequest : apduRequests) {
+                writeString(out, apduRequest.getName());
+                writeBytes(out, apduRequest.getBytes());
+                out.writeBoolean(apduRequest.isCase4());
+                writeStatusCodes(out, apduRequest.getSuccessfulStatusCodes());
+            }
+        }
+        out.writeBoolean(seRequest.isKeepChannelOpen());
+    }
+
+    private static SeRequest readSeRequest(DataInputStream in) throws IOException {
+        SeSelector seSelector = readSeSelector(in);
+        int size = readSize(in, true);
+        List<ApduRequest> apduRequests = null;
+        if (size >= 0) {
+            apduRequests = new ArrayList<ApduRequest>(size);
+            for (int i = 0; i < size; i++) {
+                String name = readString(in);
+                byte[] bytes = readBytes(in);
+                boolean case4 = in.readBoolean();
+                apduRequests.add(new ApduRequest(name, bytes, case4, readStatusCodes(in)));
+            }
+        }
+        ChannelState channelState =
+                in.readBoolean() ? ChannelState.KEEP_OPEN : ChannelState.CLOSE_AFTER;
+        return new SeRequest(seSelector, apduRequests, channelState);
+    }
+
+    private static void writeSeSelector(DataOutputStream out, SeSelector seSelector)
+            throws IOException {
+        out.writeBoolean(seSelector != null);
+        if (seSelector == null) {
+            return;
+        }
+        writeSeProtocol(out, seSelector.getSeProtocol());
+        SeSelector.AtrFilter atrFilter = seSelector.getAtrFilter();
+        writeString(out, atrFilter == null ? null : atrFilter.getAtrRegex());
+        SeSelector.AidSelector aidSelector = seSelector.getAidSelector();
+        out.writeBoolean(aidSelector != null);
+        if (aidSelector != null) {
+            writeBytes(out, aidSelector.getAidToSelect() == null ? null
+                    : aidSelector.getAidToSelect().getValue());
+            writeStatusCodes(out, aidSelector.getSuccessfulSelectionStatusCodes());
+            out.writeByte(aidSelector.getFileOccurrence().ordinal());
+            out.writeByte(aidSelector.getFileControlInformation().ordinal());
+        }
+        writeString(out, seSelector.getExtraInfo());
+    }
+
+    private static SeSelector readSeSelector(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        SeProtocol seProtocol = readSeProtocol(in);
+        String atrRegex = readString(in);
+        SeSelector.AtrFilter atrFilter =
+                atrRegex == null ? null : new SeSelector.AtrFilter(atrRegex);
+        SeSelector.AidSelector aidSelector = null;
+        if (in.readBoolean()) {
+            byte[] aid = readBytes(in);
+            Set<Integer> successfulSelectionStatusCodes = readStatusCodes(in);
+            SeSelector.AidSelector.FileOccurrence fileOccurrence =
+                    readEnum(in, SeSelector.AidSelector.FileOccurrence.values());
+            SeSelector.AidSelector.FileControlInformation fileControlInformation =
+                    readEnum(in, SeSelector.AidSelector.FileControlInformation.values());
+            aidSelector = new SeSelector.AidSelector(
+                    aid == null ? null : new SeSelector.AidSelector.IsoAid(aid),
+                    successfulSelectionStatusCodes, fileOccurrence, fileControlInformation);
+        }
+        return new SeSelector(seProtocol, atrFilter, aidSelector, readString(in));
+    }
+
+    private static void writeSeProtocol(DataOutputStream out, SeProtocol seProtocol)
+            throws IOException {
+        /* the enum constant name, as written by the json codec */
+        if (seProtocol instanceof Enum) {
+            writeString(out, ((Enum) seProtocol).name());
+        } else {
+            writeString(out, seProtocol == null ? null : seProtocol.getName());
+        }
+    }
+
+    private static SeProtocol readSeProtocol(DataInputStream in) throws IOException {
+        String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        /* same lookup as the json codec */
+        for (SeCommonProtocols protocol : SeCommonProtocols.values()) {
+            if (protocol.name().equals(name) || protocol.getName().equals(name)) {
+                return protocol;
+            }
+        }
+        throw new IOException("Value of SeProtocol not found : " + name);
+    }
+
+    /*
+     * Responses
+     */
+
+    private static void writeSeResponse(DataOutputStream out, SeResponse seResponse)
+            throws IOException {
+        out.writeBoolean(seResponse != null);
+        if (seResponse == null) {
+            return;
+        }
+        out.writeBoolean(seResponse.isLogicalChannelOpen());
+        out.writeBoolean(seResponse.wasChannelPreviouslyOpen());
+        SelectionStatus selectionStatus = seResponse.getSelectionStatus();
+        out.writeBoolean(selectionStatus != null);
+        if (selectionStatus != null) {
+            writeBytes(out,
+                    selectionStatus.getAtr() == null ? null : selectionStatus.getAtr().getBytes());
+            writeApduResponse(out, selectionStatus.getFci());
+            out.writeBoolean(selectionStatus.hasMatched());
+        }
+        List<ApduResponse> apduResponses = seResponse.getApduResponses();
+        out.writeInt(apduResponses == null ? -1 : apduResponses.size());
+        if (apduResponses != null) {
+            for (ApduResponse apduResponse : apduResponses) {
+                writeApduResponse(out, apduResponse);
+            }
+        }
+    }
+
+    private static SeResponse readSeResponse(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        boolean logicalChannelIsOpen = in.readBoolean();
+        boolean channelPreviouslyOpen = in.readBoolean();
+        SelectionStatus selectionStatus = null;
+        if (in.readBoolean()) {
+            byte[] atr = readBytes(in);
+            ApduResponse fci = readApduResponse(in);
+            selectionStatus = new SelectionStatus(atr == null ? null : new AnswerToReset(atr), fci,
+                    in.readBoolean());
+        }
+        int size = readSize(in, true);
+        List<ApduResponse> apduResponses = null;
+        if (size >= 0) {
+            apduResponses = new ArrayList<ApduResponse>(size);
+            for (int i = 0; i < size; i++) {
+                apduResponses.add(readApduResponse(in));
+            }
+        }
+        return new SeResponse(logicalChannelIsOpen, channelPreviouslyOpen, selectionStatus,
+                apduResponses);
+    }
+
+    private static void writeApduResponse(DataOutputStream out, ApduResponse apduResponse)
+            throws IOException {
+        out.writeBoolean(apduResponse != null);
+        if (apduResponse != null) {
+            writeBytes(out, apduResponse.getBytes());
+            out.writeBoolean(apduResponse.isSuccessful());
+        }
+    }
+
+    private static ApduResponse readApduResponse(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = readBytes(in);
+        if (bytes != null && bytes.length < 2) {
+            throw new IOException("APDU response without status word, length " + bytes.length);
+        }
+        boolean successful = in.readBoolean();
+        Set<Integer> successfulStatusCodes = null;
+        if (successful && bytes != null) {
+            /* keep the successful status of a status word other than 9000 */
+            successfulStatusCodes = Collections.singleton(
+                    ((bytes[bytes.length - 2] & 0xFF) << 8) | (bytes[bytes.length - 1] & 0xFF));
+        }
+        return new ApduResponse(bytes, successfulStatusCodes);
+    }
+
+    /*
+     * Primitive types
+     */
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = readSize(in, true);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a length or a number of elements, each element taking at least one byte
+     *
+     * @param in the input
+     * @param nullable true if -1 (null) is allowed
+     * @return the size, -1 for null
+     * @throws IOException if the size is negative or exceeds the remaining input
+     */
+    private static int readSize(DataInputStream in, boolean nullable) throws IOException {
+        int size = in.readInt();
+        if (size == -1 && nullable) {
+            return size;
+        }
+        if (size < 0 || size > in.available()) {
+            throw new IOException("Invalid size " + size + ", " + in.available()
+                    + " bytes remaining");
+        }
+        return size;
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, E[] values)
+            throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= values.length) {
+            throw new IOException("Invalid ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStatusCodes(DataOutputStream out, Set<Integer> statusCodes)
+            throws IOException {
+        out.writeInt(statusCodes == null ? -1 : statusCodes.size());
+        if (statusCodes != null) {
+            for (Integer statusCode : statusCodes) {
+                out.writeShort(statusCode);
+            }
+        }
+    }
+
+    private static Set<Integer> readStatusCodes(DataInputStream in) throws IOException {
+        int size = readSize(in, true);
+        if (size < 0) {
+            return null;
+        }
+        Set<Integer> statusCodes = new LinkedHashSet<Integer>();
+        for (int i = 0; i < size; i++) {
+            statusCodes.add(in.readUnsignedShort());
+        }
+        return statusCodes;
+    }
+
+    /**
+     * Base64 (RFC 4648) encoding, not available in the Java 6 and Android base libraries
+     */
+    static final class Base64 {
+        private static final char[] ALPHABET =
+                "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+        private static final int[] INDEXES = new int[128];
+
+        static {
+            Arrays.fill(INDEXES, -1);
+            for (int i = 0; i < ALPHABET.length; i++) {
+                INDEXES[ALPHABET[i]] = i;
+            }
+        }
+
+        private Base64() {}
+
+        static String encode(byte[] data) {
+            StringBuilder sb = new StringBuilder((data.length + 2) / 3 * 4);
+            for (int i = 0; i < data.length; i += 3) {
+                int b = (data[i] & 0xFF) << 16;
+                if (i + 1 < data.length) {
+                    b |= (data[i + 1] & 0xFF) << 8;
+                }
+                if (i + 2 < data.length) {
+                    b |= data[i + 2] & 0xFF;
+                }
+                sb.append(ALPHABET[(b >> 18) & 0x3F]);
+                sb.append(ALPHABET[(b >> 12) & 0x3F]);
+                sb.append(i + 1 < data.length ? ALPHABET[(b >> 6) & 0x3F] : '=');
+                sb.append(i + 2 < data.length ? ALPHABET[b & 0x3F] : '=');
+            }
+            return sb.toString();
+        }
+
+        static byte[] decode(String text) throws IOException {
+            if (text.length() % 4 != 0) {
+                throw new IOException("Illegal Base64 length");
+            }
+            int padding = 0;
+            if (text.endsWith("==")) {
+                padding = 2;
+            } else if (text.endsWith("=")) {
+                padding = 1;
+            }
+            byte[] data = new byte[text.length() / 4 * 3 - padding];
+            int index = 0;
+            for (int i = 0; i < text.length(); i += 4) {
+                int b = 0;
+                for (int j = 0; j < 4; j++) {
+                    char c = text.charAt(i + j);
+                    int value = c == '=' ? 0 : (c < 128 ? INDEXES[c] : -1);
+                    if (value < 0) {
+                        throw new IOException("Illegal Base64 character " + c);
+                    }
+                    b = (b << 6) | value;
+                }
+                for (int j = 2; j >= 0 && index < data.length; j--) {
+                    data[index++] = (byte) (b >> (8 * j));
+                }
+            }
+            return data;
+        }
+    }
+}
@@ -12,6 +12,7 @@
 package org.eclipse.keyple.plugin.remotese.transport.model;
 
 
+import java.io.Reader;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import com.google.gson.JsonObject;
 
@@ -59,6 +60,26 @@ public class KeypleDtoHelper {
         return JsonParser.getGson().fromJson(json, KeypleDto.class);
     }
 
+    /**
+     * Serialize a KeypleDto directly into the transport writer
+     *
+     * @param keypleDto : KeypleDto to be sent
+     * @param writer : destination of the json
+     */
+    static public void toJson(KeypleDto keypleDto, Appendable writer) {
+        JsonParser.toJson(keypleDto, KeypleDto.class, writer);
+    }
+
+    /**
+     * Deserialize a KeypleDto directly from the transport reader
+     *
+     * @param reader : source of the json
+     * @return received KeypleDto
+     */
+    static public KeypleDto fromJson(Reader reader) {
+        return JsonParser.fromJson(reader, KeypleDto.class);
+    }
+
     static public KeypleDto fromJsonObject(JsonObject jsonObj) {
         return JsonParser.getGson().fromJson(jsonObj, KeypleDto.class);
     }
@@ -88,7 +109,9 @@ public class KeypleDtoHelper {
     }
 
     static public Boolean containsException(KeypleDto keypleDto) {
-        return keypleDto.getBody().contains("stackTrace");
+        /* exceptions are always sent in json */
+        return !SeMessageCodecs.isPrefixed(keypleDto.getBody())
+                && keypleDto.getBody().contains("stackTrace");
     }
 
 
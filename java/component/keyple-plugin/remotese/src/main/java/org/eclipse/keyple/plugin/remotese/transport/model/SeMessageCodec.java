@@ -0,0 +1,48 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.model;
+
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+
+/**
+ * Encodes and decodes the SE messages carried in the body of a {@link KeypleDto}
+ * <p>
+ * The codec used for a virtual reader is negotiated at READER_CONNECT (see
+ * {@link SeMessageCodecs}). Except for the json codec, an encoded body starts with "#", the name of
+ * the codec and ":" so that the receiver can always find the codec to decode it.
+ */
+public interface SeMessageCodec {
+
+    /**
+     * @return the name of the codec, exchanged during the negotiation
+     */
+    String getName();
+
+    String encodeSeRequestSet(SeRequestSet seRequestSet);
+
+    SeRequestSet decodeSeRequestSet(String body);
+
+    String encodeSeResponseSet(SeResponseSet seResponseSet);
+
+    SeResponseSet decodeSeResponseSet(String body);
+
+    String encodeSeRequest(SeRequest seRequest);
+
+    SeRequest decodeSeRequest(String body);
+
+    String encodeSeResponse(SeResponse seResponse);
+
+    SeResponse decodeSeResponse(String body);
+}
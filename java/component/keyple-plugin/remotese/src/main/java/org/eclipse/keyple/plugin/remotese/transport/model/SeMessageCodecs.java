@@ -0,0 +1,159 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonSeMessageCodec;
+
+/**
+ * Registry of the available {@link SeMessageCodec}
+ * <p>
+ * The registration order defines the preference order: the last registered codec is preferred.
+ * During the READER_CONNECT, the slave sends the names of its codecs and the master chooses its
+ * preferred one among them. A peer not sending its codecs (older version) uses json.
+ */
+public final class SeMessageCodecs {
+
+    public static final SeMessageCodec JSON = new JsonSeMessageCodec();
+    public static final SeMessageCodec BINARY = new BinarySeMessageCodec();
+
+    /* prefix of the bodies not encoded in json: "#name:" */
+    static final char PREFIX_START = '#';
+    static final char PREFIX_END = ':';
+
+    /* codecs, by preference order */
+    private static final List<SeMessageCodec> codecs = new CopyOnWriteArrayList<SeMessageCodec>();
+
+    static {
+        codecs.add(BINARY);
+        codecs.add(JSON);
+    }
+
+    private SeMessageCodecs() {}
+
+    /**
+     * Register a new codec, it becomes the preferred one
+     *
+     * @param codec : codec to register
+     */
+    public static void register(SeMessageCodec codec) {
+        if (codec.getName().indexOf(',') >= 0 || codec.getName().indexOf(PREFIX_END) >= 0) {
+            throw new IllegalArgumentException("Illegal codec name : " + codec.getName());
+        }
+        unregister(codec.getName());
+        codecs.add(0, codec);
+    }
+
+    /**
+     * Unregister a codec, json can not be unregistered
+     *
+     * @param name : name of the codec
+     */
+    public static void unregister(String name) {
+        if (JSON.getName().equals(name)) {
+            throw new IllegalArgumentException("Json codec can not be unregistered");
+        }
+        for (SeMessageCodec codec : codecs) {
+            if (codec.getName().equals(name)) {
+                codecs.remove(codec);
+            }
+        }
+    }
+
+    /**
+     * @param name : name of the codec
+     * @return the codec with this name, null if unknown
+     */
+    public static SeMessageCodec get(String name) {
+        for (SeMessageCodec codec : codecs) {
+            if (codec.getName().equals(name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the names of the registered codecs by preference order, separated by commas
+     */
+    public static String getNames() {
+        StringBuilder names = new StringBuilder();
+        for (SeMessageCodec codec : codecs) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+            names.append(codec.getName());
+        }
+        return names.toString();
+    }
+
+    /**
+     * Choose the preferred codec among the ones supported by the peer
+     *
+     * @param peerCodecNames : names of the codecs of the peer separated by commas, may be null
+     * @return the chosen codec, json if none is common
+     */
+    public static SeMessageCodec negotiate(String peerCodecNames) {
+        if (peerCodecNames == null || peerCodecNames.isEmpty()) {
+            return JSON;
+        }
+        List<String> peerCodecs = new ArrayList<String>();
+        for (String name : peerCodecNames.split(",")) {
+            peerCodecs.add(name.trim());
+        }
+        for (SeMessageCodec codec : codecs) {
+            if (peerCodecs.contains(codec.getName())) {
+                return codec;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Find the codec able to decode a body
+     *
+     * @param body : encoded body
+     * @return the codec of the body
+     * @throws IllegalArgumentException if the codec is unknown
+     */
+    public static SeMessageCodec forBody(String body) {
+        if (!isPrefixed(body)) {
+            return JSON;
+        }
+        int end = body.indexOf(PREFIX_END);
+        SeMessageCodec codec = end > 1 ? get(body.substring(1, end)) : null;
+        if (codec == null) {
+            throw new IllegalArgumentException("No codec found for body : " + body);
+        }
+        return codec;
+    }
+
+    /**
+     * @param body : encoded body
+     * @return true if the body is prefixed with the name of its codec (not encoded in json)
+     */
+    static boolean isPrefixed(String body) {
+        return body != null && body.length() > 0 && body.charAt(0) == PREFIX_START;
+    }
+
+    /**
+     * Build the prefix of the bodies encoded by a codec (other than json)
+     *
+     * @param codecName : the name of the codec
+     * @return the prefix "#name:"
+     */
+    public static String prefix(String codecName) {
+        return PREFIX_START + codecName + PREFIX_END;
+    }
+}
@@ -13,6 +13,10 @@ package org.eclipse.keyple.plugin.remotese.integration;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.keyple.calypso.command.PoClass;
 import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
 import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
@@ -142,6 +146,75 @@ public class VirtualReaderTransmitTest extends VirtualReaderBaseTest {
 
     }
 
+    /**
+     * Successful asynchronous Transmits, each one being requested from the callback of the
+     * previous one
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rse_transmitAsync_Hoplink_Sucessfull() throws Exception {
+        final int N_TIMES = 10;
+
+        // insert SE
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+
+        Thread.sleep(1000);
+
+        StubReaderTest.selectSe(virtualReader);
+
+        ReadRecordsCmdBuild poReadRecordCmd_T2Env = new ReadRecordsCmdBuild(PoClass.ISO,
+                (byte) 0x14, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true,
+                (byte) 0x20, "");
+        List<ApduRequest> poApduRequestList = Arrays.asList(poReadRecordCmd_T2Env.getApduRequest());
+        final SeRequest seRequest = new SeRequest(poApduRequestList, ChannelState.KEEP_OPEN);
+
+        final CountDownLatch lock = new CountDownLatch(N_TIMES);
+        final AtomicInteger successes = new AtomicInteger();
+
+        // test N_TIMES chained transmit with KEEP_OPEN
+        virtualReader.transmitAsync(seRequest, new TransmitCallback<SeResponse>() {
+            @Override
+            public void onTransmitted(SeResponse response, KeypleReaderException exception) {
+                if (exception == null && response.getApduResponses().get(0).isSuccessful()) {
+                    successes.incrementAndGet();
+                }
+                lock.countDown();
+                if (lock.getCount() > 0) {
+                    virtualReader.transmitAsync(seRequest, this);
+                }
+            }
+        });
+
+        // assert
+        Assert.assertTrue(lock.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(N_TIMES, successes.get());
+    }
+
+    @Test
+    public void rse_transmitAsync_no_response() throws Exception {
+
+        // insert SE
+        nativeReader.insertSe(StubReaderTest.noApduResponseSE());
+
+        // wait for card to be detected
+        Thread.sleep(500);
+
+        // init Request
+        SeRequestSet requests = StubReaderTest.getNoResponseRequest();
+
+        StubReaderTest.selectSe(virtualReader);
+
+        // test
+        try {
+            virtualReader.transmitSetAsync(requests).get(10, TimeUnit.SECONDS);
+            Assert.fail("An exception should have been thrown");
+        } catch (ExecutionException e) {
+            // assert
+            Assert.assertTrue(e.getCause() instanceof KeypleReaderException);
+        }
+    }
+
     @Test(expected = KeypleReaderException.class)
     public void rse_transmit_no_response() throws Exception {
 
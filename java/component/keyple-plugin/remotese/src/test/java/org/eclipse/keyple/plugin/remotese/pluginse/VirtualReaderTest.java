@@ -15,11 +15,13 @@ package org.eclipse.keyple.plugin.remotese.pluginse;
 import java.util.HashMap;
 import org.eclipse.keyple.core.seproxy.SeProxyService;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
 import org.eclipse.keyple.core.seproxy.message.ProxyReader;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.plugin.remotese.integration.Integration;
 import org.eclipse.keyple.plugin.stub.StubReaderTest;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -62,5 +64,42 @@ public class VirtualReaderTest {
         reader.transmitSet(StubReaderTest.getRequestIsoDepSetSample());
     }
 
+    @Test
+    public void lookup_bySessionId_andRemoteName() throws KeypleReaderException {
+        MasterAPI masterAPI = new MasterAPI(SeProxyService.getInstance(),
+                Integration.getFakeDtoNode(), RPC_TIMEOUT);
+
+        RemoteSePlugin plugin = masterAPI.getPlugin();
+
+        int nbReaders = 1000;
+        for (int i = 0; i < nbReaders; i++) {
+            plugin.createVirtualReader(CLIENT_NODE_ID + i, NATIVE_READER_NAME,
+                    Integration.getFakeDtoNode(), TransmissionMode.CONTACTLESS,
+                    new HashMap<String, String>());
+        }
+
+        VirtualReader reader =
+                plugin.getReaderByRemoteName(NATIVE_READER_NAME, CLIENT_NODE_ID + 500);
+        Assert.assertEquals(CLIENT_NODE_ID + 500, reader.getSession().getSlaveNodeId());
+        Assert.assertSame(reader,
+                plugin.getReaderBySessionId(reader.getSession().getSessionId()));
+
+        plugin.disconnectRemoteReader(NATIVE_READER_NAME, CLIENT_NODE_ID + 500);
+        Assert.assertEquals(nbReaders - 1, plugin.getReaders().size());
+
+        try {
+            plugin.getReaderByRemoteName(NATIVE_READER_NAME, CLIENT_NODE_ID + 500);
+            Assert.fail("disconnected reader is still indexed by its remote name");
+        } catch (KeypleReaderNotFoundException e) {
+            // expected
+        }
+        try {
+            plugin.getReaderBySessionId(reader.getSession().getSessionId());
+            Assert.fail("disconnected reader is still indexed by its session id");
+        } catch (KeypleReaderNotFoundException e) {
+            // expected
+        }
+    }
+
 
 }
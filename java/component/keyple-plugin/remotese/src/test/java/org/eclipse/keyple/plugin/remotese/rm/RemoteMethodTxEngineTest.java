@@ -0,0 +1,214 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteMethodTxEngineTest {
+
+    private static final int N_CALLS = 50;
+
+    private RecordingSender sender;
+
+    @Before
+    public void setUp() {
+        sender = new RecordingSender();
+    }
+
+    /**
+     * Several transactions are waiting at the same time on one engine, responses are received in
+     * the reverse order and each one is routed to its own transaction
+     */
+    @Test
+    public void concurrentCalls_responsesRoutedById() throws Exception {
+        final RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 5000);
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch doneSignal = new CountDownLatch(N_CALLS);
+
+        for (int i = 0; i < N_CALLS; i++) {
+            final String body = "request-" + i;
+            new Thread() {
+                public void run() {
+                    try {
+                        EchoTx echoTx = new EchoTx(body);
+                        engine.add(echoTx);
+                        String response = echoTx.getResponse();
+                        if (!("response-" + body).equals(response)) {
+                            errors.add(body + " received " + response);
+                        }
+                    } catch (KeypleRemoteException e) {
+                        errors.add(body + " failed " + e.getMessage());
+                    } finally {
+                        doneSignal.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        List<KeypleDto> requests = sender.awaitRequests(N_CALLS);
+        Assert.assertEquals(N_CALLS, engine.getPendingCount());
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            KeypleDto request = requests.get(i);
+            engine.onDTO(new LocalTransportDto(response(request, "response-" + request.getBody()),
+                    null));
+        }
+
+        Assert.assertTrue(doneSignal.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        Assert.assertEquals(0, engine.getPendingCount());
+    }
+
+    /**
+     * An unanswered transaction is completed with an exception and removed from the engine, its
+     * late response is ignored
+     */
+    @Test
+    public void perCallTimeout_removesTransaction() throws Exception {
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 5000);
+        EchoTx echoTx = new EchoTx("request");
+        engine.add(echoTx, 100);
+        long start = System.currentTimeMillis();
+        try {
+            echoTx.getResponse();
+            Assert.fail("A timeout exception was expected");
+        } catch (KeypleRemoteException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+        Assert.assertEquals(0, engine.getPendingCount());
+
+        KeypleDto request = sender.awaitRequests(1).get(0);
+        TransportDto out = engine.onDTO(new LocalTransportDto(response(request, "late"), null));
+        Assert.assertTrue(KeypleDtoHelper.isNoResponse(out.getKeypleDTO()));
+    }
+
+    /**
+     * The timeout of an answered transaction is cancelled and no longer held by the timer
+     */
+    @Test
+    public void answeredCalls_timeoutsCancelled() throws Exception {
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 60000);
+        int scheduledTimeoutCount = RemoteMethodTxEngine.getScheduledTimeoutCount();
+        List<EchoTx> echoTxs = new ArrayList<EchoTx>();
+        for (int i = 0; i < N_CALLS; i++) {
+            EchoTx echoTx = new EchoTx("request-" + i);
+            engine.add(echoTx);
+            echoTxs.add(echoTx);
+        }
+        Assert.assertTrue(RemoteMethodTxEngine
+                .getScheduledTimeoutCount() >= scheduledTimeoutCount + N_CALLS);
+        for (EchoTx echoTx : echoTxs) {
+            engine.onDTO(new LocalTransportDto(response(echoTx.dto(), "response"), null));
+            Assert.assertTrue(echoTx.getTimeoutFuture().isCancelled());
+        }
+        Assert.assertEquals(0, engine.getPendingCount());
+        /* the timeouts of other tests may have expired meanwhile */
+        Assert.assertTrue(
+                RemoteMethodTxEngine.getScheduledTimeoutCount() <= scheduledTimeoutCount);
+    }
+
+    @Test
+    public void nonBlockingCall_timeoutNotifiesCallback() throws Exception {
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 100);
+        final CountDownLatch callbackSignal = new CountDownLatch(1);
+        final KeypleRemoteException[] exception = new KeypleRemoteException[1];
+        EchoTx echoTx = new EchoTx("request");
+        engine.add(echoTx);
+        echoTx.send(new RemoteMethodTxCallback<String>() {
+            @Override
+            public void get(String response, KeypleRemoteException e) {
+                exception[0] = e;
+                callbackSignal.countDown();
+            }
+        });
+        Assert.assertTrue(callbackSignal.await(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(exception[0]);
+        Assert.assertEquals(0, engine.getPendingCount());
+    }
+
+    private static KeypleDto response(KeypleDto request, String body) {
+        return KeypleDtoHelper.buildResponse(request.getAction(), body, request.getSessionId(),
+                request.getNativeReaderName(), request.getVirtualReaderName(),
+                request.getTargetNodeId(), request.getRequesterNodeId(), request.getId());
+    }
+
+    /**
+     * Remote method sending its body and returning the body of the response
+     */
+    private static class EchoTx extends RemoteMethodTx<String> {
+        private final String body;
+
+        EchoTx(String body) {
+            super("sessionId", "nativeReader", "virtualReader", "slaveNode", "masterNode");
+            this.body = body;
+        }
+
+        @Override
+        protected String parseResponse(KeypleDto keypleDto) {
+            return keypleDto.getBody();
+        }
+
+        @Override
+        public RemoteMethod getMethodName() {
+            return RemoteMethod.READER_TRANSMIT;
+        }
+
+        @Override
+        protected KeypleDto dto() {
+            return KeypleDtoHelper.buildRequest(getMethodName().getName(), body, sessionId,
+                    nativeReaderName, virtualReaderName, requesterNodeId, targetNodeId, id);
+        }
+    }
+
+    /**
+     * Sender keeping the requests without answering them
+     */
+    private static class RecordingSender implements DtoSender {
+        private final List<KeypleDto> requests = new ArrayList<KeypleDto>();
+
+        @Override
+        public void sendDTO(TransportDto message) {
+            sendDTO(message.getKeypleDTO());
+        }
+
+        @Override
+        public synchronized void sendDTO(KeypleDto message) {
+            requests.add(message);
+            notifyAll();
+        }
+
+        @Override
+        public String getNodeId() {
+            return "masterNode";
+        }
+
+        synchronized List<KeypleDto> awaitRequests(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (requests.size() < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            return new ArrayList<KeypleDto>(requests);
+        }
+    }
+}
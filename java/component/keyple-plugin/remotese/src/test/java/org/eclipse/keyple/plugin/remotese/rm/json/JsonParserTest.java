@@ -11,12 +11,16 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.rm.json;
 
+import org.eclipse.keyple.core.seproxy.SeSelector;
 import org.eclipse.keyple.core.seproxy.event.ObservableReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
 import org.eclipse.keyple.core.seproxy.message.DefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
 import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -65,6 +69,19 @@ public class JsonParserTest {
         testSerializeDeserializeObj(defaultSelectionsRequest, DefaultSelectionsRequest.class);
     }
 
+    @Test
+    public void testAtrFilterSeSelector() {
+        SeSelector seSelector = new SeSelector(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                new SeSelector.AtrFilter("3B3F9600805A.*"), null, "SAM");
+        SeSelector deserializedSeSelector =
+                (SeSelector) testSerializeDeserializeObj(seSelector, SeSelector.class);
+        /* the regular expression is compiled again by the deserialized filter */
+        Assert.assertTrue(deserializedSeSelector.getAtrFilter()
+                .atrMatches(ByteArrayUtil.fromHex("3B3F9600805A0080C120000012345678829000")));
+        Assert.assertFalse(deserializedSeSelector.getAtrFilter()
+                .atrMatches(ByteArrayUtil.fromHex("3B8880010000000000718100F9")));
+    }
+
     @Test
     public void testNotificationMode() {
         ObservableReader.NotificationMode notificationMode = SampleFactory.getNotificationMode();
@@ -13,9 +13,14 @@ package org.eclipse.keyple.plugin.remotese.rm.json;
 
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -40,4 +45,27 @@ public class KeypleDtoHelperTest {
 
     }
 
+    @Test
+    public void testStreamingCodec() {
+        StringWriter bodyWriter = new StringWriter();
+        JsonParser.toJson(SampleFactory.getCompleteRequestSet(), SeRequestSet.class, bodyWriter);
+        KeypleDto keypleDto = KeypleDtoHelper.buildRequest("reader_transmitSet",
+                bodyWriter.toString(), "sessionId", "nativeReader", "virtualReader", "master",
+                "slave", "id");
+
+        StringWriter writer = new StringWriter();
+        KeypleDtoHelper.toJson(keypleDto, writer);
+        /* compact json, same as the String codec */
+        Assert.assertEquals(KeypleDtoHelper.toJson(keypleDto), writer.toString());
+        Assert.assertFalse(writer.toString().contains("\n"));
+
+        KeypleDto decoded = KeypleDtoHelper.fromJson(new StringReader(writer.toString()));
+        Assert.assertEquals(keypleDto.getId(), decoded.getId());
+        Assert.assertEquals(keypleDto.getBody(), decoded.getBody());
+        SeRequestSet seRequestSet =
+                JsonParser.fromJson(new StringReader(decoded.getBody()), SeRequestSet.class);
+        Assert.assertEquals(bodyWriter.toString(),
+                JsonParser.getGson().toJson(seRequestSet, SeRequestSet.class));
+    }
+
 }
@@ -0,0 +1,85 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm.json;
+
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.BinarySeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.SeMessageCodecs;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SeMessageCodecTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeMessageCodecTest.class);
+
+    private final SeMessageCodec binaryCodec = SeMessageCodecs.BINARY;
+
+    @Test
+    public void binary_seRequestSet() {
+        SeRequestSet seRequestSet = SampleFactory.getCompleteRequestSet();
+        String body = binaryCodec.encodeSeRequestSet(seRequestSet);
+        logger.debug("binary : {} chars, json : {} chars", body.length(),
+                SeMessageCodecs.JSON.encodeSeRequestSet(seRequestSet).length());
+        Assert.assertSame(binaryCodec, SeMessageCodecs.forBody(body));
+        assertSameJson(seRequestSet, binaryCodec.decodeSeRequestSet(body), SeRequestSet.class);
+    }
+
+    @Test
+    public void binary_seResponseSet() {
+        SeResponseSet seResponseSet = SampleFactory.getCompleteResponseSet();
+        String body = binaryCodec.encodeSeResponseSet(seResponseSet);
+        Assert.assertTrue(body.length() < SeMessageCodecs.JSON
+                .encodeSeResponseSet(seResponseSet).length());
+        assertSameJson(seResponseSet, binaryCodec.decodeSeResponseSet(body),
+                SeResponseSet.class);
+    }
+
+    @Test
+    public void binary_seRequest_seResponse() {
+        SeRequest seRequest = SampleFactory.getASeRequest_ISO14443_4();
+        assertSameJson(seRequest,
+                binaryCodec.decodeSeRequest(binaryCodec.encodeSeRequest(seRequest)),
+                SeRequest.class);
+        SeResponse seResponse = SampleFactory.getCompleteResponseSet().getResponses().get(0);
+        assertSameJson(seResponse,
+                binaryCodec.decodeSeResponse(binaryCodec.encodeSeResponse(seResponse)),
+                SeResponse.class);
+    }
+
+    @Test
+    public void json_bodyDetected() {
+        String body = SeMessageCodecs.JSON.encodeSeRequestSet(SampleFactory.getASeRequestSet());
+        Assert.assertSame(SeMessageCodecs.JSON, SeMessageCodecs.forBody(body));
+    }
+
+    @Test
+    public void negotiate() {
+        /* peer without codecs (older version) */
+        Assert.assertSame(SeMessageCodecs.JSON, SeMessageCodecs.negotiate(null));
+        Assert.assertSame(SeMessageCodecs.JSON, SeMessageCodecs.negotiate("json"));
+        Assert.assertSame(SeMessageCodecs.JSON, SeMessageCodecs.negotiate("cbor,json"));
+        Assert.assertSame(SeMessageCodecs.BINARY, SeMessageCodecs.negotiate("json,binary"));
+        Assert.assertEquals(BinarySeMessageCodec.NAME + ",json", SeMessageCodecs.getNames());
+    }
+
+    private static void assertSameJson(Object expected, Object actual, Class type) {
+        Assert.assertEquals(JsonParser.getGson().toJson(expected, type),
+                JsonParser.getGson().toJson(actual, type));
+    }
+}
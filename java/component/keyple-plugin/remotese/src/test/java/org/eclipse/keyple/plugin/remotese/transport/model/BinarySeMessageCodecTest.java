@@ -0,0 +1,106 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitTx;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Decoding of malformed binary bodies
+ */
+public class BinarySeMessageCodecTest {
+
+    private final BinarySeMessageCodec codec = new BinarySeMessageCodec();
+
+    @Test
+    public void decodeSeResponse_wellFormed() throws IOException {
+        SeResponse seResponse = codec.decodeSeResponse(seResponseBody(2, "6283"));
+        Assert.assertEquals(1, seResponse.getApduResponses().size());
+        Assert.assertEquals(0x6283, seResponse.getApduResponses().get(0).getStatusCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeSeResponse_emptyApduResponse() throws IOException {
+        codec.decodeSeResponse(seResponseBody(0, ""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeSeResponse_oneByteApduResponse() throws IOException {
+        codec.decodeSeResponse(seResponseBody(1, "90"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeSeResponse_negativeLength() throws IOException {
+        codec.decodeSeResponse(seResponseBody(-2, "9000"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeSeResponse_lengthBeyondInput() throws IOException {
+        codec.decodeSeResponse(seResponseBody(Integer.MAX_VALUE, "9000"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeSeResponseSet_sizeBeyondInput() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = newOutput(buffer);
+        out.writeInt(Integer.MAX_VALUE);
+        codec.decodeSeResponseSet(toBody(buffer));
+    }
+
+    @Test(expected = KeypleRemoteException.class)
+    public void rmTransmitTx_malformedResponse() throws Exception {
+        RmTransmitTx rmTransmitTx = new RmTransmitTx(null, "sessionId", "nativeReader",
+                "virtualReader", "masterNode", "slaveNode", codec);
+        rmTransmitTx.parseResponse(KeypleDtoHelper.buildResponse(
+                rmTransmitTx.getMethodName().getName(), seResponseBody(1, "90"), "sessionId",
+                "nativeReader", "virtualReader", "slaveNode", "masterNode", "id"));
+    }
+
+    /**
+     * Builds the body of a SeResponse holding one APDU response
+     *
+     * @param length the announced length of the APDU response
+     * @param apdu the bytes of the APDU response actually written
+     */
+    private static String seResponseBody(int length, String apdu) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = newOutput(buffer);
+        out.writeBoolean(true); // SeResponse
+        out.writeBoolean(true); // logical channel open
+        out.writeBoolean(false); // channel previously open
+        out.writeBoolean(false); // no selection status
+        out.writeInt(1); // APDU responses
+        out.writeBoolean(true); // ApduResponse
+        out.writeInt(length);
+        out.write(ByteArrayUtil.fromHex(apdu));
+        out.writeBoolean(true); // successful
+        return toBody(buffer);
+    }
+
+    private static DataOutputStream newOutput(ByteArrayOutputStream buffer) throws IOException {
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(1); // version
+        return out;
+    }
+
+    private static String toBody(ByteArrayOutputStream buffer) {
+        return SeMessageCodecs.prefix(BinarySeMessageCodec.NAME)
+                + BinarySeMessageCodec.Base64.encode(buffer.toByteArray());
+    }
+}
@@ -0,0 +1,732 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Emulated Calypso PO (revision 3.1, ISO class) operating secure sessions with a
+ * {@link StubCalypsoSam}.
+ * <p>
+ * The PO holds:
+ * <ul>
+ * <li>one application identified by its AID and serial number,</li>
+ * <li>elementary files (linear, cyclic and counters) identified by their SFI,</li>
+ * <li>the three session keys (personalization, load, debit) diversified with the serial
+ * number,</li>
+ * <li>the transaction counter, decreased at each session opening, and the ratification
+ * status.</li>
+ * </ul>
+ * Supported commands: Select Application, Open Secure Session, Read Records, Update Record, Append
+ * Record, Increase, Decrease, Close Secure Session (and abort).
+ * <p>
+ * The modifications made during a session are kept in the modification buffer: they are visible to
+ * the following commands of the session, committed when the session is closed with a valid terminal
+ * signature, and discarded if the session is aborted or the power is lost (see
+ * {@link #resetVolatileState()}). A modification takes the length of its data plus 6 bytes in the
+ * buffer, whose size is announced in the FCI.
+ * <p>
+ * The session MAC is computed in software (see {@link StubSessionDigest}), the responses to the
+ * commands can still be overridden with scripted commands.
+ */
+public class StubCalypsoPo extends StubSecureElement {
+
+    /** Type of an elementary file */
+    public enum FileType {
+        LINEAR, CYCLIC, COUNTERS
+    }
+
+    /* default buffer size indicator: 430 bytes */
+    private static final byte DEFAULT_BUFFER_SIZE_INDICATOR = (byte) 0x0A;
+    private static final int[] BUFFER_SIZES = new int[] {0, 0, 0, 0, 0, 0, 215, 256, 304, 362,
+            430, 512, 608, 724, 861, 1024, 1217, 1448, 1722, 2048};
+    /* maximum length of the data of a Read Records response */
+    private static final int MAX_READ_LENGTH = 250;
+    private static final int MAX_COUNTER_VALUE = 0xFFFFFF;
+
+    private static final byte CLA_ISO = (byte) 0x00;
+    private static final byte INS_SELECT = (byte) 0xA4;
+    private static final byte INS_OPEN_SESSION = (byte) 0x8A;
+    private static final byte INS_CLOSE_SESSION = (byte) 0x8E;
+    private static final byte INS_READ_RECORDS = (byte) 0xB2;
+    private static final byte INS_UPDATE_RECORD = (byte) 0xDC;
+    private static final byte INS_APPEND_RECORD = (byte) 0xE2;
+    private static final byte INS_INCREASE = (byte) 0x32;
+    private static final byte INS_DECREASE = (byte) 0x30;
+
+    private static final int SW_SUCCESS = 0x9000;
+    private static final int SW_TOO_MANY_MODIFICATIONS = 0x6400;
+    private static final int SW_WRONG_LENGTH = 0x6700;
+    private static final int SW_TRANSACTION_COUNTER_IS_0 = 0x6900;
+    private static final int SW_WRONG_FILE_TYPE = 0x6981;
+    private static final int SW_NOT_ALLOWED = 0x6985;
+    private static final int SW_INCORRECT_SIGNATURE = 0x6988;
+    private static final int SW_OVERFLOW = 0x6A80;
+    private static final int SW_FILE_NOT_FOUND = 0x6A82;
+    private static final int SW_RECORD_NOT_FOUND = 0x6A83;
+    private static final int SW_WRONG_P1_P2 = 0x6B00;
+    private static final int SW_CLA_NOT_SUPPORTED = 0x6E00;
+
+    private static final int OFFSET_CLA = 0;
+    private static final int OFFSET_INS = 1;
+    private static final int OFFSET_P1 = 2;
+    private static final int OFFSET_P2 = 3;
+    private static final int OFFSET_LC = 4;
+    private static final int OFFSET_DATA = 5;
+
+    private static final int CHALLENGE_LENGTH = 4;
+    private static final int SIGNATURE_LENGTH = 4;
+
+    /**
+     * Elementary file, the records are replaced and never modified in place so that the record
+     * arrays can be shared with the modification buffer
+     */
+    private static final class ElementaryFile {
+        private final FileType type;
+        private final int recordSize;
+        private byte[][] records;
+
+        ElementaryFile(FileType type, int numberOfRecords, int recordSize) {
+            this.type = type;
+            this.recordSize = recordSize;
+            this.records = new byte[numberOfRecords][];
+            for (int i = 0; i < numberOfRecords; i++) {
+                records[i] = new byte[recordSize];
+            }
+        }
+    }
+
+    /**
+     * Session key of the PO
+     */
+    private static final class PoKey {
+        private final byte kif;
+        private final byte kvc;
+        private final byte[] diversifiedKey;
+
+        PoKey(byte kif, byte kvc, byte[] diversifiedKey) {
+            this.kif = kif;
+            this.kvc = kvc;
+            this.diversifiedKey = diversifiedKey;
+        }
+    }
+
+    private final byte[] aid;
+    private final byte[] serialNumber;
+    private final Map<Byte, ElementaryFile> files = new HashMap<Byte, ElementaryFile>();
+    private final PoKey[] keys = new PoKey[4];
+    private final StubSessionDigest sessionDigest = new StubSessionDigest();
+    /* records of the files modified in the current session, as they were at the opening */
+    private final Map<ElementaryFile, byte[][]> modificationBuffer =
+            new IdentityHashMap<ElementaryFile, byte[][]>();
+    private final Random random;
+
+    private byte bufferSizeIndicator = DEFAULT_BUFFER_SIZE_INDICATOR;
+    private int transactionCounter = MAX_COUNTER_VALUE;
+    private boolean ratified = true;
+    private boolean ratificationPending;
+    private boolean applicationSelected;
+    private int modificationBufferLeft;
+
+    private final StubCommandHandler commandHandler = new StubCommandHandler() {
+        @Override
+        public byte[] processApdu(byte[] apduIn) {
+            return processCommand(apduIn);
+        }
+    };
+
+    /**
+     * Creates a PO without files nor keys
+     *
+     * @param aid the AID of the application (5 to 16 bytes)
+     * @param serialNumber the application serial number (8 bytes)
+     */
+    public StubCalypsoPo(byte[] aid, byte[] serialNumber) {
+        if (aid == null || aid.length < 5 || aid.length > 16) {
+            throw new IllegalArgumentException("Bad AID.");
+        }
+        if (serialNumber == null || serialNumber.length != 8) {
+            throw new IllegalArgumentException("Bad serial number.");
+        }
+        this.aid = aid.clone();
+        this.serialNumber = serialNumber.clone();
+        this.random = new Random(Arrays.hashCode(serialNumber));
+        for (byte ins : new byte[] {INS_SELECT, INS_OPEN_SESSION, INS_CLOSE_SESSION,
+                INS_READ_RECORDS, INS_UPDATE_RECORD, INS_APPEND_RECORD, INS_INCREASE,
+                INS_DECREASE}) {
+            addCommandHandler(ins, commandHandler);
+        }
+    }
+
+    @Override
+    public byte[] getATR() {
+        return ByteArrayUtil.fromHex("3B8880010000000000718100F9");
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return "PROTOCOL_ISO14443_4";
+    }
+
+    /**
+     * @return the application serial number
+     */
+    public byte[] getSerialNumber() {
+        return serialNumber.clone();
+    }
+
+    /**
+     * Sets the size of the modification buffer, announced in the FCI
+     *
+     * @param bufferSizeIndicator the buffer size indicator (6 to 19, i.e. 215 to 2048 bytes)
+     */
+    public synchronized void setBufferSizeIndicator(byte bufferSizeIndicator) {
+        if (bufferSizeIndicator < 6 || bufferSizeIndicator >= BUFFER_SIZES.length) {
+            throw new IllegalArgumentException("Unsupported buffer size indicator.");
+        }
+        this.bufferSizeIndicator = bufferSizeIndicator;
+    }
+
+    /**
+     * Personalizes a session key, the master key is diversified with the serial number of the PO
+     *
+     * @param keyIndex the key index (1: personalization, 2: load, 3: debit)
+     * @param kif the key identifier
+     * @param kvc the key version
+     * @param masterKey the master key (as held by the SAM)
+     */
+    public synchronized void setKey(int keyIndex, byte kif, byte kvc, byte[] masterKey) {
+        if (keyIndex < 1 || keyIndex > 3) {
+            throw new IllegalArgumentException("Bad key index: " + keyIndex);
+        }
+        if (masterKey == null || masterKey.length == 0) {
+            throw new IllegalArgumentException("Master key should not be empty.");
+        }
+        keys[keyIndex] = new PoKey(kif, kvc, sessionDigest.diversify(masterKey, serialNumber));
+    }
+
+    /**
+     * Creates an elementary file, its records are filled with zeros
+     *
+     * @param sfi the short file identifier (1 to 30)
+     * @param type the file type
+     * @param numberOfRecords the number of records (1 for a counters file)
+     * @param recordSize the size of the records (3 bytes per counter for a counters file)
+     */
+    public synchronized void addFile(byte sfi, FileType type, int numberOfRecords,
+            int recordSize) {
+        if (sfi < 1 || sfi > 30) {
+            throw new IllegalArgumentException("Bad SFI: " + sfi);
+        }
+        if (numberOfRecords < 1 || recordSize < 1 || recordSize > MAX_READ_LENGTH) {
+            throw new IllegalArgumentException("Bad file size.");
+        }
+        if (type == FileType.COUNTERS && (numberOfRecords != 1 || recordSize % 3 != 0)) {
+            throw new IllegalArgumentException("Bad counters file size.");
+        }
+        files.put(sfi, new ElementaryFile(type, numberOfRecords, recordSize));
+    }
+
+    /**
+     * Writes a record outside of any session, the data is padded with zeros to the record size
+     *
+     * @param sfi the short file identifier
+     * @param recordNumber the record number (1 is the most recent record of a cyclic file)
+     * @param data the record data
+     */
+    public synchronized void setRecord(byte sfi, int recordNumber, byte[] data) {
+        ElementaryFile file = getFile(sfi);
+        checkRecordNumber(file, recordNumber);
+        if (data.length > file.recordSize) {
+            throw new IllegalArgumentException("Data too long for the record.");
+        }
+        file.records[recordNumber - 1] = Arrays.copyOf(data, file.recordSize);
+    }
+
+    /**
+     * Gets the content of a record, including the modifications of a session in progress
+     *
+     * @param sfi the short file identifier
+     * @param recordNumber the record number (1 is the most recent record of a cyclic file)
+     * @return a copy of the record data
+     */
+    public synchronized byte[] getRecord(byte sfi, int recordNumber) {
+        ElementaryFile file = getFile(sfi);
+        checkRecordNumber(file, recordNumber);
+        return file.records[recordNumber - 1].clone();
+    }
+
+    /**
+     * Sets the value of a counter outside of any session
+     *
+     * @param sfi the short file identifier of the counters file
+     * @param counterNumber the counter number (starting at 1)
+     * @param value the value (0 to 16777215)
+     */
+    public synchronized void setCounterValue(byte sfi, int counterNumber, int value) {
+        ElementaryFile file = getCountersFile(sfi, counterNumber);
+        if (value < 0 || value > MAX_COUNTER_VALUE) {
+            throw new IllegalArgumentException("Bad counter value: " + value);
+        }
+        file.records[0] = withCounterValue(file.records[0], counterNumber, value);
+    }
+
+    /**
+     * Gets the value of a counter, including the modifications of a session in progress
+     *
+     * @param sfi the short file identifier of the counters file
+     * @param counterNumber the counter number (starting at 1)
+     * @return the value of the counter
+     */
+    public synchronized int getCounterValue(byte sfi, int counterNumber) {
+        return ByteArrayUtil.threeBytesToInt(getCountersFile(sfi, counterNumber).records[0],
+                (counterNumber - 1) * 3);
+    }
+
+    /**
+     * @return the transaction counter, decreased at each session opening
+     */
+    public synchronized int getTransactionCounter() {
+        return transactionCounter;
+    }
+
+    /**
+     * @param transactionCounter the transaction counter (0 to 16777215)
+     */
+    public synchronized void setTransactionCounter(int transactionCounter) {
+        if (transactionCounter < 0 || transactionCounter > MAX_COUNTER_VALUE) {
+            throw new IllegalArgumentException("Bad transaction counter: " + transactionCounter);
+        }
+        this.transactionCounter = transactionCounter;
+    }
+
+    /**
+     * @return true if the last session was ratified
+     */
+    public synchronized boolean isRatified() {
+        return ratified;
+    }
+
+    /**
+     * @return true if a secure session is open
+     */
+    public synchronized boolean isSessionOpen() {
+        return sessionDigest.isOpen();
+    }
+
+    /**
+     * The application is deselected and the session in progress is aborted: the modification
+     * buffer is discarded and a session waiting for its ratification remains unratified.
+     */
+    @Override
+    protected synchronized void resetVolatileState() {
+        applicationSelected = false;
+        ratificationPending = false;
+        if (sessionDigest.isOpen()) {
+            abortSession();
+        }
+    }
+
+    /**
+     * Processes a command, digesting it with its response if a session is open
+     */
+    private synchronized byte[] processCommand(byte[] apdu) {
+        /* any command ratifies the previous session */
+        if (ratificationPending) {
+            ratificationPending = false;
+            ratified = true;
+        }
+
+        if (apdu.length < 4 || apdu[OFFSET_CLA] != CLA_ISO) {
+            return statusWord(SW_CLA_NOT_SUPPORTED);
+        }
+
+        byte[] response;
+        switch (apdu[OFFSET_INS]) {
+            case INS_SELECT:
+                return selectApplication(apdu);
+            case INS_OPEN_SESSION:
+                return openSession(apdu);
+            case INS_CLOSE_SESSION:
+                return closeSession(apdu);
+            case INS_READ_RECORDS:
+                response = readRecords(apdu);
+                break;
+            case INS_UPDATE_RECORD:
+            case INS_APPEND_RECORD:
+                response = writeRecord(apdu);
+                break;
+            case INS_INCREASE:
+            case INS_DECREASE:
+                response = increaseDecrease(apdu);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected instruction.");
+        }
+
+        if (sessionDigest.isOpen()) {
+            /* Le is excluded from the digest of case 4 commands */
+            int commandLength = apdu.length > OFFSET_DATA
+                    && apdu.length == OFFSET_DATA + (apdu[OFFSET_LC] & 0xFF) + 1
+                            ? apdu.length - 1
+                            : apdu.length;
+            sessionDigest.update(apdu, 0, commandLength);
+            sessionDigest.update(response, 0, response.length);
+        }
+        return response;
+    }
+
+    private byte[] selectApplication(byte[] apdu) {
+        if (sessionDigest.isOpen()) {
+            abortSession();
+        }
+        applicationSelected = false;
+        if (apdu.length < OFFSET_DATA || apdu[OFFSET_P1] != (byte) 0x04) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        int aidLength = apdu[OFFSET_LC] & 0xFF;
+        if (apdu.length < OFFSET_DATA + aidLength) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        /* only one application: the first occurrence matching the (partial) AID */
+        if (apdu[OFFSET_P2] != (byte) 0x00 || aidLength > aid.length
+                || !Arrays.equals(Arrays.copyOf(aid, aidLength),
+                        Arrays.copyOfRange(apdu, OFFSET_DATA, OFFSET_DATA + aidLength))) {
+            return statusWord(SW_FILE_NOT_FOUND);
+        }
+        applicationSelected = true;
+
+        /* FCI: DF name, serial number and startup information */
+        byte[] fci = new byte[aid.length + 28];
+        int index = 0;
+        fci[index++] = (byte) 0x6F;
+        fci[index++] = (byte) (aid.length + 26);
+        fci[index++] = (byte) 0x84;
+        fci[index++] = (byte) aid.length;
+        System.arraycopy(aid, 0, fci, index, aid.length);
+        index += aid.length;
+        fci[index++] = (byte) 0xA5;
+        fci[index++] = (byte) 0x16;
+        fci[index++] = (byte) 0xBF;
+        fci[index++] = (byte) 0x0C;
+        fci[index++] = (byte) 0x13;
+        fci[index++] = (byte) 0xC7;
+        fci[index++] = (byte) 0x08;
+        System.arraycopy(serialNumber, 0, fci, index, serialNumber.length);
+        index += serialNumber.length;
+        fci[index++] = (byte) 0x53;
+        fci[index++] = (byte) 0x07;
+        fci[index++] = bufferSizeIndicator;
+        /* platform, application type (revision 3.1), subtype, issuer, version, revision */
+        fci[index++] = (byte) 0x3C;
+        fci[index++] = (byte) 0x23;
+        fci[index++] = (byte) 0x12;
+        fci[index++] = (byte) 0x14;
+        fci[index++] = (byte) 0x10;
+        fci[index++] = (byte) 0x01;
+        return withStatusWord(fci, index, SW_SUCCESS);
+    }
+
+    private byte[] openSession(byte[] apdu) {
+        if (!applicationSelected) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        /* a new session cancels the current one */
+        if (sessionDigest.isOpen()) {
+            abortSession();
+        }
+        int keyIndex = apdu[OFFSET_P1] & 0x07;
+        int recordNumber = (apdu[OFFSET_P1] & 0xFF) >> 3;
+        byte sfi = (byte) ((apdu[OFFSET_P2] & 0xFF) >> 3);
+        if ((apdu[OFFSET_P2] & 0x07) != 0x01 || keyIndex < 1 || keyIndex > 3
+                || keys[keyIndex] == null) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        if (apdu.length < OFFSET_DATA + CHALLENGE_LENGTH
+                || apdu[OFFSET_LC] != (byte) CHALLENGE_LENGTH) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        if (transactionCounter == 0) {
+            return statusWord(SW_TRANSACTION_COUNTER_IS_0);
+        }
+
+        byte[] recordData = new byte[0];
+        if (recordNumber != 0) {
+            ElementaryFile file = files.get(sfi);
+            if (file == null) {
+                return statusWord(SW_FILE_NOT_FOUND);
+            }
+            if (recordNumber > file.records.length) {
+                return statusWord(SW_RECORD_NOT_FOUND);
+            }
+            recordData = file.records[recordNumber - 1];
+        }
+
+        transactionCounter--;
+        PoKey key = keys[keyIndex];
+
+        /* transaction counter, random, ratification, KIF, KVC, record data */
+        byte[] response = new byte[8 + recordData.length + 2];
+        response[0] = (byte) (transactionCounter >> 16);
+        response[1] = (byte) (transactionCounter >> 8);
+        response[2] = (byte) transactionCounter;
+        response[3] = (byte) random.nextInt();
+        response[4] = ratified ? (byte) 0x00 : (byte) 0x01;
+        response[5] = key.kif;
+        response[6] = key.kvc;
+        response[7] = (byte) recordData.length;
+        System.arraycopy(recordData, 0, response, 8, recordData.length);
+        int dataLength = 8 + recordData.length;
+
+        sessionDigest.open(key.diversifiedKey,
+                Arrays.copyOfRange(apdu, OFFSET_DATA, OFFSET_DATA + CHALLENGE_LENGTH),
+                Arrays.copyOfRange(response, 0, CHALLENGE_LENGTH), response, 0, dataLength);
+        modificationBuffer.clear();
+        modificationBufferLeft = BUFFER_SIZES[bufferSizeIndicator];
+
+        return withStatusWord(response, dataLength, SW_SUCCESS);
+    }
+
+    private byte[] closeSession(byte[] apdu) {
+        /* abort: no signature */
+        if (apdu.length <= OFFSET_DATA) {
+            if (sessionDigest.isOpen()) {
+                abortSession();
+            }
+            return statusWord(SW_SUCCESS);
+        }
+        if (!sessionDigest.isOpen()) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        if (apdu[OFFSET_LC] != (byte) SIGNATURE_LENGTH
+                || apdu.length < OFFSET_DATA + SIGNATURE_LENGTH) {
+            abortSession();
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        sessionDigest.close(SIGNATURE_LENGTH);
+        if (!Arrays.equals(sessionDigest.getTerminalSignature(),
+                Arrays.copyOfRange(apdu, OFFSET_DATA, OFFSET_DATA + SIGNATURE_LENGTH))) {
+            rollback();
+            return statusWord(SW_INCORRECT_SIGNATURE);
+        }
+
+        /* commit */
+        modificationBuffer.clear();
+        ratified = (apdu[OFFSET_P1] & 0x80) != 0;
+        ratificationPending = !ratified;
+
+        byte[] poSignature = sessionDigest.getPoSignature();
+        return withStatusWord(poSignature, poSignature.length, SW_SUCCESS);
+    }
+
+    private byte[] readRecords(byte[] apdu) {
+        int mode = apdu[OFFSET_P2] & 0x07;
+        if (apdu.length != OFFSET_DATA || (mode != 0x04 && mode != 0x05)) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        if (!applicationSelected) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        ElementaryFile file = files.get((byte) ((apdu[OFFSET_P2] & 0xFF) >> 3));
+        if (file == null) {
+            return statusWord(SW_FILE_NOT_FOUND);
+        }
+        int recordNumber = apdu[OFFSET_P1] & 0xFF;
+        if (recordNumber < 1 || recordNumber > file.records.length) {
+            return statusWord(SW_RECORD_NOT_FOUND);
+        }
+
+        if (mode == 0x04) {
+            byte[] record = file.records[recordNumber - 1];
+            return withStatusWord(record, record.length, SW_SUCCESS);
+        }
+
+        /* multiple records: number, length and data of each record that fits */
+        byte[] data = new byte[MAX_READ_LENGTH];
+        int length = 0;
+        for (int i = recordNumber; i <= file.records.length
+                && length + 2 + file.recordSize <= MAX_READ_LENGTH; i++) {
+            data[length++] = (byte) i;
+            data[length++] = (byte) file.recordSize;
+            System.arraycopy(file.records[i - 1], 0, data, length, file.recordSize);
+            length += file.recordSize;
+        }
+        return withStatusWord(data, length, SW_SUCCESS);
+    }
+
+    private byte[] writeRecord(byte[] apdu) {
+        boolean append = apdu[OFFSET_INS] == INS_APPEND_RECORD;
+        if (append ? apdu[OFFSET_P1] != 0 || (apdu[OFFSET_P2] & 0x07) != 0x00
+                : (apdu[OFFSET_P2] & 0x07) != 0x04) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        int dataLength = apdu.length > OFFSET_LC ? apdu[OFFSET_LC] & 0xFF : 0;
+        if (dataLength == 0 || apdu.length != OFFSET_DATA + dataLength) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        if (!applicationSelected) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        ElementaryFile file = files.get((byte) ((apdu[OFFSET_P2] & 0xFF) >> 3));
+        if (file == null) {
+            return statusWord(SW_FILE_NOT_FOUND);
+        }
+        if (append ? file.type != FileType.CYCLIC : file.type == FileType.COUNTERS) {
+            return statusWord(SW_WRONG_FILE_TYPE);
+        }
+        int recordNumber = append ? 1 : apdu[OFFSET_P1] & 0xFF;
+        if (recordNumber < 1 || recordNumber > file.records.length) {
+            return statusWord(SW_RECORD_NOT_FOUND);
+        }
+        if (dataLength > file.recordSize) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        if (!reserveModification(file, dataLength)) {
+            return statusWord(SW_TOO_MANY_MODIFICATIONS);
+        }
+
+        byte[] record;
+        if (append) {
+            /* the oldest record is lost, the new record becomes record #1 */
+            System.arraycopy(file.records, 0, file.records, 1, file.records.length - 1);
+            record = new byte[file.recordSize];
+        } else {
+            /* the bytes beyond the provided data are kept */
+            record = file.records[recordNumber - 1].clone();
+        }
+        System.arraycopy(apdu, OFFSET_DATA, record, 0, dataLength);
+        file.records[recordNumber - 1] = record;
+        return statusWord(SW_SUCCESS);
+    }
+
+    private byte[] increaseDecrease(byte[] apdu) {
+        if (apdu.length < OFFSET_DATA + 3 || apdu[OFFSET_LC] != (byte) 0x03) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        if (!applicationSelected) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        ElementaryFile file = files.get((byte) ((apdu[OFFSET_P2] & 0xFF) >> 3));
+        if (file == null) {
+            return statusWord(SW_FILE_NOT_FOUND);
+        }
+        if (file.type != FileType.COUNTERS) {
+            return statusWord(SW_WRONG_FILE_TYPE);
+        }
+        int counterNumber = apdu[OFFSET_P1] & 0xFF;
+        if (counterNumber < 1 || counterNumber > file.recordSize / 3) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        int value = ByteArrayUtil.threeBytesToInt(file.records[0], (counterNumber - 1) * 3);
+        int operand = ByteArrayUtil.threeBytesToInt(apdu, OFFSET_DATA);
+        value = apdu[OFFSET_INS] == INS_INCREASE ? value + operand : value - operand;
+        if (value < 0 || value > MAX_COUNTER_VALUE) {
+            return statusWord(SW_OVERFLOW);
+        }
+        if (!reserveModification(file, 3)) {
+            return statusWord(SW_TOO_MANY_MODIFICATIONS);
+        }
+        file.records[0] = withCounterValue(file.records[0], counterNumber, value);
+
+        byte[] response = new byte[] {(byte) (value >> 16), (byte) (value >> 8), (byte) value};
+        return withStatusWord(response, response.length, SW_SUCCESS);
+    }
+
+    /**
+     * Takes place in the modification buffer for a modification of the file, if a session is open
+     *
+     * @return false if the modification doesn't fit in the buffer
+     */
+    private boolean reserveModification(ElementaryFile file, int dataLength) {
+        if (!sessionDigest.isOpen()) {
+            return true;
+        }
+        int requirement = dataLength + 6;
+        if (requirement > modificationBufferLeft) {
+            return false;
+        }
+        modificationBufferLeft -= requirement;
+        if (!modificationBuffer.containsKey(file)) {
+            modificationBuffer.put(file, file.records.clone());
+        }
+        return true;
+    }
+
+    private void abortSession() {
+        sessionDigest.abort();
+        rollback();
+    }
+
+    /**
+     * Restores the files modified in the session
+     */
+    private void rollback() {
+        for (Map.Entry<ElementaryFile, byte[][]> entry : modificationBuffer.entrySet()) {
+            entry.getKey().records = entry.getValue();
+        }
+        modificationBuffer.clear();
+    }
+
+    private ElementaryFile getFile(byte sfi) {
+        ElementaryFile file = files.get(sfi);
+        if (file == null) {
+            throw new IllegalArgumentException("File not found: SFI " + sfi);
+        }
+        return file;
+    }
+
+    private ElementaryFile getCountersFile(byte sfi, int counterNumber) {
+        ElementaryFile file = getFile(sfi);
+        if (file.type != FileType.COUNTERS) {
+            throw new IllegalArgumentException("Not a counters file: SFI " + sfi);
+        }
+        if (counterNumber < 1 || counterNumber > file.recordSize / 3) {
+            throw new IllegalArgumentException("Bad counter number: " + counterNumber);
+        }
+        return file;
+    }
+
+    private static void checkRecordNumber(ElementaryFile file, int recordNumber) {
+        if (recordNumber < 1 || recordNumber > file.records.length) {
+            throw new IllegalArgumentException("Bad record number: " + recordNumber);
+        }
+    }
+
+    private static byte[] withCounterValue(byte[] record, int counterNumber, int value) {
+        byte[] newRecord = record.clone();
+        int offset = (counterNumber - 1) * 3;
+        newRecord[offset] = (byte) (value >> 16);
+        newRecord[offset + 1] = (byte) (value >> 8);
+        newRecord[offset + 2] = (byte) value;
+        return newRecord;
+    }
+
+    /**
+     * Builds a response from the data (copied) and a status word
+     */
+    static byte[] withStatusWord(byte[] data, int length, int statusWord) {
+        byte[] response = new byte[length + 2];
+        System.arraycopy(data, 0, response, 0, length);
+        response[length] = (byte) (statusWord >> 8);
+        response[length + 1] = (byte) statusWord;
+        return response;
+    }
+
+    static byte[] statusWord(int statusWord) {
+        return new byte[] {(byte) (statusWord >> 8), (byte) statusWord};
+    }
+}
@@ -0,0 +1,277 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import static org.eclipse.keyple.plugin.stub.StubCalypsoPo.statusWord;
+import static org.eclipse.keyple.plugin.stub.StubCalypsoPo.withStatusWord;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Emulated Calypso SAM (C1) computing the session digests of the {@link StubCalypsoPo}s.
+ * <p>
+ * The SAM holds the master keys identified by their KIF and KVC (see
+ * {@link #addKey(byte, byte, byte[])}), they are diversified with the serial number provided by
+ * Select Diversifier.
+ * <p>
+ * Supported commands: Select Diversifier, Get Challenge, Digest Init, Digest Update, Digest Update
+ * Multiple, Digest Close and Digest Authenticate. Encrypted sessions and the verification and
+ * revision 3.2 modes are not supported.
+ */
+public class StubCalypsoSam extends StubSecureElement {
+
+    private static final byte CLA = (byte) 0x80;
+    private static final byte INS_SELECT_DIVERSIFIER = (byte) 0x14;
+    private static final byte INS_GET_CHALLENGE = (byte) 0x84;
+    private static final byte INS_DIGEST_INIT = (byte) 0x8A;
+    private static final byte INS_DIGEST_UPDATE = (byte) 0x8C;
+    private static final byte INS_DIGEST_CLOSE = (byte) 0x8E;
+    private static final byte INS_DIGEST_AUTHENTICATE = (byte) 0x82;
+
+    private static final int SW_SUCCESS = 0x9000;
+    private static final int SW_WRONG_LENGTH = 0x6700;
+    private static final int SW_NOT_ALLOWED = 0x6985;
+    private static final int SW_INCORRECT_SIGNATURE = 0x6988;
+    private static final int SW_KEY_NOT_FOUND = 0x6A83;
+    private static final int SW_WRONG_P1_P2 = 0x6B00;
+    private static final int SW_CLA_NOT_SUPPORTED = 0x6E00;
+
+    private static final int OFFSET_CLA = 0;
+    private static final int OFFSET_INS = 1;
+    private static final int OFFSET_P1 = 2;
+    private static final int OFFSET_P2 = 3;
+    private static final int OFFSET_LC = 4;
+    private static final int OFFSET_DATA = 5;
+
+    private static final int PO_CHALLENGE_LENGTH = 4;
+
+    private final byte[] serialNumber;
+    private final Map<Integer, byte[]> masterKeys = new HashMap<Integer, byte[]>();
+    private final StubSessionDigest sessionDigest = new StubSessionDigest();
+    private final Random random;
+
+    private byte[] diversifier;
+    private byte[] challenge;
+    /* PO signature expected by Digest Authenticate, null if none */
+    private byte[] expectedPoSignature;
+
+    private final StubCommandHandler commandHandler = new StubCommandHandler() {
+        @Override
+        public byte[] processApdu(byte[] apduIn) {
+            return processCommand(apduIn);
+        }
+    };
+
+    /**
+     * Creates a SAM without keys
+     *
+     * @param serialNumber the SAM serial number (4 bytes), provided in the ATR
+     */
+    public StubCalypsoSam(byte[] serialNumber) {
+        if (serialNumber == null || serialNumber.length != 4) {
+            throw new IllegalArgumentException("Bad serial number.");
+        }
+        this.serialNumber = serialNumber.clone();
+        this.random = new Random(Arrays.hashCode(serialNumber));
+        for (byte ins : new byte[] {INS_SELECT_DIVERSIFIER, INS_GET_CHALLENGE, INS_DIGEST_INIT,
+                INS_DIGEST_UPDATE, INS_DIGEST_CLOSE, INS_DIGEST_AUTHENTICATE}) {
+            addCommandHandler(ins, commandHandler);
+        }
+    }
+
+    @Override
+    public byte[] getATR() {
+        return ByteArrayUtil.fromHex("3B3F9600805A0080C1200000"
+                + ByteArrayUtil.toHex(serialNumber) + "829000");
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return "PROTOCOL_ISO7816_3";
+    }
+
+    /**
+     * Adds a master key, replacing the key having the same KIF and KVC if any
+     *
+     * @param kif the key identifier
+     * @param kvc the key version
+     * @param masterKey the master key (also used to personalize the POs, see
+     *        {@link StubCalypsoPo#setKey(int, byte, byte, byte[])})
+     */
+    public synchronized void addKey(byte kif, byte kvc, byte[] masterKey) {
+        if (masterKey == null || masterKey.length == 0) {
+            throw new IllegalArgumentException("Master key should not be empty.");
+        }
+        masterKeys.put(keyReference(kif, kvc), masterKey.clone());
+    }
+
+    /**
+     * The diversifier, the challenge and the digest in progress are lost.
+     */
+    @Override
+    protected synchronized void resetVolatileState() {
+        diversifier = null;
+        challenge = null;
+        expectedPoSignature = null;
+        sessionDigest.abort();
+    }
+
+    private synchronized byte[] processCommand(byte[] apdu) {
+        if (apdu.length < 4 || apdu[OFFSET_CLA] != CLA) {
+            return statusWord(SW_CLA_NOT_SUPPORTED);
+        }
+        switch (apdu[OFFSET_INS]) {
+            case INS_SELECT_DIVERSIFIER:
+                return selectDiversifier(apdu);
+            case INS_GET_CHALLENGE:
+                return getChallenge(apdu);
+            case INS_DIGEST_INIT:
+                return digestInit(apdu);
+            case INS_DIGEST_UPDATE:
+                return digestUpdate(apdu);
+            case INS_DIGEST_CLOSE:
+                return digestClose(apdu);
+            case INS_DIGEST_AUTHENTICATE:
+                return digestAuthenticate(apdu);
+            default:
+                throw new IllegalStateException("Unexpected instruction.");
+        }
+    }
+
+    private byte[] selectDiversifier(byte[] apdu) {
+        int length = dataLength(apdu);
+        if (length != 4 && length != 8) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        diversifier = Arrays.copyOfRange(apdu, OFFSET_DATA, OFFSET_DATA + length);
+        return statusWord(SW_SUCCESS);
+    }
+
+    private byte[] getChallenge(byte[] apdu) {
+        int length = apdu.length == OFFSET_DATA ? apdu[OFFSET_LC] & 0xFF : 0;
+        if (length != 4 && length != 8) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        /* the challenge is kept for the next Digest Init */
+        challenge = new byte[length];
+        random.nextBytes(challenge);
+        return withStatusWord(challenge, length, SW_SUCCESS);
+    }
+
+    private byte[] digestInit(byte[] apdu) {
+        sessionDigest.abort();
+        expectedPoSignature = null;
+        /* only the work key provided by its KIF and KVC is supported */
+        if (apdu[OFFSET_P1] != (byte) 0x00 || apdu[OFFSET_P2] != (byte) 0xFF) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        int length = dataLength(apdu);
+        if (length < 2 + PO_CHALLENGE_LENGTH) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        if (diversifier == null || challenge == null) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        byte[] masterKey =
+                masterKeys.get(keyReference(apdu[OFFSET_DATA], apdu[OFFSET_DATA + 1]));
+        if (masterKey == null) {
+            return statusWord(SW_KEY_NOT_FOUND);
+        }
+        /* the PO challenge starts the Open Secure Session response data */
+        int digestDataOffset = OFFSET_DATA + 2;
+        sessionDigest.open(sessionDigest.diversify(masterKey, diversifier), challenge,
+                Arrays.copyOfRange(apdu, digestDataOffset, digestDataOffset + PO_CHALLENGE_LENGTH),
+                apdu, digestDataOffset, length - 2);
+        challenge = null;
+        return statusWord(SW_SUCCESS);
+    }
+
+    private byte[] digestUpdate(byte[] apdu) {
+        if (!sessionDigest.isOpen()) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        int length = dataLength(apdu);
+        if (length < 0) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        if (apdu[OFFSET_P2] != (byte) 0x00) {
+            /* encrypted session */
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        if (apdu[OFFSET_P1] == (byte) 0x00) {
+            sessionDigest.update(apdu, OFFSET_DATA, length);
+            return statusWord(SW_SUCCESS);
+        }
+        if (apdu[OFFSET_P1] != (byte) 0x80) {
+            return statusWord(SW_WRONG_P1_P2);
+        }
+        /* Digest Update Multiple: blocks preceded by their length */
+        int end = OFFSET_DATA + length;
+        int index = OFFSET_DATA;
+        while (index < end) {
+            int blockLength = apdu[index++] & 0xFF;
+            if (index + blockLength > end) {
+                sessionDigest.abort();
+                return statusWord(SW_WRONG_LENGTH);
+            }
+            sessionDigest.update(apdu, index, blockLength);
+            index += blockLength;
+        }
+        return statusWord(SW_SUCCESS);
+    }
+
+    private byte[] digestClose(byte[] apdu) {
+        if (!sessionDigest.isOpen()) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        int length = apdu.length == OFFSET_DATA ? apdu[OFFSET_LC] & 0xFF : 0;
+        if (length != 4 && length != 8) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        sessionDigest.close(length);
+        expectedPoSignature = sessionDigest.getPoSignature();
+        byte[] terminalSignature = sessionDigest.getTerminalSignature();
+        return withStatusWord(terminalSignature, terminalSignature.length, SW_SUCCESS);
+    }
+
+    private byte[] digestAuthenticate(byte[] apdu) {
+        if (expectedPoSignature == null) {
+            return statusWord(SW_NOT_ALLOWED);
+        }
+        int length = dataLength(apdu);
+        if (length != expectedPoSignature.length) {
+            return statusWord(SW_WRONG_LENGTH);
+        }
+        boolean authenticated = Arrays.equals(expectedPoSignature,
+                Arrays.copyOfRange(apdu, OFFSET_DATA, OFFSET_DATA + length));
+        expectedPoSignature = null;
+        return statusWord(authenticated ? SW_SUCCESS : SW_INCORRECT_SIGNATURE);
+    }
+
+    /**
+     * @return the length of the command data (Lc), -1 if inconsistent with the command length
+     */
+    private static int dataLength(byte[] apdu) {
+        if (apdu.length <= OFFSET_LC) {
+            return -1;
+        }
+        int length = apdu[OFFSET_LC] & 0xFF;
+        return apdu.length == OFFSET_DATA + length ? length : -1;
+    }
+
+    private static Integer keyReference(byte kif, byte kvc) {
+        return ((kif & 0xFF) << 8) | (kvc & 0xFF);
+    }
+}
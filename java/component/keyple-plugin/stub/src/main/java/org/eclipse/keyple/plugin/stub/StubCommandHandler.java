@@ -0,0 +1,32 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+
+/**
+ * Stateful processing of the commands of a {@link StubSecureElement} having a given instruction
+ * byte (see {@link StubSecureElement#addCommandHandler(byte, StubCommandHandler)}).
+ */
+public interface StubCommandHandler {
+    /**
+     * Processes a command.
+     * <p>
+     * The calls are serialized by the {@link StubSecureElement}, the handler can update the state
+     * of the SE without further synchronization.
+     *
+     * @param apduIn the command APDU (must not be modified)
+     * @return the response APDU including the status word (returned as is to the reader)
+     * @throws KeypleIOReaderException to simulate a transmission failure
+     */
+    byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException;
+}
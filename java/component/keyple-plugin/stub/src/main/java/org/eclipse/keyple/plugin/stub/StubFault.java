@@ -0,0 +1,106 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fault injected in the exchanges with a {@link StubSecureElement} (see
+ * {@link StubSecureElement#addFault(StubFault)}).
+ * <p>
+ * The fault is triggered on the commands having the targeted instruction byte (or on any command),
+ * with the given probability, and possibly a limited number of times.
+ */
+public final class StubFault {
+
+    /**
+     * The kinds of faults
+     */
+    public enum Type {
+        /** The communication is lost before the SE processes the command (power loss) */
+        TEARING_BEFORE_PROCESSING,
+        /** The SE processes the command but the communication is lost before the response */
+        TEARING_AFTER_PROCESSING,
+        /** The SE is removed from the reader before processing the command */
+        REMOVAL
+    }
+
+    private final Type type;
+    private final Byte instruction;
+    private final double probability;
+    private final AtomicInteger remainingOccurrences;
+
+    /**
+     * Creates a fault triggered an unlimited number of times
+     *
+     * @param type the kind of fault
+     * @param instruction the instruction byte of the targeted commands, null for all commands
+     * @param probability the probability that a targeted command triggers the fault (1 for always)
+     */
+    public StubFault(Type type, Byte instruction, double probability) {
+        this(type, instruction, probability, -1);
+    }
+
+    /**
+     * Creates a fault
+     *
+     * @param type the kind of fault
+     * @param instruction the instruction byte of the targeted commands, null for all commands
+     * @param probability the probability that a targeted command triggers the fault (1 for always)
+     * @param maxOccurrences the number of times the fault can be triggered, -1 for unlimited
+     */
+    public StubFault(Type type, Byte instruction, double probability, int maxOccurrences) {
+        if (type == null) {
+            throw new IllegalArgumentException("The fault type must not be null");
+        }
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("Bad probability: " + probability);
+        }
+        this.type = type;
+        this.instruction = instruction;
+        this.probability = probability;
+        this.remainingOccurrences = new AtomicInteger(maxOccurrences);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Checks if the fault is triggered by a command
+     *
+     * @param apduIn the command APDU
+     * @param random the random generator of the SE
+     * @return true if the fault must be simulated
+     */
+    boolean isTriggered(byte[] apduIn, Random random) {
+        if (instruction != null && (apduIn.length < 2 || apduIn[1] != instruction)) {
+            return false;
+        }
+        if (probability < 1 && random.nextDouble() >= probability) {
+            return false;
+        }
+        /* consume an occurrence if limited */
+        int remaining = remainingOccurrences.get();
+        while (remaining >= 0) {
+            if (remaining == 0) {
+                return false;
+            }
+            if (remainingOccurrences.compareAndSet(remaining, remaining - 1)) {
+                return true;
+            }
+            remaining = remainingOccurrences.get();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.util.Random;
+
+/**
+ * Distribution of the processing time of the commands by a {@link StubSecureElement} (see
+ * {@link StubSecureElement#setLatency(StubLatency)}).
+ */
+public abstract class StubLatency {
+
+    /**
+     * Draws the processing time of a command
+     *
+     * @param random the random generator of the SE
+     * @return the processing time in nanoseconds (0 or less for no latency)
+     */
+    public abstract long nextLatencyNanos(Random random);
+
+    /**
+     * @param latencyNanos the processing time in nanoseconds
+     * @return a constant processing time
+     */
+    public static StubLatency fixed(final long latencyNanos) {
+        return new StubLatency() {
+            @Override
+            public long nextLatencyNanos(Random random) {
+                return latencyNanos;
+            }
+        };
+    }
+
+    /**
+     * @param minNanos the minimum processing time in nanoseconds
+     * @param maxNanos the maximum processing time in nanoseconds
+     * @return a processing time uniformly distributed between the bounds
+     */
+    public static StubLatency uniform(final long minNanos, final long maxNanos) {
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Bad latency bounds: " + minNanos + ", " + maxNanos);
+        }
+        return new StubLatency() {
+            @Override
+            public long nextLatencyNanos(Random random) {
+                return minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+            }
+        };
+    }
+
+    /**
+     * @param meanNanos the mean processing time in nanoseconds
+     * @param stdDevNanos the standard deviation in nanoseconds
+     * @return a normally distributed processing time (the negative values give no latency)
+     */
+    public static StubLatency gaussian(final long meanNanos, final long stdDevNanos) {
+        return new StubLatency() {
+            @Override
+            public long nextLatencyNanos(Random random) {
+                return meanNanos + (long) (random.nextGaussian() * stdDevNanos);
+            }
+        };
+    }
+
+    /**
+     * A log-normal distribution, close to the processing times observed with real SEs (most
+     * commands near the median, with a long tail of slow ones)
+     *
+     * @param medianNanos the median processing time in nanoseconds
+     * @param sigma the standard deviation of the logarithm of the processing time (e.g. 0.25)
+     * @return a log-normally distributed processing time
+     */
+    public static StubLatency logNormal(final long medianNanos, final double sigma) {
+        return new StubLatency() {
+            @Override
+            public long nextLatencyNanos(Random random) {
+                return (long) (medianNanos * Math.exp(random.nextGaussian() * sigma));
+            }
+        };
+    }
+}
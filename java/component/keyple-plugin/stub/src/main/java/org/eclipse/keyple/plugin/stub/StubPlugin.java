@@ -36,10 +36,9 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
         super("StubPlugin");
 
         /*
-         * Monitoring is not handled by a lower layer (as in PC/SC), reduce the threading period to
-         * 50 ms to speed up responsiveness.
+         * Each plug and unplug notifies the monitoring thread (see notifyNativeReadersChange), the
+         * changes are reported without waiting for the monitoring period.
          */
-        threadWaitTimeout = 50;
     }
 
     /**
@@ -94,6 +93,7 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
         }
 
         connectedStubNames.add(name);
+        notifyNativeReadersChange();
 
         if (exist) {
             logger.error("Reader with name " + name + " was already plugged");
@@ -132,6 +132,7 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
             }
 
             connectedStubNames.addAll(names);
+            notifyNativeReadersChange();
 
         } else {
             logger.error("All {} readers were already plugged", names.size());
@@ -160,6 +161,7 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
             } else {
                 connectedStubNames.remove(name);
             }
+            notifyNativeReadersChange();
             /* remove the native reader from the native readers list */
             logger.info("Unplugged reader with name {}, connectedStubNames size {}", name,
                     connectedStubNames.size());
@@ -182,6 +184,7 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
         if (synchronous) {
             readers.removeAll(readersToDelete);
         }
+        notifyNativeReadersChange();
     }
 
 
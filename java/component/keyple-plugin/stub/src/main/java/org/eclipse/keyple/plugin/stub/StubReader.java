@@ -13,7 +13,6 @@ package org.eclipse.keyple.plugin.stub;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
@@ -25,6 +24,7 @@ import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
 import org.eclipse.keyple.core.seproxy.plugin.AbstractThreadedLocalReader;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.core.util.HexPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,8 +33,7 @@ public final class StubReader extends AbstractThreadedLocalReader {
 
     private static final Logger logger = LoggerFactory.getLogger(StubReader.class);
 
-    private StubSecureElement se;
-    private boolean sePresent;
+    private volatile StubSecureElement se;
 
     private Map<String, String> parameters = new HashMap<String, String>();
 
@@ -49,7 +48,6 @@ public final class StubReader extends AbstractThreadedLocalReader {
 
     public StubReader(String name) {
         super(pluginName, name);
-        sePresent = false;
         threadWaitTimeout = 5000;
     }
 
@@ -102,13 +100,12 @@ public final class StubReader extends AbstractThreadedLocalReader {
                 openPhysicalChannel();
             }
             // the requestSet will be executed only if the protocol match the requestElement
-            String selectionMask = protocolsMap.get(protocolFlag);
+            HexPattern selectionMask = getProtocolPattern(protocolFlag);
             if (selectionMask == null) {
                 throw new KeypleReaderException("Target selector mask not found!", null);
             }
-            Pattern p = Pattern.compile(selectionMask);
             String protocol = se.getSeProcotol();
-            if (!p.matcher(protocol).matches()) {
+            if (!selectionMask.matches(protocol)) {
                 logger.trace("[{}] protocolFlagMatches => unmatching SE. PROTOCOLFLAG = {}",
                         this.getName(), protocolFlag);
                 result = false;
@@ -187,17 +184,37 @@ public final class StubReader extends AbstractThreadedLocalReader {
                 e.printStackTrace();
             }
         }
+        if (se != null) {
+            se.reader = null;
+        }
         se = _se;
-        sePresent = true;
+        if (_se != null) {
+            _se.reader = this;
+        }
+        notifySePresenceChange();
     }
 
     public void removeSe() {
+        StubSecureElement removedSe = se;
+        if (removedSe != null) {
+            removedSe.reader = null;
+        }
         se = null;
-        sePresent = false;
+        notifySePresenceChange();
+    }
+
+    /**
+     * The insertions and removals of SE are signaled to the SE presence monitor
+     *
+     * @return {@link MonitoringMode#EVENT_DRIVEN}
+     */
+    @Override
+    protected MonitoringMode getMonitoringMode() {
+        return MonitoringMode.EVENT_DRIVEN;
     }
 
     /**
-     * This method is called by the monitoring thread to check SE presence
+     * Waits for a SE insertion, only used in {@link MonitoringMode#DEDICATED_THREAD} mode
      * 
      * @param timeout the delay in millisecond we wait for a card insertion
      * @return true if the SE is present
@@ -206,7 +223,7 @@ public final class StubReader extends AbstractThreadedLocalReader {
     @Override
     protected boolean waitForCardPresent(long timeout) throws NoStackTraceThrowable {
         for (int i = 0; i < timeout / 10; i++) {
-            if (sePresent) {
+            if (se != null) {
                 break;
             }
             try {
@@ -215,11 +232,11 @@ public final class StubReader extends AbstractThreadedLocalReader {
                 logger.debug("Sleep was interrupted");
             }
         }
-        return sePresent;
+        return se != null;
     }
 
     /**
-     * This method is called by the monitoring thread to check SE absence
+     * Waits for a SE removal, only used in {@link MonitoringMode#DEDICATED_THREAD} mode
      * 
      * @param timeout the delay in millisecond we wait for a card withdrawing
      * @return true if the SE is absent
@@ -228,7 +245,7 @@ public final class StubReader extends AbstractThreadedLocalReader {
     @Override
     protected boolean waitForCardAbsent(long timeout) throws NoStackTraceThrowable {
         for (int i = 0; i < timeout / 10; i++) {
-            if (!sePresent) {
+            if (se == null) {
                 break;
             }
             try {
@@ -237,6 +254,6 @@ public final class StubReader extends AbstractThreadedLocalReader {
                 logger.debug("Sleep was interrupted");
             }
         }
-        return !sePresent;
+        return se == null;
     }
 }
@@ -11,14 +11,75 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.stub;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
 
+/**
+ * Simulated SE inserted in a {@link StubReader}.
+ * <p>
+ * The responses to the commands are provided by:
+ * <ul>
+ * <li>a script of fixed responses to exact commands (see {@link #addHexCommand(String, String)}
+ * and {@link #addCommand(byte[], byte[])}), looked up first,</li>
+ * <li>stateful handlers by instruction byte (see
+ * {@link #addCommandHandler(byte, StubCommandHandler)}), to simulate counters, records, sessions,
+ * etc.</li>
+ * </ul>
+ * The processing time of the commands can follow a latency distribution (see
+ * {@link #setLatency(StubLatency)}) and faults can be injected (see {@link #addFault(StubFault)}).
+ * <p>
+ * The commands are processed one at a time. An SE doesn't hold any thread, thousands of them can be
+ * simulated in one JVM.
+ */
 public abstract class StubSecureElement {
 
+    /* below this remaining latency, the thread yields instead of parking (park is not accurate) */
+    private static final long SPIN_THRESHOLD_NANOS = 100000;
+
+    /**
+     * Immutable byte array key of the script
+     */
+    private static final class CommandKey {
+        private final byte[] command;
+        private final int hashCode;
+
+        CommandKey(byte[] command) {
+            this.command = command;
+            this.hashCode = Arrays.hashCode(command);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CommandKey && Arrays.equals(command, ((CommandKey) o).command);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private final Map<CommandKey, byte[]> commands = new ConcurrentHashMap<CommandKey, byte[]>();
+    private final AtomicReferenceArray<StubCommandHandler> commandHandlers =
+            new AtomicReferenceArray<StubCommandHandler>(256);
+    private final AtomicReferenceArray<StubLatency> instructionLatencies =
+            new AtomicReferenceArray<StubLatency>(256);
+    private volatile StubLatency latency;
+    private final List<StubFault> faults = new CopyOnWriteArrayList<StubFault>();
+    private Random random = new Random();
+
+    /* the reader in which the SE is inserted, if any */
+    volatile StubReader reader;
+
     /**
      * Getter for ATR
      * 
@@ -27,7 +88,7 @@ public abstract class StubSecureElement {
     public abstract byte[] getATR();
 
 
-    boolean isPhysicalChannelOpen = false;
+    volatile boolean isPhysicalChannelOpen = false;
 
     public boolean isPhysicalChannelOpen() {
         return isPhysicalChannelOpen;
@@ -39,6 +100,7 @@ public abstract class StubSecureElement {
 
     public void closePhysicalChannel() throws KeypleChannelStateException {
         isPhysicalChannelOpen = false;
+        resetVolatileState();
     }
 
 
@@ -48,8 +110,6 @@ public abstract class StubSecureElement {
     public abstract String getSeProcotol();
 
 
-    Map<String, String> hexCommands = new HashMap<String, String>();
-
     /**
      * Add more simulated commands to the Stub SE
      *
@@ -59,7 +119,8 @@ public abstract class StubSecureElement {
     public void addHexCommand(String command, String response) {
         assert command != null && response != null : "command and response should not be null";
         // add commands without space
-        hexCommands.put(command.replace(" ", ""), response.replace(" ", ""));
+        addCommand(ByteArrayUtil.fromHex(command.replace(" ", "")),
+                ByteArrayUtil.fromHex(response.replace(" ", "")));
     }
 
     /**
@@ -69,11 +130,99 @@ public abstract class StubSecureElement {
      */
     public void removeHexCommand(String command) {
         assert command != null : "command should not be null";
-        hexCommands.remove(command.trim());
+        removeCommand(ByteArrayUtil.fromHex(command.replace(" ", "")));
+    }
+
+    /**
+     * Add a simulated command to the Stub SE
+     *
+     * @param command the command to react to
+     * @param response the response (including the status word) to be sent in reaction to command
+     */
+    public void addCommand(byte[] command, byte[] response) {
+        if (command == null || response == null) {
+            throw new IllegalArgumentException("command and response should not be null");
+        }
+        commands.put(new CommandKey(command.clone()), response.clone());
+    }
+
+    /**
+     * Remove a simulated command from the Stub SE
+     *
+     * @param command the command to be removed
+     */
+    public void removeCommand(byte[] command) {
+        commands.remove(new CommandKey(command));
+    }
+
+    /**
+     * Sets the handler of the commands having the given instruction byte and no scripted response
+     *
+     * @param instruction the instruction byte (INS)
+     * @param handler the handler, null to remove it
+     */
+    public void addCommandHandler(byte instruction, StubCommandHandler handler) {
+        commandHandlers.set(instruction & 0xFF, handler);
+    }
+
+    /**
+     * Sets the processing time of all the commands
+     *
+     * @param latency the latency distribution, null for an immediate processing
+     */
+    public void setLatency(StubLatency latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Sets the processing time of the commands having the given instruction byte, it takes
+     * precedence over the processing time of all the commands
+     *
+     * @param instruction the instruction byte (INS)
+     * @param latency the latency distribution, null to use the processing time of all the commands
+     */
+    public void setLatency(byte instruction, StubLatency latency) {
+        instructionLatencies.set(instruction & 0xFF, latency);
     }
 
+    /**
+     * Adds a fault to be injected in the exchanges
+     *
+     * @param fault the fault
+     */
+    public void addFault(StubFault fault) {
+        faults.add(fault);
+    }
+
+    /**
+     * Removes all the faults
+     */
+    public void clearFaults() {
+        faults.clear();
+    }
+
+    /**
+     * Sets the seed of the random generator used by the latency distributions and the faults, to
+     * make a simulation reproducible
+     *
+     * @param seed the seed
+     */
+    public synchronized void setRandomSeed(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Called when the SE loses power (physical channel closed, tearing, removal): the volatile
+     * state of a stateful SE (e.g. an open secure session) must be discarded here.
+     * <p>
+     * Does nothing by default.
+     */
+    protected void resetVolatileState() {}
+
     /**
      * Return APDU Response to APDU Request
+     * <p>
+     * The response is returned once the simulated processing time has elapsed.
      *
      * @param apduIn : commands to be processed
      * @return APDU response
@@ -85,15 +234,96 @@ public abstract class StubSecureElement {
             return null;
         }
 
-        // convert apduIn to hexa
-        String hexApdu = ByteArrayUtil.toHex(apduIn);
+        synchronized (this) {
+            long deadline = System.nanoTime() + nextLatencyNanos(apduIn);
+            try {
+                StubFault.Type faultType = nextFaultType(apduIn);
+                if (faultType == StubFault.Type.TEARING_BEFORE_PROCESSING) {
+                    powerLoss();
+                    throw new KeypleIOReaderException("Communication lost (simulated tearing).");
+                }
+                if (faultType != StubFault.Type.REMOVAL) {
+                    byte[] apduOut = getResponse(apduIn);
+
+                    if (faultType == StubFault.Type.TEARING_AFTER_PROCESSING) {
+                        powerLoss();
+                        throw new KeypleIOReaderException(
+                                "Communication lost (simulated tearing).");
+                    }
+                    return apduOut;
+                }
+                powerLoss();
+            } finally {
+                waitUntil(deadline);
+            }
+        }
+
+        /* removal: the observers of the reader are notified out of the lock of the SE */
+        StubReader currentReader = reader;
+        if (currentReader != null) {
+            currentReader.removeSe();
+        }
+        throw new KeypleIOReaderException("SE removed (simulated fault).");
+    }
+
+    /**
+     * Gets the scripted response to a command or the response of its handler
+     */
+    private byte[] getResponse(byte[] apduIn) throws KeypleIOReaderException {
+        // return the scripted response if found (copied, the reader may modify it)
+        byte[] scriptedResponse = commands.get(new CommandKey(apduIn));
+        if (scriptedResponse != null) {
+            return scriptedResponse.clone();
+        }
 
-        // return matching hexa response if found
-        if (hexCommands.containsKey(hexApdu)) {
-            return ByteArrayUtil.fromHex(hexCommands.get(hexApdu));
+        StubCommandHandler handler =
+                apduIn.length > 1 ? commandHandlers.get(apduIn[1] & 0xFF) : null;
+        if (handler != null) {
+            return handler.processApdu(apduIn);
         }
 
         // throw a KeypleIOReaderException if not found
         throw new KeypleIOReaderException("No response available for this request.");
     }
+
+    private long nextLatencyNanos(byte[] apduIn) {
+        StubLatency commandLatency =
+                apduIn.length > 1 ? instructionLatencies.get(apduIn[1] & 0xFF) : null;
+        if (commandLatency == null) {
+            commandLatency = latency;
+        }
+        return commandLatency != null ? commandLatency.nextLatencyNanos(random) : 0;
+    }
+
+    private StubFault.Type nextFaultType(byte[] apduIn) {
+        for (StubFault fault : faults) {
+            if (fault.isTriggered(apduIn, random)) {
+                return fault.getType();
+            }
+        }
+        return null;
+    }
+
+    private void powerLoss() {
+        isPhysicalChannelOpen = false;
+        resetVolatileState();
+    }
+
+    /**
+     * Waits until the deadline, parking the thread as long as possible then yielding for accuracy
+     */
+    private static void waitUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        while (remaining > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.yield();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Software secure session cryptography shared by {@link StubCalypsoPo} and
+ * {@link StubCalypsoSam}.
+ * <p>
+ * The Calypso algorithms (DES/AES based diversification and session MAC) are replaced by
+ * HMAC-SHA256 derivations: the values differ from the ones of real SEs but the PO and the SAM
+ * compute the same signatures from the same exchanges, and any difference in the digested data
+ * makes the session fail.
+ * <ul>
+ * <li>diversified key = HMAC(master key, 'D' | diversifier)</li>
+ * <li>session key = HMAC(diversified key, 'S' | terminal challenge | PO challenge)</li>
+ * <li>the session data (Open Secure Session response, then each command and response) are hashed
+ * in blocks preceded by their length</li>
+ * <li>terminal signature = HMAC(session key, 'T' | hash), PO signature = HMAC(session key, 'P' |
+ * hash), truncated to the signature length</li>
+ * </ul>
+ * Not thread safe: each simulated SE owns its instance.
+ */
+final class StubSessionDigest {
+
+    /** Length of the diversified and session keys */
+    private static final int KEY_LENGTH = 16;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final byte LABEL_DIVERSIFICATION = 'D';
+    private static final byte LABEL_SESSION_KEY = 'S';
+    private static final byte LABEL_TERMINAL_SIGNATURE = 'T';
+    private static final byte LABEL_PO_SIGNATURE = 'P';
+
+    private final Mac mac;
+    private final MessageDigest messageDigest;
+
+    private boolean open;
+    private byte[] sessionKey;
+    private byte[] terminalSignature;
+    private byte[] poSignature;
+
+    StubSessionDigest() {
+        try {
+            mac = Mac.getInstance(MAC_ALGORITHM);
+            messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            /* both algorithms are required on every Java platform */
+            throw new IllegalStateException("Session digest algorithms unavailable.", e);
+        }
+    }
+
+    /**
+     * Diversifies a master key
+     *
+     * @param masterKey the master key
+     * @param diversifier the diversifier (PO serial number)
+     * @return the diversified key
+     */
+    byte[] diversify(byte[] masterKey, byte[] diversifier) {
+        return sign(masterKey, LABEL_DIVERSIFICATION, diversifier, null, KEY_LENGTH);
+    }
+
+    /**
+     * Opens a session, the session data starts with the provided block
+     *
+     * @param diversifiedKey the diversified key of the session
+     * @param terminalChallenge the terminal (SAM) challenge
+     * @param poChallenge the PO challenge
+     * @param data the buffer containing the first block (Open Secure Session response data)
+     * @param offset the offset of the block
+     * @param length the length of the block
+     */
+    void open(byte[] diversifiedKey, byte[] terminalChallenge, byte[] poChallenge, byte[] data,
+            int offset, int length) {
+        sessionKey = sign(diversifiedKey, LABEL_SESSION_KEY, terminalChallenge, poChallenge,
+                KEY_LENGTH);
+        messageDigest.reset();
+        terminalSignature = null;
+        poSignature = null;
+        open = true;
+        update(data, offset, length);
+    }
+
+    /**
+     * Appends a block to the session data
+     *
+     * @param data the buffer containing the block
+     * @param offset the offset of the block
+     * @param length the length of the block
+     */
+    void update(byte[] data, int offset, int length) {
+        messageDigest.update((byte) length);
+        messageDigest.update(data, offset, length);
+    }
+
+    /**
+     * Closes the session and computes the terminal and PO signatures
+     *
+     * @param signatureLength the length of the signatures
+     */
+    void close(int signatureLength) {
+        byte[] hash = messageDigest.digest();
+        terminalSignature =
+                sign(sessionKey, LABEL_TERMINAL_SIGNATURE, hash, null, signatureLength);
+        poSignature = sign(sessionKey, LABEL_PO_SIGNATURE, hash, null, signatureLength);
+        sessionKey = null;
+        open = false;
+    }
+
+    /**
+     * Discards the current session if any
+     */
+    void abort() {
+        messageDigest.reset();
+        sessionKey = null;
+        terminalSignature = null;
+        poSignature = null;
+        open = false;
+    }
+
+    /**
+     * @return true if a session is open
+     */
+    boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @return the terminal signature of the last closed session
+     */
+    byte[] getTerminalSignature() {
+        return terminalSignature;
+    }
+
+    /**
+     * @return the PO signature of the last closed session
+     */
+    byte[] getPoSignature() {
+        return poSignature;
+    }
+
+    private byte[] sign(byte[] key, byte label, byte[] data1, byte[] data2, int length) {
+        try {
+            mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid key.", e);
+        }
+        mac.update(label);
+        mac.update(data1);
+        if (data2 != null) {
+            mac.update(data2);
+        }
+        return Arrays.copyOf(mac.doFinal(), length);
+    }
+}
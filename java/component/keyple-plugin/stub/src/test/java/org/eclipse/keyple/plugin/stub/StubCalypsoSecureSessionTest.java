@@ -0,0 +1,302 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.C1;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Operates complete Calypso secure sessions between {@link PoTransaction} and the emulated
+ * {@link StubCalypsoPo} and {@link StubCalypsoSam}: the session signatures are computed by both SEs
+ * from the exchanges actually performed, so any difference between the digest built by the
+ * transaction and the exchanges with the PO makes the session fail.
+ */
+public class StubCalypsoSecureSessionTest {
+
+    private static final String AID = "315449432E49434131";
+    private static final String SERIAL_NUMBER = "0000000011223344";
+    private static final byte KIF_DEBIT = (byte) 0x30;
+    private static final byte KVC = (byte) 0x79;
+    private static final byte[] MASTER_KEY =
+            ByteArrayUtil.fromHex("00112233445566778899AABBCCDDEEFF");
+
+    private static final byte SFI_EVENT_LOG = (byte) 0x08;
+    private static final byte SFI_CONTRACTS = (byte) 0x09;
+    private static final byte SFI_COUNTERS = (byte) 0x19;
+    private static final byte SFI_UNKNOWN = (byte) 0x1E;
+    private static final int RECORD_SIZE = 29;
+    private static final int INITIAL_BALANCE = 1000;
+
+    private static int readerIndex;
+
+    /* number of commands received by the SAM */
+    private final AtomicInteger samCommandCount = new AtomicInteger();
+
+    private StubCalypsoPo po;
+    private StubCalypsoSam sam;
+    private StubReader poReader;
+    private SamResource samResource;
+
+    @Before
+    public void setUp() throws Exception {
+        po = new StubCalypsoPo(ByteArrayUtil.fromHex(AID), ByteArrayUtil.fromHex(SERIAL_NUMBER));
+        po.setKey(3, KIF_DEBIT, KVC, MASTER_KEY);
+        po.addFile(SFI_EVENT_LOG, StubCalypsoPo.FileType.CYCLIC, 3, RECORD_SIZE);
+        po.addFile(SFI_CONTRACTS, StubCalypsoPo.FileType.LINEAR, 4, RECORD_SIZE);
+        po.addFile(SFI_COUNTERS, StubCalypsoPo.FileType.COUNTERS, 1, 3 * 4);
+        po.setCounterValue(SFI_COUNTERS, 1, INITIAL_BALANCE);
+
+        sam = new StubCalypsoSam(ByteArrayUtil.fromHex("12345678")) {
+            @Override
+            public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                samCommandCount.incrementAndGet();
+                return super.processApdu(apduIn);
+            }
+        };
+        sam.addKey(KIF_DEBIT, KVC, MASTER_KEY);
+
+        readerIndex++;
+        poReader = new StubReader("calypsoPoReader-" + readerIndex);
+        poReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        poReader.insertSe(po);
+
+        StubReader samReader = new StubReader("calypsoSamReader-" + readerIndex);
+        samReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO7816_3));
+        samReader.insertSe(sam);
+
+        SeSelection samSelection = new SeSelection();
+        samSelection.prepareSelection(new SamSelectionRequest(new SamSelector(C1, null, "SAM"),
+                ChannelState.KEEP_OPEN));
+        CalypsoSam calypsoSam = (CalypsoSam) samSelection.processExplicitSelection(samReader)
+                .getActiveSelection().getMatchingSe();
+        samResource = new SamResource(samReader, calypsoSam);
+    }
+
+    @Test
+    public void sessions_commitModifications() throws Exception {
+        runSessions(false, false);
+    }
+
+    @Test
+    public void sessions_withDigestUpdateMultipleAndPipelining() throws Exception {
+        runSessions(true, true);
+    }
+
+    @Test
+    public void unknownSamKey_sessionFailsAndModificationsAreDiscarded() throws Exception {
+        /* the SAM holds another master key under the same KIF/KVC */
+        sam.addKey(KIF_DEBIT, KVC, ByteArrayUtil.fromHex("FFEEDDCCBBAA99887766554433221100"));
+
+        PoTransaction poTransaction = openSessionAndPrepareDebit(new SecuritySettings(), 1, 10);
+        try {
+            poTransaction.processClosing(ChannelState.KEEP_OPEN);
+            Assert.fail("The PO should reject the terminal signature");
+        } catch (KeypleReaderException e) {
+            // expected
+        }
+
+        Assert.assertFalse(po.isSessionOpen());
+        Assert.assertEquals(INITIAL_BALANCE, po.getCounterValue(SFI_COUNTERS, 1));
+        Assert.assertArrayEquals(new byte[RECORD_SIZE], po.getRecord(SFI_EVENT_LOG, 1));
+    }
+
+    @Test
+    public void invalidPoResponseWithPipelining_samDigestPipelineIsStopped() throws Exception {
+        /* slow Digest Update commands: the digest requests queue up in the pipeline */
+        sam.setLatency((byte) 0x8C, StubLatency.fixed(TimeUnit.MILLISECONDS.toNanos(50)));
+        SecuritySettings securitySettings = new SecuritySettings();
+        securitySettings.setDigestPipeliningAllowed(true);
+
+        PoTransaction poTransaction = openSessionAndPrepareDebit(securitySettings, 1, 10);
+        Assert.assertTrue(poTransaction.processPoCommandsInSession());
+        poTransaction.prepareReadRecordsCmd(SFI_CONTRACTS, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 1, "Contract");
+        Assert.assertTrue(poTransaction.processPoCommandsInSession());
+        /* the PO rejects the reading of an unknown file */
+        poTransaction.prepareReadRecordsCmd(SFI_UNKNOWN, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 1, "Unknown");
+        try {
+            poTransaction.processPoCommandsInSession();
+            Assert.fail("The invalid PO response should be rejected");
+        } catch (KeypleReaderException e) {
+            // expected
+        }
+
+        /* no digest command is sent to the SAM any longer */
+        int samCommands = samCommandCount.get();
+        Thread.sleep(300);
+        Assert.assertEquals(samCommands, samCommandCount.get());
+
+        /* the SAM is available for the next transaction */
+        sam.setLatency((byte) 0x8C, null);
+        poTransaction.processCancel(ChannelState.KEEP_OPEN);
+        poTransaction = openSessionAndPrepareDebit(securitySettings, 2, 10);
+        Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        Assert.assertTrue(poTransaction.isSuccessful());
+        Assert.assertEquals(INITIAL_BALANCE - 10, po.getCounterValue(SFI_COUNTERS, 1));
+    }
+
+    @Test
+    public void tearingAtClosing_modificationsAreDiscarded() throws Exception {
+        PoTransaction poTransaction = openSessionAndPrepareDebit(new SecuritySettings(), 1, 10);
+        po.addFault(new StubFault(StubFault.Type.TEARING_BEFORE_PROCESSING, (byte) 0x8E, 1, 1));
+        try {
+            poTransaction.processClosing(ChannelState.KEEP_OPEN);
+            Assert.fail("The session closing should fail");
+        } catch (KeypleReaderException e) {
+            // expected
+        }
+        Assert.assertEquals(INITIAL_BALANCE, po.getCounterValue(SFI_COUNTERS, 1));
+
+        /* the next session operates normally */
+        poTransaction = openSessionAndPrepareDebit(new SecuritySettings(), 2, 10);
+        Assert.assertTrue(poTransaction.wasRatified());
+        Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        Assert.assertTrue(poTransaction.isSuccessful());
+        Assert.assertEquals(INITIAL_BALANCE - 10, po.getCounterValue(SFI_COUNTERS, 1));
+    }
+
+    @Test
+    public void tearingAtRatification_sessionIsCommittedButNotRatified() throws Exception {
+        PoTransaction poTransaction = openSessionAndPrepareDebit(new SecuritySettings(), 1, 10);
+        /* the only command sent after the opening with this instruction is the ratification */
+        po.addFault(new StubFault(StubFault.Type.TEARING_BEFORE_PROCESSING, (byte) 0xB2, 1, 1));
+        Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        Assert.assertTrue(poTransaction.isSuccessful());
+        Assert.assertEquals(INITIAL_BALANCE - 10, po.getCounterValue(SFI_COUNTERS, 1));
+        Assert.assertFalse(po.isRatified());
+
+        poTransaction = openSessionAndPrepareDebit(new SecuritySettings(), 2, 10);
+        Assert.assertFalse(poTransaction.wasRatified());
+        Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        Assert.assertTrue(po.isRatified());
+    }
+
+    @Test
+    public void modificationBuffer_overflowIsRejectedAndAbortDiscardsModifications()
+            throws Exception {
+        /* 215 bytes: 6 updates of 29 bytes (35 bytes each) */
+        po.setBufferSizeIndicator((byte) 6);
+        po.openPhysicalChannel();
+        Assert.assertEquals("9000", statusWord(po.processApdu(
+                ByteArrayUtil.fromHex("00A4040009" + AID + "00"))));
+        Assert.assertEquals("9000", statusWord(
+                po.processApdu(ByteArrayUtil.fromHex("008A0B4904C1C2C3C400"))));
+        Assert.assertTrue(po.isSessionOpen());
+
+        String record = ByteArrayUtil.toHex(Arrays.copyOf(new byte[] {1, 2, 3}, RECORD_SIZE));
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals("9000", statusWord(po.processApdu(ByteArrayUtil
+                    .fromHex("00DC" + String.format("%02X", i % 4 + 1) + "4C1D" + record))));
+        }
+        Assert.assertEquals("6400",
+                statusWord(po.processApdu(ByteArrayUtil.fromHex("00DC014C1D" + record))));
+        Assert.assertEquals(record, ByteArrayUtil.toHex(po.getRecord(SFI_CONTRACTS, 1)));
+
+        /* abort */
+        Assert.assertEquals("9000",
+                statusWord(po.processApdu(ByteArrayUtil.fromHex("008E000000"))));
+        Assert.assertFalse(po.isSessionOpen());
+        Assert.assertArrayEquals(new byte[RECORD_SIZE], po.getRecord(SFI_CONTRACTS, 1));
+    }
+
+    /**
+     * Operates sessions reading and modifying the counters, event log and contracts files
+     */
+    private void runSessions(boolean digestUpdateMultiple, boolean digestPipelining)
+            throws Exception {
+        SecuritySettings securitySettings = new SecuritySettings();
+        securitySettings.setDigestUpdateMultipleAllowed(digestUpdateMultiple);
+        securitySettings.setDigestPipeliningAllowed(digestPipelining);
+        int transactionCounter = po.getTransactionCounter();
+
+        for (int n = 1; n <= 20; n++) {
+            PoTransaction poTransaction = openSessionAndPrepareDebit(securitySettings, n, n);
+
+            byte[] contract = new byte[RECORD_SIZE];
+            contract[0] = (byte) n;
+            poTransaction.prepareUpdateRecordCmd(SFI_CONTRACTS, (byte) 2, contract, "Contract");
+
+            Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+            Assert.assertTrue(poTransaction.isSuccessful());
+            Assert.assertTrue(poTransaction.wasRatified());
+
+            Assert.assertEquals(INITIAL_BALANCE - n * (n + 1) / 2,
+                    po.getCounterValue(SFI_COUNTERS, 1));
+            Assert.assertEquals(n, po.getRecord(SFI_EVENT_LOG, 1)[0]);
+            Assert.assertEquals(n, po.getRecord(SFI_CONTRACTS, 2)[0]);
+            Assert.assertEquals(transactionCounter - n, po.getTransactionCounter());
+            Assert.assertTrue(po.isRatified());
+        }
+        /* the older event log records were shifted */
+        Assert.assertEquals(19, po.getRecord(SFI_EVENT_LOG, 2)[0]);
+        Assert.assertEquals(18, po.getRecord(SFI_EVENT_LOG, 3)[0]);
+    }
+
+    /**
+     * Selects the PO, opens a session reading the counters then prepares a debit of the first
+     * counter and the appending of an event log record
+     */
+    private PoTransaction openSessionAndPrepareDebit(SecuritySettings securitySettings,
+            int eventNumber, int amount) throws Exception {
+        SeSelection seSelection = new SeSelection();
+        seSelection.prepareSelection(new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(AID),
+                                PoSelector.InvalidatedPo.REJECT),
+                        "PO"),
+                ChannelState.KEEP_OPEN));
+        CalypsoPo calypsoPo = (CalypsoPo) seSelection.processExplicitSelection(poReader)
+                .getActiveSelection().getMatchingSe();
+        Assert.assertEquals(SERIAL_NUMBER,
+                ByteArrayUtil.toHex(calypsoPo.getApplicationSerialNumber()));
+
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, securitySettings);
+        int readIndex = poTransaction.prepareReadRecordsCmd(SFI_COUNTERS,
+                ReadDataStructure.SINGLE_COUNTER, (byte) 1, "Counters");
+        Assert.assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0, (byte) 0));
+        int balance = ((ReadRecordsRespPars) poTransaction.getResponseParser(readIndex))
+                .getCounters().get(1);
+        Assert.assertEquals(po.getCounterValue(SFI_COUNTERS, 1), balance);
+
+        byte[] event = new byte[RECORD_SIZE];
+        event[0] = (byte) eventNumber;
+        poTransaction.prepareDecreaseCmd(SFI_COUNTERS, (byte) 1, amount, "Debit");
+        poTransaction.prepareAppendRecordCmd(SFI_EVENT_LOG, event, "EventLog");
+        return poTransaction;
+    }
+
+    private static String statusWord(byte[] response) {
+        return ByteArrayUtil.toHex(response, response.length - 2, 2);
+    }
+}
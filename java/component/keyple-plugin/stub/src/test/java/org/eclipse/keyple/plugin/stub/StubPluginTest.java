@@ -309,4 +309,35 @@ public class StubPluginTest extends BaseStubTest {
         Assert.assertEquals(0, readerConnected.getCount());
         Assert.assertEquals(0, readerDisconnected.getCount());
     }
+
+    /**
+     * Plug and unplug a reader, the events are raised without waiting for the monitoring period
+     */
+    @Test
+    public void testG_PlugUnplugReaderEventLatency()
+            throws InterruptedException, KeypleReaderException {
+        final String READER_NAME = "testG_PlugUnplugReaderEventLatency";
+        final CountDownLatch readerConnected = new CountDownLatch(1);
+        final CountDownLatch readerDisconnected = new CountDownLatch(1);
+
+        stubPlugin.addObserver(new ObservablePlugin.PluginObserver() {
+            @Override
+            public void update(PluginEvent event) {
+                if (event.getEventType() == PluginEvent.EventType.READER_CONNECTED) {
+                    readerConnected.countDown();
+                } else {
+                    readerDisconnected.countDown();
+                }
+            }
+        });
+        /* let the monitoring thread reach its wait */
+        Thread.sleep(100);
+
+        /* the monitoring period is one second */
+        stubPlugin.plugStubReader(READER_NAME, false);
+        Assert.assertTrue(readerConnected.await(500, TimeUnit.MILLISECONDS));
+
+        stubPlugin.unplugStubReader(READER_NAME, false);
+        Assert.assertTrue(readerDisconnected.await(500, TimeUnit.MILLISECONDS));
+    }
 }
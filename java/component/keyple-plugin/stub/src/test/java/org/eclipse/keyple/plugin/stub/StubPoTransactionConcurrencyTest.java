@@ -0,0 +1,420 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import static org.eclipse.keyple.calypso.command.sam.SamRevision.C1;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.metrics.HistogramSnapshot;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs several Calypso secure sessions in parallel, each one with its own pair of PO/SAM
+ * {@link StubReader}.
+ * <p>
+ * Each stub PO/SAM pair is personalized with its own serial number, challenges, record content and
+ * signatures. The stub SAM only knows the digest commands matching its own PO, so any mix of digest
+ * data between two concurrent sessions makes the SAM fail and the session closing is rejected.
+ */
+public class StubPoTransactionConcurrencyTest {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(StubPoTransactionConcurrencyTest.class);
+
+    private static final int N_SESSIONS = 16;
+    private static final int N_TRANSACTIONS = 20;
+
+    private static final String AID = "315449432E49434131";
+    private static final byte SFI_EVENT_LOG = (byte) 0x08;
+    private static final byte RECORD_NUMBER_1 = (byte) 0x01;
+
+    @Test
+    public void parallelSessions_produceCorrectDigests() throws Exception {
+        runParallelSessions(false, false);
+    }
+
+    @Test
+    public void parallelSessions_withDigestUpdateMultiple() throws Exception {
+        runParallelSessions(true, false);
+    }
+
+    @Test
+    public void parallelSessions_withDigestPipelining() throws Exception {
+        runParallelSessions(false, true);
+    }
+
+    @Test
+    public void parallelSessions_withDigestUpdateMultipleAndPipelining() throws Exception {
+        runParallelSessions(true, true);
+    }
+
+    private void runParallelSessions(final boolean digestUpdateMultiple,
+            final boolean digestPipelining) throws Exception {
+        final TransactionMetrics transactionMetrics = new TransactionMetrics();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final CountDownLatch doneSignal = new CountDownLatch(N_SESSIONS);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        for (int i = 0; i < N_SESSIONS; i++) {
+            final int index = i;
+            Thread thread = new Thread("po-transaction-" + index) {
+                public void run() {
+                    try {
+                        startSignal.await();
+                        runTransactions(index, new IndexedStubSam(index, digestUpdateMultiple),
+                                digestUpdateMultiple, digestPipelining, false,
+                                transactionMetrics);
+                    } catch (Throwable t) {
+                        logger.error("Session {} failed", index, t);
+                        errors.add(t);
+                    } finally {
+                        doneSignal.countDown();
+                    }
+                }
+            };
+            thread.start();
+        }
+
+        startSignal.countDown();
+
+        Assert.assertTrue("Sessions did not complete in time",
+                doneSignal.await(60, TimeUnit.SECONDS));
+        Assert.assertTrue("Failed sessions: " + errors, errors.isEmpty());
+
+        /* the timelines of all the transactions are aggregated */
+        Assert.assertEquals(N_SESSIONS * N_TRANSACTIONS,
+                transactionMetrics.getTransactionSnapshot().getCount());
+        Assert.assertEquals(0, transactionMetrics.getFailedTransactionCount());
+        Assert.assertEquals(N_SESSIONS * N_TRANSACTIONS, transactionMetrics
+                .getPhaseSnapshot(TransactionPhase.SAM_AUTHENTICATE).getCount());
+        Assert.assertEquals(N_SESSIONS * N_TRANSACTIONS * 2,
+                transactionMetrics.getPhaseApduCount(TransactionPhase.PO_CLOSE_SESSION));
+        Assert.assertEquals(N_SESSIONS, transactionMetrics
+                .getPhaseSnapshotsByReader(TransactionPhase.SAM_DIGEST).size());
+        /* all the POs have the same type */
+        Map<String, HistogramSnapshot> openSessionByPoType =
+                transactionMetrics.getPhaseSnapshotsByPoType(TransactionPhase.PO_OPEN_SESSION);
+        Assert.assertEquals(1, openSessionByPoType.size());
+        Assert.assertEquals(N_SESSIONS * N_TRANSACTIONS,
+                openSessionByPoType.values().iterator().next().getCount());
+    }
+
+    @Test
+    public void prefetchedChallenge_diversificationAtClosing() throws Exception {
+        checkPrefetchedChallengeSamCommands(false);
+    }
+
+    @Test
+    public void prefetchedChallenge_diversificationWithDigestPipelining() throws Exception {
+        checkPrefetchedChallengeSamCommands(true);
+    }
+
+    private void checkPrefetchedChallengeSamCommands(boolean digestPipelining) throws Exception {
+        IndexedStubSam sam = new IndexedStubSam(N_SESSIONS, false);
+
+        runTransactions(N_SESSIONS, sam, false, digestPipelining, true, null);
+
+        /*
+         * INS of the SAM commands of each session: Get Challenge, Select Diversifier, Digest Init,
+         * Digest Update (x2), Digest Close, Digest Authenticate
+         */
+        StringBuilder expectedSamCommands = new StringBuilder();
+        for (int n = 0; n < N_TRANSACTIONS; n++) {
+            expectedSamCommands.append("84148A8C8C8E82");
+        }
+        Assert.assertEquals(expectedSamCommands.toString(), sam.getInstructions());
+    }
+
+    /**
+     * Plugs a dedicated PO/SAM pair and operates N_TRANSACTIONS complete secure sessions
+     */
+    private static void runTransactions(int index, IndexedStubSam sam,
+            boolean digestUpdateMultiple, boolean digestPipelining, boolean prefetchChallenge,
+            TransactionMetrics transactionMetrics) throws Exception {
+        StubReader poReader = plugPoReader(index);
+        SamResource samResource = plugSam(index, sam);
+
+        for (int n = 0; n < N_TRANSACTIONS; n++) {
+            if (prefetchChallenge) {
+                /* the SAM challenge is retrieved during the PO selection */
+                samResource.prefetchChallenge((byte) 4);
+            }
+
+            CalypsoPo calypsoPo = selectPo(poReader, index);
+
+            SecuritySettings securitySettings = new SecuritySettings();
+            securitySettings.setDigestUpdateMultipleAllowed(digestUpdateMultiple);
+            securitySettings.setDigestPipeliningAllowed(digestPipelining);
+            securitySettings.setTimelineListener(transactionMetrics);
+            PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                    samResource, securitySettings);
+
+            int readIndex = poTransaction.prepareReadRecordsCmd(SFI_EVENT_LOG,
+                    ReadDataStructure.SINGLE_RECORD_DATA, RECORD_NUMBER_1, "EventLog");
+
+            Assert.assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                    PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0, (byte) 0));
+
+            byte[] eventLog = ((ReadRecordsRespPars) poTransaction.getResponseParser(readIndex))
+                    .getRecords().get((int) RECORD_NUMBER_1);
+            Assert.assertEquals(IndexedStubPo.eventLog(index), ByteArrayUtil.toHex(eventLog));
+
+            if (digestPipelining) {
+                /* the digest of the opening exchanges is computed before the closing */
+                long deadline = System.currentTimeMillis() + 5000;
+                while (!sam.getInstructions().endsWith("8C")
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                Assert.assertTrue(sam.getInstructions().endsWith("8C"));
+            }
+
+            Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+            Assert.assertTrue(poTransaction.isSuccessful());
+
+            checkTimeline(poTransaction.getTimeline(), digestUpdateMultiple, prefetchChallenge);
+        }
+    }
+
+    @Test
+    public void reusedTransaction_timelinePerSession() throws Exception {
+        int index = N_SESSIONS + 1;
+        StubReader poReader = plugPoReader(index);
+        SamResource samResource = plugSam(index, new IndexedStubSam(index, false));
+        CalypsoPo calypsoPo = selectPo(poReader, index);
+
+        final List<TransactionTimeline> timelines = new ArrayList<TransactionTimeline>();
+        SecuritySettings securitySettings = new SecuritySettings();
+        securitySettings.setTimelineListener(new TransactionTimelineListener() {
+            @Override
+            public void onTransactionCompleted(TransactionTimeline timeline) {
+                timelines.add(timeline);
+            }
+        });
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, securitySettings);
+        TransactionTimeline firstTimeline = poTransaction.getTimeline();
+        firstTimeline.recordPhase(TransactionPhase.PO_SELECTION, System.nanoTime(), 0, 1);
+
+        /* first session: Open Secure Session + Read Record */
+        poTransaction.prepareReadRecordsCmd(SFI_EVENT_LOG, ReadDataStructure.SINGLE_RECORD_DATA,
+                RECORD_NUMBER_1, "EventLog");
+        Assert.assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0, (byte) 0));
+        Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+
+        /* second session: Open Secure Session only */
+        Assert.assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0, (byte) 0));
+        Assert.assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+
+        Assert.assertEquals(2, timelines.size());
+        Assert.assertSame(firstTimeline, timelines.get(0));
+        Assert.assertSame(poTransaction.getTimeline(), timelines.get(1));
+        Assert.assertEquals(1, timelines.get(0).getApduCount(TransactionPhase.PO_SELECTION));
+        Assert.assertEquals(2, timelines.get(0).getApduCount(TransactionPhase.PO_OPEN_SESSION));
+        Assert.assertEquals(0, timelines.get(1).getApduCount(TransactionPhase.PO_SELECTION));
+        Assert.assertEquals(1, timelines.get(1).getApduCount(TransactionPhase.PO_OPEN_SESSION));
+        for (TransactionTimeline timeline : timelines) {
+            Assert.assertTrue(timeline.isSuccessful());
+            Assert.assertEquals(2, timeline.getApduCount(TransactionPhase.PO_CLOSE_SESSION));
+            Assert.assertEquals(1, timeline.getApduCount(TransactionPhase.SAM_AUTHENTICATE));
+        }
+    }
+
+    /**
+     * Plugs the reader of the PO having the provided index
+     */
+    private static StubReader plugPoReader(int index) {
+        StubReader poReader = new StubReader("poReader-" + index);
+        poReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        poReader.insertSe(new IndexedStubPo(index));
+        return poReader;
+    }
+
+    /**
+     * Plugs the reader of a SAM and selects it
+     */
+    private static SamResource plugSam(int index, IndexedStubSam sam) throws Exception {
+        StubReader samReader = new StubReader("samReader-" + index);
+        samReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO7816_3));
+        samReader.insertSe(sam);
+
+        SeSelection samSelection = new SeSelection();
+        samSelection.prepareSelection(new SamSelectionRequest(
+                new SamSelector(C1, null, "SAM " + index), ChannelState.KEEP_OPEN));
+        CalypsoSam calypsoSam = (CalypsoSam) samSelection.processExplicitSelection(samReader)
+                .getActiveSelection().getMatchingSe();
+        return new SamResource(samReader, calypsoSam);
+    }
+
+    /**
+     * Selects the PO having the provided index
+     */
+    private static CalypsoPo selectPo(StubReader poReader, int index) throws Exception {
+        SeSelection seSelection = new SeSelection();
+        seSelection.prepareSelection(new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(AID),
+                                PoSelector.InvalidatedPo.REJECT),
+                        "PO " + index),
+                ChannelState.KEEP_OPEN));
+        return (CalypsoPo) seSelection.processExplicitSelection(poReader).getActiveSelection()
+                .getMatchingSe();
+    }
+
+    /**
+     * Checks the phases recorded during a secure session reading one record
+     */
+    private static void checkTimeline(TransactionTimeline timeline, boolean digestUpdateMultiple,
+            boolean prefetchChallenge) {
+        Assert.assertTrue(timeline.isCompleted());
+        Assert.assertTrue(timeline.isSuccessful());
+        /* Open Secure Session + Read Record */
+        Assert.assertEquals(2, timeline.getApduCount(TransactionPhase.PO_OPEN_SESSION));
+        /* Close Secure Session + ratification */
+        Assert.assertEquals(2, timeline.getApduCount(TransactionPhase.PO_CLOSE_SESSION));
+        Assert.assertEquals(4, timeline.getPoApduCount());
+        /* Select Diversifier + Get Challenge, unless the challenge was pre-fetched */
+        Assert.assertEquals(prefetchChallenge ? 0 : 2,
+                timeline.getApduCount(TransactionPhase.SAM_CHALLENGE));
+        /* (Select Diversifier +) Digest Init + Digest Update(s) + Digest Close */
+        Assert.assertEquals((prefetchChallenge ? 1 : 0) + (digestUpdateMultiple ? 3 : 4),
+                timeline.getApduCount(TransactionPhase.SAM_DIGEST));
+        Assert.assertEquals(1, timeline.getApduCount(TransactionPhase.SAM_AUTHENTICATE));
+        Assert.assertTrue(timeline.getTotalNanos() >= timeline.getDurationNanos(
+                TransactionPhase.PO_OPEN_SESSION)
+                + timeline.getDurationNanos(TransactionPhase.PO_CLOSE_SESSION));
+    }
+
+    private static String hexIndex(int index) {
+        return String.format("%02X", index);
+    }
+
+    /**
+     * Stub Calypso PO personalized with an index
+     */
+    private static final class IndexedStubPo extends StubSecureElement {
+        private final String index;
+
+        IndexedStubPo(int index) {
+            this.index = hexIndex(index);
+            /* Select Application */
+            addHexCommand("00A4 0400 09 " + AID + " 00", "6F238409" + AID
+                    + "A516BF0C13C708 00000000112233" + this.index + " 53070A3C23121410019000");
+            /* Open Secure Session V3.1 */
+            addHexCommand("008A030104C1C2C3" + this.index + "00",
+                    openSessionData(this.index) + "9000");
+            /* Read Records - EventLog (SFI=08, recnbr=1)) */
+            addHexCommand("00B2014400", eventLog(index) + "9000");
+            /* Close Secure Session, no ratification asked */
+            addHexCommand("008E000004050607" + this.index + "00", "010203" + this.index + "9000");
+            /* Ratification */
+            addHexCommand("00B2000000", "6B00");
+        }
+
+        static String openSessionData(String index) {
+            return "030830" + index
+                    + "00307E1D24B928480800000606F000120000000000000000000000000000000000";
+        }
+
+        static String eventLog(int index) {
+            return "00112233445566778899AABBCCDDEEFF00112233445566778899AABB" + hexIndex(index);
+        }
+
+        @Override
+        public byte[] getATR() {
+            return ByteArrayUtil.fromHex("3B8880010000000000718100F9");
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO14443_4";
+        }
+    }
+
+    /**
+     * Stub Calypso SAM only able to compute the digest of the PO having the same index, with
+     * either Digest Update or Digest Update Multiple commands
+     */
+    private static final class IndexedStubSam extends StubSecureElement {
+        private final String index;
+        private final StringBuffer instructions = new StringBuffer();
+
+        IndexedStubSam(int index, boolean digestUpdateMultiple) {
+            this.index = hexIndex(index);
+            /* Select Diversifier */
+            addHexCommand("8014 0000 08 00000000112233" + this.index, "9000");
+            /* Get Challenge */
+            addHexCommand("8084000004", "C1C2C3" + this.index + "9000");
+            /* Digest Init */
+            addHexCommand("808A00FF27307E" + IndexedStubPo.openSessionData(this.index), "9000");
+            if (digestUpdateMultiple) {
+                /* Digest Update Multiple (Read Record command and response) */
+                addHexCommand("808C800026" + "0500B2014400" + "1F" + IndexedStubPo.eventLog(index)
+                        + "9000", "9000");
+            } else {
+                /* Digest Update (Read Record command) */
+                addHexCommand("808C00000500B2014400", "9000");
+                /* Digest Update (Read Record response) */
+                addHexCommand("808C00001F" + IndexedStubPo.eventLog(index) + "9000", "9000");
+            }
+            /* Digest Close */
+            addHexCommand("808E000004", "050607" + this.index + "9000");
+            /* Digest Authenticate */
+            addHexCommand("8082000004010203" + this.index, "9000");
+        }
+
+        @Override
+        public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+            instructions.append(String.format("%02X", apduIn[1]));
+            return super.processApdu(apduIn);
+        }
+
+        /**
+         * @return the INS bytes of all the commands received
+         */
+        String getInstructions() {
+            return instructions.toString();
+        }
+
+        @Override
+        public byte[] getATR() {
+            return ByteArrayUtil.fromHex("3B3F9600805A0080C1200000123456" + index + "829000");
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO7816_3";
+        }
+    }
+}
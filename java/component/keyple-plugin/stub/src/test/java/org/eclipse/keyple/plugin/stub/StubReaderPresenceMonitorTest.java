@@ -0,0 +1,123 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.seproxy.event.ObservableReader;
+import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
+import org.eclipse.keyple.core.seproxy.plugin.SePresenceMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Observes many {@link StubReader} with a single {@link SePresenceMonitor}
+ */
+public class StubReaderPresenceMonitorTest {
+
+    private static final int N_READERS = 64;
+
+    @Test
+    public void manyReaders_constantThreadCount() throws Exception {
+        SePresenceMonitor monitor = new SePresenceMonitor(2, 20);
+        final CountDownLatch insertions = new CountDownLatch(N_READERS);
+        final CountDownLatch removals = new CountDownLatch(N_READERS);
+        ObservableReader.ReaderObserver observer = new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                if (event.getEventType() == ReaderEvent.EventType.SE_INSERTED) {
+                    insertions.countDown();
+                } else if (event.getEventType() == ReaderEvent.EventType.SE_REMOVAL) {
+                    removals.countDown();
+                }
+            }
+        };
+
+        int initialThreadCount = Thread.activeCount();
+
+        List<StubReader> readers = new ArrayList<StubReader>();
+        for (int i = 0; i < N_READERS; i++) {
+            StubReader reader = new StubReader("presenceMonitorReader-" + i);
+            reader.setSePresenceMonitor(monitor);
+            reader.addObserver(observer);
+            readers.add(reader);
+        }
+        Assert.assertEquals(N_READERS, monitor.getMonitoredReaderCount());
+
+        for (StubReader reader : readers) {
+            reader.insertSe(StubReaderTest.hoplinkSE());
+        }
+        Assert.assertTrue(insertions.await(5, TimeUnit.SECONDS));
+
+        for (StubReader reader : readers) {
+            reader.removeSe();
+        }
+        Assert.assertTrue(removals.await(5, TimeUnit.SECONDS));
+
+        /* at most the threads of the monitor have been created */
+        Assert.assertTrue(Thread.activeCount() <= initialThreadCount + monitor.getThreadCount()
+                + monitor.getNotificationThreadCount());
+
+        for (StubReader reader : readers) {
+            reader.removeObserver(observer);
+        }
+        Assert.assertEquals(0, monitor.getMonitoredReaderCount());
+    }
+
+    @Test
+    public void slowObserver_otherReadersAreNotified() throws Exception {
+        SePresenceMonitor monitor = new SePresenceMonitor(1, 2, 20);
+        final CountDownLatch slowObserverCalled = new CountDownLatch(1);
+        final CountDownLatch slowObserverReleased = new CountDownLatch(1);
+        final CountDownLatch otherInsertion = new CountDownLatch(1);
+
+        StubReader slowReader = new StubReader("presenceMonitorSlowReader");
+        slowReader.setSePresenceMonitor(monitor);
+        ObservableReader.ReaderObserver slowObserver = new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                slowObserverCalled.countDown();
+                try {
+                    slowObserverReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slowReader.addObserver(slowObserver);
+
+        StubReader otherReader = new StubReader("presenceMonitorOtherReader");
+        otherReader.setSePresenceMonitor(monitor);
+        ObservableReader.ReaderObserver otherObserver = new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                if (event.getEventType() == ReaderEvent.EventType.SE_INSERTED) {
+                    otherInsertion.countDown();
+                }
+            }
+        };
+        otherReader.addObserver(otherObserver);
+
+        slowReader.insertSe(StubReaderTest.hoplinkSE());
+        Assert.assertTrue(slowObserverCalled.await(5, TimeUnit.SECONDS));
+
+        /* the single checking thread is not blocked by the slow observer */
+        otherReader.insertSe(StubReaderTest.hoplinkSE());
+        Assert.assertTrue(otherInsertion.await(5, TimeUnit.SECONDS));
+
+        slowObserverReleased.countDown();
+        slowReader.removeObserver(slowObserver);
+        otherReader.removeObserver(otherObserver);
+    }
+}
@@ -15,6 +15,8 @@ package org.eclipse.keyple.plugin.stub;
 
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.calypso.command.PoClass;
 import org.eclipse.keyple.calypso.command.po.builder.IncreaseCmdBuild;
@@ -410,6 +412,70 @@ public class StubReaderTest {
     }
 
 
+    @Test
+    public void transmitAsync_Hoplink_Successful() throws Exception {
+        // init Request
+        SeRequestSet requests = getRequestIsoDepSetSample();
+
+        // init SE
+        reader.insertSe(hoplinkSE());
+
+        // add Protocol flag
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+
+        // send the selection request
+        selectSe(reader);
+
+        // test
+        final CountDownLatch lock = new CountDownLatch(1);
+        final List<SeResponseSet> callbackResponses = new ArrayList<SeResponseSet>();
+        Future<SeResponseSet> future =
+                reader.transmitSetAsync(requests, new TransmitCallback<SeResponseSet>() {
+                    @Override
+                    public void onTransmitted(SeResponseSet response,
+                            KeypleReaderException exception) {
+                        Assert.assertNull(exception);
+                        callbackResponses.add(response);
+                        lock.countDown();
+                    }
+                });
+
+        // assert
+        SeResponseSet seResponse = future.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(seResponse.getSingleResponse().getApduResponses().get(0).isSuccessful());
+        Assert.assertTrue(lock.await(5, TimeUnit.SECONDS));
+        Assert.assertSame(seResponse, callbackResponses.get(0));
+    }
+
+    @Test
+    public void transmitAsync_no_response() throws Exception {
+        // init Request
+        SeRequestSet requests = getNoResponseRequest();
+
+        // init SE
+        reader.insertSe(noApduResponseSE());
+
+        // add Protocol flag
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+
+        // send the selection request
+        selectSe(reader);
+
+        // test
+        try {
+            reader.transmitSetAsync(requests).get(5, TimeUnit.SECONDS);
+            Assert.fail("An exception should have been thrown");
+        } catch (ExecutionException e) {
+            // assert
+            Assert.assertTrue(e.getCause() instanceof KeypleReaderException);
+        }
+    }
+
+
     // @Test
     // public void transmit_null_Selection() throws KeypleReaderException {
     // // init SE
@@ -667,6 +733,72 @@ public class StubReaderTest {
         }
     }
 
+    @Test
+    public void transmit_selection_same_aid_not_reselected()
+            throws KeypleReaderException, InterruptedException {
+        final List<String> apdus = new ArrayList<String>();
+        final StubSecureElement hoplinkSE = hoplinkSE();
+
+        // init SE, recording the exchanged APDUs
+        reader.insertSe(new StubSecureElement() {
+            @Override
+            public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                apdus.add(ByteArrayUtil.toHex(apduIn));
+                return hoplinkSE.processApdu(apduIn);
+            }
+
+            @Override
+            public byte[] getATR() {
+                return hoplinkSE.getATR();
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return hoplinkSE.getSeProcotol();
+            }
+        });
+
+        // add Protocol flag
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+
+        SeSelector seSelector = new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                new SeSelector.AtrFilter("3B.*"),
+                new SeSelector.AidSelector(
+                        new SeSelector.AidSelector.IsoAid("A000000291A000000191"), null),
+                null);
+        List<ApduRequest> readRecord = Arrays.asList(new ReadRecordsCmdBuild(PoClass.ISO,
+                (byte) 0x14, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x20,
+                "").getApduRequest());
+
+        Set<SeRequest> seRequests = new LinkedHashSet<SeRequest>();
+        /* selection only */
+        seRequests.add(new SeRequest(seSelector, new ArrayList<ApduRequest>(),
+                ChannelState.CLOSE_AFTER));
+        /* same application, the previous selection is reused */
+        seRequests.add(new SeRequest(seSelector, readRecord, ChannelState.CLOSE_AFTER));
+        /* same application but an APDU has been exchanged, new selection */
+        seRequests.add(new SeRequest(seSelector, readRecord, ChannelState.CLOSE_AFTER));
+
+        SeResponseSet seResponseSet = reader.transmitSet(new SeRequestSet(seRequests));
+
+        Assert.assertEquals(3, seResponseSet.getResponses().size());
+        for (SeResponse seResponse : seResponseSet.getResponses()) {
+            Assert.assertTrue(seResponse.getSelectionStatus().hasMatched());
+        }
+        Assert.assertTrue(seResponseSet.getResponses().get(1).getApduResponses().get(0)
+                .isSuccessful());
+        Assert.assertTrue(seResponseSet.getResponses().get(2).getApduResponses().get(0)
+                .isSuccessful());
+        /* select, read record, select, read record */
+        Assert.assertEquals(4, apdus.size());
+        Assert.assertTrue(apdus.get(0).startsWith("00A40400"));
+        Assert.assertTrue(apdus.get(1).startsWith("00B2"));
+        Assert.assertTrue(apdus.get(2).startsWith("00A40400"));
+        Assert.assertTrue(apdus.get(3).startsWith("00B2"));
+    }
+
 
     /*
      * NAME and PARAMETERS
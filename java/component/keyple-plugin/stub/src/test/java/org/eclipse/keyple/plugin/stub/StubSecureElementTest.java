@@ -0,0 +1,204 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.NoStackTraceThrowable;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StubSecureElementTest {
+
+    private static final byte INS_DECREASE = (byte) 0x30;
+    private static final byte[] READ_COMMAND = ByteArrayUtil.fromHex("00B2014400");
+    private static final byte[] DECREASE_COMMAND = ByteArrayUtil.fromHex("003001080300000300");
+
+    /**
+     * SE with a scripted Read Record and a stateful Decrease counter, lost on power loss
+     */
+    private static final class CounterStubSe extends StubSecureElement {
+        int counter = 100;
+        boolean sessionOpen = true;
+
+        CounterStubSe() {
+            addHexCommand("00B2 0144 00", "0102039000");
+            addCommandHandler(INS_DECREASE, new StubCommandHandler() {
+                @Override
+                public byte[] processApdu(byte[] apduIn) {
+                    counter -= apduIn[7] & 0xFF;
+                    return new byte[] {0, 0, (byte) counter, (byte) 0x90, 0};
+                }
+            });
+        }
+
+        @Override
+        protected void resetVolatileState() {
+            sessionOpen = false;
+        }
+
+        @Override
+        public byte[] getATR() {
+            return ByteArrayUtil.fromHex("3B8880010000000000718100F9");
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO14443_4";
+        }
+    }
+
+    @Test
+    public void scriptedCommands() throws Exception {
+        CounterStubSe se = new CounterStubSe();
+        byte[] response = se.processApdu(READ_COMMAND);
+        Assert.assertEquals("0102039000", ByteArrayUtil.toHex(response));
+
+        /* the returned response is a copy */
+        response[0] = 0;
+        Assert.assertEquals("0102039000", ByteArrayUtil.toHex(se.processApdu(READ_COMMAND)));
+
+        se.addCommand(READ_COMMAND, ByteArrayUtil.fromHex("6A82"));
+        Assert.assertEquals("6A82", ByteArrayUtil.toHex(se.processApdu(READ_COMMAND)));
+
+        se.removeHexCommand("00B2 0144 00");
+        try {
+            se.processApdu(READ_COMMAND);
+            Assert.fail("No response expected");
+        } catch (KeypleIOReaderException e) {
+            /* expected */
+        }
+    }
+
+    @Test
+    public void statefulHandler() throws Exception {
+        CounterStubSe se = new CounterStubSe();
+        Assert.assertEquals("0000619000", ByteArrayUtil.toHex(se.processApdu(DECREASE_COMMAND)));
+        Assert.assertEquals("00005E9000", ByteArrayUtil.toHex(se.processApdu(DECREASE_COMMAND)));
+        Assert.assertEquals(94, se.counter);
+
+        se.openPhysicalChannel();
+        se.closePhysicalChannel();
+        Assert.assertFalse(se.sessionOpen);
+    }
+
+    @Test
+    public void latency() throws Exception {
+        CounterStubSe se = new CounterStubSe();
+        se.setLatency(StubLatency.fixed(TimeUnit.MILLISECONDS.toNanos(1)));
+        se.setLatency(INS_DECREASE, StubLatency.fixed(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        long timeStamp = System.nanoTime();
+        se.processApdu(READ_COMMAND);
+        long readNanos = System.nanoTime() - timeStamp;
+        timeStamp = System.nanoTime();
+        se.processApdu(DECREASE_COMMAND);
+        long decreaseNanos = System.nanoTime() - timeStamp;
+
+        Assert.assertTrue(readNanos >= TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertTrue(decreaseNanos >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void tearing() throws Exception {
+        CounterStubSe se = new CounterStubSe();
+        se.openPhysicalChannel();
+        se.addFault(new StubFault(StubFault.Type.TEARING_AFTER_PROCESSING, INS_DECREASE, 1, 1));
+        try {
+            se.processApdu(DECREASE_COMMAND);
+            Assert.fail("Tearing expected");
+        } catch (KeypleIOReaderException e) {
+            /* expected */
+        }
+        /* the command has been processed but the power has been lost */
+        Assert.assertEquals(97, se.counter);
+        Assert.assertFalse(se.isPhysicalChannelOpen());
+        Assert.assertFalse(se.sessionOpen);
+
+        /* the fault occurs only once */
+        se.processApdu(DECREASE_COMMAND);
+        Assert.assertEquals(94, se.counter);
+
+        se.addFault(new StubFault(StubFault.Type.TEARING_BEFORE_PROCESSING, null, 1));
+        try {
+            se.processApdu(DECREASE_COMMAND);
+            Assert.fail("Tearing expected");
+        } catch (KeypleIOReaderException e) {
+            /* expected */
+        }
+        Assert.assertEquals(94, se.counter);
+    }
+
+    @Test
+    public void removal() throws Exception, NoStackTraceThrowable {
+        StubReader reader = new StubReader("StubSecureElementTest");
+        CounterStubSe se = new CounterStubSe();
+        se.addFault(new StubFault(StubFault.Type.REMOVAL, INS_DECREASE, 1));
+        reader.insertSe(se);
+        Assert.assertTrue(reader.isSePresent());
+
+        reader.transmitApdu(READ_COMMAND);
+        try {
+            reader.transmitApdu(DECREASE_COMMAND);
+            Assert.fail("Removal expected");
+        } catch (KeypleIOReaderException e) {
+            /* expected */
+        }
+        Assert.assertEquals(100, se.counter);
+        Assert.assertFalse(reader.isSePresent());
+    }
+
+    @Test
+    public void thousandsOfConcurrentSes() throws Exception {
+        final int seCount = 2000;
+        final int apduCount = 20;
+        final List<CounterStubSe> ses = new ArrayList<CounterStubSe>();
+        for (int i = 0; i < seCount; i++) {
+            CounterStubSe se = new CounterStubSe();
+            se.setRandomSeed(i);
+            se.setLatency(StubLatency.logNormal(TimeUnit.MICROSECONDS.toNanos(200), 0.25));
+            ses.add(se);
+        }
+        /* many more SEs than threads, each SE being used by several threads at a time */
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        final AtomicInteger processedApdus = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < 64; t++) {
+            final int offset = t;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < seCount * apduCount / 64; i++) {
+                        ses.get((offset + i * 7) % seCount).processApdu(DECREASE_COMMAND);
+                        processedApdus.incrementAndGet();
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(seCount * apduCount, processedApdus.get());
+        int totalDecrease = 0;
+        for (CounterStubSe se : ses) {
+            totalDecrease += 100 - se.counter;
+        }
+        Assert.assertEquals(seCount * apduCount * 3, totalDecrease);
+    }
+}